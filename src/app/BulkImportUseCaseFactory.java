@@ -0,0 +1,34 @@
+package app;
+
+import interface_adapter.bulk_import.BulkImportController;
+import interface_adapter.bulk_import.BulkImportPresenter;
+import interface_adapter.bulk_import.BulkImportViewModel;
+import use_case.bulk_import.BulkImportDataAccessInterface;
+import use_case.bulk_import.BulkImportInputBoundary;
+import use_case.bulk_import.BulkImportInteractor;
+import use_case.bulk_import.BulkImportOutputBoundary;
+
+/**
+ * The factory for the bulk import use case.
+ * This class is used to create the controller for the bulk import use case.
+ */
+public class BulkImportUseCaseFactory {
+    private BulkImportUseCaseFactory() {
+    }
+
+    /**
+     * Creates a BulkImportController for the bulk import use case
+     *
+     * @param bulkImportViewModel      ViewModel the result of an import is shown in.
+     * @param userDataAccessObject    DAO for the bulk import use case.
+     * @return  the controller for the bulk import use case.
+     */
+    public static BulkImportController createBulkImportUseCase(
+            BulkImportViewModel bulkImportViewModel,
+            BulkImportDataAccessInterface userDataAccessObject) {
+        BulkImportOutputBoundary bulkImportOutputBoundary = new BulkImportPresenter(bulkImportViewModel);
+        BulkImportInputBoundary bulkImportInteractor = new BulkImportInteractor(bulkImportOutputBoundary,
+                userDataAccessObject);
+        return new BulkImportController(bulkImportInteractor);
+    }
+}
@@ -0,0 +1,35 @@
+package app;
+
+import interface_adapter.export_inventory.ExportInventoryController;
+import interface_adapter.export_inventory.ExportInventoryPresenter;
+import interface_adapter.export_inventory.ExportInventoryViewModel;
+import use_case.export_inventory.ExportInventoryDataAccessInterface;
+import use_case.export_inventory.ExportInventoryInputBoundary;
+import use_case.export_inventory.ExportInventoryInteractor;
+import use_case.export_inventory.ExportInventoryOutputBoundary;
+
+/**
+ * The factory for the export inventory use case.
+ * This class is used to create the controller for the export inventory use case.
+ */
+public class ExportInventoryUseCaseFactory {
+    private ExportInventoryUseCaseFactory() {
+    }
+
+    /**
+     * Creates an ExportInventoryController for the export inventory use case
+     *
+     * @param exportInventoryViewModel      ViewModel the result of an export is shown in.
+     * @param userDataAccessObject    DAO for the export inventory use case.
+     * @return  the controller for the export inventory use case.
+     */
+    public static ExportInventoryController createExportInventoryUseCase(
+            ExportInventoryViewModel exportInventoryViewModel,
+            ExportInventoryDataAccessInterface userDataAccessObject) {
+        ExportInventoryOutputBoundary exportInventoryOutputBoundary =
+                new ExportInventoryPresenter(exportInventoryViewModel);
+        ExportInventoryInputBoundary exportInventoryInteractor =
+                new ExportInventoryInteractor(exportInventoryOutputBoundary, userDataAccessObject);
+        return new ExportInventoryController(exportInventoryInteractor);
+    }
+}
@@ -1,8 +1,26 @@
 package app;
 
+import data_access.BinaryUserFileFormat;
+import data_access.CsvUserFileFormat;
 import data_access.FileUserDataAccessObject;
+import data_access.HistoryUserDataAccessObject;
+import data_access.InventoryHistory;
+import data_access.JdbcUserDataAccessObject;
+import data_access.JournalUserDataAccessObject;
+import data_access.LeaderUserDataAccessObject;
+import data_access.LsmUserDataAccessObject;
+import data_access.ShardedUserDataAccessObject;
+import data_access.SharedFileUserDataAccessObject;
+import data_access.UserDataAccessInterface;
+import data_access.UserFileConverter;
 import entities.UserFactory;
 import interface_adapter.ViewManagerModel;
+import interface_adapter.bulk_import.BulkImportController;
+import interface_adapter.bulk_import.BulkImportState;
+import interface_adapter.bulk_import.BulkImportViewModel;
+import interface_adapter.export_inventory.ExportInventoryController;
+import interface_adapter.export_inventory.ExportInventoryState;
+import interface_adapter.export_inventory.ExportInventoryViewModel;
 import interface_adapter.delete_fooditem.DeleteFoodItemViewModel;
 import interface_adapter.get_recipe.GetRecipeViewModel;
 import interface_adapter.get_shopping_list.GetShoppingListViewModel;
@@ -21,7 +39,11 @@ import view.ViewManager;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
 import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
     /**
@@ -53,13 +75,38 @@ public class Main {
         DeleteFoodItemViewModel deleteFoodItemViewModel = new DeleteFoodItemViewModel();
         RemoveExpiredViewModel removeExpiredViewModel = new RemoveExpiredViewModel();
 
-        FileUserDataAccessObject userDataAccessObject;
+        UserDataAccessInterface userDataAccessObject;
         try {
-            userDataAccessObject = new FileUserDataAccessObject("./users.csv", new UserFactory());
-        } catch (IOException e) {
+            if (Arrays.asList(args).contains("--jdbc")) {
+                userDataAccessObject = new JdbcUserDataAccessObject("jdbc:h2:./users", new UserFactory());
+            } else {
+                userDataAccessObject = createFileUserDataAccessObject(Arrays.asList(args));
+            }
+            if (Arrays.asList(args).contains("--history")) {
+                userDataAccessObject = new HistoryUserDataAccessObject(userDataAccessObject,
+                        new InventoryHistory("./history"));
+            }
+        } catch (IOException | SQLException e) {
             throw new RuntimeException(e);
         }
 
+        int exportIndex = Arrays.asList(args).indexOf("--export");
+        if (exportIndex >= 0 && exportIndex + 1 < args.length) {
+            // dump every inventory for other tools and exit without showing the views
+            ExportInventoryViewModel exportInventoryViewModel = new ExportInventoryViewModel();
+            ExportInventoryController exportInventoryController =
+                    ExportInventoryUseCaseFactory.createExportInventoryUseCase(exportInventoryViewModel,
+                            userDataAccessObject);
+            exportInventoryController.execute(args[exportIndex + 1]);
+            ExportInventoryState state = exportInventoryViewModel.getState();
+            if (state.getError() != null) {
+                System.err.println(state.getError());
+            } else {
+                System.out.println("Exported " + state.getItemCount() + " items.");
+            }
+            return;
+        }
+
         MainMenuController mainMenuController = MainMenuUseCaseFactory.createMainMenuUseCase(viewManagerModel, mainMenuViewModel, userDataAccessObject, new UserFactory());
         MainMenuView mainMenuView = MainMenuUseCaseFactory.create(viewManagerModel,
                 mainMenuViewModel, userDataAccessObject, new UserFactory(), removeExpiredViewModel);
@@ -78,9 +125,92 @@ public class Main {
         AddFoodItemView addFoodItemView = AddFoodItemUseCaseFactory.create(viewManagerModel, addFoodItemViewModel, mainMenuViewModel, mainMenuController, userDataAccessObject);
         views.add(addFoodItemView, addFoodItemView.viewName);
 
+        int importIndex = Arrays.asList(args).indexOf("--import");
+        if (importIndex >= 0 && importIndex + 1 < args.length) {
+            // the main menu creates the default user if it does not exist yet
+            mainMenuController.execute(mainMenuView.viewName);
+            BulkImportViewModel bulkImportViewModel = new BulkImportViewModel();
+            BulkImportController bulkImportController = BulkImportUseCaseFactory.createBulkImportUseCase(
+                    bulkImportViewModel, userDataAccessObject);
+            bulkImportController.execute(args[importIndex + 1]);
+            showImportResult(bulkImportViewModel.getState());
+        }
+
         viewManagerModel.setActiveView(mainMenuView.viewName);
         viewManagerModel.firePropertyChange();
 
         application.setVisible(true);
     }
+
+    /**
+     * Show the result of importing a file with --import.
+     * @param state the state of the bulk import use case after the import.
+     */
+    private static void showImportResult(BulkImportState state) {
+        if (state.getFileError() != null) {
+            JOptionPane.showMessageDialog(null, state.getFileError());
+            return;
+        }
+        StringBuilder message = new StringBuilder("Imported " + state.getImportedCount() + " items.");
+        List<String> lineErrors = state.getLineErrors();
+        int shown = Math.min(lineErrors.size(), 20);
+        for (String error : lineErrors.subList(0, shown)) {
+            message.append('\n').append(error);
+        }
+        if (lineErrors.size() > shown) {
+            message.append("\n... and ").append(lineErrors.size() - shown).append(" more invalid lines.");
+        }
+        JOptionPane.showMessageDialog(null, message.toString());
+    }
+
+    /**
+     * Create the file based data access object selected by the command-line arguments.
+     * @param args the command-line arguments.
+     * @return the data access object.
+     * @throws IOException if the user data files cannot be opened.
+     */
+    private static FileUserDataAccessObject createFileUserDataAccessObject(List<String> args) throws IOException {
+        FileUserDataAccessObject userDataAccessObject;
+        if (args.contains("--fast-restart")) {
+            // binary snapshot plus the journal of the changes after it, starting from users.csv the first time
+            File snapshot = new File("./users.bin");
+            File csv = new File("./users.csv");
+            if (!snapshot.exists() && csv.exists()) {
+                UserFileConverter.convert(csv, new CsvUserFileFormat(), snapshot, new BinaryUserFileFormat());
+            }
+            userDataAccessObject = new JournalUserDataAccessObject(snapshot.getPath(), new UserFactory());
+        } else if (args.contains("--journal")) {
+            userDataAccessObject = new JournalUserDataAccessObject("./users.csv", new UserFactory());
+        } else if (args.contains("--leader")) {
+            userDataAccessObject = new LeaderUserDataAccessObject("./users.csv", new UserFactory());
+        } else if (args.contains("--shared")) {
+            userDataAccessObject = new SharedFileUserDataAccessObject("./users.csv", new UserFactory());
+        } else if (args.contains("--lsm")) {
+            userDataAccessObject = new LsmUserDataAccessObject("./users-lsm", new UserFactory());
+        } else if (args.contains("--compressed")) {
+            userDataAccessObject = new FileUserDataAccessObject("./users.csv.z", new UserFactory());
+        } else if (args.contains("--single-file")) {
+            userDataAccessObject = new FileUserDataAccessObject("./users.csv", new UserFactory());
+        } else {
+            // one file per shard of users, so a change only rewrites its shard, starting from users.csv the first time
+            File shards = new File("./users");
+            File csv = new File("./users.csv");
+            if (!shards.exists() && csv.exists()) {
+                ShardedUserDataAccessObject.importFile(csv, shards.getPath());
+            }
+            if (args.contains("--lazy")) {
+                userDataAccessObject = new ShardedUserDataAccessObject(shards.getPath(), new UserFactory(), 4);
+            } else {
+                userDataAccessObject = new ShardedUserDataAccessObject(shards.getPath(), new UserFactory());
+            }
+        }
+        if (userDataAccessObject.getCorruptedBlocks() > 0) {
+            System.err.println("Skipped " + userDataAccessObject.getCorruptedBlocks() +
+                    " damaged blocks of the user data, the users in them were lost");
+        }
+        if (args.contains("--write-behind")) {
+            userDataAccessObject.enableWriteBehind(1000);
+        }
+        return userDataAccessObject;
+    }
 }
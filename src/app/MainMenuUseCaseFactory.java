@@ -1,6 +1,6 @@
 package app;
 
-import data_access.FileUserDataAccessObject;
+import data_access.UserDataAccessInterface;
 import entities.UserFactory;
 import interface_adapter.ViewManagerModel;
 import interface_adapter.main_menu.MainMenuController;
@@ -40,7 +40,7 @@ public class MainMenuUseCaseFactory {
     public static MainMenuView create(
             ViewManagerModel viewManagerModel,
             MainMenuViewModel mainMenuViewModel,
-            FileUserDataAccessObject dataAccessObject,
+            UserDataAccessInterface dataAccessObject,
             UserFactory userFactory,
             RemoveExpiredViewModel removeExpiredViewModel) {
         try {
@@ -0,0 +1,142 @@
+package data_access;
+
+import okhttp3.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The http client every call to the spoonacular api goes through. It keeps one OkHttpClient, so connections,
+ * TLS sessions and dispatcher threads are reused between calls instead of being set up for every call.
+ *
+ * It is safe to use from several threads, and the same client should be shared by everything that calls the
+ * api, see shared().
+ */
+public class ApiClient implements AutoCloseable {
+    public static final String DEFAULT_BASE_URL = "https://api.spoonacular.com";
+
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 8;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 5 * 60 * 1000;
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 15000;
+    public static final long DEFAULT_CALL_TIMEOUT_MILLIS = 20000;
+
+    private static volatile ApiClient shared;
+
+    private final String baseUrl;
+
+    private final OkHttpClient client;
+
+    /**
+     * Client for the spoonacular api with the default settings
+     */
+    public ApiClient() {
+        this(DEFAULT_BASE_URL, DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_MILLIS,
+                DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS, DEFAULT_CALL_TIMEOUT_MILLIS, true);
+    }
+
+    /**
+     * Client
+     *
+     * @param baseUrl   scheme, host and port the api is reached at, e.g. https://api.spoonacular.com
+     * @param maxIdleConnections    number of idle connections kept open for later calls
+     * @param keepAliveMillis   time an idle connection is kept open
+     * @param connectTimeoutMillis  maximum time to open a connection
+     * @param readTimeoutMillis maximum time to wait for data from the server, also used for writing
+     * @param callTimeoutMillis maximum time for a whole call, from connecting to reading the whole response
+     * @param http2 whether HTTP/2 is used when the server supports it, otherwise every call uses HTTP/1.1
+     */
+    public ApiClient(String baseUrl, int maxIdleConnections, long keepAliveMillis, long connectTimeoutMillis,
+                     long readTimeoutMillis, long callTimeoutMillis, boolean http2) {
+        this.baseUrl = baseUrl;
+        Dispatcher dispatcher = new Dispatcher();
+        // calls all go to one host, so allow as many at once as there are pooled connections
+        dispatcher.setMaxRequestsPerHost(Math.max(maxIdleConnections, 1));
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .callTimeout(callTimeoutMillis, TimeUnit.MILLISECONDS)
+                .protocols(http2 ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) :
+                        Collections.singletonList(Protocol.HTTP_1_1))
+                .build();
+    }
+
+    /**
+     * Get the client shared by everything that does not get one passed in, created with the default settings
+     * the first time it is needed
+     * @return the shared client
+     */
+    public static ApiClient shared() {
+        ApiClient res = shared;
+        if (res == null) {
+            synchronized (ApiClient.class) {
+                res = shared;
+                if (res == null) {
+                    res = new ApiClient();
+                    shared = res;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return scheme, host and port the api is reached at, without a trailing slash
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Send a GET request
+     * @param url   the url
+     * @return the body of the response
+     * @throws IOException  if the request fails, or the server answers with an error status
+     */
+    public String get(String url) throws IOException {
+        return execute(new Request.Builder().url(url).build());
+    }
+
+    /**
+     * Send a POST request
+     * @param url   the url
+     * @param body  body of the request
+     * @return the body of the response
+     * @throws IOException  if the request fails, or the server answers with an error status
+     */
+    public String post(String url, RequestBody body) throws IOException {
+        return execute(new Request.Builder().url(url).post(body).build());
+    }
+
+    private String execute(Request request) throws IOException {
+        // the response has to be closed, or its connection is not returned to the pool
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                // the body is an error message, e.g. for a wrong key or a used up quota, not an answer
+                throw new IOException("HTTP " + response.code() + " from " + request.url().encodedPath());
+            }
+            return response.body().string();
+        }
+    }
+
+    /**
+     * @return the number of open connections, in use or idle
+     */
+    public int getConnectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    /**
+     * Close the idle connections and stop the dispatcher threads
+     */
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,200 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.IngredientDictionary;
+import entities.InventorySnapshot;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Stores users in a compact binary format that is read through a memory mapped buffer, so loading does not have
+ * to split or parse any text.
+ *
+ * Layout (big endian):
+ * magic, version,
+ * dictionary size, then every ingredient and restriction name as byte length + UTF-8 bytes,
+ * user count, then every user as record length + user id + item count + items + restriction count +
+ * restrictions.
+ * An item is name id, expiration date as epoch day and amount, a restriction is name id and value.
+ *
+ * Name ids index the file's own dictionary. Ids in the IngredientDictionary only hold within one run of the
+ * program, so each name of the file is mapped to its IngredientDictionary id once while reading.
+ */
+public class BinaryUserFileFormat implements UserFileFormat {
+    public static final int MAGIC = 0x43484546;
+    public static final int VERSION = 1;
+
+    private static final int ITEM_BYTES = 12;
+    private static final int RESTRICTION_BYTES = 8;
+
+    /**
+     * Read every user from a binary file
+     *
+     * @param file  binary file to read
+     * @param userFactory   User factory to create the users
+     * @return the users in the file by their id
+     * @throws IOException  if the file cannot be read, is not in this format or is cut off
+     */
+    @Override
+    public Map<Integer, User> read(File file, UserFactory userFactory) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, file.toString(), userFactory);
+        }
+    }
+
+    /**
+     * Read every user from a stream holding the binary format
+     *
+     * @param in    stream to read, it is not closed
+     * @param userFactory   User factory to create the users
+     * @return the users in the stream by their id
+     * @throws IOException  if the stream cannot be read, is not in this format or is cut off
+     */
+    @Override
+    public Map<Integer, User> read(InputStream in, UserFactory userFactory) throws IOException {
+        return read(ByteBuffer.wrap(in.readAllBytes()), "stream", userFactory);
+    }
+
+    private Map<Integer, User> read(ByteBuffer buffer, String source, UserFactory userFactory) throws IOException {
+        Map<Integer, User> res = new HashMap<>();
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary user file: " + source);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary user file version " + version + ": " + source);
+            }
+
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                dictionary[i] = new String(name, StandardCharsets.UTF_8);
+            }
+            // ids of the names in the IngredientDictionary, looked up once per name instead of once per item
+            int[] nameIds = new int[dictionary.length];
+            Arrays.fill(nameIds, IngredientDictionary.UNKNOWN);
+
+            int numUsers = buffer.getInt();
+            for (int i = 0; i < numUsers; i++) {
+                int recordEnd = buffer.getInt();
+                recordEnd += buffer.position();
+                if (recordEnd > buffer.limit()) {
+                    throw new IOException("Truncated binary user file: " + source);
+                }
+
+                int userId = buffer.getInt();
+                User user = userFactory.create(new HashMap<>());
+                int numItems = buffer.getInt();
+                List<FoodItem> items = new ArrayList<>(numItems);
+                for (int j = 0; j < numItems; j++) {
+                    int index = buffer.getInt();
+                    if (nameIds[index] == IngredientDictionary.UNKNOWN) {
+                        nameIds[index] = IngredientDictionary.id(dictionary[index]);
+                    }
+                    LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+                    items.add(new FoodItem(nameIds[index], date.getYear(), date.getMonthValue(),
+                            date.getDayOfMonth(), buffer.getFloat()));
+                }
+                user.addItems(items);
+                int numRestrictions = buffer.getInt();
+                for (int j = 0; j < numRestrictions; j++) {
+                    String key = dictionary[buffer.getInt()];
+                    user.addRestriction(key, buffer.getFloat());
+                }
+
+                // skip anything a newer writer appended to the record
+                buffer.position(recordEnd);
+                res.put(userId, user);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted binary user file: " + source, e);
+        }
+        return res;
+    }
+
+    /**
+     * Write all users in accounts in the binary format
+     *
+     * @param accounts  the users by their id
+     * @param out   stream the users are written to
+     * @throws IOException  if the users cannot be written
+     */
+    @Override
+    public void write(Map<Integer, User> accounts, OutputStream out) throws IOException {
+        // ingredient names are found by their id in the IngredientDictionary, restriction names by the name
+        List<String> names = new ArrayList<>();
+        int[] itemIds = new int[IngredientDictionary.size()];
+        Arrays.fill(itemIds, -1);
+        Map<String, Integer> keyIds = new HashMap<>();
+        for (User user : accounts.values()) {
+            for (FoodItem item : user.getSnapshot()) {
+                int nameId = item.getNameId();
+                if (nameId >= itemIds.length) {
+                    int length = itemIds.length;
+                    itemIds = Arrays.copyOf(itemIds, Math.max(nameId + 1, length * 2));
+                    Arrays.fill(itemIds, length, itemIds.length, -1);
+                }
+                if (itemIds[nameId] == -1) {
+                    itemIds[nameId] = names.size();
+                    names.add(item.getName());
+                }
+            }
+            for (String key : user.getAllKeys()) {
+                if (keyIds.putIfAbsent(key, names.size()) == null) {
+                    names.add(key);
+                }
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+
+        data.writeInt(names.size());
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Name too long for the binary user format: " + name);
+            }
+            data.writeShort(bytes.length);
+            data.write(bytes);
+        }
+
+        data.writeInt(accounts.size());
+        for (Map.Entry<Integer, User> account : accounts.entrySet()) {
+            User user = account.getValue();
+            InventorySnapshot items = user.getSnapshot();
+            Set<String> keys = user.getAllKeys();
+
+            data.writeInt(12 + items.size() * ITEM_BYTES + keys.size() * RESTRICTION_BYTES);
+            data.writeInt(account.getKey());
+            data.writeInt(items.size());
+            for (FoodItem item : items) {
+                Calendar date = item.getCalendarObject();
+                data.writeInt(itemIds[item.getNameId()]);
+                data.writeInt((int) LocalDate.of(date.get(Calendar.YEAR), date.get(Calendar.MONTH) + 1,
+                        date.get(Calendar.DAY_OF_MONTH)).toEpochDay());
+                data.writeFloat(item.getAmount());
+            }
+            data.writeInt(keys.size());
+            for (String key : keys) {
+                data.writeInt(keyIds.get(key));
+                data.writeFloat(user.getRestriction(key));
+            }
+        }
+
+        data.flush();
+    }
+}
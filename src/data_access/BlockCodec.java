@@ -0,0 +1,34 @@
+package data_access;
+
+import java.io.IOException;
+
+/**
+ * This interface represents a codec that compresses the blocks of a CompressedUserFileFormat file.
+ */
+public interface BlockCodec {
+
+    /**
+     * Id of the codec, stored in the header of the file so it is only read with the same codec
+     * @return the id of the codec
+     */
+    byte getId();
+
+    /**
+     * Compress a block
+     * @param data  the uncompressed bytes
+     * @param length    number of bytes of data to compress
+     * @return the compressed bytes
+     */
+    byte[] compress(byte[] data, int length);
+
+    /**
+     * Decompress a block
+     * @param data  array holding the compressed bytes
+     * @param offset    index of the first compressed byte in data
+     * @param length    number of compressed bytes
+     * @param rawLength number of bytes the block had before it was compressed
+     * @return the uncompressed bytes
+     * @throws IOException  if the bytes are not a block compressed by this codec
+     */
+    byte[] decompress(byte[] data, int offset, int length, int rawLength) throws IOException;
+}
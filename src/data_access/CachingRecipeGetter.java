@@ -0,0 +1,140 @@
+package data_access;
+
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * RecipeGetter that answers from a RecipeCache when it can. Searches are cached by their settings, put in a
+ * canonical order so the same ingredients and preferences in another order hit the same entry, and the details
+ * of a recipe by its id. The api key is not part of the cache key.
+ *
+ * Every endpoint has its own time to live. The details of a recipe do not change, so they are kept much longer
+ * than searches, which can return new recipes.
+ */
+public class CachingRecipeGetter extends RecipeGetter {
+    /**
+     * The endpoints whose responses are cached
+     */
+    public enum Endpoint { SEARCH, INGREDIENTS, NUTRIENTS, INSTRUCTIONS }
+
+    public static final long DEFAULT_SEARCH_TTL_MILLIS = 24L * 60 * 60 * 1000;
+    public static final long DEFAULT_DETAIL_TTL_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    private final RecipeCache cache;
+
+    private final Map<Endpoint, Long> ttlMillis;
+
+    /**
+     * Caching recipe getter that uses the shared api client and cache, with the default times to live
+     */
+    public CachingRecipeGetter() {
+        this(ApiClient.shared(), RecipeCache.shared());
+    }
+
+    /**
+     * Caching recipe getter with the default times to live
+     *
+     * @param client    client the requests are sent with
+     * @param cache cache the responses are kept in
+     */
+    public CachingRecipeGetter(ApiClient client, RecipeCache cache) {
+        this(client, cache, defaultTtls());
+    }
+
+    /**
+     * Caching recipe getter
+     *
+     * @param client    client the requests are sent with
+     * @param cache cache the responses are kept in
+     * @param ttlMillis how long the responses of each endpoint are used, endpoints that are left out are not cached
+     */
+    public CachingRecipeGetter(ApiClient client, RecipeCache cache, Map<Endpoint, Long> ttlMillis) {
+        super(client);
+        this.cache = cache;
+        this.ttlMillis = new EnumMap<>(ttlMillis);
+    }
+
+    /**
+     * @return DEFAULT_SEARCH_TTL_MILLIS for searches and DEFAULT_DETAIL_TTL_MILLIS for the details of a recipe
+     */
+    public static Map<Endpoint, Long> defaultTtls() {
+        Map<Endpoint, Long> res = new EnumMap<>(Endpoint.class);
+        res.put(Endpoint.SEARCH, DEFAULT_SEARCH_TTL_MILLIS);
+        res.put(Endpoint.INGREDIENTS, DEFAULT_DETAIL_TTL_MILLIS);
+        res.put(Endpoint.NUTRIENTS, DEFAULT_DETAIL_TTL_MILLIS);
+        res.put(Endpoint.INSTRUCTIONS, DEFAULT_DETAIL_TTL_MILLIS);
+        return res;
+    }
+
+    /**
+     * Fetch a response from the cache, or call the api and cache its response
+     */
+    private JSONObject cached(Endpoint endpoint, String key, RecipeCall call) {
+        Long ttl = ttlMillis.get(endpoint);
+        if (ttl == null) {
+            return call.fetch();
+        }
+        String cacheKey = endpoint + ":" + key;
+        JSONObject res = cache.get(cacheKey, ttl);
+        if (res == null) {
+            res = call.fetch();
+            cache.put(cacheKey, res);
+        }
+        return res;
+    }
+
+    private interface RecipeCall {
+        JSONObject fetch();
+    }
+
+    /**
+     * Put the settings of a search in a canonical order
+     *
+     * @param settings  the settings made by preferenceConverter
+     * @return the same string for settings that only differ in the order of the ingredients, diets or macros
+     */
+    static String searchKey(List<Object> settings) {
+        StringBuilder res = new StringBuilder();
+        res.append(sorted((String) settings.get(0), ",")).append(';');
+        res.append(sorted((String) settings.get(1), ",")).append(';');
+        res.append(sorted((String) settings.get(2), "\\|")).append(';');
+        res.append(new TreeMap<>((Map<?, ?>) settings.get(3)));
+        return res.toString();
+    }
+
+    private static String sorted(String list, String separator) {
+        if (list.isEmpty()) {
+            return list;
+        }
+        String[] items = list.split(separator);
+        Arrays.sort(items);
+        return String.join(",", items);
+    }
+
+    @Override
+    public JSONObject getRecipe(String key, List<Object> settings) {
+        return cached(Endpoint.SEARCH, searchKey(settings), () -> super.getRecipe(key, settings));
+    }
+
+    @Override
+    public JSONObject getEnrichedRecipe(String key, List<Object> settings) {
+        return cached(Endpoint.SEARCH, "enriched:" + searchKey(settings),
+                () -> super.getEnrichedRecipe(key, settings));
+    }
+
+    @Override
+    public JSONObject getIngredients(Integer id, String key) {
+        return cached(Endpoint.INGREDIENTS, id.toString(), () -> super.getIngredients(id, key));
+    }
+
+    @Override
+    public JSONObject getNutrients(Integer id, String key) {
+        return cached(Endpoint.NUTRIENTS, id.toString(), () -> super.getNutrients(id, key));
+    }
+
+    @Override
+    public JSONObject getInstructions(Integer id, String key) {
+        return cached(Endpoint.INSTRUCTIONS, id.toString(), () -> super.getInstructions(id, key));
+    }
+}
@@ -0,0 +1,215 @@
+package data_access;
+
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Stores users in another format, split into blocks of whole users that are compressed one by one. Every block
+ * has a checksum, so a damaged block is skipped while reading and only the users in it are lost, instead of the
+ * whole file failing to load.
+ *
+ * Layout (big endian):
+ * magic, version, codec id,
+ * then every block as block magic + uncompressed length + compressed length + crc + compressed bytes.
+ * The crc is a CRC32 of both lengths and the compressed bytes, and the uncompressed bytes of a block are a
+ * complete file in the inner format holding some of the users.
+ */
+public class CompressedUserFileFormat implements UserFileFormat {
+    public static final int MAGIC = 0x4348455A;
+    public static final int VERSION = 1;
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private static final int BLOCK_MAGIC = 0x424C4B31;
+    private static final int HEADER_BYTES = 9;
+    private static final int BLOCK_HEADER_BYTES = 16;
+    private static final int FIRST_BLOCK_USERS = 64;
+
+    private final UserFileFormat format;
+
+    private final BlockCodec codec;
+
+    private final int blockSize;
+
+    private final AtomicInteger corruptedBlocks = new AtomicInteger();
+
+    /**
+     * Compressed format using deflate and blocks of about DEFAULT_BLOCK_SIZE bytes
+     *
+     * @param format    format of the users within the blocks
+     */
+    public CompressedUserFileFormat(UserFileFormat format) {
+        this(format, new DeflateBlockCodec(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Compressed format
+     *
+     * @param format    format of the users within the blocks
+     * @param codec codec the blocks are compressed with
+     * @param blockSize number of uncompressed bytes a block should have, a block holds at least one user
+     */
+    public CompressedUserFileFormat(UserFileFormat format, BlockCodec codec, int blockSize) {
+        this.format = format;
+        this.codec = codec;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Read every user from a compressed file, skipping damaged blocks
+     *
+     * @param file  compressed file to read
+     * @param userFactory   User factory to create the users
+     * @return the users in the readable blocks of the file by their id
+     * @throws IOException  if the file cannot be read, or its header is not the one of this format and codec,
+     * or none of its blocks can be read
+     */
+    @Override
+    public Map<Integer, User> read(File file, UserFactory userFactory) throws IOException {
+        return read(Files.readAllBytes(file.toPath()), file.toString(), userFactory);
+    }
+
+    /**
+     * Read every user from a stream holding a compressed file, skipping damaged blocks
+     *
+     * @param in    stream to read, it is not closed
+     * @param userFactory   User factory to create the users
+     * @return the users in the readable blocks by their id
+     * @throws IOException  if the stream cannot be read, or its header is not the one of this format and codec,
+     * or none of its blocks can be read
+     */
+    @Override
+    public Map<Integer, User> read(InputStream in, UserFactory userFactory) throws IOException {
+        return read(in.readAllBytes(), "stream", userFactory);
+    }
+
+    private Map<Integer, User> read(byte[] bytes, String source, UserFactory userFactory) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a compressed user file: " + source);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compressed user file version " + version + ": " + source);
+        }
+        byte codecId = buffer.get();
+        if (codecId != codec.getId()) {
+            throw new IOException("Compressed user file uses codec " + codecId + " instead of " + codec.getId() +
+                    ": " + source);
+        }
+
+        Map<Integer, User> res = new HashMap<>();
+        // true while bytes are skipped, a damaged block is passed over by looking for the next block magic
+        boolean skipping = false;
+        int readable = 0;
+        int pos = HEADER_BYTES;
+        while (pos + BLOCK_HEADER_BYTES <= bytes.length) {
+            Map<Integer, User> users = buffer.getInt(pos) == BLOCK_MAGIC ? readBlock(bytes, pos, userFactory) : null;
+            if (users == null) {
+                skipping = true;
+                pos++;
+                continue;
+            }
+            if (skipping) {
+                corruptedBlocks.incrementAndGet();
+                skipping = false;
+            }
+            res.putAll(users);
+            readable++;
+            pos += BLOCK_HEADER_BYTES + buffer.getInt(pos + 8);
+        }
+        if (skipping || pos != bytes.length) {
+            corruptedBlocks.incrementAndGet();
+            // nothing of the file is left, so the caller can fall back to an older copy instead of an empty store
+            if (readable == 0) {
+                throw new IOException("No readable block in compressed user file: " + source);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Read the block starting at pos
+     * @return the users in the block, or null if it is damaged
+     */
+    private Map<Integer, User> readBlock(byte[] bytes, int pos, UserFactory userFactory) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int rawLength = buffer.getInt(pos + 4);
+        int compressedLength = buffer.getInt(pos + 8);
+        if (rawLength < 0 || compressedLength < 0 || compressedLength > bytes.length - pos - BLOCK_HEADER_BYTES) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, pos + 4, 8);
+        crc.update(bytes, pos + BLOCK_HEADER_BYTES, compressedLength);
+        if ((int) crc.getValue() != buffer.getInt(pos + 12)) {
+            return null;
+        }
+        try {
+            byte[] raw = codec.decompress(bytes, pos + BLOCK_HEADER_BYTES, compressedLength, rawLength);
+            return format.read(new ByteArrayInputStream(raw), userFactory);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write all users in accounts in blocks of about blockSize uncompressed bytes
+     *
+     * @param accounts  the users by their id
+     * @param out   stream the users are written to
+     * @throws IOException  if the users cannot be written
+     */
+    @Override
+    public void write(Map<Integer, User> accounts, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeByte(codec.getId());
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(blockSize + blockSize / 4);
+        Iterator<Map.Entry<Integer, User>> accountIterator = accounts.entrySet().iterator();
+        int usersPerBlock = FIRST_BLOCK_USERS;
+        while (accountIterator.hasNext()) {
+            Map<Integer, User> block = new LinkedHashMap<>();
+            while (accountIterator.hasNext() && block.size() < usersPerBlock) {
+                Map.Entry<Integer, User> account = accountIterator.next();
+                block.put(account.getKey(), account.getValue());
+            }
+            raw.reset();
+            format.write(block, raw);
+            writeBlock(data, raw.toByteArray());
+            // the size of a user is not known before it is written, so the next block is sized after this one
+            usersPerBlock = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                    (long) usersPerBlock * blockSize / Math.max(1, raw.size())));
+        }
+        data.flush();
+    }
+
+    private void writeBlock(DataOutputStream data, byte[] raw) throws IOException {
+        byte[] compressed = codec.compress(raw, raw.length);
+        ByteBuffer lengths = ByteBuffer.allocate(8).putInt(raw.length).putInt(compressed.length);
+        CRC32 crc = new CRC32();
+        crc.update(lengths.array());
+        crc.update(compressed);
+
+        data.writeInt(BLOCK_MAGIC);
+        data.write(lengths.array());
+        data.writeInt((int) crc.getValue());
+        data.write(compressed);
+    }
+
+    /**
+     * @return the number of damaged blocks skipped by this format since it was created, bytes that were skipped
+     * one after another count as one block
+     */
+    public int getCorruptedBlocks() {
+        return corruptedBlocks.get();
+    }
+}
@@ -0,0 +1,146 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Stores users as csv, one user per row. The inventory column is formatted like
+ * Name:Year:Month:Day:Amount/Name:Year:Month:Day:Amount..., the dietary restrictions column like
+ * String:Float/String:Float... and the last column is the id of the user.
+ * Files without the user id column are still read, using the row number as the id.
+ */
+public class CsvUserFileFormat implements UserFileFormat {
+    private final Map<String, Integer> headers = new LinkedHashMap<>();
+
+    /**
+     * Constructor for CsvUserFileFormat
+     */
+    public CsvUserFileFormat() {
+        headers.put("inventory", 0);
+        headers.put("dietaryRestrictions", 1);
+        headers.put("userId", 2);
+    }
+
+    /**
+     * Read every user from a csv file
+     *
+     * @param file  csv file to read
+     * @param userFactory   User factory to create the users
+     * @return the users in the file by their id
+     * @throws IOException  if the file cannot be read, does not have the expected header or has a malformed row
+     */
+    @Override
+    public Map<Integer, User> read(File file, UserFactory userFactory) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return read(reader, file.toString(), userFactory);
+        }
+    }
+
+    /**
+     * Read every user from a stream holding csv
+     *
+     * @param in    stream to read, it is not closed
+     * @param userFactory   User factory to create the users
+     * @return the users in the stream by their id
+     * @throws IOException  if the stream cannot be read, does not have the expected header or has a malformed row
+     */
+    @Override
+    public Map<Integer, User> read(InputStream in, UserFactory userFactory) throws IOException {
+        return read(new InputStreamReader(in), "stream", userFactory);
+    }
+
+    private Map<Integer, User> read(Reader reader, String source, UserFactory userFactory) throws IOException {
+        Map<Integer, User> res = new HashMap<>();
+        CsvUserParser parser = new CsvUserParser(reader);
+        String header = parser.readHeader();
+        if (!String.join(",", headers.keySet()).equals(header) && !"inventory,dietaryRestrictions".equals(header)) {
+            throw new IOException("Unexpected header in " + source);
+        }
+        int numUsers = 0;
+        User user = userFactory.create(new HashMap<>());
+        while (parser.nextUser(user)) {
+            res.put(parser.getUserId() < 0 ? numUsers : parser.getUserId(), user);
+            numUsers += 1;
+            user = userFactory.create(new HashMap<>());
+        }
+        return res;
+    }
+
+    /**
+     * Write all users in accounts by formatting inventory and dietary preferences in a specific format so that
+     * it can be easily parsed again by read.
+     *
+     * @param accounts  the users by their id
+     * @param out   stream the csv is written to
+     * @throws IOException  if the users cannot be written
+     */
+    @Override
+    public void write(Map<Integer, User> accounts, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out));
+        writer.write(String.join(",", headers.keySet()));
+        writer.newLine();
+
+        for (Map.Entry<Integer, User> account : accounts.entrySet()) {
+            User user = account.getValue();
+
+            // handle inventory
+            StringBuilder inv = new StringBuilder();
+            for (FoodItem item : user.getSnapshot()) {
+                inv.append(formatItem(item));
+                inv.append("/");
+            }
+            if (inv.length() != 0) {
+                inv.deleteCharAt(inv.length() - 1);
+            }
+            String newInv = inv.toString();
+
+            // handle DietaryRestrictions
+            StringBuilder rest = new StringBuilder();
+            for (String key : user.getAllKeys()) {
+                String restriction = String.format("%s:%s",
+                        key, String.valueOf(user.getRestriction(key)));
+                rest.append(restriction);
+                rest.append("/");
+            }
+            if (rest.length() != 0) {
+                rest.deleteCharAt(rest.length() - 1);
+            }
+            String newRest = rest.toString();
+
+            String line = String.format("%s,%s,%s", newInv, newRest, account.getKey());
+            writer.write(line);
+            writer.newLine();
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Format a food item like Name:Year:Month:Day:Amount, the same way it is stored in the inventory column
+     * @param item  item to be formatted
+     * @return the formatted food item
+     */
+    static String formatItem(FoodItem item) {
+        Calendar date = item.getCalendarObject();
+        return item.getName() + ":" + date.get(Calendar.YEAR) + ":" + (date.get(Calendar.MONTH) + 1) + ":" +
+                date.get(Calendar.DAY_OF_MONTH) + ":" + item.getAmount();
+    }
+
+    /**
+     * Parse a food item formatted like Name:Year:Month:Day:Amount
+     * @param item  formatted food item
+     * @return the parsed food item
+     */
+    static FoodItem parseItem(String item) {
+        String[] details = item.split(":");
+        return new FoodItem(details[0],
+                Integer.parseInt(details[1]),
+                Integer.parseInt(details[2]),
+                Integer.parseInt(details[3]),
+                Float.parseFloat(details[4]));
+    }
+}
@@ -0,0 +1,303 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for the rows of a csv user file. Rows are read straight out of a char buffer, so apart from
+ * the ingredient and restriction names no intermediate strings or arrays are created for a row.
+ *
+ * A row looks like Name:Year:Month:Day:Amount/Name:Year:Month:Day:Amount...,String:Float/String:Float...,UserId
+ * where the user id column is missing in files written before users had ids.
+ */
+public class CsvUserParser {
+    private static final int EOF = -1;
+
+    // powers of ten that are exact as floats
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private static final long MAX_EXACT_MANTISSA = 1 << 24;
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[8192];
+
+    private int pos = 0;
+
+    private int limit = 0;
+
+    private char[] token = new char[64];
+
+    private int tokenLength = 0;
+
+    private int row = 0;
+
+    private int userId = -1;
+
+    /**
+     * Constructor for CsvUserParser
+     * @param reader    reader positioned at the start of the csv file
+     */
+    public CsvUserParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the header row
+     * @return the header row, or null if the file is empty
+     * @throws IOException  if the reader fails
+     */
+    public String readHeader() throws IOException {
+        if (peek() == EOF) {
+            return null;
+        }
+        StringBuilder header = new StringBuilder();
+        int c = read();
+        while (c != '\n' && c != EOF) {
+            if (c != '\r') {
+                header.append((char) c);
+            }
+            c = read();
+        }
+        row++;
+        return header.toString();
+    }
+
+    /**
+     * Parse the next row into a user, adding its food items and dietary restrictions
+     * @param user  user the row is added to
+     * @return false if there are no rows left, in which case user is not changed
+     * @throws IOException  if the reader fails or the row is malformed
+     */
+    public boolean nextUser(User user) throws IOException {
+        if (peek() == EOF) {
+            return false;
+        }
+        row++;
+
+        // inventory column, an empty item ends the column like it did with String.split
+        int delim = '/';
+        List<FoodItem> items = new ArrayList<>();
+        while (delim == '/') {
+            delim = readToken();
+            if (tokenLength == 0) {
+                delim = skipColumn(delim);
+                break;
+            }
+            expect(delim, ':');
+            String name = new String(token, 0, tokenLength);
+            int year = readInt(':');
+            int month = readInt(':');
+            int day = readInt(':');
+            delim = readToken();
+            items.add(new FoodItem(name, year, month, day, parseFloat()));
+        }
+        user.addItems(items);
+
+        // dietary restrictions column
+        if (delim == ',') {
+            delim = '/';
+            while (delim == '/') {
+                delim = readToken();
+                if (tokenLength == 0) {
+                    delim = skipColumn(delim);
+                    break;
+                }
+                expect(delim, ':');
+                String key = new String(token, 0, tokenLength);
+                delim = readToken();
+                user.addRestriction(key, parseFloat());
+            }
+        }
+
+        // user id column
+        userId = -1;
+        if (delim == ',') {
+            delim = readToken();
+            userId = parseInt();
+        }
+
+        // anything after the known columns is ignored
+        while (delim != '\n' && delim != EOF) {
+            delim = read();
+        }
+        return true;
+    }
+
+    /**
+     * @return the user id of the last row parsed by nextUser, or -1 if the row has no user id column
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    private int peek() throws IOException {
+        int c = read();
+        if (c != EOF) {
+            pos--;
+        }
+        return c;
+    }
+
+    /**
+     * Read characters into token up to the next delimiter
+     * @return the delimiter that ended the token, a line ending is always returned as a newline
+     */
+    private int readToken() throws IOException {
+        tokenLength = 0;
+        while (true) {
+            int c = read();
+            switch (c) {
+                case ':':
+                case '/':
+                case ',':
+                case '\n':
+                case EOF:
+                    return c;
+                case '\r':
+                    if (peek() == '\n') {
+                        read();
+                    }
+                    return '\n';
+                default:
+                    if (tokenLength == token.length) {
+                        char[] bigger = new char[token.length * 2];
+                        System.arraycopy(token, 0, bigger, 0, tokenLength);
+                        token = bigger;
+                    }
+                    token[tokenLength++] = (char) c;
+            }
+        }
+    }
+
+    /**
+     * Skip to the end of the current column
+     * @return the delimiter that ended the column
+     */
+    private int skipColumn(int delim) throws IOException {
+        while (delim != ',' && delim != '\n' && delim != EOF) {
+            delim = readToken();
+        }
+        return delim;
+    }
+
+    private void expect(int delim, char expected) throws IOException {
+        if (delim != expected) {
+            throw new IOException("Malformed food item on row " + row);
+        }
+    }
+
+    private int readInt(char expected) throws IOException {
+        expect(readToken(), expected);
+        return parseInt();
+    }
+
+    /**
+     * Parse the current token as an int
+     */
+    private int parseInt() throws IOException {
+        int start = 0;
+        boolean negative = tokenLength > 0 && token[0] == '-';
+        if (negative) {
+            start = 1;
+        }
+        if (start == tokenLength || tokenLength - start > 9) {
+            throw new IOException("Malformed number on row " + row);
+        }
+        int res = 0;
+        for (int i = start; i < tokenLength; i++) {
+            char c = token[i];
+            if (c < '0' || c > '9') {
+                throw new IOException("Malformed number on row " + row);
+            }
+            res = res * 10 + (c - '0');
+        }
+        return negative ? -res : res;
+    }
+
+    /**
+     * Parse the current token as a float. Short decimals like the ones Float.toString writes are computed exactly
+     * with a single float multiplication or division, anything else falls back to Float.parseFloat.
+     */
+    private float parseFloat() throws IOException {
+        int i = 0;
+        boolean negative = tokenLength > 0 && token[0] == '-';
+        if (negative) {
+            i = 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean fast = true;
+
+        for (; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+            mantissa = mantissa * 10 + (token[i] - '0');
+            seenDigit = true;
+            if (mantissa != 0) {
+                digits++;
+            }
+        }
+        if (i < tokenLength && token[i] == '.') {
+            for (i++; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+                mantissa = mantissa * 10 + (token[i] - '0');
+                exponent--;
+                seenDigit = true;
+                if (mantissa != 0) {
+                    digits++;
+                }
+            }
+        }
+        if (i < tokenLength && (token[i] == 'E' || token[i] == 'e')) {
+            int sign = 1;
+            int value = 0;
+            i++;
+            if (i < tokenLength && (token[i] == '-' || token[i] == '+')) {
+                sign = token[i] == '-' ? -1 : 1;
+                i++;
+            }
+            int start = i;
+            for (; i < tokenLength && token[i] >= '0' && token[i] <= '9' && value < 1000; i++) {
+                value = value * 10 + (token[i] - '0');
+            }
+            fast = i > start;
+            exponent += sign * value;
+        }
+
+        fast = fast && seenDigit && i == tokenLength && digits <= 18;
+        if (fast) {
+            // trailing zeros after the decimal point do not change the value
+            while (exponent < 0 && mantissa != 0 && mantissa % 10 == 0) {
+                mantissa /= 10;
+                exponent++;
+            }
+            if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -10 && exponent <= 10) {
+                float res = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+                return negative ? -res : res;
+            }
+        }
+
+        try {
+            return Float.parseFloat(new String(token, 0, tokenLength));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed number on row " + row, e);
+        }
+    }
+}
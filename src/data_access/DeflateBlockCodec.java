@@ -0,0 +1,82 @@
+package data_access;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses blocks with the deflate codec built into the jdk.
+ */
+public class DeflateBlockCodec implements BlockCodec {
+    public static final byte ID = 1;
+
+    private final int level;
+
+    /**
+     * Codec with the default compression level
+     */
+    public DeflateBlockCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Codec
+     * @param level compression level from 0 to 9, see Deflater
+     */
+    public DeflateBlockCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int length) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] res = new byte[Math.max(64, length / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == res.length) {
+                    res = Arrays.copyOf(res, res.length * 2);
+                }
+                size += deflater.deflate(res, size, res.length - size);
+            }
+            return Arrays.copyOf(res, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            // one byte more than expected, so a block that is too long is noticed
+            byte[] res = new byte[rawLength + 1];
+            int size = 0;
+            while (!inflater.finished() && size < res.length) {
+                int inflated = inflater.inflate(res, size, res.length - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += inflated;
+            }
+            if (size != rawLength || !inflater.finished()) {
+                throw new IOException("Compressed block does not have the expected length");
+            }
+            return Arrays.copyOf(res, rawLength);
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,114 +1,355 @@
 package data_access;
 
 import entities.*;
-import org.json.JSONObject;
-import use_case.add_fooditem.AddFoodItemDataAccessInterface;
-import use_case.get_recipe.GetRecipeDataAccessInterface;
-import use_case.get_shopping_list.GetShoppingListDataAccessInterface;
-import use_case.main_menu.MainMenuDataAccessInterface;
-import use_case.delete_fooditem.DeleteFoodItemDataAccessInterface;
-import use_case.remove_expired.RemoveExpiredDataAccessInterface;
-import use_case.update_restrictions.UpdateRestrictionsDataAccessInterface;
+import use_case.export_inventory.ExportInventoryDataAccessInterface.ItemVisitor;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Data access object that keeps all users in memory and writes them to a single file. Every change rewrites the
+ * whole file, with every user in it. ShardedUserDataAccessObject only rewrites the shard of the user that changed,
+ * and JournalUserDataAccessObject only appends the inventory changes of that user.
+ *
+ * It is safe to use from several threads. Each user id maps to one of LOCK_STRIPES read-write locks, so reads
+ * of a user only wait for a change to a user in the same stripe, and changes to users in different stripes
+ * run at the same time. Each change is applied and then written to the file after its lock is released, so when
+ * a change method returns the file holds that change or a later state.
+ *
+ * Reads of an inventory do not lock at all. Every change publishes a new InventorySnapshot of the user's
+ * inventory, so getSnapshot(), getInventory() and getQueue() see one version of it even while it changes.
+ */
+public class FileUserDataAccessObject implements UserDataAccessInterface, AutoCloseable {
+    private final UserFileFormat format;
+
+    public static final int LOCK_STRIPES = 64;
+
+    private final Map<Integer, User> accounts = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
 
-public class FileUserDataAccessObject implements GetRecipeDataAccessInterface, MainMenuDataAccessInterface, DeleteFoodItemDataAccessInterface, UpdateRestrictionsDataAccessInterface, RemoveExpiredDataAccessInterface, AddFoodItemDataAccessInterface, GetShoppingListDataAccessInterface {
-    private final File csvFile;
+    private UserFactory userFactory;
 
-    private final Map<String, Integer> headers = new LinkedHashMap<>();
+    private final RecipeFinder recipeFinder = new RecipeFinder();
 
-    private final Map<Integer, User> accounts = new HashMap<>();
+    private final SnapshotWriter snapshotWriter;
 
-    private UserFactory userFactory;
+    private volatile ScheduledExecutorService flusher = null;
+
+    private Thread shutdownHook = null;
 
-    private final String key = "1178e228ddeb4ba484e64911de9db1a8";
+    private volatile boolean dirty = false;
+
+    // checksum of the data file as it was last read or written, null if it is not known
+    private volatile Long snapshotChecksum = null;
+
+    {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
 
     /**
-     * Data access object
+     * Data access object that forces every write to disk
      *
      * @param csvPath   File data is written too
      * @param userFactory   User factory to create new users
      * @throws IOException  if file readers are incorrectly initialized
      */
     public FileUserDataAccessObject(String csvPath, UserFactory userFactory) throws IOException {
+        this(csvPath, userFactory, SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    /**
+     * Data access object that picks the format of the file by its name, see formatFor
+     *
+     * @param csvPath   File data is written too
+     * @param userFactory   User factory to create new users
+     * @param syncPolicy    when written data is forced to disk
+     * @param syncIntervalMillis    minimum time between syncs for the INTERVAL sync policy
+     * @throws IOException  if file readers are incorrectly initialized, or there is no valid snapshot to load
+     */
+    public FileUserDataAccessObject(String csvPath, UserFactory userFactory,
+                                    SnapshotWriter.SyncPolicy syncPolicy, long syncIntervalMillis)
+            throws IOException {
+        this(csvPath, userFactory, formatFor(csvPath), syncPolicy, syncIntervalMillis);
+    }
+
+    /**
+     * Pick the format of a file by its name, the binary format for .bin files and csv for everything else. A .z
+     * after that, like users.csv.z, compresses the file with CompressedUserFileFormat.
+     *
+     * @param path  path of the file
+     * @return the format of the file
+     */
+    static UserFileFormat formatFor(String path) {
+        if (path.endsWith(".z")) {
+            return new CompressedUserFileFormat(formatFor(path.substring(0, path.length() - 2)));
+        }
+        return path.endsWith(".bin") ? new BinaryUserFileFormat() : new CsvUserFileFormat();
+    }
+
+    /**
+     * Data access object
+     *
+     * @param path  File data is written too
+     * @param userFactory   User factory to create new users
+     * @param format    format the file is stored in
+     * @param syncPolicy    when written data is forced to disk
+     * @param syncIntervalMillis    minimum time between syncs for the INTERVAL sync policy
+     * @throws IOException  if file readers are incorrectly initialized, or there is no valid snapshot to load
+     */
+    public FileUserDataAccessObject(String path, UserFactory userFactory, UserFileFormat format,
+                                    SnapshotWriter.SyncPolicy syncPolicy, long syncIntervalMillis)
+            throws IOException {
+        this(path, userFactory, format, syncPolicy, syncIntervalMillis, false);
+    }
+
+    /**
+     * Data access object for subclasses that need the checksum of the data file, see getSnapshotChecksum
+     *
+     * @param path  File data is written too
+     * @param userFactory   User factory to create new users
+     * @param format    format the file is stored in
+     * @param syncPolicy    when written data is forced to disk
+     * @param syncIntervalMillis    minimum time between syncs for the INTERVAL sync policy
+     * @param checksummed   true to compute the checksum of the data file while it is loaded
+     * @throws IOException  if file readers are incorrectly initialized, or there is no valid snapshot to load
+     */
+    protected FileUserDataAccessObject(String path, UserFactory userFactory, UserFileFormat format,
+                                       SnapshotWriter.SyncPolicy syncPolicy, long syncIntervalMillis,
+                                       boolean checksummed) throws IOException {
         this.userFactory = userFactory;
 
-        csvFile = new File(csvPath);
-        headers.put("inventory", 0);
-        headers.put("dietaryRestrictions", 1);
+        this.format = format;
+        snapshotWriter = new SnapshotWriter(new File(path), syncPolicy, syncIntervalMillis);
 
-        if (csvFile.length() == 0) {
-            save();
+        CRC32 crc = checksummed ? new CRC32() : null;
+        Map<Integer, User> snapshot = loadSnapshot(snapshotWriter, format, userFactory, crc);
+        if (snapshot != null) {
+            this.accounts.putAll(snapshot);
+            if (crc != null) {
+                this.snapshotChecksum = crc.getValue();
+            }
         } else {
-            try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
-                String row;
-                reader.readLine();
-                int numUsers = 0;
-                while ((row = reader.readLine()) != null) {
-                    // set up user object
-                    String[] col = row.split(",");
-                    Map<String, Float> dietaryRestrictions = new HashMap<>();
-                    User user = userFactory.create(dietaryRestrictions);
-
-                    // split inventory column like Name:Year:Month:Date:Amount/Name:Year:Month:Date:Amount...
-                    // split the rows based on slashes for each element of the queue and then by colon for foodItem
-                    String[] invItems = new String[0];
-                    if (col.length > 0) {
-                        String tempInv = String.valueOf(col[headers.get("inventory")]);
-                        invItems = tempInv.split("/");
-                    }
+            save();
+        }
+    }
 
-                    for (String item: invItems) {
-                        if (item.isEmpty()) {
-                            break;
-                        }
-                        String[] details = item.split(":");
-                        FoodItem newItem = new FoodItem(details[0],
-                                Integer.parseInt(details[1]),
-                                Integer.parseInt(details[2]),
-                                Integer.parseInt(details[3]),
-                                Float.parseFloat(details[4]));
-                        user.addItem(newItem);
-                    }
+    /**
+     * Data access object that does not load anything itself, for subclasses that keep their own files
+     *
+     * @param userFactory   User factory to create new users
+     */
+    protected FileUserDataAccessObject(UserFactory userFactory) {
+        this.userFactory = userFactory;
+        this.format = null;
+        this.snapshotWriter = null;
+    }
 
-                    // split dietary restrictions column like String:Boolean/String:Boolean...
-                    // similar format to inventory
-                    String[] restItems = new String[0];
-                    if (col.length > 1) {
-                        String tempRest = String.valueOf(col[headers.get("dietaryRestrictions")]);
-                        restItems = tempRest.split("/");
-                    }
+    /**
+     * Read the newest snapshot that can be read completely, falling back to the previous one if it is corrupted
+     *
+     * @param snapshotWriter    writer of the snapshot file
+     * @param format    format the file is stored in
+     * @param userFactory   User factory to create new users
+     * @return the users in the snapshot, or null if there is no snapshot yet or the first one was never finished
+     * @throws IOException  if there are snapshot files but none of them can be read
+     */
+    static Map<Integer, User> loadSnapshot(SnapshotWriter snapshotWriter, UserFileFormat format,
+                                           UserFactory userFactory) throws IOException {
+        return loadSnapshot(snapshotWriter, format, userFactory, null);
+    }
 
-                    for (String item: restItems) {
-                        if (item.isEmpty()) {
-                            break;
-                        }
-                        String[] details = item.split(":");
-                        user.addRestriction(details[0], Float.valueOf(details[1]));
+    /**
+     * Read the newest snapshot that can be read completely like loadSnapshot, computing its checksum while it
+     * is read so the file is only read once
+     *
+     * @param snapshotWriter    writer of the snapshot file
+     * @param format    format the file is stored in
+     * @param userFactory   User factory to create new users
+     * @param crc   checksum that holds the one of the snapshot that was read, or null if it is not needed
+     * @return the users in the snapshot, or null if there is no snapshot yet or the first one was never finished
+     * @throws IOException  if there are snapshot files but none of them can be read
+     */
+    static Map<Integer, User> loadSnapshot(SnapshotWriter snapshotWriter, UserFileFormat format,
+                                           UserFactory userFactory, CRC32 crc) throws IOException {
+        boolean found = false;
+        List<File> candidates = snapshotWriter.recoveryCandidates();
+        for (File snapshot : candidates) {
+            if (snapshot.length() == 0) {
+                continue;
+            }
+            found = true;
+            try {
+                Map<Integer, User> users;
+                if (crc == null) {
+                    users = format.read(snapshot, userFactory);
+                } else {
+                    crc.reset();
+                    try (InputStream in = new CheckedInputStream(new BufferedInputStream(
+                            new FileInputStream(snapshot), 1 << 16), crc)) {
+                        users = format.read(in, userFactory);
+                        // the checksum covers the whole file even if the format stops reading before its end
+                        in.transferTo(OutputStream.nullOutputStream());
                     }
-                    this.accounts.put(numUsers, user);
-                    numUsers += 1;
                 }
+                snapshotWriter.restore(snapshot);
+                return users;
+            } catch (IOException | RuntimeException e) {
+                // corrupted snapshot, fall back to the previous one
             }
         }
+
+        if (found && !snapshotWriter.discardPartialFirstSnapshot(candidates)) {
+            throw new IOException("No valid snapshot of " + snapshotWriter.getTarget());
+        }
+        return null;
+    }
+
+    /**
+     * Find a user in accounts, every access to a user goes through here
+     * @param userId    id of the user
+     * @return the user, or null if there is no user with that id
+     */
+    protected User lookup(int userId) {
+        return accounts.get(userId);
+    }
+
+    /**
+     * Remove users from accounts without writing anything, so they can be garbage collected
+     * @param userIds   ids of the users to remove
+     */
+    protected synchronized void unload(Collection<Integer> userIds) {
+        accounts.keySet().removeAll(userIds);
+    }
+
+    /**
+     * Fetch every user by id, without loading anything
+     * @return a read-only view of accounts
+     */
+    protected Map<Integer, User> getAccounts() {
+        return Collections.unmodifiableMap(accounts);
     }
 
     /**
-     * Save a new user to accounts
+     * Add users to accounts without writing them
+     * @param users users to add, by id
+     */
+    protected synchronized void putAll(Map<Integer, User> users) {
+        accounts.putAll(users);
+    }
+
+    /**
+     * Save a new user to accounts, replacing any user with the same id
+     * @param userId    id of the user
      * @param user  user to be added to accounts
      */
-    public void save(User user) {
-        accounts.put(0, user);
-        this.save();
+    public void save(int userId, User user) {
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            accounts.put(userId, user);
+        } finally {
+            lock.unlock();
+        }
+        this.persist(userId);
+    }
+
+    /**
+     * Find the lock that guards a user. While one is held, no method waits for the monitor of the data
+     * access object or for another stripe, so locks are always taken in the same order.
+     * @param userId    id of the user
+     * @return the read-write lock of the user's stripe
+     */
+    protected ReadWriteLock lockFor(int userId) {
+        return locks[Math.floorMod(userId, locks.length)];
+    }
+
+    /**
+     * Take the read locks of every stripe in order, so no user changes until they are released
+     * @return the locks that are held
+     */
+    protected List<Lock> lockAllForRead() {
+        List<Lock> held = new ArrayList<>();
+        for (ReadWriteLock lock : locks) {
+            lock.readLock().lock();
+            held.add(lock.readLock());
+        }
+        return held;
+    }
+
+    /**
+     * Take the read locks of the stripes of some users in order, so none of them change until they are released
+     * @param userIds   ids of the users
+     * @return the locks that are held
+     */
+    protected List<Lock> lockForRead(Collection<Integer> userIds) {
+        boolean[] stripes = new boolean[locks.length];
+        for (int userId : userIds) {
+            stripes[Math.floorMod(userId, locks.length)] = true;
+        }
+        List<Lock> held = new ArrayList<>();
+        for (int i = 0; i < locks.length; i++) {
+            if (stripes[i]) {
+                locks[i].readLock().lock();
+                held.add(locks[i].readLock());
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Release locks taken by lockAllForRead or lockForRead
+     * @param held  the locks that are held
+     */
+    protected static void unlockAll(List<Lock> held) {
+        for (Lock lock : held) {
+            lock.unlock();
+        }
     }
 
     /**
      * Fetch a user from accounts
-     * @param userNum   number associated with user in accounts
+     * @param userId    id of the user in accounts
+     * @return the user, or null if there is no user with that id
+     */
+    public User get(int userId) {
+        return lookup(userId);
+    }
+
+    /**
+     * Check whether a user is in accounts
+     * @param userId    id of the user
+     * @return true if there is a user with that id
+     */
+    @Override
+    public boolean existsByUserId(int userId) {
+        return lookup(userId) != null;
+    }
+
+    /**
+     * Fetch a user that must exist
+     * @param userId    id of the user in accounts
+     * @return the user
+     * @throws IllegalArgumentException if there is no user with that id
      */
-    public User get(int userNum) {
-        return accounts.get(userNum);
+    protected User getUser(int userId) {
+        User user = lookup(userId);
+        if (user == null) {
+            throw new IllegalArgumentException("No user with id " + userId);
+        }
+        return user;
     }
 
     /**
@@ -123,73 +364,193 @@ public class FileUserDataAccessObject implements GetRecipeDataAccessInterface, M
         return res;
     }
 
+    /**
+     * Pass every item of every user to a visitor, without copying them. Each user's items come from one snapshot
+     * of the inventory, so a slow visitor does not hold up changes.
+     * @param visitor   visitor the items are passed to
+     * @throws IOException  if the visitor cannot write an item
+     */
+    @Override
+    public void forEachItem(ItemVisitor visitor) throws IOException {
+        for (int userId : accounts.keySet()) {
+            visitUser(userId, visitor);
+        }
+    }
+
+    /**
+     * Pass the items of a user to a visitor
+     * @param userId    id of the user, nothing is visited if there is no user with that id
+     * @param visitor   visitor the items are passed to
+     * @throws IOException  if the visitor cannot write an item
+     */
+    protected void visitUser(int userId, ItemVisitor visitor) throws IOException {
+        User user = lookup(userId);
+        if (user == null) {
+            return;
+        }
+        for (FoodItem item : user.getSnapshot()) {
+            visitor.visit(userId, item);
+        }
+    }
+
     /**
      * Fetch the inventory of a user
-     * @return a list of FoodItems in the first user's inventory
+     * @param userId    id of the user
+     * @return a list of FoodItems in the user's inventory
      */
-    public List<FoodItem> getInventory() {
-        User user = accounts.get(0);
-        return new ArrayList<FoodItem>(user.getInventory().getQueue());
+    public List<FoodItem> getInventory(int userId) {
+        return new ArrayList<FoodItem>(getUser(userId).getSnapshot().toList());
     }
 
     /**
-     * Save all users in accounts to the csv file by formatting inventory and dietary preferences in a specific
-     * format so that it can be easily parsed again when we initialize the data access object.
+     * Fetch the current version of the inventory of a user, without locking
+     * @param userId    id of the user
+     * @return the snapshot of the user's inventory
      */
-    private void save() {
-        BufferedWriter writer;
-        try {
-            writer = new BufferedWriter(new FileWriter(csvFile));
-            writer.write(String.join(",", headers.keySet()));
-            writer.newLine();
-
-            for (User user : accounts.values()) {
-                // handle inventory
-                StringBuilder inv = new StringBuilder();
-                for (FoodItem item : user.getQueue()) {
-                    // year/month/day
-                    String[] expDate = item.getExpirationDate().split("/");
-                    String food = String.format("%s:%s:%s:%s:%s",
-                            item.getName(), expDate[0], expDate[1], expDate[2], String.valueOf(item.getAmount()));
-                    inv.append(food);
-                    inv.append("/");
-                }
-                if (inv.length() != 0) {
-                    inv.deleteCharAt(inv.length() - 1);
-                }
-                String newInv = inv.toString();
-
-                // handle DietaryRestrictions
-                StringBuilder rest = new StringBuilder();
-                for (String key : user.getAllKeys()) {
-                    String restriction = String.format("%s:%s",
-                            key, String.valueOf(user.getRestriction(key)));
-                    rest.append(restriction);
-                    rest.append("/");
-                }
-                if (rest.length() != 0) {
-                    rest.deleteCharAt(rest.length() - 1);
-                }
-                String newRest = rest.toString();
+    @Override
+    public InventorySnapshot getSnapshot(int userId) {
+        return getUser(userId).getSnapshot();
+    }
+
+    /**
+     * Write a change to a user to the data file right away, or leave it for the next flush in write-behind mode.
+     * The single data file is rewritten with every user, subclasses with per-user files only write what changed.
+     * @param userId    id of the user that changed
+     */
+    protected void persist(int userId) {
+        if (!isWriteBehind()) {
+            save();
+        } else {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Switch to write-behind mode. Changes only mark the data as dirty and a background thread writes them
+     * all at once every flushIntervalMillis, so a use case that makes several changes causes at most one write.
+     * Pending changes are also written when the program exits, or when the data access object is closed.
+     *
+     * @param flushIntervalMillis   time between flushes
+     */
+    public synchronized void enableWriteBehind(long flushIntervalMillis) {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-data-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        shutdownHook = new Thread(this::flush);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
 
-                String line = String.format("%s,%s", newInv, newRest);
-                writer.write(line);
-                writer.newLine();
+    /**
+     * Stop the background flush of write-behind mode and write the pending changes, so the data access object
+     * no longer holds a thread or a shutdown hook. Changes made after this are written right away.
+     * @throws IOException  if the data cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService stopped;
+        Thread hook;
+        synchronized (this) {
+            stopped = flusher;
+            hook = shutdownHook;
+            flusher = null;
+            shutdownHook = null;
+        }
+        if (stopped != null) {
+            // not under the monitor, a flush that is running needs it to finish
+            stopped.shutdown();
+            try {
+                stopped.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (hook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // the program is already exiting and runs the hook
             }
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.close();
+        }
+    }
+
+    /**
+     * @return the number of damaged blocks skipped while reading the data file, 0 if it is not compressed
+     */
+    public int getCorruptedBlocks() {
+        if (format instanceof CompressedUserFileFormat) {
+            return ((CompressedUserFileFormat) format).getCorruptedBlocks();
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether changes are left for the background flush
+     * @return true if write-behind mode is enabled
+     */
+    protected boolean isWriteBehind() {
+        return flusher != null;
+    }
+
+    /**
+     * Write all changes that have not been written yet
+     */
+    public synchronized void flush() {
+        if (dirty) {
+            dirty = false;
+            save();
+        }
+    }
 
-            writer.close();
+    /**
+     * Save all users in accounts to the data file in its format, so that it can be easily parsed again when we
+     * initialize the data access object.
+     */
+    protected synchronized void save() {
+        saveSnapshot();
+    }
 
+    /**
+     * Save all users in accounts to the data file like save, keeping track of what was written
+     * @return the CRC-32 of the data file that was written
+     */
+    protected synchronized long saveSnapshot() {
+        List<Lock> held = lockAllForRead();
+        try {
+            CRC32 crc = new CRC32();
+            snapshotWriter.write(out -> format.write(accounts, new CheckedOutputStream(out, crc)));
+            snapshotChecksum = crc.getValue();
+            return crc.getValue();
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            unlockAll(held);
         }
     }
 
+    /**
+     * @return the CRC-32 of the data file as it was last read or written, or null if it is not known
+     */
+    protected Long getSnapshotChecksum() {
+        return snapshotChecksum;
+    }
+
     /**
      * Fetch the dietary preferences of a user
-     * @return Dietary preferences object of the first user in accounts.
+     * @param userId    id of the user
+     * @return Dietary preferences object of the user.
      */
-    public DietaryPreferences retrievePreferences() {
-        User user = accounts.get(0);
+    public DietaryPreferences retrievePreferences(int userId) {
+        User user = getUser(userId);
         return user.getDietaryRestrictions();
     }
 
@@ -197,72 +558,101 @@ public class FileUserDataAccessObject implements GetRecipeDataAccessInterface, M
      * Using user information, find recipes that coincide with items in the user's inventory
      * that expire in a week, and also the dietary preferences that the user has specified.
      *
+     * @param userId    id of the user
      * @param preferences   the user's dietary preferences
      * @return a list of Recipes that are relevant to the user's inventory and dietary preferences.
      */
-    public List<Recipe> retrieveRecipes(DietaryPreferences preferences) {
-        User user = accounts.get(0);
+    public List<Recipe> retrieveRecipes(int userId, DietaryPreferences preferences) {
+        User user = getUser(userId);
         InventoryChecker checker = new InventoryChecker();
-        RecipeGetter getter = new RecipeGetter();
-        RecipeParser parser = new RecipeParser();
 
         List<FoodItem> expiresSoon = checker.weekCheck(user.getInventory());
-        List<Object> settings = getter.preferenceConverter(expiresSoon, preferences);
-        JSONObject recipeInfo = getter.getRecipe(key, settings);
-        List<String> titles = parser.getNames(recipeInfo);
-        List<Integer> ids = parser.getIds(recipeInfo);
-        List<Recipe> res = new ArrayList<>();
-
-        int i = 0;
-        for (Integer id: ids) {
-            List<FoodItem> ingredients = parser.parseIngredients(getter.getIngredients(id, key));
-            Map<String, Float> macros = parser.parseMacros(getter.getNutrients(id, key));
-            List<String> instructions = parser.parseInstructions(getter.getInstructions(id, key));
-            res.add(new Recipe(titles.get(i), instructions, ingredients, macros));
-            i++;
-        }
 
-        return res;
+        return recipeFinder.findRecipes(expiresSoon, preferences);
     }
 
     /**
      * Remove a specific item from the user's inventory
+     * @param userId    id of the user
      * @param item  item to be removed
      * @return true if the item was successfully removed, false otherwise
      */
     @Override
-    public boolean removeSpecificItem(FoodItem item) {
-        boolean res = accounts.get(0).removeSpecificItem(item);
-        this.save();
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        boolean res;
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            res = user.removeSpecificItem(item);
+        } finally {
+            lock.unlock();
+        }
+        this.persist(userId);
         return res;
     }
 
     /**
-     * Fetch the inventory of a user
-     * @return a priority queue of FoodItems in the first user's inventory
+     * Fetch the inventory of a user as a priority queue
+     * @param userId    id of the user
+     * @return a copy of the user's inventory as a priority queue of FoodItems
      */
     @Override
-    public PriorityQueue<FoodItem> getQueue() {
-        return accounts.get(0).getQueue();
+    public PriorityQueue<FoodItem> getQueue(int userId) {
+        return getUser(userId).getQueue();
     }
 
     /**
      * Remove the first item in the user's inventory
+     * @param userId    id of the user
      */
     @Override
-    public void removeItem() {
-        accounts.get(0).removeItem();
-        this.save();
+    public void removeItem(int userId) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.removeItem();
+        } finally {
+            lock.unlock();
+        }
+        this.persist(userId);
     }
 
     /**
      * Add an item to the user's inventory
+     * @param userId    id of the user
      * @param item  item to be added
      */
     @Override
-    public void addItem(FoodItem item) {
-        accounts.get(0).addItem(item);
-        this.save();
+    public void addItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItem(item);
+        } finally {
+            lock.unlock();
+        }
+        this.persist(userId);
+    }
+
+    /**
+     * Add items to the user's inventory under one lock, writing the file once
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItems(items);
+        } finally {
+            lock.unlock();
+        }
+        this.persist(userId);
     }
 
     /**
@@ -272,7 +662,7 @@ public class FileUserDataAccessObject implements GetRecipeDataAccessInterface, M
      */
     @Override
     public List<String> standardizeNames(List<String> names) {
-        return FoodNameParser.parseFoodItemNames(key, names);
+        return recipeFinder.standardizeNames(names);
     }
 
 }
@@ -0,0 +1,337 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Read replica of a LeaderUserDataAccessObject. It keeps every user in memory and applies the changes the
+ * leader streams over its port, so read-heavy use cases like getting recipes, the shopping list or the inventory
+ * can be served by another process. Changes are only made on the leader, the methods that change users throw
+ * UnsupportedOperationException. Users only appear once the first snapshot arrived, so call awaitSequence(0, ...)
+ * before creating the use cases. Main does not offer a follower mode, since its views change users on startup.
+ *
+ * The follower reconnects when the connection is lost and resumes from the last change it applied. If a change
+ * cannot be applied, it reconnects and starts over from a snapshot of the leader.
+ */
+public class FollowerUserDataAccessObject extends FileUserDataAccessObject implements AutoCloseable {
+    public static final long RECONNECT_MILLIS = 200;
+
+    private final String host;
+
+    private final int port;
+
+    private final UserFactory userFactory;
+
+    private final BinaryUserFileFormat replicationFormat = new BinaryUserFileFormat();
+
+    private final Thread receiver;
+
+    private volatile Socket socket;
+
+    private volatile boolean closed = false;
+
+    // epoch of the leader the changes came from, 0 until the first snapshot
+    private long epoch = 0;
+
+    private long appliedSequence = -1;
+
+    private long leaderSequence = -1;
+
+    private long applyDelayMillis = 0;
+
+    private long lastContact = 0;
+
+    private long connectionFailures = 0;
+
+    private long resyncs = 0;
+
+    private Exception lastError = null;
+
+    /**
+     * Follower of a leader on this machine
+     *
+     * @param host  host of the leader
+     * @param port  port of the leader
+     * @param userFactory   User factory to create new users
+     */
+    public FollowerUserDataAccessObject(String host, int port, UserFactory userFactory) {
+        super(userFactory);
+        this.host = host;
+        this.port = port;
+        this.userFactory = userFactory;
+        receiver = new Thread(this::receive, "replication-receive");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    private void receive() {
+        while (!closed) {
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(host, port));
+                socket = s;
+                DataOutputStream out = new DataOutputStream(s.getOutputStream());
+                synchronized (this) {
+                    out.writeLong(epoch);
+                    out.writeLong(appliedSequence);
+                }
+                out.flush();
+
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                while (!closed) {
+                    apply(in);
+                }
+            } catch (IOException e) {
+                // the leader is not reachable, try again
+                synchronized (this) {
+                    connectionFailures++;
+                    lastError = e;
+                }
+            } catch (RuntimeException e) {
+                // the leader would send the same change again, so ask for a snapshot instead
+                synchronized (this) {
+                    resyncs++;
+                    lastError = e;
+                    epoch = 0;
+                }
+            }
+            if (!closed) {
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        if (op == ReplicationLog.HEARTBEAT) {
+            long sequence = in.readLong();
+            in.readLong();
+            synchronized (this) {
+                leaderSequence = sequence;
+                lastContact = System.currentTimeMillis();
+            }
+            return;
+        }
+        if (op == ReplicationLog.SNAPSHOT) {
+            long leaderEpoch = in.readLong();
+            long sequence = in.readLong();
+            in.readLong();
+            byte[] users = new byte[in.readInt()];
+            in.readFully(users);
+            applySnapshot(replicationFormat.read(new ByteArrayInputStream(users), userFactory));
+            synchronized (this) {
+                epoch = leaderEpoch;
+                appliedSequence = sequence;
+                leaderSequence = sequence;
+                lastContact = System.currentTimeMillis();
+                notifyAll();
+            }
+            return;
+        }
+
+        long sequence = in.readLong();
+        long timestamp = in.readLong();
+        int userId = in.readInt();
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        if (op == ReplicationLog.SAVE) {
+            putAll(replicationFormat.read(new ByteArrayInputStream(payload), userFactory));
+        } else if (op == ReplicationLog.ADD || op == ReplicationLog.REMOVE) {
+            applyItem(op, userId, CsvUserFileFormat.parseItem(new String(payload, StandardCharsets.UTF_8)));
+        } else {
+            throw new IOException("Unknown replication message " + op);
+        }
+        synchronized (this) {
+            appliedSequence = sequence;
+            leaderSequence = Math.max(leaderSequence, sequence);
+            long now = System.currentTimeMillis();
+            applyDelayMillis = now - timestamp;
+            lastContact = now;
+            notifyAll();
+        }
+    }
+
+    private void applySnapshot(Map<Integer, User> users) {
+        Set<Integer> removed = new HashSet<>(getAccounts().keySet());
+        removed.removeAll(users.keySet());
+        putAll(users);
+        unload(removed);
+    }
+
+    private void applyItem(byte op, int userId, FoodItem item) {
+        User user = get(userId);
+        if (user == null) {
+            return;
+        }
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            if (op == ReplicationLog.ADD) {
+                user.addItem(item);
+                return;
+            }
+            // the leader's item is a copy, so remove the item with the same values
+            for (FoodItem candidate : user.getSnapshot()) {
+                if (candidate.sameName(item) &&
+                        candidate.getExpirationDate().equals(item.getExpirationDate()) &&
+                        candidate.getAmount().equals(item.getAmount())) {
+                    user.removeSpecificItem(candidate);
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the follower applied a change of the leader
+     * @param sequence  sequence of the change on the leader
+     * @param timeoutMillis maximum time to wait
+     * @return true if the change was applied, false if the time ran out
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (appliedSequence < sequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * @return the sequence of the last change applied, -1 before the first snapshot arrived
+     */
+    public synchronized long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return the number of changes the leader had made, as of its last message, that are not applied yet
+     */
+    public synchronized long getLagEntries() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * @return the time between the leader making the last applied change and the follower applying it
+     */
+    public synchronized long getApplyDelayMillis() {
+        return applyDelayMillis;
+    }
+
+    /**
+     * @return the time since the last message from the leader, the leader sends one at least every
+     * ReplicationLog.HEARTBEAT_MILLIS while it is connected
+     */
+    public synchronized long getMillisSinceLeaderContact() {
+        return lastContact == 0 ? Long.MAX_VALUE : System.currentTimeMillis() - lastContact;
+    }
+
+    /**
+     * @return the number of times the leader could not be reached or the connection to it was lost
+     */
+    public synchronized long getConnectionFailures() {
+        return connectionFailures;
+    }
+
+    /**
+     * @return the number of times a change could not be applied and the follower started over from a snapshot
+     */
+    public synchronized long getResyncs() {
+        return resyncs;
+    }
+
+    /**
+     * @return the last error of the connection to the leader, null if there was none
+     */
+    public synchronized Exception getLastError() {
+        return lastError;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Read replica, changes have to be made on the leader");
+    }
+
+    /**
+     * Changes are only made on the leader
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void save(int userId, User user) {
+        throw readOnly();
+    }
+
+    /**
+     * Changes are only made on the leader
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        throw readOnly();
+    }
+
+    /**
+     * Changes are only made on the leader
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeItem(int userId) {
+        throw readOnly();
+    }
+
+    /**
+     * Changes are only made on the leader
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        throw readOnly();
+    }
+
+    /**
+     * Changes are only made on the leader
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        throw readOnly();
+    }
+
+    /**
+     * Nothing is written by a follower
+     */
+    @Override
+    protected synchronized void save() {
+    }
+
+    /**
+     * Disconnect from the leader
+     * @throws IOException  if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        receiver.interrupt();
+        Socket s = socket;
+        if (s != null) {
+            s.close();
+        }
+        super.close();
+    }
+}
@@ -0,0 +1,117 @@
+package data_access;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the standardized name of every food name that was standardized, since the api always standardizes
+ * a name the same way. The names are appended to a file as they are learned, one tab separated pair per line
+ * that ends with a tab, and the whole file is read when the cache is created, so it is warm from the start.
+ *
+ * It is safe to use from several threads.
+ */
+public class FoodNameCache {
+    public static final String DEFAULT_PATH = "./food-names.txt";
+
+    private static volatile FoodNameCache shared;
+
+    private final File file;
+
+    private final Map<String, String> names = new HashMap<>();
+
+    /**
+     * Cache that is only kept in memory
+     */
+    public FoodNameCache() {
+        this.file = null;
+    }
+
+    /**
+     * Cache that is kept in a file
+     *
+     * @param path  path of the file, created when the first name is stored
+     */
+    public FoodNameCache(String path) {
+        this.file = new File(path);
+        if (file.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * Get the cache shared by everything that does not get one passed in, kept in DEFAULT_PATH
+     * @return the shared cache
+     */
+    public static FoodNameCache shared() {
+        FoodNameCache res = shared;
+        if (res == null) {
+            synchronized (FoodNameCache.class) {
+                res = shared;
+                if (res == null) {
+                    res = new FoodNameCache(DEFAULT_PATH);
+                    shared = res;
+                }
+            }
+        }
+        return res;
+    }
+
+    private void load() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                // a line that does not end with its second tab was cut off while it was written, wherever it was cut
+                if (tab >= 0 && line.indexOf('\t', tab + 1) == line.length() - 1) {
+                    names.put(line.substring(0, tab), line.substring(tab + 1, line.length() - 1));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param name  name of a food item
+     * @return the standardized name, or null if it was not standardized before
+     */
+    public synchronized String get(String name) {
+        return names.get(name);
+    }
+
+    /**
+     * Store standardized names
+     * @param standardized  map from the names to their standardized names
+     */
+    public synchronized void putAll(Map<String, String> standardized) {
+        names.putAll(standardized);
+        if (file == null) {
+            return;
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+                StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, String> entry : standardized.entrySet()) {
+                // such names would not be read back, they are standardized again after a restart
+                if (isStorable(entry.getKey()) && isStorable(entry.getValue())) {
+                    writer.write(entry.getKey() + '\t' + entry.getValue() + "\t\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isStorable(String name) {
+        return name.indexOf('\t') < 0 && name.indexOf('\n') < 0 && name.indexOf('\r') < 0;
+    }
+
+    /**
+     * @return the number of names in the cache
+     */
+    public synchronized int size() {
+        return names.size();
+    }
+}
@@ -1,6 +1,7 @@
 package data_access;
 
-import okhttp3.*;
+import okhttp3.FormBody;
+import okhttp3.RequestBody;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -15,32 +16,34 @@ import java.util.List;
 public class FoodNameParser {
 
     /**
-     * Parses food item names from a list of ingredients using the Spoonacular API
+     * Parses food item names from a list of ingredients using the Spoonacular API, through the shared api client
      * @param key Spoonacular API key
      * @param foodItemNames List of ingredients
      * @return List of food item names
      */
     public static List<String> parseFoodItemNames(String key, List<String> foodItemNames) {
+        return parseFoodItemNames(ApiClient.shared(), key, foodItemNames);
+    }
+
+    /**
+     * Parses food item names from a list of ingredients using the Spoonacular API
+     * @param client client the request is sent with
+     * @param key Spoonacular API key
+     * @param foodItemNames List of ingredients
+     * @return List of food item names
+     */
+    public static List<String> parseFoodItemNames(ApiClient client, String key, List<String> foodItemNames) {
         String input = String.join("\n", foodItemNames);
-        JSONArray jsonOutput = parseFoodItems(key, input);
+        JSONArray jsonOutput = parseFoodItems(client, key, input);
         return getNames(jsonOutput);
     }
-    private static JSONArray parseFoodItems(String key, String foodItemNames) {
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
+    private static JSONArray parseFoodItems(ApiClient client, String key, String foodItemNames) {
         RequestBody formBody = new FormBody.Builder()
                 .add("ingredientList", foodItemNames)
                 .build();
-        String postBody = "ingredientList=" + foodItemNames;
-        Request request = new Request.Builder()
-                .url(String.format(
-                        "https://api.spoonacular.com/recipes/parseIngredients?apiKey=%s",
-                        key))
-                .post(formBody)
-                .build();
+        String url = String.format("%s/recipes/parseIngredients?apiKey=%s", client.getBaseUrl(), key);
         try {
-            Response response = client.newCall(request).execute();
-            return new JSONArray(response.body().string());
+            return new JSONArray(client.post(url, formBody));
         } catch (IOException | JSONException e) {
             throw new RuntimeException(e);
         }
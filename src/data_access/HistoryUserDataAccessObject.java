@@ -0,0 +1,251 @@
+package data_access;
+
+import entities.*;
+import use_case.export_inventory.ExportInventoryDataAccessInterface.ItemVisitor;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Data access object that records every change to an inventory in an InventoryHistory and passes everything on
+ * to another data access object, so it works with any way of storing users.
+ *
+ * Removing the first item, which the remove expired use case does, is recorded as the item expiring if it
+ * expires today or earlier, the same days the use case counts as expired, and as consuming it otherwise. Removing a specific item is recorded as consuming it.
+ * The delete use case removes an item and adds a copy of it back with the amount that is left, so that is
+ * recorded as consuming the difference.
+ */
+public class HistoryUserDataAccessObject implements UserDataAccessInterface {
+    private final UserDataAccessInterface userDataAccessObject;
+
+    private final InventoryHistory history;
+
+    // item removed by removeSpecificItem by user, only recorded once it is clear whether it is added back
+    private final Map<Integer, FoodItem> pendingRemovals = new HashMap<>();
+
+    private final Map<Integer, Float> pendingAmounts = new HashMap<>();
+
+    /**
+     * Data access object recording the changes made through it
+     *
+     * @param userDataAccessObject  data access object the users are stored in
+     * @param history   history the changes are recorded in
+     */
+    public HistoryUserDataAccessObject(UserDataAccessInterface userDataAccessObject, InventoryHistory history) {
+        this.userDataAccessObject = userDataAccessObject;
+        this.history = history;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    private synchronized void recordPending(int userId) {
+        FoodItem removed = pendingRemovals.remove(userId);
+        if (removed != null) {
+            history.record(InventoryHistory.EventType.CONSUME, userId, removed, pendingAmounts.remove(userId),
+                    LocalDate.now());
+        }
+    }
+
+    /**
+     * Record the changes that are still pending and write them to the history, called before the history is
+     * queried or closed
+     */
+    public synchronized void flush() {
+        for (int userId : new ArrayList<>(pendingRemovals.keySet())) {
+            recordPending(userId);
+        }
+        try {
+            history.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        userDataAccessObject.addItem(userId, item);
+        synchronized (this) {
+            FoodItem removed = pendingRemovals.get(userId);
+            // a copy made by withAmount shares the expiration date of the item it was made from
+            if (removed != null && removed.sameName(item) &&
+                    removed.getCalendarObject() == item.getCalendarObject()) {
+                // the rest of an item that was partly consumed
+                pendingRemovals.remove(userId);
+                float consumed = pendingAmounts.remove(userId) - item.getAmount();
+                history.record(InventoryHistory.EventType.CONSUME, userId, item, consumed, LocalDate.now());
+            } else {
+                recordPending(userId);
+                history.record(InventoryHistory.EventType.ADD, userId, item, item.getAmount(), LocalDate.now());
+            }
+        }
+    }
+
+    /**
+     * Add items to the user's inventory
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        userDataAccessObject.addItems(userId, items);
+        synchronized (this) {
+            recordPending(userId);
+            LocalDate today = LocalDate.now();
+            for (FoodItem item : items) {
+                history.record(InventoryHistory.EventType.ADD, userId, item, item.getAmount(), today);
+            }
+        }
+    }
+
+    /**
+     * Remove a specific item from the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        boolean res = userDataAccessObject.removeSpecificItem(userId, item);
+        if (res) {
+            synchronized (this) {
+                recordPending(userId);
+                pendingRemovals.put(userId, item);
+                pendingAmounts.put(userId, item.getAmount());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public void removeItem(int userId) {
+        // the first item is removed as that specific item, so the item recorded is the one that was removed even
+        // if another thread changes the inventory in between
+        FoodItem item;
+        do {
+            item = userDataAccessObject.getSnapshot(userId).peek();
+            if (item == null) {
+                return;
+            }
+        } while (!userDataAccessObject.removeSpecificItem(userId, item));
+        LocalDate today = LocalDate.now();
+        Calendar expiration = item.getCalendarObject();
+        LocalDate expires = LocalDate.of(expiration.get(Calendar.YEAR), expiration.get(Calendar.MONTH) + 1,
+                expiration.get(Calendar.DAY_OF_MONTH));
+        synchronized (this) {
+            recordPending(userId);
+            history.record(expires.isAfter(today) ? InventoryHistory.EventType.CONSUME :
+                    InventoryHistory.EventType.EXPIRE, userId, item, item.getAmount(), today);
+        }
+    }
+
+    /**
+     * Save a new user, replacing any user with the same id. The items of the user are not recorded, since they
+     * may have been in the inventory before.
+     * @param userId    id of the user
+     * @param user  user to be saved
+     */
+    @Override
+    public void save(int userId, User user) {
+        userDataAccessObject.save(userId, user);
+    }
+
+    /**
+     * Fetch the inventory of a user as a priority queue
+     * @param userId    id of the user
+     * @return a copy of the user's inventory as a priority queue of FoodItems
+     */
+    @Override
+    public PriorityQueue<FoodItem> getQueue(int userId) {
+        return userDataAccessObject.getQueue(userId);
+    }
+
+    /**
+     * Fetch the current version of the inventory of a user
+     * @param userId    id of the user
+     * @return the snapshot of the user's inventory
+     */
+    @Override
+    public InventorySnapshot getSnapshot(int userId) {
+        return userDataAccessObject.getSnapshot(userId);
+    }
+
+    /**
+     * Fetch the inventory of a user
+     * @param userId    id of the user
+     * @return a list of FoodItems in the user's inventory
+     */
+    @Override
+    public List<FoodItem> getInventory(int userId) {
+        return userDataAccessObject.getInventory(userId);
+    }
+
+    /**
+     * Pass every item of every user to a visitor
+     * @param visitor   visitor the items are passed to
+     * @throws IOException  if the visitor cannot write an item
+     */
+    @Override
+    public void forEachItem(ItemVisitor visitor) throws IOException {
+        userDataAccessObject.forEachItem(visitor);
+    }
+
+    /**
+     * Fetch a user
+     * @param userId    id of the user
+     * @return the user, or null if there is no user with that id
+     */
+    @Override
+    public User get(int userId) {
+        return userDataAccessObject.get(userId);
+    }
+
+    /**
+     * Check whether a user exists
+     * @param userId    id of the user
+     * @return true if there is a user with that id
+     */
+    @Override
+    public boolean existsByUserId(int userId) {
+        return userDataAccessObject.existsByUserId(userId);
+    }
+
+    /**
+     * Fetch the dietary preferences of a user
+     * @param userId    id of the user
+     * @return Dietary preferences object of the user.
+     */
+    @Override
+    public DietaryPreferences retrievePreferences(int userId) {
+        return userDataAccessObject.retrievePreferences(userId);
+    }
+
+    /**
+     * Find recipes for the items of a user that expire soon
+     * @param userId    id of the user
+     * @param preferences   the user's dietary preferences
+     * @return a list of Recipes that are relevant to the user's inventory and dietary preferences.
+     */
+    @Override
+    public List<Recipe> retrieveRecipes(int userId, DietaryPreferences preferences) {
+        return userDataAccessObject.retrieveRecipes(userId, preferences);
+    }
+
+    /**
+     * Standardize the names of food items
+     * @param names  list of food item names
+     * @return a list of standardized food item names
+     */
+    @Override
+    public List<String> standardizeNames(List<String> names) {
+        return userDataAccessObject.standardizeNames(names);
+    }
+}
@@ -0,0 +1,344 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.IngredientDictionary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only history of every item added to, consumed from or expired out of an inventory, for questions like
+ * how much of each ingredient was wasted per month.
+ *
+ * Events are partitioned by month and stored by column, so an aggregate only reads the columns it needs, as
+ * plain arrays of numbers. A partition like 2023-10 is one file per column:
+ * 2023-10.day (epoch day, int), 2023-10.ingredient (int), 2023-10.amount (float), 2023-10.type (byte) and
+ * 2023-10.user (int).
+ * Ingredient ids index the names in the ingredients file, one per line, since ids in the IngredientDictionary
+ * only hold within one run of the program.
+ *
+ * Events are buffered and appended every FLUSH_INTERVAL_MILLIS, when BUFFER_ROWS events are buffered and
+ * when the program exits. If a crash cuts off some columns of the last rows, those rows are dropped when the
+ * history is opened again.
+ */
+public class InventoryHistory implements AutoCloseable {
+    /**
+     * What happened to an item
+     */
+    public enum EventType { ADD, CONSUME, EXPIRE }
+
+    public static final int BUFFER_ROWS = 4096;
+    public static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("(\\d{4})-(\\d{2})\\.type");
+
+    private static final String[] COLUMNS = {"day", "ingredient", "amount", "type", "user"};
+    private static final int[] WIDTHS = {Integer.BYTES, Integer.BYTES, Float.BYTES, 1, Integer.BYTES};
+
+    private static final EventType[] TYPES = EventType.values();
+
+    private final File directory;
+
+    private final File namesFile;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    // history ids by IngredientDictionary id, -1 if not looked up yet
+    private int[] historyIds = new int[0];
+
+    private int writtenNames;
+
+    private final SortedMap<YearMonth, Long> partitionRows = new TreeMap<>();
+
+    private final Map<YearMonth, ByteBuffer[]> buffers = new HashMap<>();
+
+    private int bufferedRows = 0;
+
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Open the history in a directory, creating it if it does not exist yet
+     *
+     * @param directory Directory the history is kept in
+     * @throws IOException  if the history cannot be read
+     */
+    public InventoryHistory(String directory) throws IOException {
+        this.directory = new File(directory);
+        this.directory.mkdirs();
+        namesFile = new File(this.directory, "ingredients");
+        if (namesFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(namesFile),
+                    StandardCharsets.UTF_8))) {
+                String name;
+                while ((name = reader.readLine()) != null) {
+                    nameIds.put(name, names.size());
+                    names.add(name);
+                }
+            }
+        }
+        writtenNames = names.size();
+
+        File[] files = this.directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            Matcher matcher = PARTITION_NAME.matcher(file.getName());
+            if (matcher.matches()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                partitionRows.put(month, repair(month));
+            }
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly));
+    }
+
+    private File columnFile(YearMonth month, int column) {
+        return new File(directory, month + "." + COLUMNS[column]);
+    }
+
+    /**
+     * Cut every column of a partition to the rows that were completely written
+     * @return the number of rows in the partition
+     */
+    private long repair(YearMonth month) throws IOException {
+        long rows = Long.MAX_VALUE;
+        for (int i = 0; i < COLUMNS.length; i++) {
+            rows = Math.min(rows, columnFile(month, i).length() / WIDTHS[i]);
+        }
+        for (int i = 0; i < COLUMNS.length; i++) {
+            File file = columnFile(month, i);
+            if (file.length() != rows * WIDTHS[i]) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE)) {
+                    channel.truncate(rows * WIDTHS[i]);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int historyId(FoodItem item) {
+        int nameId = item.getNameId();
+        if (nameId >= historyIds.length) {
+            int length = historyIds.length;
+            historyIds = Arrays.copyOf(historyIds, Math.max(nameId + 1, IngredientDictionary.size()));
+            Arrays.fill(historyIds, length, historyIds.length, -1);
+        }
+        if (historyIds[nameId] == -1) {
+            historyIds[nameId] = nameIds.computeIfAbsent(item.getName(), name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+        }
+        return historyIds[nameId];
+    }
+
+    /**
+     * Record an event
+     *
+     * @param type  what happened to the item
+     * @param userId    id of the user whose inventory changed
+     * @param item  the item
+     * @param amount    amount of the item that was added, consumed or expired
+     * @param day   day the event happened
+     */
+    public synchronized void record(EventType type, int userId, FoodItem item, float amount, LocalDate day) {
+        YearMonth month = YearMonth.from(day);
+        ByteBuffer[] columns = buffers.computeIfAbsent(month, key -> {
+            ByteBuffer[] res = new ByteBuffer[COLUMNS.length];
+            for (int i = 0; i < res.length; i++) {
+                res[i] = ByteBuffer.allocate(BUFFER_ROWS * WIDTHS[i]);
+            }
+            return res;
+        });
+        columns[0].putInt((int) day.toEpochDay());
+        columns[1].putInt(historyId(item));
+        columns[2].putFloat(amount);
+        columns[3].put((byte) type.ordinal());
+        columns[4].putInt(userId);
+        bufferedRows++;
+        if (!columns[0].hasRemaining()) {
+            flushQuietly();
+        }
+    }
+
+    /**
+     * Append every buffered event to its partition
+     * @throws IOException  if the history cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        // names first, so no row refers to a name that is not written
+        if (writtenNames < names.size()) {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(namesFile, true),
+                    StandardCharsets.UTF_8))) {
+                for (String name : names.subList(writtenNames, names.size())) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+            writtenNames = names.size();
+        }
+        for (Map.Entry<YearMonth, ByteBuffer[]> entry : buffers.entrySet()) {
+            ByteBuffer[] columns = entry.getValue();
+            long rows = columns[0].position() / WIDTHS[0];
+            if (rows == 0) {
+                continue;
+            }
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columns[i].flip();
+                try (FileChannel channel = FileChannel.open(columnFile(entry.getKey(), i).toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    while (columns[i].hasRemaining()) {
+                        channel.write(columns[i]);
+                    }
+                }
+                columns[i].clear();
+            }
+            partitionRows.merge(entry.getKey(), rows, Long::sum);
+        }
+        bufferedRows = 0;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private MappedByteBuffer map(YearMonth month, int column, long rows) throws IOException {
+        try (FileChannel channel = FileChannel.open(columnFile(month, column).toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, rows * WIDTHS[column]);
+        }
+    }
+
+    /**
+     * Sum the amounts of one type of event per ingredient and month, e.g. how much of each ingredient expired
+     *
+     * @param type  type of the events
+     * @param from  first month
+     * @param to    last month
+     * @return the total amount by month and ingredient name, months and ingredients without events are left out
+     * @throws IOException  if the history cannot be read
+     */
+    public synchronized SortedMap<YearMonth, Map<String, Double>> totalsByMonth(EventType type, YearMonth from,
+                                                                              YearMonth to) throws IOException {
+        flush();
+        SortedMap<YearMonth, Map<String, Double>> res = new TreeMap<>();
+        byte wanted = (byte) type.ordinal();
+        for (Map.Entry<YearMonth, Long> partition : partitionRows.subMap(from, to.plusMonths(1)).entrySet()) {
+            YearMonth month = partition.getKey();
+            int rows = Math.toIntExact(partition.getValue());
+            ByteBuffer types = map(month, 3, rows);
+            ByteBuffer ingredients = map(month, 1, rows);
+            ByteBuffer amounts = map(month, 2, rows);
+
+            double[] totals = new double[names.size()];
+            boolean[] seen = new boolean[names.size()];
+            for (int row = 0; row < rows; row++) {
+                if (types.get(row) == wanted) {
+                    int ingredient = ingredients.getInt(row * Integer.BYTES);
+                    totals[ingredient] += amounts.getFloat(row * Float.BYTES);
+                    seen[ingredient] = true;
+                }
+            }
+
+            Map<String, Double> byName = new HashMap<>();
+            for (int i = 0; i < totals.length; i++) {
+                if (seen[i]) {
+                    byName.put(names.get(i), totals[i]);
+                }
+            }
+            if (!byName.isEmpty()) {
+                res.put(month, byName);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Work out what a user had on a day from the events up to it, the amounts added minus the amounts consumed or
+     * expired
+     *
+     * @param userId    id of the user
+     * @param day   the day, events on that day are included
+     * @return the amount of each ingredient the user had, ingredients that were all used up are left out
+     * @throws IOException  if the history cannot be read
+     */
+    public synchronized Map<String, Double> inventoryAt(int userId, LocalDate day) throws IOException {
+        flush();
+        double[] totals = new double[names.size()];
+        int lastDay = (int) day.toEpochDay();
+        for (Map.Entry<YearMonth, Long> partition : partitionRows.headMap(YearMonth.from(day).plusMonths(1))
+                .entrySet()) {
+            YearMonth month = partition.getKey();
+            int rows = Math.toIntExact(partition.getValue());
+            ByteBuffer users = map(month, 4, rows);
+            ByteBuffer days = map(month, 0, rows);
+            ByteBuffer types = map(month, 3, rows);
+            ByteBuffer ingredients = map(month, 1, rows);
+            ByteBuffer amounts = map(month, 2, rows);
+            for (int row = 0; row < rows; row++) {
+                if (users.getInt(row * Integer.BYTES) != userId || days.getInt(row * Integer.BYTES) > lastDay) {
+                    continue;
+                }
+                float amount = amounts.getFloat(row * Float.BYTES);
+                int ingredient = ingredients.getInt(row * Integer.BYTES);
+                totals[ingredient] += TYPES[types.get(row)] == EventType.ADD ? amount : -amount;
+            }
+        }
+
+        Map<String, Double> res = new HashMap<>();
+        for (int i = 0; i < totals.length; i++) {
+            // amounts are floats, so leave out what is left of rounding errors
+            if (totals[i] > 1e-4) {
+                res.put(names.get(i), totals[i]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return the number of events recorded
+     */
+    public synchronized long size() {
+        long res = bufferedRows;
+        for (long rows : partitionRows.values()) {
+            res += rows;
+        }
+        return res;
+    }
+
+    /**
+     * Write the buffered events and stop the background flush
+     * @throws IOException  if the history cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,259 @@
+package data_access;
+
+import entities.FoodItem;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of inventory changes. Every change is written as a single line like
+ * Op,UserId,Name:Year:Month:Day:Amount where Op is A for an added item and R for a removed item.
+ *
+ * The first line, S,Checksum, holds the checksum of the snapshot the changes were made on top of, so a journal
+ * that a newer snapshot already contains can be told apart from one that still has to be replayed. Every
+ * change is forced to disk before append returns.
+ */
+public class InventoryJournal {
+    public static final char ADD = 'A';
+    public static final char REMOVE = 'R';
+
+    public static final char SNAPSHOT = 'S';
+
+    private final File journalFile;
+
+    private FileOutputStream out;
+
+    private BufferedWriter writer;
+
+    private Long snapshotChecksum;
+
+    private int size;
+
+    private List<Entry> recovered;
+
+    /**
+     * A single change recorded in the journal
+     */
+    public static class Entry {
+        private final char op;
+        private final int userId;
+        private final FoodItem item;
+
+        Entry(char op, int userId, FoodItem item) {
+            this.op = op;
+            this.userId = userId;
+            this.item = item;
+        }
+
+        public char getOp() {
+            return op;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public FoodItem getItem() {
+            return item;
+        }
+    }
+
+    /**
+     * Open the journal, creating the file if it does not exist yet. A record that was cut off by a crash is
+     * removed from the file, so changes appended after it are not lost.
+     *
+     * @param journalPath   File the changes are appended to
+     * @throws IOException  if the journal file cannot be opened
+     */
+    public InventoryJournal(String journalPath) throws IOException {
+        journalFile = new File(journalPath);
+        recovered = new ArrayList<>();
+        if (!read(recovered)) {
+            // cut off the partially written record, or the next change would be appended to it and lost
+            rewrite(snapshotChecksum, recovered);
+        }
+        size = recovered.size();
+        open();
+    }
+
+    private void open() throws IOException {
+        out = new FileOutputStream(journalFile, true);
+        writer = new BufferedWriter(new OutputStreamWriter(out));
+    }
+
+    /**
+     * Read every change recorded since the journal was last cleared. A line that cannot be parsed
+     * (e.g. the last line of a write that was cut off) is skipped.
+     *
+     * @return the recorded changes in the order they were made
+     * @throws IOException  if the journal file cannot be read
+     */
+    public List<Entry> readEntries() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        read(entries);
+        return entries;
+    }
+
+    /**
+     * Take the changes that were in the journal when it was opened, without reading the file again. They are
+     * only kept until they are taken.
+     *
+     * @return the changes recorded before the journal was opened, in the order they were made
+     */
+    public synchronized List<Entry> takeRecoveredEntries() {
+        List<Entry> res = recovered;
+        recovered = new ArrayList<>();
+        return res;
+    }
+
+    /**
+     * @return the checksum of the snapshot the changes in the journal were made on top of, or null for a journal
+     * written before snapshots had checksums
+     */
+    public synchronized Long getSnapshotChecksum() {
+        return snapshotChecksum;
+    }
+
+    /**
+     * @return false if a line could not be parsed
+     */
+    private boolean read(List<Entry> entries) throws IOException {
+        if (!journalFile.exists()) {
+            return true;
+        }
+        boolean intact = true;
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String row;
+            while ((row = reader.readLine()) != null) {
+                if (entries.isEmpty() && row.startsWith(SNAPSHOT + ",")) {
+                    try {
+                        snapshotChecksum = Long.parseLong(row.substring(2));
+                        continue;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+                String[] col = row.split(",", 3);
+                if (col.length < 3 || col[0].length() != 1) {
+                    intact = false;
+                    continue;
+                }
+                try {
+                    entries.add(new Entry(col[0].charAt(0), Integer.parseInt(col[1]),
+                            CsvUserFileFormat.parseItem(col[2])));
+                } catch (RuntimeException e) {
+                    // partially written record, nothing after it can be trusted either
+                    return false;
+                }
+            }
+        }
+        return intact;
+    }
+
+    private void rewrite(Long checksum, List<Entry> entries) throws IOException {
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        try (FileOutputStream tempOut = new FileOutputStream(tempFile, false)) {
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(tempOut));
+            if (checksum != null) {
+                out.write(SNAPSHOT + "," + checksum);
+                out.newLine();
+            }
+            for (Entry entry : entries) {
+                out.write(entry.op + "," + entry.userId + "," + CsvUserFileFormat.formatItem(entry.item));
+                out.newLine();
+            }
+            out.flush();
+            tempOut.getChannel().force(true);
+        }
+        Files.move(tempFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Append a change to the end of the journal
+     *
+     * @param op    ADD or REMOVE
+     * @param userId   id of the user
+     * @param item  item that was added or removed
+     */
+    public synchronized void append(char op, int userId, FoodItem item) {
+        try {
+            writer.write(op + "," + userId + "," + CsvUserFileFormat.formatItem(item));
+            writer.newLine();
+            writer.flush();
+            out.getChannel().force(false);
+            size++;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Append changes of one kind to one user to the end of the journal, flushed once
+     *
+     * @param op    ADD or REMOVE
+     * @param userId   id of the user
+     * @param items  items that were added or removed
+     */
+    public synchronized void appendAll(char op, int userId, List<FoodItem> items) {
+        try {
+            for (FoodItem item : items) {
+                writer.write(op + "," + userId + "," + CsvUserFileFormat.formatItem(item));
+                writer.newLine();
+            }
+            writer.flush();
+            out.getChannel().force(false);
+            size += items.size();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Remove every change from the journal, used once they are all contained in a snapshot. The empty journal
+     * replaces the old one in a single rename.
+     *
+     * @param checksum  checksum of the snapshot that contains the changes, see checksum
+     */
+    public synchronized void clear(long checksum) {
+        try {
+            writer.close();
+            rewrite(checksum, new ArrayList<>());
+            snapshotChecksum = checksum;
+            open();
+            size = 0;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Compute the checksum of a snapshot file
+     *
+     * @param snapshot  the snapshot
+     * @return the CRC-32 of its contents
+     * @throws IOException  if the file cannot be read
+     */
+    public static long checksum(File snapshot) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(snapshot)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @return the number of changes recorded since the journal was last cleared
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,419 @@
+package data_access;
+
+import entities.*;
+import use_case.export_inventory.ExportInventoryDataAccessInterface.ItemVisitor;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Data access object that stores users in an embedded sql database through jdbc, e.g. H2 with a url like
+ * jdbc:h2:./users. The jdbc driver has to be on the classpath. Each change is a single prepared statement
+ * instead of a rewrite of every user, and items are indexed by user and expiration date.
+ *
+ * Users are loaded the first time they are accessed and kept in memory, and getSnapshot() hands out their
+ * current version like FileUserDataAccessObject does. All methods synchronize on the data access object, since a jdbc
+ * connection can not be used by several threads at once.
+ */
+public class JdbcUserDataAccessObject implements UserDataAccessInterface, AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+
+    private final Connection connection;
+
+    private final UserFactory userFactory;
+
+    private final RecipeFinder recipeFinder = new RecipeFinder();
+
+    private final Map<Integer, User> accounts = new HashMap<>();
+
+    private final PreparedStatement selectUser;
+
+    private final PreparedStatement selectItems;
+
+    private final PreparedStatement selectRestrictions;
+
+    private final PreparedStatement insertUser;
+
+    private final PreparedStatement insertItem;
+
+    private final PreparedStatement insertRestriction;
+
+    private final PreparedStatement deleteUser;
+
+    private final PreparedStatement deleteItem;
+
+    private final PreparedStatement deleteItems;
+
+    private final PreparedStatement deleteRestrictions;
+
+    /**
+     * Data access object for a database, creating the tables if they do not exist yet
+     *
+     * @param url   jdbc url of the database
+     * @param userFactory   User factory to create new users
+     * @throws SQLException if the database can not be opened
+     */
+    public JdbcUserDataAccessObject(String url, UserFactory userFactory) throws SQLException {
+        this.userFactory = userFactory;
+        this.connection = DriverManager.getConnection(url);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS users (id INT PRIMARY KEY)");
+            statement.execute("CREATE TABLE IF NOT EXISTS food_items (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, user_id INT NOT NULL, " +
+                    "name VARCHAR(255) NOT NULL, expiration DATE NOT NULL, amount REAL NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS food_items_user_expiration " +
+                    "ON food_items (user_id, expiration)");
+            statement.execute("CREATE TABLE IF NOT EXISTS restrictions (user_id INT NOT NULL, " +
+                    "name VARCHAR(255) NOT NULL, restriction_value REAL NOT NULL, PRIMARY KEY (user_id, name))");
+        }
+
+        selectUser = connection.prepareStatement("SELECT id FROM users WHERE id = ?");
+        selectItems = connection.prepareStatement(
+                "SELECT name, expiration, amount FROM food_items WHERE user_id = ? ORDER BY expiration");
+        selectRestrictions = connection.prepareStatement(
+                "SELECT name, restriction_value FROM restrictions WHERE user_id = ?");
+        insertUser = connection.prepareStatement("INSERT INTO users (id) VALUES (?)");
+        insertItem = connection.prepareStatement(
+                "INSERT INTO food_items (user_id, name, expiration, amount) VALUES (?, ?, ?, ?)");
+        insertRestriction = connection.prepareStatement(
+                "INSERT INTO restrictions (user_id, name, restriction_value) VALUES (?, ?, ?)");
+        deleteUser = connection.prepareStatement("DELETE FROM users WHERE id = ?");
+        // items have no identity of their own, so remove one of the rows with the same values
+        deleteItem = connection.prepareStatement("DELETE FROM food_items WHERE id = " +
+                "(SELECT MIN(id) FROM food_items WHERE user_id = ? AND name = ? AND expiration = ? AND amount = ?)");
+        deleteItems = connection.prepareStatement("DELETE FROM food_items WHERE user_id = ?");
+        deleteRestrictions = connection.prepareStatement("DELETE FROM restrictions WHERE user_id = ?");
+    }
+
+    /**
+     * Save a new user, replacing any user with the same id
+     * @param userId    id of the user
+     * @param user  user to be saved
+     */
+    @Override
+    public synchronized void save(int userId, User user) {
+        importUsers(Collections.singletonMap(userId, user));
+    }
+
+    /**
+     * Save many users in one transaction with batched inserts, replacing any users with the same ids
+     * @param users users to save, by id
+     */
+    public synchronized void importUsers(Map<Integer, User> users) {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                int pending = 0;
+                for (Map.Entry<Integer, User> entry : users.entrySet()) {
+                    int userId = entry.getKey();
+                    User user = entry.getValue();
+                    for (PreparedStatement delete : Arrays.asList(deleteUser, deleteItems, deleteRestrictions)) {
+                        delete.setInt(1, userId);
+                        delete.addBatch();
+                    }
+
+                    insertUser.setInt(1, userId);
+                    insertUser.addBatch();
+                    for (FoodItem item : user.getSnapshot()) {
+                        setItem(insertItem, userId, item);
+                        insertItem.addBatch();
+                        pending++;
+                    }
+                    for (String key : user.getAllKeys()) {
+                        insertRestriction.setInt(1, userId);
+                        insertRestriction.setString(2, key);
+                        insertRestriction.setFloat(3, user.getRestriction(key));
+                        insertRestriction.addBatch();
+                        pending++;
+                    }
+                    if (pending >= BATCH_SIZE) {
+                        executeBatches();
+                        pending = 0;
+                    }
+                }
+                executeBatches();
+                connection.commit();
+            } catch (SQLException e) {
+                for (PreparedStatement statement : Arrays.asList(deleteUser, deleteItems, deleteRestrictions,
+                        insertUser, insertItem, insertRestriction)) {
+                    statement.clearBatch();
+                }
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        accounts.putAll(users);
+    }
+
+    private void executeBatches() throws SQLException {
+        deleteUser.executeBatch();
+        deleteItems.executeBatch();
+        deleteRestrictions.executeBatch();
+        insertUser.executeBatch();
+        insertItem.executeBatch();
+        insertRestriction.executeBatch();
+    }
+
+    private static void setItem(PreparedStatement statement, int userId, FoodItem item) throws SQLException {
+        Calendar date = item.getCalendarObject();
+        statement.setInt(1, userId);
+        statement.setString(2, item.getName());
+        statement.setDate(3, java.sql.Date.valueOf(LocalDate.of(date.get(Calendar.YEAR),
+                date.get(Calendar.MONTH) + 1, date.get(Calendar.DAY_OF_MONTH))));
+        statement.setFloat(4, item.getAmount());
+    }
+
+    /**
+     * Fetch a user, loading it from the database if it is not in memory yet
+     * @param userId    id of the user
+     * @return the user, or null if there is no user with that id
+     */
+    @Override
+    public synchronized User get(int userId) {
+        User user = accounts.get(userId);
+        if (user != null) {
+            return user;
+        }
+        try {
+            selectUser.setInt(1, userId);
+            try (ResultSet rs = selectUser.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+            }
+
+            Map<String, Float> restrictions = new HashMap<>();
+            selectRestrictions.setInt(1, userId);
+            try (ResultSet rs = selectRestrictions.executeQuery()) {
+                while (rs.next()) {
+                    restrictions.put(rs.getString(1), rs.getFloat(2));
+                }
+            }
+            user = userFactory.create(restrictions);
+
+            selectItems.setInt(1, userId);
+            List<FoodItem> items = new ArrayList<>();
+            try (ResultSet rs = selectItems.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate date = rs.getDate(2).toLocalDate();
+                    items.add(new FoodItem(rs.getString(1), date.getYear(), date.getMonthValue(),
+                            date.getDayOfMonth(), rs.getFloat(3)));
+                }
+            }
+            user.addItems(items);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        accounts.put(userId, user);
+        return user;
+    }
+
+    private User getUser(int userId) {
+        User user = get(userId);
+        if (user == null) {
+            throw new IllegalArgumentException("No user with id " + userId);
+        }
+        return user;
+    }
+
+    /**
+     * Check whether a user is in the database
+     * @param userId    id of the user
+     * @return true if there is a user with that id
+     */
+    @Override
+    public synchronized boolean existsByUserId(int userId) {
+        return get(userId) != null;
+    }
+
+    /**
+     * Fetch the inventory of a user
+     * @param userId    id of the user
+     * @return a list of FoodItems in the user's inventory
+     */
+    @Override
+    public synchronized List<FoodItem> getInventory(int userId) {
+        return new ArrayList<>(getUser(userId).getSnapshot().toList());
+    }
+
+    /**
+     * Fetch the inventory of a user as a priority queue
+     * @param userId    id of the user
+     * @return a copy of the user's inventory as a priority queue of FoodItems
+     */
+    @Override
+    public synchronized PriorityQueue<FoodItem> getQueue(int userId) {
+        return getUser(userId).getQueue();
+    }
+
+    /**
+     * Fetch the current version of the inventory of a user
+     * @param userId    id of the user
+     * @return the snapshot of the user's inventory
+     */
+    @Override
+    public synchronized InventorySnapshot getSnapshot(int userId) {
+        return getUser(userId).getSnapshot();
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public synchronized void addItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        try {
+            setItem(insertItem, userId, item);
+            insertItem.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        user.addItem(item);
+    }
+
+    /**
+     * Pass every item of every user to a visitor, straight from a query of the food items table so they are not
+     * loaded into memory. Other changes wait until the visitor is done.
+     * @param visitor   visitor the items are passed to
+     * @throws IOException  if the visitor cannot write an item
+     */
+    @Override
+    public synchronized void forEachItem(ItemVisitor visitor) throws IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT user_id, name, expiration, amount FROM food_items ORDER BY user_id, expiration")) {
+                while (rs.next()) {
+                    LocalDate date = rs.getDate(3).toLocalDate();
+                    visitor.visit(rs.getInt(1), new FoodItem(rs.getString(2), date.getYear(), date.getMonthValue(),
+                            date.getDayOfMonth(), rs.getFloat(4)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Add items to the user's inventory in one transaction with batched inserts
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public synchronized void addItems(int userId, List<FoodItem> items) {
+        User user = getUser(userId);
+        try {
+            connection.setAutoCommit(false);
+            try {
+                int pending = 0;
+                for (FoodItem item : items) {
+                    setItem(insertItem, userId, item);
+                    insertItem.addBatch();
+                    if (++pending >= BATCH_SIZE) {
+                        insertItem.executeBatch();
+                        pending = 0;
+                    }
+                }
+                insertItem.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                insertItem.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        user.addItems(items);
+    }
+
+    /**
+     * Remove a specific item from the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public synchronized boolean removeSpecificItem(int userId, FoodItem item) {
+        boolean res = getUser(userId).removeSpecificItem(item);
+        if (res) {
+            delete(userId, item);
+        }
+        return res;
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public synchronized void removeItem(int userId) {
+        delete(userId, getUser(userId).removeItem());
+    }
+
+    private void delete(int userId, FoodItem item) {
+        try {
+            setItem(deleteItem, userId, item);
+            deleteItem.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Fetch the dietary preferences of a user
+     * @param userId    id of the user
+     * @return Dietary preferences object of the user.
+     */
+    @Override
+    public synchronized DietaryPreferences retrievePreferences(int userId) {
+        return getUser(userId).getDietaryRestrictions();
+    }
+
+    /**
+     * Using user information, find recipes that coincide with items in the user's inventory
+     * that expire in a week, and also the dietary preferences that the user has specified.
+     *
+     * @param userId    id of the user
+     * @param preferences   the user's dietary preferences
+     * @return a list of Recipes that are relevant to the user's inventory and dietary preferences.
+     */
+    @Override
+    public List<Recipe> retrieveRecipes(int userId, DietaryPreferences preferences) {
+        List<FoodItem> expiresSoon;
+        synchronized (this) {
+            expiresSoon = new InventoryChecker().weekCheck(getUser(userId).getInventory());
+        }
+        return recipeFinder.findRecipes(expiresSoon, preferences);
+    }
+
+    /**
+     * Standardize the names of food items
+     * @param names  list of food item names
+     * @return a list of standardized food item names
+     */
+    @Override
+    public List<String> standardizeNames(List<String> names) {
+        return recipeFinder.standardizeNames(names);
+    }
+
+    /**
+     * Close the connection to the database
+     * @throws SQLException if the connection can not be closed
+     */
+    @Override
+    public synchronized void close() throws SQLException {
+        connection.close();
+    }
+}
@@ -0,0 +1,42 @@
+package data_access;
+
+import entities.UserFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Copies the users in a csv user file into a database for JdbcUserDataAccessObject.
+ */
+public class JdbcUserMigration {
+
+    /**
+     * Copy every user in a csv user file into a database, replacing users with the same ids
+     *
+     * @param csv   csv user file to read
+     * @param url   jdbc url of the database
+     * @throws IOException  if the csv file cannot be read
+     * @throws SQLException if the database can not be opened
+     */
+    public static void migrate(File csv, String url) throws IOException, SQLException {
+        UserFactory userFactory = new UserFactory();
+        try (JdbcUserDataAccessObject dataAccessObject = new JdbcUserDataAccessObject(url, userFactory)) {
+            dataAccessObject.importUsers(new CsvUserFileFormat().read(csv, userFactory));
+        }
+    }
+
+    /**
+     * Copy a csv user file into a database
+     * @param args  the csv file and the jdbc url of the database, e.g. ./users.csv jdbc:h2:./users
+     * @throws IOException  if the csv file cannot be read
+     * @throws SQLException if the database can not be opened
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 2) {
+            System.out.println("usage: JdbcUserMigration <users.csv> <jdbc url>");
+            return;
+        }
+        migrate(new File(args[0]), args[1]);
+    }
+}
@@ -0,0 +1,257 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Data access object that appends every inventory change to a journal instead of rewriting the whole csv file.
+ * The csv file is only rewritten as a snapshot once the journal holds snapshotInterval changes, and the journal
+ * is replayed on top of the snapshot when the data access object is created.
+ *
+ * Restarting after a crash only reads the last snapshot and the changes after it. With a binary snapshot, like
+ * users.bin, that is the fast-restart mode of the app.
+ *
+ * A change is appended to the journal while the user's lock is held, so the journal has the changes to one
+ * user in the order they were applied.
+ */
+public class JournalUserDataAccessObject extends FileUserDataAccessObject {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+
+    private final InventoryJournal journal;
+
+    private final int snapshotInterval;
+
+    /**
+     * Journaled data access object that takes a snapshot every DEFAULT_SNAPSHOT_INTERVAL changes
+     *
+     * @param csvPath   File snapshots are written too, the journal is kept next to it
+     * @param userFactory   User factory to create new users
+     * @throws IOException  if file readers are incorrectly initialized
+     */
+    public JournalUserDataAccessObject(String csvPath, UserFactory userFactory) throws IOException {
+        this(csvPath, userFactory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Journaled data access object
+     *
+     * @param csvPath   File snapshots are written too, the journal is kept next to it
+     * @param userFactory   User factory to create new users
+     * @param snapshotInterval  number of journaled changes after which a snapshot is taken
+     * @throws IOException  if file readers are incorrectly initialized
+     */
+    public JournalUserDataAccessObject(String csvPath, UserFactory userFactory, int snapshotInterval)
+            throws IOException {
+        super(csvPath, userFactory, formatFor(csvPath), SnapshotWriter.SyncPolicy.EVERY_WRITE, 0, true);
+        this.snapshotInterval = snapshotInterval;
+        this.journal = new InventoryJournal(csvPath + ".journal");
+
+        List<InventoryJournal.Entry> entries = journal.takeRecoveredEntries();
+        Long checksum = journal.getSnapshotChecksum();
+        if (checksum == null) {
+            // a new journal, or one written before it had the checksum of its snapshot
+            replay(entries);
+            snapshot();
+            return;
+        }
+        // computed while the snapshot was loaded, so it is not read a second time
+        long current = getSnapshotChecksum();
+        if (checksum == current) {
+            replay(entries);
+        } else {
+            // the crash came after the snapshot was written but before the journal was cleared, so the snapshot
+            // already has every change in the journal
+            journal.clear(current);
+        }
+    }
+
+    /**
+     * Apply the changes in the journal on top of the snapshot. The changes are applied to a list of items per
+     * user and each user's inventory is set once, so replaying does not copy the inventory for every change.
+     */
+    private void replay(List<InventoryJournal.Entry> entries) {
+        Map<Integer, Replay> replays = new HashMap<>();
+        for (InventoryJournal.Entry entry : entries) {
+            Replay replay = replays.get(entry.getUserId());
+            if (replay == null) {
+                User user = get(entry.getUserId());
+                if (user == null) {
+                    continue;
+                }
+                replay = new Replay(user);
+                replays.put(entry.getUserId(), replay);
+            }
+            if (entry.getOp() == InventoryJournal.ADD) {
+                replay.add(entry.getItem());
+            } else if (entry.getOp() == InventoryJournal.REMOVE) {
+                replay.remove(entry.getItem());
+            }
+        }
+        for (Replay replay : replays.values()) {
+            replay.user.setItems(replay.items());
+        }
+    }
+
+    /**
+     * The items of one user while the journal is replayed, the items of the snapshot followed by the items added
+     * since. A removed item is matched by its name, expiration date and amount, and of equal items the first one
+     * added is removed.
+     */
+    private static class Replay {
+        final User user;
+
+        final List<FoodItem> items;
+
+        final Set<FoodItem> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Replay(User user) {
+            this.user = user;
+            this.items = new ArrayList<>(user.getSnapshot().toList());
+        }
+
+        void add(FoodItem item) {
+            items.add(item);
+        }
+
+        void remove(FoodItem item) {
+            for (FoodItem candidate : items) {
+                if (!removed.contains(candidate) && candidate.sameName(item) &&
+                        candidate.getExpirationDate().equals(item.getExpirationDate()) &&
+                        candidate.getAmount().equals(item.getAmount())) {
+                    removed.add(candidate);
+                    return;
+                }
+            }
+        }
+
+        List<FoodItem> items() {
+            if (!removed.isEmpty()) {
+                items.removeIf(removed::contains);
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Take a snapshot once the journal is full
+     */
+    private void snapshotIfFull() {
+        if (journal.size() >= snapshotInterval) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Rewrite the csv file with the current state and empty the journal. The journal is cleared after the
+     * snapshot is in place and records the snapshot's checksum, so after a crash in between the journal is not
+     * applied a second time.
+     */
+    public synchronized void snapshot() {
+        // no change may be journaled between writing the snapshot and clearing the journal
+        List<Lock> held = lockAllForRead();
+        try {
+            journal.clear(saveSnapshot());
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Changes that are not journaled, like saving a new user, take a snapshot, right away or at the next flush
+     * in write-behind mode
+     */
+    @Override
+    protected synchronized void save() {
+        // FileUserDataAccessObject saves a new file before the journal is opened
+        if (journal == null) {
+            super.save();
+        } else {
+            snapshot();
+        }
+    }
+
+    /**
+     * Remove a specific item from the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        boolean res;
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            res = user.removeSpecificItem(item);
+            if (res) {
+                journal.append(InventoryJournal.REMOVE, userId, item);
+            }
+        } finally {
+            lock.unlock();
+        }
+        snapshotIfFull();
+        return res;
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public void removeItem(int userId) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            FoodItem item = user.removeItem();
+            journal.append(InventoryJournal.REMOVE, userId, item);
+        } finally {
+            lock.unlock();
+        }
+        snapshotIfFull();
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItem(item);
+            journal.append(InventoryJournal.ADD, userId, item);
+        } finally {
+            lock.unlock();
+        }
+        snapshotIfFull();
+    }
+
+    /**
+     * Add items to the user's inventory, journaled with a single flush
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItems(items);
+            journal.appendAll(InventoryJournal.ADD, userId, items);
+        } finally {
+            lock.unlock();
+        }
+        snapshotIfFull();
+    }
+}
@@ -0,0 +1,208 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Data access object that takes the writes while followers serve reads. It stores users like
+ * FileUserDataAccessObject and also appends every change to a ReplicationLog, which streams them to the
+ * FollowerUserDataAccessObjects connected to its port.
+ *
+ * A change is appended to the log while the user's lock is held, so followers get the changes to one user in
+ * the order they were applied, and a snapshot taken under every lock matches the sequence of the log.
+ */
+public class LeaderUserDataAccessObject extends FileUserDataAccessObject implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7207;
+
+    private final ReplicationLog log;
+
+    private final BinaryUserFileFormat replicationFormat = new BinaryUserFileFormat();
+
+    /**
+     * Leader that accepts followers on the default port
+     *
+     * @param path  File data is written too
+     * @param userFactory   User factory to create new users
+     * @throws IOException  if file readers are incorrectly initialized, or the port cannot be opened
+     */
+    public LeaderUserDataAccessObject(String path, UserFactory userFactory) throws IOException {
+        this(path, userFactory, DEFAULT_PORT, ReplicationLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Leader
+     *
+     * @param path  File data is written too
+     * @param userFactory   User factory to create new users
+     * @param port  port followers connect to on the loopback interface, 0 for any free port
+     * @param logCapacity   number of changes kept for followers that fall behind before they need a snapshot
+     * @throws IOException  if file readers are incorrectly initialized, or the port cannot be opened
+     */
+    public LeaderUserDataAccessObject(String path, UserFactory userFactory, int port, int logCapacity)
+            throws IOException {
+        super(path, userFactory);
+        log = new ReplicationLog(port, logCapacity, this::takeSnapshot);
+        log.start();
+    }
+
+    private ReplicationLog.Snapshot takeSnapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Lock> held = lockAllForRead();
+        try {
+            long sequence = log.getSequence();
+            replicationFormat.write(getAccounts(), out);
+            return new ReplicationLog.Snapshot(sequence, out.toByteArray());
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    private static byte[] encode(FoodItem item) {
+        return CsvUserFileFormat.formatItem(item).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Save a new user, replacing any user with the same id
+     * @param userId    id of the user
+     * @param user  user to be saved
+     */
+    @Override
+    public void save(int userId, User user) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // putAll needs the monitor, which has to be taken before the user's lock
+        synchronized (this) {
+            Lock lock = lockFor(userId).writeLock();
+            lock.lock();
+            try {
+                putAll(Collections.singletonMap(userId, user));
+                replicationFormat.write(Collections.singletonMap(userId, user), out);
+                log.append(ReplicationLog.SAVE, userId, out.toByteArray());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        persist(userId);
+    }
+
+    /**
+     * Remove a specific item from the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        boolean res;
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            res = user.removeSpecificItem(item);
+            if (res) {
+                log.append(ReplicationLog.REMOVE, userId, encode(item));
+            }
+        } finally {
+            lock.unlock();
+        }
+        persist(userId);
+        return res;
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public void removeItem(int userId) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            log.append(ReplicationLog.REMOVE, userId, encode(user.removeItem()));
+        } finally {
+            lock.unlock();
+        }
+        persist(userId);
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItem(item);
+            log.append(ReplicationLog.ADD, userId, encode(item));
+        } finally {
+            lock.unlock();
+        }
+        persist(userId);
+    }
+
+    /**
+     * Add items to the user's inventory, writing the file once
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItems(items);
+            for (FoodItem item : items) {
+                log.append(ReplicationLog.ADD, userId, encode(item));
+            }
+        } finally {
+            lock.unlock();
+        }
+        persist(userId);
+    }
+
+    /**
+     * @return the sequence of the last change, a follower has applied every change once it reaches it
+     */
+    public long getSequence() {
+        return log.getSequence();
+    }
+
+    /**
+     * @return the number of followers that are connected
+     */
+    public int getFollowerCount() {
+        return log.getFollowerCount();
+    }
+
+    /**
+     * @return the port followers connect to
+     */
+    public int getPort() {
+        return log.getPort();
+    }
+
+    /**
+     * Disconnect the followers and stop accepting new ones
+     * @throws IOException  if the port cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        log.close();
+    }
+}
@@ -0,0 +1,602 @@
+package data_access;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Small log-structured key-value store. Writes are appended to a log and kept in a sorted in-memory memtable.
+ * Once the memtable holds memtableLimit entries it is written to an immutable sorted segment file and the log
+ * is emptied. When there are compactionThreshold segments, a background thread merges them into one segment,
+ * keeping only the newest value of each key and dropping deleted keys.
+ *
+ * Keys are longs that sort by user id and then by a per-user id, see key(). Every segment file records the
+ * oldest generation it contains, so segments that were merged into a newer one are ignored if the program
+ * stopped before they were deleted. A merged segment is written under a new generation and replaces its inputs
+ * in one step, so readers see either the inputs or the merged segment.
+ *
+ * The changes passed to one call of writeAll are appended to the log as a single batch record, so after a
+ * crash either all of them or none of them are replayed.
+ */
+public class LogStructuredStore implements AutoCloseable {
+    public static final int DEFAULT_MEMTABLE_LIMIT = 10000;
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 4;
+
+    private static final int MAGIC = 0x4C534D31;
+    private static final byte END = 0;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte BATCH = 3;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.seg");
+
+    /**
+     * Receives the entries of the store in key order
+     */
+    public interface Visitor {
+        void visit(long key, String value);
+    }
+
+    private static class Segment {
+        final File file;
+        final long first;
+        final long generation;
+
+        Segment(File file, long first, long generation) {
+            this.file = file;
+            this.first = first;
+            this.generation = generation;
+        }
+    }
+
+    private final File dir;
+
+    private final File logFile;
+
+    private final int memtableLimit;
+
+    private final int compactionThreshold;
+
+    // deleted keys map to null
+    private TreeMap<Long, String> memtable = new TreeMap<>();
+
+    // oldest first
+    private final List<Segment> segments = new ArrayList<>();
+
+    private DataOutputStream log;
+
+    private long nextGeneration = 1;
+
+    private boolean compacting = false;
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lsm-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Store with the default memtable limit and compaction threshold
+     *
+     * @param directory Directory the log and segment files are kept in, created if it does not exist
+     * @throws IOException  if the files cannot be read
+     */
+    public LogStructuredStore(String directory) throws IOException {
+        this(directory, DEFAULT_MEMTABLE_LIMIT, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Store
+     *
+     * @param directory Directory the log and segment files are kept in, created if it does not exist
+     * @param memtableLimit number of entries after which the memtable is written to a segment
+     * @param compactionThreshold   number of segments after which they are merged
+     * @throws IOException  if the files cannot be read
+     */
+    public LogStructuredStore(String directory, int memtableLimit, int compactionThreshold) throws IOException {
+        if (memtableLimit <= 0 || compactionThreshold < 2) {
+            throw new IllegalArgumentException("memtableLimit must be positive and compactionThreshold at least 2");
+        }
+        this.memtableLimit = memtableLimit;
+        this.compactionThreshold = compactionThreshold;
+        dir = new File(directory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        logFile = new File(dir, "log");
+
+        openSegments();
+        replayLog();
+        // the log may end with a partially written record, start over with an empty one
+        flushMemtable();
+        log = openLog();
+        maybeCompact();
+    }
+
+    /**
+     * Key of an entry
+     * @param userId    id of the user
+     * @param id    id of the entry within the user
+     * @return a key that sorts by user id and then by id
+     */
+    public static long key(int userId, int id) {
+        return ((long) userId << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key   key of an entry
+     * @return the user id of the key
+     */
+    public static int userId(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * @param key   key of an entry
+     * @return the id within the user of the key
+     */
+    public static int id(long key) {
+        return (int) key;
+    }
+
+    private void openSegments() throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IOException("Could not list " + dir);
+        }
+        List<Segment> found = new ArrayList<>();
+        for (File file : files) {
+            Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+            if (file.getName().endsWith(".tmp")) {
+                Files.delete(file.toPath());
+            } else if (matcher.matches()) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                    if (in.readInt() != MAGIC) {
+                        throw new IOException("Corrupted segment " + file);
+                    }
+                    found.add(new Segment(file, in.readLong(), Long.parseLong(matcher.group(1))));
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(segment -> segment.generation));
+
+        // newest first, drop segments that a later compaction already contains
+        long covered = Long.MAX_VALUE;
+        for (int i = found.size() - 1; i >= 0; i--) {
+            Segment segment = found.get(i);
+            if (segment.generation >= covered) {
+                Files.delete(segment.file.toPath());
+            } else {
+                segments.add(0, segment);
+                covered = Math.min(covered, segment.first);
+            }
+        }
+        if (!found.isEmpty()) {
+            nextGeneration = found.get(found.size() - 1).generation + 1;
+        }
+    }
+
+    private void replayLog() throws IOException {
+        if (!logFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (true) {
+                byte op = in.readByte();
+                if (op == BATCH) {
+                    byte[] batch = new byte[in.readInt()];
+                    in.readFully(batch);
+                    TreeMap<Long, String> changes = new TreeMap<>();
+                    DataInputStream records = new DataInputStream(new ByteArrayInputStream(batch));
+                    while (records.available() > 0) {
+                        readRecord(records.readByte(), records, changes);
+                    }
+                    memtable.putAll(changes);
+                } else if (!readRecord(op, in, memtable)) {
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            // end of the log, or a record that was not completely written
+        }
+    }
+
+    /**
+     * Read a PUT or DELETE record after its op
+     * @return false if op is not one of them
+     */
+    private static boolean readRecord(byte op, DataInputStream in, Map<Long, String> changes) throws IOException {
+        if (op != PUT && op != DELETE) {
+            return false;
+        }
+        long key = in.readLong();
+        changes.put(key, op == PUT ? in.readUTF() : null);
+        return true;
+    }
+
+    private static void writeRecord(DataOutputStream out, long key, String value) throws IOException {
+        out.writeByte(value == null ? DELETE : PUT);
+        out.writeLong(key);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Open an empty log
+     */
+    private DataOutputStream openLog() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, false)));
+    }
+
+    /**
+     * Set the value of a key
+     * @param key   key of the entry
+     * @param value new value of the entry
+     */
+    public synchronized void put(long key, String value) {
+        append(key, value);
+    }
+
+    /**
+     * Set the values of several keys as one batch
+     * @param entries   new values by key
+     */
+    public synchronized void putAll(Map<Long, String> entries) {
+        writeAll(entries);
+    }
+
+    /**
+     * Set and delete several keys as one batch, written to the log in a single record and flush
+     * @param changes   new values by key, keys that map to null are deleted
+     */
+    public synchronized void writeAll(Map<Long, String> changes) {
+        try {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            DataOutputStream records = new DataOutputStream(batch);
+            for (Map.Entry<Long, String> entry : changes.entrySet()) {
+                writeRecord(records, entry.getKey(), entry.getValue());
+            }
+            log.writeByte(BATCH);
+            log.writeInt(batch.size());
+            batch.writeTo(log);
+            log.flush();
+            memtable.putAll(changes);
+            if (memtable.size() >= memtableLimit) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Delete a key
+     * @param key   key of the entry
+     */
+    public synchronized void delete(long key) {
+        append(key, null);
+    }
+
+    private void append(long key, String value) {
+        try {
+            writeRecord(log, key, value);
+            log.flush();
+            memtable.put(key, value);
+            if (memtable.size() >= memtableLimit) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the memtable to a segment and empty the log
+     * @throws IOException  if the segment cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (memtable.isEmpty()) {
+            return;
+        }
+        flushMemtable();
+        log.close();
+        log = openLog();
+        maybeCompact();
+    }
+
+    private void flushMemtable() throws IOException {
+        if (memtable.isEmpty()) {
+            return;
+        }
+        long generation = nextGeneration++;
+        File file = segmentFile(generation);
+        TreeMap<Long, String> entries = memtable;
+        writeSegment(file, generation, visitor -> {
+            for (Map.Entry<Long, String> entry : entries.entrySet()) {
+                visitor.visit(entry.getKey(), entry.getValue());
+            }
+        });
+        segments.add(new Segment(file, generation, generation));
+        memtable = new TreeMap<>();
+    }
+
+    private File segmentFile(long generation) {
+        return new File(dir, "segment-" + generation + ".seg");
+    }
+
+    private interface Entries {
+        void forEach(Visitor visitor) throws IOException;
+    }
+
+    /**
+     * Write a segment to a temporary file and rename it, so a segment file is always complete
+     */
+    private void writeSegment(File file, long first, Entries entries) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeLong(first);
+            try {
+                entries.forEach((key, value) -> {
+                    try {
+                        writeRecord(out, key, value);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.writeByte(END);
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform can sync a directory
+        }
+    }
+
+    private void maybeCompact() {
+        if (segments.size() >= compactionThreshold && !compacting && !compactor.isShutdown()) {
+            compacting = true;
+            try {
+                compactor.submit(this::compact);
+            } catch (RejectedExecutionException e) {
+                // the store is being closed
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Merge every segment into one new segment, which replaces them once it is completely written
+     */
+    void compact() {
+        List<Segment> inputs;
+        long generation;
+        synchronized (this) {
+            inputs = new ArrayList<>(segments);
+            // newer than the inputs and older than every segment flushed while they are merged
+            generation = nextGeneration++;
+        }
+        try {
+            if (inputs.size() > 1) {
+                long first = inputs.get(0).first;
+                File file = segmentFile(generation);
+                // the oldest segment is merged too, so nothing older can be hidden by a deleted key
+                writeSegment(file, first, visitor -> merge(sources(inputs, null), true, visitor));
+                synchronized (this) {
+                    segments.removeAll(inputs);
+                    segments.add(0, new Segment(file, first, generation));
+                }
+                for (Segment segment : inputs) {
+                    Files.deleteIfExists(segment.file.toPath());
+                }
+            }
+        } catch (IOException e) {
+            // keep the segments as they are, compaction is tried again after the next flush
+        } finally {
+            synchronized (this) {
+                compacting = false;
+                maybeCompact();
+            }
+        }
+    }
+
+    /**
+     * Visit every key that is not deleted, in key order, with its newest value
+     * @param visitor   receives the entries
+     * @throws IOException  if a segment cannot be read
+     */
+    public synchronized void forEach(Visitor visitor) throws IOException {
+        merge(sources(segments, memtable), true, visitor);
+    }
+
+    /**
+     * @return the number of segment files
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return true while a background compaction is scheduled or running
+     */
+    synchronized boolean isCompacting() {
+        return compacting;
+    }
+
+    /**
+     * Wait for running compactions, then close the log
+     * @throws IOException  if the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            log.close();
+        }
+    }
+
+    /**
+     * Sorted sequence of entries, sources that come later in a merge are newer
+     */
+    private interface Source {
+        boolean next() throws IOException;
+
+        long key();
+
+        String value();
+
+        void close() throws IOException;
+    }
+
+    private static class SegmentSource implements Source {
+        private final DataInputStream in;
+        private long key;
+        private String value;
+
+        SegmentSource(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC) {
+                in.close();
+                throw new IOException("Corrupted segment " + file);
+            }
+            in.readLong();
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            byte op = in.readByte();
+            if (op == END) {
+                return false;
+            }
+            key = in.readLong();
+            value = op == PUT ? in.readUTF() : null;
+            return true;
+        }
+
+        @Override
+        public long key() {
+            return key;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static class MemtableSource implements Source {
+        private final Iterator<Map.Entry<Long, String>> entries;
+        private Map.Entry<Long, String> entry;
+
+        MemtableSource(TreeMap<Long, String> memtable) {
+            entries = memtable.entrySet().iterator();
+        }
+
+        @Override
+        public boolean next() {
+            if (!entries.hasNext()) {
+                return false;
+            }
+            entry = entries.next();
+            return true;
+        }
+
+        @Override
+        public long key() {
+            return entry.getKey();
+        }
+
+        @Override
+        public String value() {
+            return entry.getValue();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static List<Source> sources(List<Segment> segments, TreeMap<Long, String> memtable) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        try {
+            for (Segment segment : segments) {
+                sources.add(new SegmentSource(segment.file));
+            }
+        } catch (IOException e) {
+            for (Source source : sources) {
+                source.close();
+            }
+            throw e;
+        }
+        if (memtable != null) {
+            sources.add(new MemtableSource(memtable));
+        }
+        return sources;
+    }
+
+    /**
+     * Merge sorted sources, visiting the value of the newest source for every key
+     */
+    private static void merge(List<Source> sources, boolean dropDeleted, Visitor visitor) throws IOException {
+        // by key, and newest source first for equal keys
+        PriorityQueue<Integer> heads = new PriorityQueue<>((a, b) -> {
+            int byKey = Long.compare(sources.get(a).key(), sources.get(b).key());
+            return byKey != 0 ? byKey : Integer.compare(b, a);
+        });
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i).next()) {
+                    heads.add(i);
+                }
+            }
+            while (!heads.isEmpty()) {
+                int newest = heads.poll();
+                long key = sources.get(newest).key();
+                String value = sources.get(newest).value();
+                if (value != null || !dropDeleted) {
+                    visitor.visit(key, value);
+                }
+                if (sources.get(newest).next()) {
+                    heads.add(newest);
+                }
+                while (!heads.isEmpty() && sources.get(heads.peek()).key() == key) {
+                    int older = heads.poll();
+                    if (sources.get(older).next()) {
+                        heads.add(older);
+                    }
+                }
+            }
+        } finally {
+            for (Source source : sources) {
+                source.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Data access object that stores users in a LogStructuredStore. Every item gets an id within its user and is
+ * stored under its own key, with the dietary restrictions of the user under id 0, so adding or removing an item
+ * only appends one entry to the store's log instead of rewriting any file.
+ */
+public class LsmUserDataAccessObject extends FileUserDataAccessObject {
+    private static final int RESTRICTIONS = 0;
+
+    private final LogStructuredStore store;
+
+    private final Map<Integer, ItemIds> itemIds = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the items of one user. FoodItem has no equals, so items are told apart by identity, the same way
+     * the inventory's queue does. Guarded by the user's lock.
+     */
+    private static class ItemIds {
+        private final Map<FoodItem, Deque<Integer>> ids = new IdentityHashMap<>();
+        private int next = RESTRICTIONS + 1;
+
+        int add(FoodItem item) {
+            int id = next++;
+            ids.computeIfAbsent(item, key -> new ArrayDeque<>()).push(id);
+            return id;
+        }
+
+        void add(FoodItem item, int id) {
+            ids.computeIfAbsent(item, key -> new ArrayDeque<>()).push(id);
+            next = Math.max(next, id + 1);
+        }
+
+        Integer remove(FoodItem item) {
+            Deque<Integer> itemIds = ids.get(item);
+            if (itemIds == null) {
+                return null;
+            }
+            Integer id = itemIds.pop();
+            if (itemIds.isEmpty()) {
+                ids.remove(item);
+            }
+            return id;
+        }
+
+        List<Integer> all() {
+            List<Integer> res = new ArrayList<>();
+            for (Deque<Integer> itemIds : ids.values()) {
+                res.addAll(itemIds);
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Data access object with the default memtable limit and compaction threshold
+     *
+     * @param directory Directory the store is kept in
+     * @param userFactory   User factory to create new users
+     * @throws IOException  if the store cannot be read
+     */
+    public LsmUserDataAccessObject(String directory, UserFactory userFactory) throws IOException {
+        this(directory, userFactory, LogStructuredStore.DEFAULT_MEMTABLE_LIMIT,
+                LogStructuredStore.DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Data access object
+     *
+     * @param directory Directory the store is kept in
+     * @param userFactory   User factory to create new users
+     * @param memtableLimit number of changes after which the store writes a segment
+     * @param compactionThreshold   number of segments after which the store merges them
+     * @throws IOException  if the store cannot be read
+     */
+    public LsmUserDataAccessObject(String directory, UserFactory userFactory, int memtableLimit,
+                                   int compactionThreshold) throws IOException {
+        super(userFactory);
+        store = new LogStructuredStore(directory, memtableLimit, compactionThreshold);
+
+        Map<Integer, User> users = new HashMap<>();
+        Map<Integer, List<FoodItem>> items = new HashMap<>();
+        store.forEach((key, value) -> {
+            int userId = LogStructuredStore.userId(key);
+            int id = LogStructuredStore.id(key);
+            // the restrictions sort before the items of a user
+            User user = users.computeIfAbsent(userId, k -> userFactory.create(new HashMap<>()));
+            if (id == RESTRICTIONS) {
+                user.setDietaryRestrictions(parseRestrictions(value));
+            } else {
+                FoodItem item = CsvUserFileFormat.parseItem(value);
+                items.computeIfAbsent(userId, k -> new ArrayList<>()).add(item);
+                itemIds.computeIfAbsent(userId, k -> new ItemIds()).add(item, id);
+            }
+        });
+        for (Map.Entry<Integer, List<FoodItem>> entry : items.entrySet()) {
+            users.get(entry.getKey()).addItems(entry.getValue());
+        }
+        putAll(users);
+    }
+
+    private static String formatRestrictions(User user) {
+        StringBuilder res = new StringBuilder();
+        for (String key : user.getAllKeys()) {
+            if (res.length() != 0) {
+                res.append("/");
+            }
+            res.append(key).append(":").append(user.getRestriction(key));
+        }
+        return res.toString();
+    }
+
+    private static Map<String, Float> parseRestrictions(String value) {
+        Map<String, Float> res = new HashMap<>();
+        if (value.isEmpty()) {
+            return res;
+        }
+        for (String restriction : value.split("/")) {
+            String[] parts = restriction.split(":");
+            res.put(parts[0], Float.parseFloat(parts[1]));
+        }
+        return res;
+    }
+
+    private ItemIds ids(int userId) {
+        return itemIds.computeIfAbsent(userId, k -> new ItemIds());
+    }
+
+    /**
+     * Write a whole user, called when a user is saved. Replaces the restrictions and every item of the user in
+     * a single batch, so a crash does not leave the user half replaced.
+     * @param userId    id of the user that changed
+     */
+    @Override
+    protected void persist(int userId) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            Map<Long, String> changes = new LinkedHashMap<>();
+            ItemIds old = ids(userId);
+            for (int id : old.all()) {
+                changes.put(LogStructuredStore.key(userId, id), null);
+            }
+            ItemIds ids = new ItemIds();
+            ids.next = old.next;
+            changes.put(LogStructuredStore.key(userId, RESTRICTIONS), formatRestrictions(user));
+            for (FoodItem item : user.getSnapshot()) {
+                changes.put(LogStructuredStore.key(userId, ids.add(item)), CsvUserFileFormat.formatItem(item));
+            }
+            store.writeAll(changes);
+            itemIds.put(userId, ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the store's memtable to a segment
+     */
+    @Override
+    protected synchronized void save() {
+        try {
+            store.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Remove a specific item from the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            boolean res = user.removeSpecificItem(item);
+            if (res) {
+                delete(userId, item);
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public void removeItem(int userId) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            delete(userId, user.removeItem());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void delete(int userId, FoodItem item) {
+        Integer id = ids(userId).remove(item);
+        if (id != null) {
+            store.delete(LogStructuredStore.key(userId, id));
+        }
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            user.addItem(item);
+            store.put(LogStructuredStore.key(userId, ids(userId).add(item)), CsvUserFileFormat.formatItem(item));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add items to the user's inventory, written to the store's log with a single flush
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        User user = getUser(userId);
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            Map<Long, String> entries = new LinkedHashMap<>();
+            user.addItems(items);
+            for (FoodItem item : items) {
+                entries.put(LogStructuredStore.key(userId, ids(userId).add(item)), CsvUserFileFormat.formatItem(item));
+            }
+            store.putAll(entries);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the store
+     * @throws IOException  if the store cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        store.close();
+    }
+}
@@ -0,0 +1,267 @@
+package data_access;
+
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of responses of the recipe api in two tiers, the least recently used maxEntries in memory and every
+ * response on disk, so they are kept when the program exits. Each response is stored with the time it was
+ * fetched, and the caller decides how old a response may be, so every endpoint can have its own time to live.
+ *
+ * A response is one file in the directory, named by the SHA-256 of its key. The file holds the time it was
+ * fetched, the key and the response on three lines, and is written to a temporary file that is renamed over it.
+ *
+ * Files older than the longest time to live are deleted when the cache is created and then at most every
+ * PRUNE_INTERVAL_MILLIS, so responses that are not asked for again do not pile up in the directory.
+ *
+ * It is safe to use from several threads, and several caches may share a directory.
+ */
+public class RecipeCache {
+    public static final String DEFAULT_DIRECTORY = "./recipe-cache";
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    public static final long DEFAULT_MAX_AGE_MILLIS = CachingRecipeGetter.DEFAULT_DETAIL_TTL_MILLIS;
+
+    public static final long PRUNE_INTERVAL_MILLIS = 60 * 60 * 1000;
+
+    private static volatile RecipeCache shared;
+
+    private static class Entry {
+        final long fetchedAt;
+        final JSONObject response;
+
+        Entry(long fetchedAt, JSONObject response) {
+            this.fetchedAt = fetchedAt;
+            this.response = response;
+        }
+    }
+
+    private final File directory;
+
+    private final Map<String, Entry> memory;
+
+    private final long maxAgeMillis;
+
+    private final AtomicLong nextPrune = new AtomicLong();
+
+    private final LongAdder memoryHits = new LongAdder();
+
+    private final LongAdder diskHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Cache that keeps responses on disk for DEFAULT_MAX_AGE_MILLIS
+     *
+     * @param directory Directory the responses are kept in, created when the first response is stored
+     * @param maxEntries    number of responses kept in memory
+     */
+    public RecipeCache(String directory, int maxEntries) {
+        this(directory, maxEntries, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Cache
+     *
+     * @param directory Directory the responses are kept in, created when the first response is stored
+     * @param maxEntries    number of responses kept in memory
+     * @param maxAgeMillis  how long responses are kept on disk, at least the longest time to live they are read with
+     */
+    public RecipeCache(String directory, int maxEntries, long maxAgeMillis) {
+        this.directory = new File(directory);
+        this.maxAgeMillis = maxAgeMillis;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        prune();
+    }
+
+    /**
+     * Get the cache shared by everything that does not get one passed in, kept in DEFAULT_DIRECTORY
+     * @return the shared cache
+     */
+    public static RecipeCache shared() {
+        RecipeCache res = shared;
+        if (res == null) {
+            synchronized (RecipeCache.class) {
+                res = shared;
+                if (res == null) {
+                    res = new RecipeCache(DEFAULT_DIRECTORY, DEFAULT_MAX_ENTRIES);
+                    shared = res;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Look up a response. The response is shared with other callers and must not be changed.
+     *
+     * @param key   key of the response
+     * @param ttlMillis how long ago the response may have been fetched
+     * @return the response, or null if there is none that is new enough
+     */
+    public JSONObject get(String key, long ttlMillis) {
+        long oldest = System.currentTimeMillis() - ttlMillis;
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry != null && entry.fetchedAt >= oldest) {
+            memoryHits.increment();
+            return entry.response;
+        }
+
+        entry = read(key);
+        if (entry != null && entry.fetchedAt >= oldest) {
+            synchronized (memory) {
+                memory.put(key, entry);
+            }
+            diskHits.increment();
+            return entry.response;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Store a response that was just fetched
+     * @param key   key of the response
+     * @param response  the response, it must not be changed afterwards
+     */
+    public void put(String key, JSONObject response) {
+        Entry entry = new Entry(System.currentTimeMillis(), response);
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        try {
+            write(key, entry);
+        } catch (IOException e) {
+            // the response stays in memory, it is fetched again after a restart
+        }
+        long next = nextPrune.get();
+        if (entry.fetchedAt >= next && nextPrune.compareAndSet(next, entry.fetchedAt + PRUNE_INTERVAL_MILLIS)) {
+            prune();
+        }
+    }
+
+    /**
+     * Delete the responses that were fetched longer than the maximum age ago, and temporary files left by a crash
+     * @return the number of files deleted
+     */
+    public int prune() {
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        nextPrune.set(System.currentTimeMillis() + PRUNE_INTERVAL_MILLIS);
+        synchronized (memory) {
+            memory.values().removeIf(entry -> entry.fetchedAt < oldest);
+        }
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        int res = 0;
+        for (File file : files) {
+            // a response file is not changed after it is renamed into place, so it was last modified when fetched
+            if (file.lastModified() < oldest && file.delete()) {
+                res++;
+            }
+        }
+        return res;
+    }
+
+    private File fileFor(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+            return new File(directory, name.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Entry read(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            long fetchedAt = Long.parseLong(reader.readLine());
+            if (!key.replace('\n', ' ').equals(reader.readLine())) {
+                return null;
+            }
+            return new Entry(fetchedAt, new JSONObject(reader.readLine()));
+        } catch (IOException | RuntimeException e) {
+            // removed by another cache, or cut off by a crash, it is fetched again
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) throws IOException {
+        directory.mkdirs();
+        File tempFile = File.createTempFile("response", ".tmp", directory);
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile),
+                    StandardCharsets.UTF_8))) {
+                writer.write(Long.toString(entry.fetchedAt));
+                writer.write('\n');
+                writer.write(key.replace('\n', ' '));
+                writer.write('\n');
+                // JSONObject.toString has no line breaks
+                writer.write(entry.response.toString());
+                writer.write('\n');
+            }
+            Files.move(tempFile.toPath(), fileFor(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from memory
+     */
+    public long getMemoryHits() {
+        return memoryHits.sum();
+    }
+
+    /**
+     * @return the number of lookups answered from disk
+     */
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    /**
+     * @return the number of lookups that found no response that was new enough
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the share of lookups answered from memory or disk, 0 if there were none
+     */
+    public double getHitRate() {
+        long hits = getMemoryHits() + getDiskHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,206 @@
+package data_access;
+
+import entities.DietaryPreferences;
+import entities.FoodItem;
+import entities.Recipe;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Looks up recipes and standardized food names through the spoonacular api, shared by the data access objects
+ * so it does not depend on how users are stored.
+ *
+ * By default the search asks for the ingredients, nutrition and instructions of every recipe along with it, so
+ * finding recipes is a single call. With the DETAIL_CALLS retrieval they are fetched with three more calls per
+ * recipe, all at the same time on an executor, so finding recipes takes about two round trips, the search and
+ * the slowest of the detail calls. The executor's threads cap how many calls run at once.
+ *
+ * The default recipe finder answers repeated searches and recipe details from the shared RecipeCache, and food
+ * names that were standardized before from the shared FoodNameCache.
+ */
+public class RecipeFinder {
+    /**
+     * How the details of the recipes are retrieved. SINGLE_REQUEST gets them with the search, DETAIL_CALLS from
+     * the ingredient, nutrition and instruction endpoints of every recipe.
+     */
+    public enum Retrieval { SINGLE_REQUEST, DETAIL_CALLS }
+
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    // the threads only wait for responses, so there can be more of them than processors
+    private static final ExecutorService DEFAULT_EXECUTOR =
+            Executors.newFixedThreadPool(DEFAULT_CONCURRENCY, runnable -> {
+                Thread thread = new Thread(runnable, "recipe-fetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final String key = "1178e228ddeb4ba484e64911de9db1a8";
+
+    private final ApiClient client;
+
+    private final RecipeGetter getter;
+
+    private final FoodNameCache foodNames;
+
+    private final Executor executor;
+
+    private final Retrieval retrieval;
+
+    /**
+     * Recipe finder that uses the shared api client and caches the responses in the shared cache
+     */
+    public RecipeFinder() {
+        this(ApiClient.shared(), new CachingRecipeGetter(ApiClient.shared(), RecipeCache.shared()),
+                FoodNameCache.shared(), DEFAULT_EXECUTOR, Retrieval.SINGLE_REQUEST);
+    }
+
+    /**
+     * Recipe finder that gets the recipes with a single request
+     *
+     * @param client    client every request to the api is sent with, its call timeout limits each call
+     */
+    public RecipeFinder(ApiClient client) {
+        this(client, DEFAULT_EXECUTOR, Retrieval.SINGLE_REQUEST);
+    }
+
+    /**
+     * Recipe finder
+     *
+     * @param client    client every request to the api is sent with, its call timeout limits each call
+     * @param executor  executor the recipe details are fetched on with DETAIL_CALLS, at most as many at once as
+     *                  it has threads
+     * @param retrieval how the details of the recipes are retrieved
+     */
+    public RecipeFinder(ApiClient client, Executor executor, Retrieval retrieval) {
+        this(client, new RecipeGetter(client), executor, retrieval);
+    }
+
+    /**
+     * Recipe finder
+     *
+     * @param client    client the food names are standardized with
+     * @param getter    getter the recipes are fetched with, e.g. a CachingRecipeGetter
+     * @param executor  executor the recipe details are fetched on with DETAIL_CALLS, at most as many at once as
+     *                  it has threads
+     * @param retrieval how the details of the recipes are retrieved
+     */
+    public RecipeFinder(ApiClient client, RecipeGetter getter, Executor executor, Retrieval retrieval) {
+        this(client, getter, new FoodNameCache(), executor, retrieval);
+    }
+
+    /**
+     * Recipe finder
+     *
+     * @param client    client the food names are standardized with
+     * @param getter    getter the recipes are fetched with, e.g. a CachingRecipeGetter
+     * @param foodNames cache of the food names that were standardized before
+     * @param executor  executor the recipe details are fetched on with DETAIL_CALLS, at most as many at once as
+     *                  it has threads
+     * @param retrieval how the details of the recipes are retrieved
+     */
+    public RecipeFinder(ApiClient client, RecipeGetter getter, FoodNameCache foodNames, Executor executor,
+                        Retrieval retrieval) {
+        this.client = client;
+        this.getter = getter;
+        this.foodNames = foodNames;
+        this.executor = executor;
+        this.retrieval = retrieval;
+    }
+
+    /**
+     * Find recipes that use items expiring soon and fit the dietary preferences of a user
+     *
+     * @param expiresSoon   items in the user's inventory that expire in a week
+     * @param preferences   the user's dietary preferences
+     * @return a list of Recipes that are relevant to the items and dietary preferences.
+     */
+    public List<Recipe> findRecipes(List<FoodItem> expiresSoon, DietaryPreferences preferences) {
+        RecipeParser parser = new RecipeParser();
+
+        List<Object> settings = getter.preferenceConverter(expiresSoon, preferences);
+        if (retrieval == Retrieval.SINGLE_REQUEST) {
+            return parser.parseRecipes(getter.getEnrichedRecipe(key, settings));
+        }
+
+        JSONObject recipeInfo = getter.getRecipe(key, settings);
+        List<String> titles = parser.getNames(recipeInfo);
+        List<Integer> ids = parser.getIds(recipeInfo);
+
+        // each recipe is put together as soon as its three calls are done
+        List<CompletableFuture<Recipe>> recipes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Integer id = ids.get(i);
+            String title = titles.get(i);
+            CompletableFuture<List<FoodItem>> ingredients = CompletableFuture.supplyAsync(
+                    () -> parser.parseIngredients(getter.getIngredients(id, key)), executor);
+            CompletableFuture<Map<String, Float>> macros = CompletableFuture.supplyAsync(
+                    () -> parser.parseMacros(getter.getNutrients(id, key)), executor);
+            CompletableFuture<List<String>> instructions = CompletableFuture.supplyAsync(
+                    () -> parser.parseInstructions(getter.getInstructions(id, key)), executor);
+            recipes.add(CompletableFuture.allOf(ingredients, macros, instructions).thenApply(
+                    done -> new Recipe(title, instructions.join(), ingredients.join(), macros.join())));
+        }
+
+        List<Recipe> res = new ArrayList<>();
+        try {
+            for (CompletableFuture<Recipe> recipe : recipes) {
+                res.add(recipe.join());
+            }
+        } catch (CompletionException e) {
+            for (CompletableFuture<Recipe> recipe : recipes) {
+                recipe.cancel(false);
+            }
+            // the getter already wraps failed calls in a RuntimeException
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+                    new RuntimeException(e.getCause());
+        }
+        return res;
+    }
+
+    /**
+     * Standardize the names of food items. Names that were standardized before are taken from the cache, the
+     * others are standardized with a single call.
+     * @param names  list of food item names
+     * @return a list of standardized food item names
+     */
+    public List<String> standardizeNames(List<String> names) {
+        Set<String> unseen = new LinkedHashSet<>();
+        for (String name : names) {
+            if (foodNames.get(name) == null) {
+                unseen.add(name);
+            }
+        }
+
+        Map<String, String> learned = new HashMap<>();
+        if (!unseen.isEmpty()) {
+            List<String> remote = new ArrayList<>(unseen);
+            List<String> standardized = FoodNameParser.parseFoodItemNames(client, key, remote);
+            if (standardized.size() != remote.size()) {
+                throw new RuntimeException("Got " + standardized.size() + " names for " + remote.size());
+            }
+            for (int i = 0; i < remote.size(); i++) {
+                learned.put(remote.get(i), standardized.get(i));
+            }
+            foodNames.putAll(learned);
+        }
+
+        List<String> res = new ArrayList<>();
+        for (String name : names) {
+            String standardized = learned.get(name);
+            res.add(standardized != null ? standardized : foodNames.get(name));
+        }
+        return res;
+    }
+}
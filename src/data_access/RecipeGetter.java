@@ -2,9 +2,6 @@ package data_access;
 
 import entities.DietaryPreferences;
 import entities.FoodItem;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -17,6 +14,24 @@ public class RecipeGetter {
 
     private final List<String> diets = Arrays.asList("Vegetarian", "Ketogenic", "Vegan");
 
+    private final ApiClient client;
+
+    /**
+     * Recipe getter that uses the shared api client
+     */
+    public RecipeGetter() {
+        this(ApiClient.shared());
+    }
+
+    /**
+     * Recipe getter
+     *
+     * @param client    client the requests are sent with
+     */
+    public RecipeGetter(ApiClient client) {
+        this.client = client;
+    }
+
     /**
      * Retrieve a JSONObject from the api endpoint that contains information about the recipes that are specified
      * by settings
@@ -26,23 +41,37 @@ public class RecipeGetter {
      * @return JSONObject that contains recipes specified by the settings
      */
     public JSONObject getRecipe(String key, List<Object> settings) {
+        return search(key, settings, "");
+    }
+
+    /**
+     * Retrieve a JSONObject from the api endpoint that contains the recipes specified by settings together with
+     * their ingredients, nutrition and instructions, so they can be parsed without another call per recipe.
+     * Only recipes that have instructions are returned. fillIngredients makes the api include the ingredients in
+     * metric units as extendedIngredients.
+     *
+     * @param settings  List of objects that contain settings that can be easily inputted into the http request
+     * @param key   API key for authentication
+     * @return JSONObject that contains recipes specified by the settings, see RecipeParser.parseRecipes
+     */
+    public JSONObject getEnrichedRecipe(String key, List<Object> settings) {
+        return search(key, settings,
+                "&addRecipeInformation=true&addRecipeNutrition=true&fillIngredients=true&instructionsRequired=true");
+    }
+
+    private JSONObject search(String key, List<Object> settings, String options) {
         String incFood = (String) settings.get(0);
         String excFood = (String) settings.get(1);
         String diet = (String) settings.get(2);
         Map<String, Float> newPrefs = (HashMap) settings.get(3);
 
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
-        Request request = new Request.Builder()
-                .url(String.format(
-                        "https://api.spoonacular.com/recipes/complexSearch?apiKey=%s&diet=%s&includeIngredients=%s&excludeIngredients=%s&minCarbs=%s&maxCarbs=%s&minProtein=%s&maxProtein=%s&minCalories=%s&maxCalories=%s&minSaturatedFat=%s&maxSaturatedFat=%s&number=%s",
-                        key, diet, incFood, excFood, newPrefs.get("minCarbs"), newPrefs.get("maxCarbs"), newPrefs.get("minProtein"),
-                        newPrefs.get("maxProtein"), newPrefs.get("minCalories"), newPrefs.get("maxCalories"),
-                        newPrefs.get("minSaturatedFat"), newPrefs.get("maxSaturatedFat"), 1))
-                .build();
+        String url = String.format(
+                "%s/recipes/complexSearch?apiKey=%s&diet=%s&includeIngredients=%s&excludeIngredients=%s&minCarbs=%s&maxCarbs=%s&minProtein=%s&maxProtein=%s&minCalories=%s&maxCalories=%s&minSaturatedFat=%s&maxSaturatedFat=%s&number=%s",
+                client.getBaseUrl(), key, diet, incFood, excFood, newPrefs.get("minCarbs"), newPrefs.get("maxCarbs"), newPrefs.get("minProtein"),
+                newPrefs.get("maxProtein"), newPrefs.get("minCalories"), newPrefs.get("maxCalories"),
+                newPrefs.get("minSaturatedFat"), newPrefs.get("maxSaturatedFat"), 1) + options;
         try {
-            Response response = client.newCall(request).execute();
-            JSONObject responseBody = new JSONObject(response.body().string());
+            JSONObject responseBody = new JSONObject(client.get(url));
 
             return responseBody;
         } catch (IOException | JSONException e) {
@@ -116,14 +145,9 @@ public class RecipeGetter {
      *
      */
     public JSONObject getIngredients(Integer id, String key) {
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
-        Request request = new Request.Builder()
-                .url(String.format("https://api.spoonacular.com/recipes/%s/ingredientWidget.json?apiKey=%s", id, key))
-                .build();
+        String url = String.format("%s/recipes/%s/ingredientWidget.json?apiKey=%s", client.getBaseUrl(), id, key);
         try {
-            Response response = client.newCall(request).execute();
-            JSONObject responseBody = new JSONObject(response.body().string());
+            JSONObject responseBody = new JSONObject(client.get(url));
 
             return responseBody;
         } catch (IOException | JSONException e) {
@@ -140,14 +164,9 @@ public class RecipeGetter {
      *
      */
     public JSONObject getNutrients(Integer id, String key) {
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
-        Request request = new Request.Builder()
-                .url(String.format("https://api.spoonacular.com/recipes/%s/nutritionWidget.json?apiKey=%s", id, key))
-                .build();
+        String url = String.format("%s/recipes/%s/nutritionWidget.json?apiKey=%s", client.getBaseUrl(), id, key);
         try {
-            Response response = client.newCall(request).execute();
-            JSONObject responseBody = new JSONObject(response.body().string());
+            JSONObject responseBody = new JSONObject(client.get(url));
 
             return responseBody;
         } catch (IOException | JSONException e) {
@@ -164,14 +183,9 @@ public class RecipeGetter {
      *
      */
     public JSONObject getInstructions(Integer id, String key) {
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
-        Request request = new Request.Builder()
-                .url(String.format("https://api.spoonacular.com/recipes/%s/analyzedInstructions?apiKey=%s", id, key))
-                .build();
+        String url = String.format("%s/recipes/%s/analyzedInstructions?apiKey=%s", client.getBaseUrl(), id, key);
         try {
-            Response response = client.newCall(request).execute();
-            String t1 = response.body().string();
+            String t1 = client.get(url);
             JSONObject responseBody = new JSONObject(t1.substring(1, t1.length() - 1));
 
             return responseBody;
@@ -1,6 +1,7 @@
 package data_access;
 
 import entities.FoodItem;
+import entities.Recipe;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -95,21 +96,111 @@ public class RecipeParser {
     public List<FoodItem> parseIngredients(JSONObject callResult) {
         JSONArray res = callResult.getJSONArray("ingredients");
         List<FoodItem> ingredients = new ArrayList<>();
+        // index in ingredients by name
         Map<String, Integer> included = new HashMap<>();
 
         for (int i = 0; i < res.length(); i++) {
-            String name = res.getJSONObject(i).getString("name");
             Float amount = res.getJSONObject(i).getJSONObject("amount").getJSONObject("metric").getFloat("value");
+            addIngredient(ingredients, included, res.getJSONObject(i).getString("name"), amount);
+        }
+
+        return ingredients;
+    }
+
+    /**
+     * Add an ingredient to a list, adding up the amounts if it is in the list already
+     */
+    private void addIngredient(List<FoodItem> ingredients, Map<String, Integer> included, String name,
+                               Float amount) {
+        // ingredients of recipes are not kept, so their names are not added to the IngredientDictionary
+        if (included.containsKey(name)) {
+            Float oldAmount = ingredients.get(included.get(name)).getAmount();
+            ingredients.set(included.get(name), new FoodItem(name, oldAmount + amount));
+        } else {
+            ingredients.add(new FoodItem(name, amount));
+            included.put(name, ingredients.size() - 1);
+        }
+    }
+
+    /**
+     * Converts the result of a search with addRecipeInformation, addRecipeNutrition and instructionsRequired into
+     * Recipes, so no further call is needed per recipe
+     *
+     * @param callResult the JSONObject that is returned by the getEnrichedRecipe method
+     * @return a list of Recipes in the order of the results
+     */
+    public List<Recipe> parseRecipes(JSONObject callResult) {
+        JSONArray results = callResult.getJSONArray("results");
+        List<Recipe> recipes = new ArrayList<>();
+
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+
+            JSONArray analyzedInstructions = result.optJSONArray("analyzedInstructions");
+            List<String> instructions = analyzedInstructions == null || analyzedInstructions.isEmpty() ?
+                    new ArrayList<>() : parseInstructions(analyzedInstructions.getJSONObject(0));
+
+            JSONObject nutrition = result.optJSONObject("nutrition");
+            Map<String, Float> macros = nutrition == null ? new HashMap<>() : parseMacros(nutrition);
 
-            if (included.containsKey(name)) {
-                Float oldAmount = ingredients.get(included.get(name)).getAmount();
-                ingredients.set(included.get(name), new FoodItem(name, 9999, 12, 1, oldAmount + amount));
-            } else {
-                ingredients.add(new FoodItem(name, 9999, 12, 1, amount));
-                included.put(name, ingredients.size() - 1);
+            recipes.add(new Recipe(result.getString("title"), instructions, parseRecipeIngredients(result),
+                    macros));
+        }
+
+        return recipes;
+    }
+
+    /**
+     * Get the ingredients of a search result in metric units like the ingredient widget. They are in
+     * extendedIngredients when the api includes them, otherwise the per serving amounts of the nutrition are
+     * multiplied by the number of servings. Those are in the units of the recipe, so only the ones in grams or
+     * milliliters, or kilograms or liters converted to them, are used.
+     */
+    private List<FoodItem> parseRecipeIngredients(JSONObject result) {
+        List<FoodItem> ingredients = new ArrayList<>();
+        Map<String, Integer> included = new HashMap<>();
+
+        JSONArray extended = result.optJSONArray("extendedIngredients");
+        if (extended != null) {
+            for (int i = 0; i < extended.length(); i++) {
+                JSONObject ingredient = extended.getJSONObject(i);
+                Float amount = ingredient.getJSONObject("measures").getJSONObject("metric").getFloat("amount");
+                addIngredient(ingredients, included, ingredient.getString("name"), amount);
             }
+            return ingredients;
         }
 
+        JSONObject nutrition = result.optJSONObject("nutrition");
+        JSONArray perServing = nutrition == null ? null : nutrition.optJSONArray("ingredients");
+        if (perServing != null) {
+            float servings = result.optFloat("servings", 1);
+            for (int i = 0; i < perServing.length(); i++) {
+                JSONObject ingredient = perServing.getJSONObject(i);
+                float factor = metricFactor(ingredient.optString("unit"));
+                if (factor > 0) {
+                    addIngredient(ingredients, included, ingredient.getString("name"),
+                            ingredient.getFloat("amount") * factor * servings);
+                }
+            }
+        }
         return ingredients;
     }
+
+    /**
+     * Get the factor that converts an amount to grams or milliliters
+     * @param unit  unit of the amount
+     * @return the factor, or 0 if the unit is not a metric unit of mass or volume
+     */
+    private static float metricFactor(String unit) {
+        switch (unit.toLowerCase()) {
+            case "g":
+            case "ml":
+                return 1;
+            case "kg":
+            case "l":
+                return 1000;
+            default:
+                return 0;
+        }
+    }
 }
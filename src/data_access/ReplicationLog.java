@@ -0,0 +1,262 @@
+package data_access;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log of the changes made on a leader, streamed over a local socket to every follower that connects. The last
+ * capacity changes are kept in memory. A follower that connects for the first time, or that fell further behind
+ * than that, is sent a snapshot of every user first and then the changes after it.
+ *
+ * Protocol (big endian):
+ * the follower sends the epoch of the leader it last followed and the sequence of the last change it applied,
+ * the leader then sends messages that start with a type byte:
+ * SNAPSHOT epoch + sequence + timestamp + length + users in the binary format,
+ * ADD, REMOVE or SAVE sequence + timestamp + user id + length + payload,
+ * HEARTBEAT sequence + timestamp, sent when no change was made for HEARTBEAT_MILLIS.
+ * The epoch is picked at random when the log is created, so a follower of an earlier leader gets a snapshot.
+ */
+public class ReplicationLog implements AutoCloseable {
+    public static final byte SNAPSHOT = 1;
+    public static final byte ADD = 2;
+    public static final byte REMOVE = 3;
+    public static final byte SAVE = 4;
+    public static final byte HEARTBEAT = 5;
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long HEARTBEAT_MILLIS = 100;
+
+    /**
+     * A snapshot of every user and the sequence of the last change it contains
+     */
+    public static class Snapshot {
+        private final long sequence;
+        private final byte[] users;
+
+        /**
+         * @param sequence  sequence of the last change in the snapshot
+         * @param users every user in the binary format
+         */
+        public Snapshot(long sequence, byte[] users) {
+            this.sequence = sequence;
+            this.users = users;
+        }
+    }
+
+    /**
+     * Takes snapshots of the leader's users
+     */
+    public interface SnapshotSource {
+        Snapshot takeSnapshot() throws IOException;
+    }
+
+    private static class Entry {
+        final long sequence;
+        final long timestamp;
+        final byte op;
+        final int userId;
+        final byte[] payload;
+
+        Entry(long sequence, long timestamp, byte op, int userId, byte[] payload) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.op = op;
+            this.userId = userId;
+            this.payload = payload;
+        }
+    }
+
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+
+    private final ServerSocket server;
+
+    private final SnapshotSource snapshotSource;
+
+    // entry with sequence s is at s % capacity while it is one of the last capacity entries
+    private final Entry[] entries;
+
+    private final List<Socket> followers = new ArrayList<>();
+
+    private long sequence = 0;
+
+    private boolean closed = false;
+
+    /**
+     * Log that accepts followers on the loopback interface once it is started
+     *
+     * @param port  port to listen on, 0 for any free port
+     * @param capacity  number of changes kept in memory for followers that fall behind
+     * @param snapshotSource    takes the snapshots sent to new followers
+     * @throws IOException  if the port cannot be opened
+     */
+    public ReplicationLog(int port, int capacity, SnapshotSource snapshotSource) throws IOException {
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.entries = new Entry[capacity];
+        this.snapshotSource = snapshotSource;
+    }
+
+    /**
+     * Start accepting followers
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::accept, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void accept() {
+        while (true) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                // closed
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    closeQuietly(socket);
+                    return;
+                }
+                followers.add(socket);
+            }
+            Thread sender = new Thread(() -> serve(socket), "replication-send");
+            sender.setDaemon(true);
+            sender.start();
+        }
+    }
+
+    /**
+     * Record a change. Changes to one user have to be appended in the order they are applied.
+     *
+     * @param op    ADD, REMOVE or SAVE
+     * @param userId    id of the user that changed
+     * @param payload   the item for ADD and REMOVE, the whole user for SAVE
+     * @return the sequence of the change
+     */
+    public synchronized long append(byte op, int userId, byte[] payload) {
+        sequence++;
+        entries[(int) (sequence % entries.length)] =
+                new Entry(sequence, System.currentTimeMillis(), op, userId, payload);
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * @return the sequence of the last change
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the port followers connect to
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return the number of followers that are connected
+     */
+    public synchronized int getFollowerCount() {
+        return followers.size();
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            long followerEpoch = in.readLong();
+            long next = in.readLong() + 1;
+            if (followerEpoch != epoch) {
+                next = 0;
+            }
+
+            while (true) {
+                List<Entry> batch = new ArrayList<>();
+                boolean needsSnapshot;
+                long head;
+                synchronized (this) {
+                    if (sequence < next && !closed) {
+                        wait(HEARTBEAT_MILLIS);
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    head = sequence;
+                    needsSnapshot = next == 0 || next <= sequence - entries.length || next > sequence + 1;
+                    if (!needsSnapshot) {
+                        for (long i = next; i <= sequence; i++) {
+                            batch.add(entries[(int) (i % entries.length)]);
+                        }
+                    }
+                }
+
+                if (needsSnapshot) {
+                    // taken outside the monitor, since the snapshot source waits for changes in progress
+                    Snapshot snapshot = snapshotSource.takeSnapshot();
+                    out.writeByte(SNAPSHOT);
+                    out.writeLong(epoch);
+                    out.writeLong(snapshot.sequence);
+                    out.writeLong(System.currentTimeMillis());
+                    out.writeInt(snapshot.users.length);
+                    out.write(snapshot.users);
+                    next = snapshot.sequence + 1;
+                } else if (batch.isEmpty()) {
+                    out.writeByte(HEARTBEAT);
+                    out.writeLong(head);
+                    out.writeLong(System.currentTimeMillis());
+                } else {
+                    for (Entry entry : batch) {
+                        out.writeByte(entry.op);
+                        out.writeLong(entry.sequence);
+                        out.writeLong(entry.timestamp);
+                        out.writeInt(entry.userId);
+                        out.writeInt(entry.payload.length);
+                        out.write(entry.payload);
+                    }
+                    next = head + 1;
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the follower disconnected, it resumes from its last change when it connects again
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                followers.remove(socket);
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    /**
+     * Stop accepting followers and disconnect the ones that are connected
+     * @throws IOException  if the port cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            for (Socket socket : followers) {
+                closeQuietly(socket);
+            }
+            notifyAll();
+        }
+        server.close();
+    }
+}
@@ -0,0 +1,677 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+import use_case.export_inventory.ExportInventoryDataAccessInterface.ItemVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Data access object that splits users over a fixed number of shard files in a directory, by user id hash.
+ * The shards are loaded in parallel, and a change to a user only rewrites the shard that user is in, so startup
+ * and write time grow with the size of a shard instead of the size of all data.
+ *
+ * With a maxLoadedShards smaller than the shard count, shards are instead loaded the first time one of their
+ * users is accessed, and the least recently used shard is written if it changed and dropped from memory once
+ * more than maxLoadedShards are loaded. Callers should not hold on to a User or its queue across accesses to
+ * other users, since the user may have been dropped and loaded again in the meantime. A shard is pinned while
+ * a change to one of its users is made and written, so it is never evicted in between. When more shards than
+ * maxLoadedShards are pinned at once, the extra ones are evicted as soon as their changes are done.
+ *
+ * Reads of a user whose shard is loaded do not lock at all. Reading, writing and dropping a shard happen under
+ * a lock of that shard, so they only wait for other work on the same shard. The monitor is only held to count
+ * pins and loaded shards. No thread holds more than one shard lock, and none takes one while holding the monitor.
+ */
+public class ShardedUserDataAccessObject extends FileUserDataAccessObject {
+    public static final int DEFAULT_SHARD_COUNT = 16;
+
+    private static final String MANIFEST = "shards";
+
+    private final File dir;
+
+    private final UserFactory userFactory;
+
+    private final UserFileFormat[] formats;
+
+    private final SnapshotWriter[] writers;
+
+    // the users of each shard, guarded by the lock of the shard
+    private final List<Set<Integer>> shardUsers = new ArrayList<>();
+
+    // guards reading, writing and dropping each shard
+    private final Lock[] shardLocks;
+
+    // the shards changed since they were last written, guarded by the lock of the shard
+    private final boolean[] dirty;
+
+    private final int maxLoadedShards;
+
+    // 1 for the shards that are in memory, set only once their users are in accounts
+    private final AtomicIntegerArray loaded;
+
+    // guarded by the monitor
+    private int loadedCount = 0;
+
+    // the time each shard was last used, by a clock that ticks on every access
+    private final AtomicLongArray lastAccess;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    // number of changes in progress per shard, a shard is not evicted while it has any, guarded by the monitor
+    private final int[] pins;
+
+    /**
+     * Sharded data access object with DEFAULT_SHARD_COUNT csv shards that forces every write to disk
+     *
+     * @param directory Directory the shard files are kept in, created if it does not exist
+     * @param userFactory   User factory to create new users
+     * @throws IOException  if file readers are incorrectly initialized
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory) throws IOException {
+        this(directory, userFactory, DEFAULT_SHARD_COUNT, CsvUserFileFormat::new,
+                SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    /**
+     * Sharded data access object with DEFAULT_SHARD_COUNT csv shards that loads shards on first access
+     *
+     * @param directory Directory the shard files are kept in, created if it does not exist
+     * @param userFactory   User factory to create new users
+     * @param maxLoadedShards   number of shards kept in memory
+     * @throws IOException  if file readers are incorrectly initialized
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory, int maxLoadedShards)
+            throws IOException {
+        this(directory, userFactory, DEFAULT_SHARD_COUNT, maxLoadedShards, CsvUserFileFormat::new,
+                SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    /**
+     * Sharded data access object that loads every shard at once
+     *
+     * @param directory Directory the shard files are kept in, created if it does not exist
+     * @param userFactory   User factory to create new users
+     * @param shardCount    number of shard files
+     * @param formatFactory creates the format of each shard, shards are read at the same time so they do not
+     *                      share a format
+     * @param syncPolicy    when written data is forced to disk
+     * @param syncIntervalMillis    minimum time between syncs for the INTERVAL sync policy
+     * @throws IOException  if file readers are incorrectly initialized, or a shard has no valid snapshot to load
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory, int shardCount,
+                                       Supplier<UserFileFormat> formatFactory,
+                                       SnapshotWriter.SyncPolicy syncPolicy, long syncIntervalMillis)
+            throws IOException {
+        this(directory, userFactory, shardCount, shardCount, formatFactory, syncPolicy, syncIntervalMillis);
+    }
+
+    /**
+     * Sharded data access object
+     *
+     * @param directory Directory the shard files are kept in, created if it does not exist
+     * @param userFactory   User factory to create new users
+     * @param shardCount    number of shard files
+     * @param maxLoadedShards   number of shards kept in memory, shards are loaded on first access if this is
+     *                          smaller than shardCount
+     * @param formatFactory creates the format of each shard, shards are read at the same time so they do not
+     *                      share a format
+     * @param syncPolicy    when written data is forced to disk
+     * @param syncIntervalMillis    minimum time between syncs for the INTERVAL sync policy
+     * @throws IOException  if file readers are incorrectly initialized, or a shard has no valid snapshot to load
+     */
+    public ShardedUserDataAccessObject(String directory, UserFactory userFactory, int shardCount,
+                                       int maxLoadedShards, Supplier<UserFileFormat> formatFactory,
+                                       SnapshotWriter.SyncPolicy syncPolicy, long syncIntervalMillis)
+            throws IOException {
+        super(userFactory);
+        if (shardCount <= 0 || maxLoadedShards <= 0) {
+            throw new IllegalArgumentException("shardCount and maxLoadedShards must be positive");
+        }
+        this.userFactory = userFactory;
+        this.maxLoadedShards = Math.min(maxLoadedShards, shardCount);
+
+        dir = new File(directory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        formats = new UserFileFormat[shardCount];
+        writers = new SnapshotWriter[shardCount];
+        loaded = new AtomicIntegerArray(shardCount);
+        lastAccess = new AtomicLongArray(shardCount);
+        pins = new int[shardCount];
+        shardLocks = new Lock[shardCount];
+        dirty = new boolean[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shardLocks[i] = new ReentrantLock();
+            formats[i] = formatFactory.get();
+            writers[i] = new SnapshotWriter(new File(dir, "shard-" + i), syncPolicy, syncIntervalMillis);
+            shardUsers.add(new HashSet<>());
+        }
+
+        // users are only guaranteed to be in their own shard if the shards were written with the same count
+        if (this.maxLoadedShards < shardCount && readManifest() == shardCount) {
+            return;
+        }
+        loadAll();
+        flush();
+        writeManifest();
+        evict(-1);
+    }
+
+    /**
+     * Start a new sharded directory from a single user file, like users.csv. The file becomes the first shard,
+     * and its users are moved to their own shards when the directory is first opened, writing every shard once.
+     *
+     * @param file  user file in the format of the shards, csv for the default shards
+     * @param directory Directory the shard files are kept in, it must not exist yet
+     * @throws IOException  if the directory exists or the file cannot be copied
+     */
+    public static void importFile(File file, String directory) throws IOException {
+        File dir = new File(directory);
+        if (dir.exists()) {
+            throw new IOException(directory + " already exists");
+        }
+        Files.createDirectories(dir.toPath());
+        Files.copy(file.toPath(), new File(dir, "shard-0").toPath());
+    }
+
+    /**
+     * Load every shard in parallel, moving users that are not in their own shard
+     */
+    private void loadAll() throws IOException {
+        List<Callable<Map<Integer, User>>> loads = new ArrayList<>();
+        for (int i = 0; i < writers.length; i++) {
+            int shard = i;
+            loads.add(() -> readShard(shard));
+        }
+
+        List<Future<Map<Integer, User>>> results = ForkJoinPool.commonPool().invokeAll(loads);
+        for (int i = 0; i < writers.length; i++) {
+            Map<Integer, User> users;
+            try {
+                users = results.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+            if (users == null) {
+                markLoaded(i);
+                continue;
+            }
+            putAll(users);
+            markLoaded(i);
+            for (int userId : users.keySet()) {
+                int shard = shardOf(userId);
+                shardUsers.get(shard).add(userId);
+                if (shard != i) {
+                    // written with a different shard count, move the user to its shard
+                    dirty[i] = true;
+                    dirty[shard] = true;
+                }
+            }
+        }
+    }
+
+    private Map<Integer, User> readShard(int shard) throws IOException {
+        return loadSnapshot(writers[shard], formats[shard], userFactory);
+    }
+
+    private int readManifest() {
+        try {
+            return Integer.parseInt(Files.readString(new File(dir, MANIFEST).toPath()).trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        new SnapshotWriter(new File(dir, MANIFEST))
+                .write(out -> out.write(Integer.toString(writers.length).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Find the shard a user is stored in
+     * @param userId    id of the user
+     * @return index of the shard
+     */
+    int shardOf(int userId) {
+        // spread sequential ids over the shards
+        return Math.floorMod(userId * 0x9E3779B9, writers.length);
+    }
+
+    /**
+     * Check whether a shard is in memory
+     * @param shard index of the shard
+     * @return true if the users of the shard are loaded
+     */
+    boolean isLoaded(int shard) {
+        return loaded.get(shard) == 1;
+    }
+
+    /**
+     * @return the number of damaged blocks skipped while reading the shards, 0 if they are not compressed
+     */
+    @Override
+    public int getCorruptedBlocks() {
+        int res = 0;
+        for (UserFileFormat format : formats) {
+            if (format instanceof CompressedUserFileFormat) {
+                res += ((CompressedUserFileFormat) format).getCorruptedBlocks();
+            }
+        }
+        return res;
+    }
+
+    private void touch(int shard) {
+        lastAccess.set(shard, clock.incrementAndGet());
+    }
+
+    private void markLoaded(int shard) {
+        touch(shard);
+        loaded.set(shard, 1);
+        synchronized (this) {
+            loadedCount++;
+        }
+    }
+
+    /**
+     * Load the shard if it is not in memory yet and mark it as most recently used
+     */
+    private void ensureLoaded(int shard) {
+        touch(shard);
+        if (isLoaded(shard)) {
+            return;
+        }
+        Lock lock = shardLocks[shard];
+        lock.lock();
+        try {
+            if (isLoaded(shard)) {
+                return;
+            }
+            Map<Integer, User> users;
+            try {
+                users = readShard(shard);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (users != null) {
+                putAll(users);
+                shardUsers.get(shard).addAll(users.keySet());
+            }
+            markLoaded(shard);
+        } finally {
+            lock.unlock();
+        }
+        evict(shard);
+    }
+
+    /**
+     * Write and drop least recently used shards that are not pinned until at most maxLoadedShards are loaded
+     * @param keep  a shard that was just loaded for a caller and is not dropped, or -1
+     */
+    private void evict(int keep) {
+        while (true) {
+            int eldest = -1;
+            synchronized (this) {
+                if (loadedCount <= maxLoadedShards) {
+                    return;
+                }
+                for (int shard = 0; shard < writers.length; shard++) {
+                    if (isLoaded(shard) && pins[shard] == 0 && shard != keep &&
+                            (eldest < 0 || lastAccess.get(shard) < lastAccess.get(eldest))) {
+                        eldest = shard;
+                    }
+                }
+            }
+            if (eldest < 0) {
+                // every loaded shard has a change in progress, they are evicted once the changes are done
+                return;
+            }
+            drop(eldest);
+        }
+    }
+
+    /**
+     * Write a shard if it changed and drop its users from memory, unless it was pinned or dropped meanwhile
+     */
+    private void drop(int shard) {
+        Lock lock = shardLocks[shard];
+        lock.lock();
+        try {
+            synchronized (this) {
+                if (!isLoaded(shard) || pins[shard] > 0) {
+                    return;
+                }
+                // lookup checks this again when it does not find a user, so it is cleared before the users are
+                // dropped, and a pin that comes after it waits for the shard lock and loads the shard again
+                loaded.set(shard, 0);
+                loadedCount--;
+            }
+            if (dirty[shard]) {
+                writeShard(shard);
+                dirty[shard] = false;
+            }
+            unload(shardUsers.get(shard));
+            shardUsers.get(shard).clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Load the shard of a user and keep it in memory until unpin is called
+     * @param userId    id of the user that is about to change
+     * @return index of the shard
+     */
+    private int pin(int userId) {
+        return pinShard(shardOf(userId));
+    }
+
+    /**
+     * Load a shard and keep it in memory until unpin is called
+     * @param shard index of the shard
+     * @return index of the shard
+     */
+    private int pinShard(int shard) {
+        synchronized (this) {
+            pins[shard]++;
+        }
+        try {
+            ensureLoaded(shard);
+        } catch (RuntimeException e) {
+            unpin(shard);
+            throw e;
+        }
+        return shard;
+    }
+
+    /**
+     * Allow a shard pinned by pin to be evicted again
+     * @param shard index of the shard
+     */
+    private void unpin(int shard) {
+        synchronized (this) {
+            pins[shard]--;
+        }
+        evict(-1);
+    }
+
+    /**
+     * Find a user, loading its shard first if needed. Only loading takes the lock of the shard.
+     * @param userId    id of the user
+     * @return the user, or null if there is no user with that id
+     */
+    @Override
+    protected User lookup(int userId) {
+        int shard = shardOf(userId);
+        if (isLoaded(shard)) {
+            touch(shard);
+            User user = super.lookup(userId);
+            // if the shard was evicted while the user was looked up, it is loaded again below
+            if (user != null || isLoaded(shard)) {
+                return user;
+            }
+        }
+        while (true) {
+            ensureLoaded(shard);
+            Lock lock = shardLocks[shard];
+            lock.lock();
+            try {
+                // the shard can be evicted again before its lock is taken
+                if (isLoaded(shard)) {
+                    return super.lookup(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Save a new user, replacing any user with the same id
+     * @param userId    id of the user
+     * @param user  user to be added
+     */
+    @Override
+    public void save(int userId, User user) {
+        // load the shard first so its other users are not lost when it is written
+        int shard = pin(userId);
+        try {
+            super.save(userId, user);
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    /**
+     * Remove a specific item from the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        int shard = pin(userId);
+        try {
+            return super.removeSpecificItem(userId, item);
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public void removeItem(int userId) {
+        int shard = pin(userId);
+        try {
+            super.removeItem(userId);
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        int shard = pin(userId);
+        try {
+            super.addItem(userId, item);
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    /**
+     * Add items to the user's inventory
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        int shard = pin(userId);
+        try {
+            super.addItems(userId, items);
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    /**
+     * Fetch all users, this loads every shard one after the other
+     * @return a list of all users
+     */
+    @Override
+    public List<User> getAllUsers() {
+        List<User> res = new ArrayList<>();
+        for (int shard = 0; shard < writers.length; shard++) {
+            pinShard(shard);
+            try {
+                Lock lock = shardLocks[shard];
+                lock.lock();
+                try {
+                    for (int userId : shardUsers.get(shard)) {
+                        res.add(super.lookup(userId));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                unpin(shard);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Pass every item of every user to a visitor, this loads every shard one after the other
+     * @param visitor   visitor the items are passed to
+     * @throws IOException  if the visitor cannot write an item
+     */
+    @Override
+    public void forEachItem(ItemVisitor visitor) throws IOException {
+        for (int shard = 0; shard < writers.length; shard++) {
+            for (int userId : userIdsOf(shard)) {
+                visitUser(userId, visitor);
+            }
+        }
+    }
+
+    /**
+     * Fetch the ids of the users in a shard, loading it if needed
+     * @param shard index of the shard
+     * @return a copy of the ids
+     */
+    private List<Integer> userIdsOf(int shard) {
+        pinShard(shard);
+        try {
+            Lock lock = shardLocks[shard];
+            lock.lock();
+            try {
+                return new ArrayList<>(shardUsers.get(shard));
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    /**
+     * Mark the shard of a user as changed, and write it right away unless write-behind mode is enabled
+     * @param userId    id of the user that changed
+     */
+    @Override
+    protected void persist(int userId) {
+        // the change methods pin the shard, so it is still the one the change was made to
+        int shard = shardOf(userId);
+        Lock lock = shardLocks[shard];
+        lock.lock();
+        try {
+            shardUsers.get(shard).add(userId);
+            dirty[shard] = true;
+            if (!isWriteBehind()) {
+                writeShard(shard);
+                dirty[shard] = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write all shards that have changed since they were last written, each under its own lock
+     */
+    @Override
+    public void flush() {
+        for (int shard = 0; shard < writers.length; shard++) {
+            Lock lock = shardLocks[shard];
+            lock.lock();
+            try {
+                if (dirty[shard]) {
+                    writeShard(shard);
+                    dirty[shard] = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write the shards that have changed and stop flushing and syncing them in the background
+     * @throws IOException  if the shards cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        for (SnapshotWriter writer : writers) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write every loaded shard
+     */
+    @Override
+    protected void save() {
+        for (int shard = 0; shard < writers.length; shard++) {
+            Lock lock = shardLocks[shard];
+            lock.lock();
+            try {
+                if (isLoaded(shard)) {
+                    writeShard(shard);
+                    dirty[shard] = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write the users of a shard, the lock of the shard must be held
+     */
+    private void writeShard(int shard) {
+        Map<Integer, User> users = new HashMap<>();
+        for (int userId : shardUsers.get(shard)) {
+            users.put(userId, super.lookup(userId));
+        }
+        List<Lock> held = lockForRead(users.keySet());
+        try {
+            writers[shard].write(out -> formats[shard].write(users, out));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+}
@@ -0,0 +1,412 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Data access object for a user file that several processes change at the same time, like the app and a batch
+ * job. A lock file next to the data file holds a generation that counts the writes to the file, and a version
+ * for every user that counts the writes to that user.
+ *
+ * A change is applied in memory and the whole file is serialized without holding any file lock. The file is
+ * then locked with FileChannel.lock to check that the generation has not changed and to write it. If another
+ * process wrote the file in the meantime, its users are read again and the write is retried, and if it changed
+ * the same user the change is applied again to that process's version of the user. Users changed by other
+ * processes are also read before every change, updating the User objects already handed out in place.
+ *
+ * Every write is still a rewrite and sync of the whole file under the exclusive lock, and after another process
+ * wrote, the whole file is read again under the shared lock. So writes of different processes, even to different
+ * users, take turns on that lock. The generation only keeps a process from overwriting changes it has not read.
+ */
+public class SharedFileUserDataAccessObject extends FileUserDataAccessObject {
+    // a jvm can only hold one FileChannel lock per file, so instances in the same jvm take this lock first
+    private static final Map<String, Lock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final UserFileFormat format;
+
+    private final UserFactory userFactory;
+
+    private final SnapshotWriter snapshotWriter;
+
+    private final File dataFile;
+
+    private final File lockFile;
+
+    private final Lock localLock;
+
+    // no generation read yet
+    private long generation = Long.MIN_VALUE;
+
+    private final Map<Integer, Long> versions = new HashMap<>();
+
+    private int retries = 0;
+
+    /**
+     * Contents of the lock file
+     */
+    private static class LockState {
+        long generation = 0;
+        final Map<Integer, Long> versions = new HashMap<>();
+    }
+
+    private interface LockedAction<T> {
+        T run(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Shared data access object that picks the format of the file by its name, see formatFor
+     *
+     * @param path  File data is written too, the lock file is kept next to it
+     * @param userFactory   User factory to create new users
+     * @throws IOException  if file readers are incorrectly initialized, or there is no valid snapshot to load
+     */
+    public SharedFileUserDataAccessObject(String path, UserFactory userFactory) throws IOException {
+        this(path, userFactory, formatFor(path));
+    }
+
+    /**
+     * Shared data access object
+     *
+     * @param path  File data is written too, the lock file is kept next to it
+     * @param userFactory   User factory to create new users
+     * @param format    format the file is stored in
+     * @throws IOException  if file readers are incorrectly initialized, or there is no valid snapshot to load
+     */
+    public SharedFileUserDataAccessObject(String path, UserFactory userFactory, UserFileFormat format)
+            throws IOException {
+        super(userFactory);
+        this.format = format;
+        this.userFactory = userFactory;
+        dataFile = new File(path);
+        lockFile = new File(path + ".lock");
+        localLock = LOCAL_LOCKS.computeIfAbsent(lockFile.getCanonicalPath(), key -> new ReentrantLock());
+        snapshotWriter = new SnapshotWriter(dataFile);
+
+        // recovering from an interrupted write changes the file, so nobody else may read it meanwhile
+        withFileLock(false, channel -> {
+            if (loadSnapshot(snapshotWriter, format, userFactory) == null) {
+                snapshotWriter.write(out -> format.write(new HashMap<>(), out));
+            }
+            return null;
+        });
+        refresh(null);
+    }
+
+    private <T> T withFileLock(boolean shared, LockedAction<T> action) throws IOException {
+        localLock.lock();
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // released when the channel is closed
+            channel.lock(0, Long.MAX_VALUE, shared);
+            return action.run(channel);
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private static LockState readLockState(FileChannel channel) throws IOException {
+        LockState state = new LockState();
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // read the whole file
+        }
+        buffer.flip();
+        try {
+            if (buffer.remaining() >= Long.BYTES + Integer.BYTES) {
+                state.generation = buffer.getLong();
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    state.versions.put(buffer.getInt(), buffer.getLong());
+                }
+            }
+        } catch (RuntimeException e) {
+            // a lock file that was not completely written counts as changed, so every user is read again
+            state.generation = -1;
+            state.versions.clear();
+        }
+        return state;
+    }
+
+    private static void writeLockState(FileChannel channel, LockState state) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES +
+                state.versions.size() * (Integer.BYTES + Long.BYTES));
+        buffer.putLong(state.generation);
+        buffer.putInt(state.versions.size());
+        for (Map.Entry<Integer, Long> entry : state.versions.entrySet()) {
+            buffer.putInt(entry.getKey());
+            buffer.putLong(entry.getValue());
+        }
+        buffer.flip();
+        channel.truncate(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Read the users that other processes changed since this data access object last read or wrote the file
+     */
+    public synchronized void refresh() {
+        try {
+            refresh(null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the users that other processes changed
+     * @param skipUserId    user that is about to be replaced as a whole and does not need to be read, or null
+     * @return the users whose contents were replaced
+     */
+    private Set<Integer> refresh(Integer skipUserId) throws IOException {
+        Map<Integer, User> changed = new HashMap<>();
+        LockState state = withFileLock(true, channel -> {
+            LockState lockState = readLockState(channel);
+            if (lockState.generation != generation) {
+                for (Map.Entry<Integer, User> entry : format.read(dataFile, userFactory).entrySet()) {
+                    int userId = entry.getKey();
+                    if (!Objects.equals(lockState.versions.get(userId), versions.get(userId)) || get(userId) == null) {
+                        changed.put(userId, entry.getValue());
+                    }
+                }
+            }
+            return lockState;
+        });
+
+        if (state.generation == generation) {
+            return Collections.emptySet();
+        }
+        for (Map.Entry<Integer, User> entry : changed.entrySet()) {
+            int userId = entry.getKey();
+            if (skipUserId == null || userId != skipUserId) {
+                replace(userId, entry.getValue());
+            }
+        }
+        generation = state.generation;
+        versions.clear();
+        versions.putAll(state.versions);
+        return changed.keySet();
+    }
+
+    /**
+     * Update a user to the contents read from the file, keeping the User object and its queue
+     */
+    private void replace(int userId, User source) {
+        User target = super.lookup(userId);
+        if (target == null) {
+            putAll(Collections.singletonMap(userId, source));
+            return;
+        }
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            target.setItems(source.getSnapshot().toList());
+            target.setDietaryRestrictions(toMap(source));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Map<String, Float> toMap(User user) {
+        Map<String, Float> res = new HashMap<>();
+        for (String key : user.getAllKeys()) {
+            res.put(key, user.getRestriction(key));
+        }
+        return res;
+    }
+
+    /**
+     * Write the file if no other process wrote it since it was last read
+     * @param userId    user whose version is incremented, or null
+     * @param contents  the serialized users
+     * @return true if the file was written
+     */
+    private boolean commit(Integer userId, byte[] contents) throws IOException {
+        return withFileLock(false, channel -> {
+            LockState state = readLockState(channel);
+            if (state.generation != generation) {
+                return false;
+            }
+            state.generation++;
+            if (userId != null) {
+                state.versions.merge(userId, 1L, Long::sum);
+            }
+            // the lock file is written first, so if the data file is not written after all, other processes only
+            // retry without need
+            writeLockState(channel, state);
+            snapshotWriter.write(out -> out.write(contents));
+            generation = state.generation;
+            versions.clear();
+            versions.putAll(state.versions);
+            return true;
+        });
+    }
+
+    /**
+     * Apply a change to a user and write it, retrying until no other process wrote the file in between
+     * @param userId    user that is changed, or null to only write the current users
+     * @param replacesUser  true if the change replaces the user as a whole, so it is never applied again
+     * @param change    change to apply, may be applied again if another process changed the same user
+     * @return result of the change
+     */
+    private synchronized <T> T update(Integer userId, boolean replacesUser, Function<User, T> change) {
+        try {
+            T result = null;
+            boolean applied = false;
+            while (true) {
+                Set<Integer> changed = refresh(replacesUser ? userId : null);
+                if (!applied || (userId != null && changed.contains(userId) && !replacesUser)) {
+                    result = apply(userId, change);
+                    applied = true;
+                }
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                List<Lock> held = lockAllForRead();
+                try {
+                    format.write(getAccounts(), out);
+                } finally {
+                    unlockAll(held);
+                }
+                if (commit(userId, out.toByteArray())) {
+                    return result;
+                }
+                retries++;
+                Thread.sleep(ThreadLocalRandom.current().nextInt(1, 10));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> T apply(Integer userId, Function<User, T> change) {
+        if (userId == null) {
+            return change.apply(null);
+        }
+        Lock lock = lockFor(userId).writeLock();
+        lock.lock();
+        try {
+            return change.apply(super.lookup(userId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Save a new user, replacing any user with the same id. This replaces the user as a whole, so if another
+     * process changed the same user in the meantime, this user wins.
+     * @param userId    id of the user
+     * @param user  user to be saved
+     */
+    @Override
+    public void save(int userId, User user) {
+        update(userId, true, old -> {
+            putAll(Collections.singletonMap(userId, user));
+            return null;
+        });
+    }
+
+    /**
+     * Write the current users
+     */
+    @Override
+    protected void save() {
+        update(null, false, user -> null);
+    }
+
+    /**
+     * Every change is written by update() already
+     * @param userId    id of the user that changed
+     */
+    @Override
+    protected void persist(int userId) {
+    }
+
+    /**
+     * Remove a specific item from the user's inventory. If the user was changed by another process, an item with
+     * the same name, expiration date and amount is removed instead.
+     * @param userId    id of the user
+     * @param item  item to be removed
+     * @return true if the item was successfully removed, false otherwise
+     */
+    @Override
+    public boolean removeSpecificItem(int userId, FoodItem item) {
+        getUser(userId);
+        return update(userId, false, user -> {
+            if (user.removeSpecificItem(item)) {
+                return true;
+            }
+            for (FoodItem candidate : user.getSnapshot()) {
+                if (candidate.sameName(item) &&
+                        candidate.getExpirationDate().equals(item.getExpirationDate()) &&
+                        candidate.getAmount().equals(item.getAmount())) {
+                    return user.removeSpecificItem(candidate);
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Remove the first item in the user's inventory
+     * @param userId    id of the user
+     */
+    @Override
+    public void removeItem(int userId) {
+        getUser(userId);
+        update(userId, false, User::removeItem);
+    }
+
+    /**
+     * Add an item to the user's inventory
+     * @param userId    id of the user
+     * @param item  item to be added
+     */
+    @Override
+    public void addItem(int userId, FoodItem item) {
+        getUser(userId);
+        update(userId, false, user -> {
+            user.addItem(item);
+            return null;
+        });
+    }
+
+    /**
+     * Add items to the user's inventory in a single write of the file
+     * @param userId    id of the user
+     * @param items  items to be added
+     */
+    @Override
+    public void addItems(int userId, List<FoodItem> items) {
+        getUser(userId);
+        update(userId, false, user -> {
+            user.addItems(items);
+            return null;
+        });
+    }
+
+    /**
+     * @return the number of writes that had to be retried because another process wrote the file first
+     */
+    public synchronized int getRetries() {
+        return retries;
+    }
+}
@@ -0,0 +1,248 @@
+package data_access;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes snapshots of a file so that a crash never leaves a partially written file behind. The snapshot is
+ * written to a temporary file next to the target and then renamed over it, keeping the previous snapshot around
+ * until the new one is in place.
+ * How often the written data is forced to disk is decided by the SyncPolicy. Writers that do not force every
+ * write share one background thread and one shutdown hook, and stop using them when they are closed.
+ */
+public class SnapshotWriter {
+    /**
+     * When snapshots are forced to disk. EVERY_WRITE is the most durable, INTERVAL forces at most once every
+     * syncIntervalMillis and ON_SHUTDOWN only forces when the program exits.
+     */
+    public enum SyncPolicy { EVERY_WRITE, INTERVAL, ON_SHUTDOWN }
+
+    /**
+     * The contents of a snapshot
+     */
+    public interface Contents {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // shared by every writer, created when the first one that needs it is
+    private static ScheduledThreadPoolExecutor syncer;
+
+    private static boolean shutdownHookAdded = false;
+
+    // writers that are synced when the program exits, guarded by SnapshotWriter.class
+    private static final Set<SnapshotWriter> unclosed = new LinkedHashSet<>();
+
+    private final File target;
+
+    private final File tempFile;
+
+    private final File previousFile;
+
+    private final SyncPolicy policy;
+
+    private final long syncIntervalMillis;
+
+    private long lastSync = 0;
+
+    private boolean unsynced = false;
+
+    private ScheduledFuture<?> syncTask;
+
+    /**
+     * Snapshot writer that forces every snapshot to disk
+     *
+     * @param target    File the snapshots are written too
+     */
+    public SnapshotWriter(File target) {
+        this(target, SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    /**
+     * Snapshot writer
+     *
+     * @param target    File the snapshots are written too
+     * @param policy    when snapshots are forced to disk
+     * @param syncIntervalMillis    minimum time between syncs, only used by the INTERVAL policy
+     */
+    public SnapshotWriter(File target, SyncPolicy policy, long syncIntervalMillis) {
+        this.target = target;
+        this.tempFile = new File(target.getPath() + ".tmp");
+        this.previousFile = new File(target.getPath() + ".prev");
+        this.policy = policy;
+        this.syncIntervalMillis = syncIntervalMillis;
+
+        if (policy != SyncPolicy.EVERY_WRITE) {
+            register(this);
+        }
+    }
+
+    private static synchronized void register(SnapshotWriter writer) {
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(SnapshotWriter::syncAll));
+            shutdownHookAdded = true;
+        }
+        unclosed.add(writer);
+        if (writer.policy == SyncPolicy.INTERVAL) {
+            if (syncer == null) {
+                syncer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                    Thread thread = new Thread(runnable, "snapshot-sync");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                syncer.setRemoveOnCancelPolicy(true);
+            }
+            writer.syncTask = syncer.scheduleWithFixedDelay(writer::sync, writer.syncIntervalMillis,
+                    writer.syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void syncAll() {
+        List<SnapshotWriter> writers;
+        synchronized (SnapshotWriter.class) {
+            writers = new ArrayList<>(unclosed);
+        }
+        for (SnapshotWriter writer : writers) {
+            try {
+                writer.sync();
+            } catch (RuntimeException e) {
+                // sync the other writers anyway
+            }
+        }
+    }
+
+    /**
+     * Force the current snapshot to disk and stop syncing it in the background or when the program exits
+     */
+    public void close() {
+        sync();
+        synchronized (SnapshotWriter.class) {
+            unclosed.remove(this);
+            if (syncTask != null) {
+                syncTask.cancel(false);
+                syncTask = null;
+            }
+        }
+    }
+
+    /**
+     * Write a new snapshot and replace the current one with it
+     *
+     * @param contents  contents of the new snapshot
+     * @throws IOException  if the snapshot cannot be written
+     */
+    public synchronized void write(Contents contents) throws IOException {
+        boolean force = policy == SyncPolicy.EVERY_WRITE ||
+                (policy == SyncPolicy.INTERVAL && System.currentTimeMillis() - lastSync >= syncIntervalMillis);
+
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(out);
+            contents.writeTo(buffered);
+            buffered.flush();
+            if (force) {
+                out.getChannel().force(true);
+            }
+        }
+
+        if (target.exists()) {
+            Files.move(target.toPath(), previousFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        if (force) {
+            syncDirectory();
+            lastSync = System.currentTimeMillis();
+            unsynced = false;
+        } else {
+            unsynced = true;
+        }
+    }
+
+    /**
+     * Force the current snapshot to disk if it has not been already
+     */
+    public synchronized void sync() {
+        if (!unsynced || !target.exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+            syncDirectory();
+            lastSync = System.currentTimeMillis();
+            unsynced = false;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Force the renames to disk, not every platform allows a directory to be opened so failures are ignored
+     */
+    private void syncDirectory() {
+        File dir = target.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // the data itself is already on disk
+        }
+    }
+
+    /**
+     * File the snapshots are written too
+     * @return the target file
+     */
+    public File getTarget() {
+        return target;
+    }
+
+    /**
+     * Find the snapshots that can be recovered from, newest first. A temporary file is only a candidate when the
+     * target is missing, because that means the crash happened after it was completely written. Otherwise it
+     * is a partially written snapshot and is deleted.
+     *
+     * @return the existing snapshot files, newest first
+     */
+    public List<File> recoveryCandidates() {
+        List<File> res = new ArrayList<>();
+        if (target.exists()) {
+            tempFile.delete();
+            res.add(target);
+        } else if (tempFile.exists()) {
+            res.add(tempFile);
+        }
+        if (previousFile.exists()) {
+            res.add(previousFile);
+        }
+        return res;
+    }
+
+    /**
+     * Delete a temporary file that cannot be read when it is the only snapshot, which means the very first write
+     * crashed before it finished and there is nothing to recover
+     *
+     * @param candidates    the recovery candidates, none of which could be read
+     * @return true if the temporary file was deleted and the store can start empty
+     */
+    public boolean discardPartialFirstSnapshot(List<File> candidates) {
+        return candidates.size() == 1 && candidates.get(0).equals(tempFile) && tempFile.delete();
+    }
+
+    /**
+     * Put a recovered snapshot back in place of the target
+     *
+     * @param snapshot  one of the recovery candidates
+     * @throws IOException  if the snapshot cannot be moved
+     */
+    public void restore(File snapshot) throws IOException {
+        if (!snapshot.equals(target)) {
+            Files.copy(snapshot.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package data_access;
+
+import use_case.add_fooditem.AddFoodItemDataAccessInterface;
+import use_case.bulk_import.BulkImportDataAccessInterface;
+import use_case.delete_fooditem.DeleteFoodItemDataAccessInterface;
+import use_case.export_inventory.ExportInventoryDataAccessInterface;
+import use_case.get_recipe.GetRecipeDataAccessInterface;
+import use_case.get_shopping_list.GetShoppingListDataAccessInterface;
+import use_case.main_menu.MainMenuDataAccessInterface;
+import use_case.remove_expired.RemoveExpiredDataAccessInterface;
+import use_case.update_restrictions.UpdateRestrictionsDataAccessInterface;
+
+/**
+ * Every data access interface of the use cases, implemented by each way of storing users so the app can be
+ * wired up with any of them.
+ */
+public interface UserDataAccessInterface extends GetRecipeDataAccessInterface, MainMenuDataAccessInterface,
+        DeleteFoodItemDataAccessInterface, UpdateRestrictionsDataAccessInterface, RemoveExpiredDataAccessInterface,
+        AddFoodItemDataAccessInterface, GetShoppingListDataAccessInterface, BulkImportDataAccessInterface,
+        ExportInventoryDataAccessInterface {
+}
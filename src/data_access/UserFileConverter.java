@@ -0,0 +1,44 @@
+package data_access;
+
+import entities.UserFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Converts a user file from one format to another, e.g. the legacy users.csv to the binary format.
+ */
+public class UserFileConverter {
+
+    /**
+     * Convert a user file
+     *
+     * @param from  file to read
+     * @param fromFormat    format of the file to read
+     * @param to    file to write
+     * @param toFormat  format of the file to write
+     * @throws IOException  if either file cannot be accessed
+     */
+    public static void convert(File from, UserFileFormat fromFormat, File to, UserFileFormat toFormat)
+            throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(to))) {
+            toFormat.write(fromFormat.read(from, new UserFactory()), out);
+        }
+    }
+
+    /**
+     * Convert a csv user file to the binary format
+     * @param args  the csv file and the binary file to write, e.g. ./users.csv ./users.bin
+     * @throws IOException  if either file cannot be accessed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("usage: UserFileConverter <users.csv> <users.bin>");
+            return;
+        }
+        convert(new File(args[0]), new CsvUserFileFormat(), new File(args[1]), new BinaryUserFileFormat());
+    }
+}
@@ -0,0 +1,42 @@
+package data_access;
+
+import entities.User;
+import entities.UserFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * This interface represents a format users can be stored in on disk.
+ */
+public interface UserFileFormat {
+
+    /**
+     * Read every user from a file
+     * @param file  file to read
+     * @param userFactory   User factory to create the users
+     * @return the users in the file by their id
+     * @throws IOException  if the file cannot be read or is not in this format
+     */
+    Map<Integer, User> read(File file, UserFactory userFactory) throws IOException;
+
+    /**
+     * Read every user from a stream holding the contents of a file in this format
+     * @param in    stream to read, it is not closed
+     * @param userFactory   User factory to create the users
+     * @return the users in the stream by their id
+     * @throws IOException  if the stream cannot be read or is not in this format
+     */
+    Map<Integer, User> read(InputStream in, UserFactory userFactory) throws IOException;
+
+    /**
+     * Write every user in accounts
+     * @param accounts  the users by their id
+     * @param out   stream the users are written to
+     * @throws IOException  if the users cannot be written
+     */
+    void write(Map<Integer, User> accounts, OutputStream out) throws IOException;
+}
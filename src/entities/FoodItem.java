@@ -1,6 +1,10 @@
 package entities;
 import java.util.Calendar;
+import java.util.Objects;
 public class FoodItem {
+    // id of the name in the IngredientDictionary, so items of every user share one copy of each name. Items that
+    // are not kept in an inventory only look their name up, and keep it themselves if it is not in the dictionary.
+    private volatile int nameId;
     private String name;
     private final Calendar expirationDate;
     private Float amount;
@@ -16,11 +20,28 @@ public class FoodItem {
      * Note: January is considered as month 0
      */
     public FoodItem(String name, int year, int month, int day, float amount) {
-        this.name = name;
+        this(toId(name), year, month, day, amount);
+    }
+
+    /**
+     * Constructor for FoodItem
+     * @param nameId the id of the name of the food item in the IngredientDictionary
+     * @param year the year of expiration
+     * @param month the month of expiration
+     * @param day the day of expiration
+     * @param amount the amount of the food item
+     *
+     * Note: January is considered as month 0
+     */
+    public FoodItem(int nameId, int year, int month, int day, float amount) {
+        this.nameId = nameId;
         this.expirationDate = Calendar.getInstance();
         this.expirationDate.set(Calendar.YEAR, year);
         this.expirationDate.set(Calendar.MONTH, month - 1);
         this.expirationDate.set(Calendar.DAY_OF_MONTH, day);
+        // compute the time and fields now, so reading the date later never changes the calendar and comparing
+        // dates does not clone it
+        this.expirationDate.get(Calendar.YEAR);
         this.amount = amount;
     }
 
@@ -31,12 +52,26 @@ public class FoodItem {
      *
      */
     public FoodItem(String name, float amount) {
-        // Used specifically for GetShoppingList use case, no need for the expiration date
-        this.name = name;
-        this.expirationDate = null;
+        // Used specifically for GetShoppingList use case and recipes, no need for the expiration date. The name is
+        // not added to the IngredientDictionary, since ingredients of recipes are not kept.
+        this(find(name), name, null, amount);
+    }
+
+    private FoodItem(int nameId, String name, Calendar expirationDate, Float amount) {
+        this.nameId = nameId;
+        this.name = nameId == IngredientDictionary.UNKNOWN ? name : null;
+        this.expirationDate = expirationDate;
         this.amount = amount;
     }
 
+    private static int toId(String name) {
+        return name == null ? IngredientDictionary.UNKNOWN : IngredientDictionary.id(name);
+    }
+
+    private static int find(String name) {
+        return name == null ? IngredientDictionary.UNKNOWN : IngredientDictionary.find(name);
+    }
+
     /**
      * Get the expiration date of the food item
      * @return a string representation of the expiration date
@@ -61,7 +96,36 @@ public class FoodItem {
      * @return a string representation of the name
      */
     public String getName() {
-        return name;
+        int id = nameId;
+        return id == IngredientDictionary.UNKNOWN ? name : IngredientDictionary.name(id);
+    }
+
+    /**
+     * Get the id of the name of the food item, adding the name to the IngredientDictionary if it is not in it.
+     * Only call it for items that are stored, compare names with sameName.
+     * @return the id of the name in the IngredientDictionary, or UNKNOWN if the item has no name
+     */
+    public int getNameId() {
+        int id = nameId;
+        if (id == IngredientDictionary.UNKNOWN && name != null) {
+            id = IngredientDictionary.id(name);
+            nameId = id;
+        }
+        return id;
+    }
+
+    /**
+     * Check whether two food items have the same name, without adding either name to the IngredientDictionary
+     * @param other the other food item
+     * @return true if the names are equal
+     */
+    public boolean sameName(FoodItem other) {
+        int id = nameId;
+        int otherId = other.nameId;
+        if (id != IngredientDictionary.UNKNOWN && otherId != IngredientDictionary.UNKNOWN) {
+            return id == otherId;
+        }
+        return Objects.equals(getName(), other.getName());
     }
 
     /**
@@ -73,7 +137,8 @@ public class FoodItem {
     }
 
     /**
-     * Set the amount of the food item
+     * Set the amount of the food item. Items in an inventory are shared with its snapshots, change a copy made
+     * with withAmount instead.
      * @param amount the amount of the food item
      */
     public void setAmount(Float amount) {
@@ -81,9 +146,30 @@ public class FoodItem {
     }
 
     /**
-     * Set the name of the food item
+     * Set the name of the food item. Items in an inventory are shared with its snapshots, change a copy made
+     * with withName instead.
      * @param name the name of the food item
      */
     public void setName(String name) {
-        this.name = name;}
+        this.name = null;
+        this.nameId = toId(name);}
+
+    /**
+     * Copy the food item with another amount, the expiration date is shared since it is never changed
+     * @param amount the amount of the copy
+     * @return the copy
+     */
+    public FoodItem withAmount(Float amount) {
+        return new FoodItem(nameId, name, expirationDate, amount);
+    }
+
+    /**
+     * Copy the food item with another name, the expiration date is shared since it is never changed. Like the
+     * items of recipes, the name is not added to the IngredientDictionary.
+     * @param name the name of the copy
+     * @return the copy
+     */
+    public FoodItem withName(String name) {
+        return new FoodItem(find(name), name, expirationDate, amount);
+    }
 }
@@ -0,0 +1,84 @@
+package entities;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents the dictionary of ingredient names shared by every food item of every user. Each name is
+ * stored once and food items keep its int id, so comparing names is comparing ints.
+ *
+ * Ids are only valid within one run of the program, files have to store the names.
+ *
+ * Names are never removed, so only the names of items kept in an inventory are added. Items of recipes and
+ * shopping lists only look their names up with find, so names from the api do not fill the dictionary.
+ */
+public final class IngredientDictionary {
+    /**
+     * Id of a name that is not in the dictionary
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // written under the class lock, replaced when it grows so readers never see a partly copied array
+    private static volatile String[] names = new String[64];
+
+    private static int size = 0;
+
+    private IngredientDictionary() {
+    }
+
+    /**
+     * Get the id of a name, adding it to the dictionary if it is not in it yet
+     * @param name the name of the ingredient
+     * @return the id of the name
+     */
+    public static int id(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (IngredientDictionary.class) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = name;
+            // publish the name before the id, so name() never sees an id without its name
+            names = current;
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Get the id of a name without adding it to the dictionary
+     * @param name the name of the ingredient
+     * @return the id of the name, or UNKNOWN if no food item ever had that name
+     */
+    public static int find(String name) {
+        return ids.getOrDefault(name, UNKNOWN);
+    }
+
+    /**
+     * Get the name of an id
+     * @param id the id of the name
+     * @return the name of the ingredient
+     */
+    public static String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Get the number of names in the dictionary
+     * @return the number of names
+     */
+    public static synchronized int size() {
+        return size;
+    }
+}
@@ -1,10 +1,14 @@
 package entities;
 
+import java.util.regex.Pattern;
+
 /**
  * The class for the ingredient validator.
  * This class is used to validate the inputs of the ingredients.
  */
 public class IngredientValidatorService implements IngredientValidator{
+    // compiled once instead of by String.matches on every call
+    private static final Pattern INGREDIENT = Pattern.compile("[a-zA-Z]+[-]?[a-zA-Z]+");
 
     /**
      * Validates the inputs of the ingredients. The method checks if the ingreident input has
@@ -18,7 +22,7 @@ public class IngredientValidatorService implements IngredientValidator{
      */
     @Override
     public boolean ingredientIsValid(String ingredient) {
-        if (!ingredient.matches("[a-zA-Z]+[-]?[a-zA-Z]+")) {
+        if (!INGREDIENT.matcher(ingredient).matches()) {
             return false;
         }
 
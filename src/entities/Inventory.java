@@ -1,5 +1,6 @@
 package entities;
 
+import java.util.Collection;
 import java.util.PriorityQueue;
 
 /**
@@ -9,9 +10,15 @@ public interface Inventory {
 
     void addItem(FoodItem item);
 
+    void addItems(Collection<FoodItem> items);
+
+    void setItems(Collection<FoodItem> items);
+
     FoodItem removeItem();
 
     boolean removeSpecificItem(FoodItem item);
 
+    InventorySnapshot getSnapshot();
+
     PriorityQueue<FoodItem> getQueue();
 }
@@ -3,7 +3,6 @@ package entities;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
-import java.util.PriorityQueue;
 
 /**
  * This class represents the inventory checker of a user.
@@ -15,7 +14,8 @@ public class InventoryChecker {
      * @return a list of FoodItems expiring within the next week
      */
     public List<FoodItem> weekCheck(Inventory userInventory) {
-        PriorityQueue<FoodItem> inv = userInventory.getQueue();
+        // the snapshot is sorted by expiration date, so the loop can stop at the first item that is not close
+        InventorySnapshot inv = userInventory.getSnapshot();
         List<FoodItem> res = new ArrayList<>();
         Calendar plusWeek = Calendar.getInstance();
         plusWeek.add(Calendar.DAY_OF_MONTH, 7);
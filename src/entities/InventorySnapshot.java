@@ -0,0 +1,155 @@
+package entities;
+
+import java.util.*;
+
+/**
+ * This class represents one version of the inventory of a user. It never changes, so it can be read and kept
+ * without locking while the inventory changes. Each change to the inventory creates a new snapshot with the next
+ * version.
+ *
+ * The items are sorted by expiration date, items with the same date in the order they were added. The
+ * FoodItem objects are shared with later versions, the snapshot only fixes which items are in the inventory.
+ */
+public final class InventorySnapshot implements Iterable<FoodItem> {
+    /**
+     * The snapshot of an inventory without items
+     */
+    public static final InventorySnapshot EMPTY = new InventorySnapshot(0, new FoodItem[0]);
+
+    private static final Comparator<FoodItem> BY_EXPIRATION =
+            (item1, item2) -> item1.getCalendarObject().compareTo(item2.getCalendarObject());
+
+    private final long version;
+
+    private final FoodItem[] items;
+
+    private InventorySnapshot(long version, FoodItem[] items) {
+        this.version = version;
+        this.items = items;
+    }
+
+    /**
+     * Get the version of the snapshot
+     * @return the number of changes made to the inventory before this snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the number of items
+     * @return the number of items in the snapshot
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Check whether there are no items
+     * @return true if the snapshot has no items
+     */
+    public boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    /**
+     * Get the item that expires first
+     * @return the item that expires first, or null if there are no items
+     */
+    public FoodItem peek() {
+        return items.length == 0 ? null : items[0];
+    }
+
+    /**
+     * Get an item
+     * @param index the index of the item, 0 is the item that expires first
+     * @return the item
+     */
+    public FoodItem get(int index) {
+        return items[index];
+    }
+
+    /**
+     * Get the items as a list
+     * @return an unmodifiable list of the items, sorted by expiration date
+     */
+    public List<FoodItem> toList() {
+        return Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    /**
+     * Get an iterator for the items
+     * @return an iterator over the items, sorted by expiration date
+     */
+    @Override
+    public Iterator<FoodItem> iterator() {
+        return toList().iterator();
+    }
+
+    /**
+     * Create the next version with an item added after the items that expire on the same day or earlier
+     * @param item the item to add
+     * @return the next version
+     */
+    InventorySnapshot withItem(FoodItem item) {
+        int low = 0;
+        int high = items.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BY_EXPIRATION.compare(items[mid], item) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        FoodItem[] res = new FoodItem[items.length + 1];
+        System.arraycopy(items, 0, res, 0, low);
+        res[low] = item;
+        System.arraycopy(items, low, res, low + 1, items.length - low);
+        return new InventorySnapshot(version + 1, res);
+    }
+
+    /**
+     * Create the next version with items added
+     * @param added the items to add
+     * @return the next version
+     */
+    InventorySnapshot withItems(Collection<FoodItem> added) {
+        FoodItem[] res = Arrays.copyOf(items, items.length + added.size());
+        int i = items.length;
+        for (FoodItem item : added) {
+            res[i++] = item;
+        }
+        // stable, so items with the same date keep the order they were added in
+        Arrays.sort(res, BY_EXPIRATION);
+        return new InventorySnapshot(version + 1, res);
+    }
+
+    /**
+     * Create the next version without an item
+     * @param item the item to remove, compared by identity
+     * @return the next version, or this snapshot if the item is not in it
+     */
+    InventorySnapshot withoutItem(FoodItem item) {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == item) {
+                FoodItem[] res = new FoodItem[items.length - 1];
+                System.arraycopy(items, 0, res, 0, i);
+                System.arraycopy(items, i + 1, res, i, items.length - i - 1);
+                return new InventorySnapshot(version + 1, res);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Create the next version with only the given items
+     * @param replacement the items of the next version
+     * @return the next version
+     */
+    InventorySnapshot withOnly(Collection<FoodItem> replacement) {
+        FoodItem[] res = replacement.toArray(new FoodItem[0]);
+        Arrays.sort(res, BY_EXPIRATION);
+        return new InventorySnapshot(version + 1, res);
+    }
+}
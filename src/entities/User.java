@@ -6,6 +6,11 @@ import java.util.*;
  * This class represents a user of the application.
  */
 public class User {
+    /**
+     * The id of the user in a single user setup, like the desktop application
+     */
+    public static final int DEFAULT_USER_ID = 0;
+
     private Inventory inventory;
     private DietaryPreferences dietaryRestrictions;
 
@@ -43,6 +48,22 @@ public class User {
         this.inventory.addItem(item);
     }
 
+    /**
+     * Add items to the inventory of the user as a single change
+     * @param items the items to add to the inventory
+     */
+    public void addItems(Collection<FoodItem> items) {
+        this.inventory.addItems(items);
+    }
+
+    /**
+     * Replace every item in the inventory of the user as a single change
+     * @param items the items the inventory has afterwards
+     */
+    public void setItems(Collection<FoodItem> items) {
+        this.inventory.setItems(items);
+    }
+
     /**
      * Remove an item from the inventory of the user
      * @return the item removed from the inventory
@@ -60,9 +81,17 @@ public class User {
         return this.inventory.removeSpecificItem(item);
     }
 
+    /**
+     * Get the current version of the inventory of the user, which can be read without locking
+     * @return the snapshot of the inventory of the user
+     */
+    public InventorySnapshot getSnapshot() {
+        return this.inventory.getSnapshot();
+    }
+
     /**
      * Get the queue of the inventory of the user
-     * @return the queue of the inventory of the user
+     * @return a copy of the inventory of the user as a priority queue
      */
     public PriorityQueue<FoodItem> getQueue() {
         return this.inventory.getQueue();
@@ -1,21 +1,25 @@
 package entities;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.PriorityQueue;
 
 /**
  * This class represents the inventory of a user.
+ *
+ * The items are kept in an InventorySnapshot that is replaced by a new version on every change, so readers
+ * get a consistent view from getSnapshot() without locking. Changes still have to be made by one thread at a time,
+ * which the data access objects ensure with their locks.
  */
 public class UserInventory implements Inventory, Iterable<FoodItem> {
-    private PriorityQueue<FoodItem> inventory;
+    private volatile InventorySnapshot snapshot = InventorySnapshot.EMPTY;
 
     /**
      * Constructor for UserInventory
      *
      */
     public UserInventory() {
-        this.inventory = new PriorityQueue<>(new FoodItemComparator());
     }
 
     /**
@@ -23,15 +27,38 @@ public class UserInventory implements Inventory, Iterable<FoodItem> {
      * @param item the item to add to the inventory
      */
     public void addItem(FoodItem item) {
-        this.inventory.add(item);
+        this.snapshot = snapshot.withItem(item);
     }
 
     /**
-     * Remove an item from the inventory of the user
+     * Add items to the inventory of the user as a single change
+     * @param items the items to add to the inventory
+     */
+    public void addItems(Collection<FoodItem> items) {
+        this.snapshot = snapshot.withItems(items);
+    }
+
+    /**
+     * Replace every item in the inventory of the user as a single change
+     * @param items the items the inventory has afterwards
+     */
+    public void setItems(Collection<FoodItem> items) {
+        this.snapshot = snapshot.withOnly(items);
+    }
+
+    /**
+     * Remove the item that expires first from the inventory of the user
      * @return the item removed from the inventory
+     * @throws java.util.NoSuchElementException if the inventory is empty
      */
     public FoodItem removeItem() {
-        return this.inventory.remove();
+        InventorySnapshot current = snapshot;
+        if (current.isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+        FoodItem item = current.peek();
+        this.snapshot = current.withoutItem(item);
+        return item;
     }
 
     /**
@@ -40,21 +67,38 @@ public class UserInventory implements Inventory, Iterable<FoodItem> {
      * @return true if the item was removed, false otherwise
      */
     public boolean removeSpecificItem(FoodItem item) {
-        return this.inventory.remove(item);
+        InventorySnapshot current = snapshot;
+        InventorySnapshot next = current.withoutItem(item);
+        this.snapshot = next;
+        return next != current;
     }
 
     /**
-     * Get the inventory of the user
+     * Get the current version of the inventory of the user
+     * @return the snapshot of the inventory
+     */
+    public InventorySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the inventory of the user as a priority queue. The queue is a copy, changing it does not change the
+     * inventory.
      * @return the inventory of the user
      */
     public PriorityQueue<FoodItem> getQueue() {
-        return this.inventory;
+        InventorySnapshot current = snapshot;
+        PriorityQueue<FoodItem> res = new PriorityQueue<>(Math.max(1, current.size()), new FoodItemComparator());
+        for (FoodItem item : current) {
+            res.add(item);
+        }
+        return res;
     }
 
     /**
      * This class represents the comparator for FoodItems.
      */
-    private class FoodItemComparator implements Comparator<FoodItem> {
+    private static class FoodItemComparator implements Comparator<FoodItem> {
         /**
          * Compare two FoodItems
          * @param item1 the first FoodItem to compare
@@ -69,39 +113,10 @@ public class UserInventory implements Inventory, Iterable<FoodItem> {
 
     /**
      * Get an iterator for the inventory
-     * @return an iterator for the inventory
+     * @return an iterator over the current version of the inventory, sorted by expiration date
      */
     @Override
     public Iterator<FoodItem> iterator() {
-        return new Iter();
-    }
-
-    /**
-     * This class represents the iterator for the inventory.
-     */
-    private class Iter implements Iterator<FoodItem>{
-        private int index = 0;
-        private FoodItem[] temp = inventory.toArray(new FoodItem[inventory.size()]);
-
-        /**
-         * Check if the iterator has a next element
-         * @return true if the iterator has a next element, false otherwise
-         */
-        @Override
-        public boolean hasNext() {
-            return index < inventory.size();
-        }
-
-        /**
-         * Get the next element of the iterator
-         * @return the next element of the iterator
-         */
-        @Override
-        public FoodItem next() {
-            if (!hasNext()) {
-                throw new java.util.NoSuchElementException();
-            }
-            return temp[index++];
-        }
+        return snapshot.iterator();
     }
 }
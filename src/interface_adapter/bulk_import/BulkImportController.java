@@ -0,0 +1,28 @@
+package interface_adapter.bulk_import;
+
+import use_case.bulk_import.BulkImportInputBoundary;
+import use_case.bulk_import.BulkImportInputData;
+
+/**
+ * Controller responsible for importing a file of food items.
+ * This class acts as a bridge between the user interface and the interactor.
+ */
+public class BulkImportController {
+    final BulkImportInputBoundary bulkImportInteractor;
+
+    /**
+     * Constructor for the BulkImportController
+     * @param bulkImportInteractor    the interactor responsible for importing the food items
+     */
+    public BulkImportController(BulkImportInputBoundary bulkImportInteractor) {
+        this.bulkImportInteractor = bulkImportInteractor;
+    }
+
+    /**
+     * Executes the bulkImportInteractor for a file.
+     * @param path    the path of the csv or json lines file to be imported
+     */
+    public void execute(String path) {
+        bulkImportInteractor.execute(new BulkImportInputData(path));
+    }
+}
@@ -0,0 +1,56 @@
+package interface_adapter.bulk_import;
+
+import use_case.bulk_import.BulkImportOutputBoundary;
+import use_case.bulk_import.BulkImportOutputData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Presenter responsible for handling the output data from the bulk import use case.
+ * This class acts as a bridge between the interactor and the view model.
+ */
+public class BulkImportPresenter implements BulkImportOutputBoundary {
+    private final BulkImportViewModel bulkImportViewModel;
+
+    /**
+     * Constructor for the BulkImportPresenter
+     * @param bulkImportViewModel    the view model responsible for handling the output data
+     */
+    public BulkImportPresenter(BulkImportViewModel bulkImportViewModel) {
+        this.bulkImportViewModel = bulkImportViewModel;
+    }
+
+    /**
+     * Prepares the success view with the number of items imported and an error message for each invalid line.
+     * @param bulkImportOutputData    the output data of the use case
+     */
+    @Override
+    public void prepareSuccessView(BulkImportOutputData bulkImportOutputData) {
+        BulkImportState bulkImportState = bulkImportViewModel.getState();
+        List<String> lineErrors = new ArrayList<>();
+        for (Map.Entry<Integer, String> error : bulkImportOutputData.getErrors().entrySet()) {
+            lineErrors.add("Line " + error.getKey() + ": " + error.getValue());
+        }
+        bulkImportState.setImportedCount(bulkImportOutputData.getImportedCount());
+        bulkImportState.setLineErrors(lineErrors);
+        bulkImportState.setFileError(null);
+        bulkImportViewModel.setState(bulkImportState);
+        bulkImportViewModel.firePropertyChange();
+    }
+
+    /**
+     * Prepares the failed view with the given error.
+     * @param error    the error that occurred represented in a String.
+     */
+    @Override
+    public void prepareFailView(String error) {
+        BulkImportState bulkImportState = bulkImportViewModel.getState();
+        bulkImportState.setImportedCount(0);
+        bulkImportState.setLineErrors(new ArrayList<>());
+        bulkImportState.setFileError(error);
+        bulkImportViewModel.setState(bulkImportState);
+        bulkImportViewModel.firePropertyChange();
+    }
+}
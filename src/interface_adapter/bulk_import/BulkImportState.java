@@ -0,0 +1,68 @@
+package interface_adapter.bulk_import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state for the bulk import use case.
+ * This state is used to store the number of items imported, the errors of the lines that were not and the
+ * error if the file could not be read.
+ */
+public class BulkImportState {
+    private int importedCount = 0;
+    private List<String> lineErrors = new ArrayList<>();
+    private String fileError = null;
+
+    /**
+     * Constructor for the bulk import state
+     */
+    public BulkImportState() {}
+
+    /**
+     * Getter for the number of items imported
+     * @return the number of items that were imported
+     */
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * Setter for the number of items imported
+     * @param importedCount    the number of items that were imported
+     */
+    public void setImportedCount(int importedCount) {
+        this.importedCount = importedCount;
+    }
+
+    /**
+     * Getter for the line errors
+     * @return the errors of the lines that were not imported, like "Line 3: Invalid Date!"
+     */
+    public List<String> getLineErrors() {
+        return lineErrors;
+    }
+
+    /**
+     * Setter for the line errors
+     * @param lineErrors    the errors of the lines that were not imported
+     */
+    public void setLineErrors(List<String> lineErrors) {
+        this.lineErrors = lineErrors;
+    }
+
+    /**
+     * Getter for the file error
+     * @return the error if the file could not be read, null otherwise
+     */
+    public String getFileError() {
+        return fileError;
+    }
+
+    /**
+     * Setter for the file error
+     * @param fileError    the error if the file could not be read
+     */
+    public void setFileError(String fileError) {
+        this.fileError = fileError;
+    }
+}
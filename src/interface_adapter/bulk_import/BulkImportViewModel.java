@@ -0,0 +1,53 @@
+package interface_adapter.bulk_import;
+
+import interface_adapter.ViewModel;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
+/**
+ * The view model for the bulk import use case.
+ * It is responsible for storing the state of the bulk import use case and notifies the listeners when the state
+ * has changed.
+ */
+public class BulkImportViewModel extends ViewModel {
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private BulkImportState bulkImportState = new BulkImportState();
+
+    /**
+     * Constructor for the BulkImportViewModel
+     */
+    public BulkImportViewModel() {
+        super("Bulk Import");
+    }
+
+    /**
+     * A function to set the state for the bulk import use case.
+     * @param bulkImportState   the state to be set
+     */
+    public void setState(BulkImportState bulkImportState) {this.bulkImportState = bulkImportState;}
+
+    /**
+     * A function to get the state for the bulk import use case.
+     * @return the state of the bulk import use case
+     */
+    public BulkImportState getState() {return bulkImportState;}
+
+    /**
+     * A function to fire the property change.
+     * This function is called when the state has changed.
+     */
+    @Override
+    public void firePropertyChange() {
+        support.firePropertyChange("state", null, this.bulkImportState);
+    }
+
+    /**
+     * A function to add a property change listener.
+     * @param listener    the listener to be added
+     */
+    @Override
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        support.addPropertyChangeListener(listener);
+    }
+}
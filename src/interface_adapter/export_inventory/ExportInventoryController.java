@@ -0,0 +1,28 @@
+package interface_adapter.export_inventory;
+
+import use_case.export_inventory.ExportInventoryInputBoundary;
+import use_case.export_inventory.ExportInventoryInputData;
+
+/**
+ * Controller responsible for exporting every inventory to a file.
+ * This class acts as a bridge between the user interface and the interactor.
+ */
+public class ExportInventoryController {
+    final ExportInventoryInputBoundary exportInventoryInteractor;
+
+    /**
+     * Constructor for the ExportInventoryController
+     * @param exportInventoryInteractor    the interactor responsible for exporting the items
+     */
+    public ExportInventoryController(ExportInventoryInputBoundary exportInventoryInteractor) {
+        this.exportInventoryInteractor = exportInventoryInteractor;
+    }
+
+    /**
+     * Executes the exportInventoryInteractor for a file.
+     * @param path    the path of the csv or json lines file the items are written to
+     */
+    public void execute(String path) {
+        exportInventoryInteractor.execute(new ExportInventoryInputData(path));
+    }
+}
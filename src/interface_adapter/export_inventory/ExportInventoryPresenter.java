@@ -0,0 +1,46 @@
+package interface_adapter.export_inventory;
+
+import use_case.export_inventory.ExportInventoryOutputBoundary;
+import use_case.export_inventory.ExportInventoryOutputData;
+
+/**
+ * Presenter responsible for handling the output data from the export inventory use case.
+ * This class acts as a bridge between the interactor and the view model.
+ */
+public class ExportInventoryPresenter implements ExportInventoryOutputBoundary {
+    private final ExportInventoryViewModel exportInventoryViewModel;
+
+    /**
+     * Constructor for the ExportInventoryPresenter
+     * @param exportInventoryViewModel    the view model responsible for handling the output data
+     */
+    public ExportInventoryPresenter(ExportInventoryViewModel exportInventoryViewModel) {
+        this.exportInventoryViewModel = exportInventoryViewModel;
+    }
+
+    /**
+     * Prepares the success view with the number of items written.
+     * @param exportInventoryOutputData    the output data of the use case
+     */
+    @Override
+    public void prepareSuccessView(ExportInventoryOutputData exportInventoryOutputData) {
+        ExportInventoryState exportInventoryState = exportInventoryViewModel.getState();
+        exportInventoryState.setItemCount(exportInventoryOutputData.getItemCount());
+        exportInventoryState.setError(null);
+        exportInventoryViewModel.setState(exportInventoryState);
+        exportInventoryViewModel.firePropertyChange();
+    }
+
+    /**
+     * Prepares the failed view with the given error.
+     * @param error    the error that occurred represented in a String.
+     */
+    @Override
+    public void prepareFailView(String error) {
+        ExportInventoryState exportInventoryState = exportInventoryViewModel.getState();
+        exportInventoryState.setItemCount(0);
+        exportInventoryState.setError(error);
+        exportInventoryViewModel.setState(exportInventoryState);
+        exportInventoryViewModel.firePropertyChange();
+    }
+}
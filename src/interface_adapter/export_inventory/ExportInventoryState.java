@@ -0,0 +1,47 @@
+package interface_adapter.export_inventory;
+
+/**
+ * The state for the export inventory use case.
+ * This state is used to store the number of items written and the error if they could not be written.
+ */
+public class ExportInventoryState {
+    private long itemCount = 0;
+    private String error = null;
+
+    /**
+     * Constructor for the export inventory state
+     */
+    public ExportInventoryState() {}
+
+    /**
+     * Getter for the number of items written
+     * @return the number of items that were written
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Setter for the number of items written
+     * @param itemCount    the number of items that were written
+     */
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Getter for the error
+     * @return the error if the items could not be written, null otherwise
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Setter for the error
+     * @param error    the error if the items could not be written
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,53 @@
+package interface_adapter.export_inventory;
+
+import interface_adapter.ViewModel;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
+/**
+ * The view model for the export inventory use case.
+ * It is responsible for storing the state of the export inventory use case and notifies the listeners when the
+ * state has changed.
+ */
+public class ExportInventoryViewModel extends ViewModel {
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private ExportInventoryState exportInventoryState = new ExportInventoryState();
+
+    /**
+     * Constructor for the ExportInventoryViewModel
+     */
+    public ExportInventoryViewModel() {
+        super("Export Inventory");
+    }
+
+    /**
+     * A function to set the state for the export inventory use case.
+     * @param exportInventoryState   the state to be set
+     */
+    public void setState(ExportInventoryState exportInventoryState) {this.exportInventoryState = exportInventoryState;}
+
+    /**
+     * A function to get the state for the export inventory use case.
+     * @return the state of the export inventory use case
+     */
+    public ExportInventoryState getState() {return exportInventoryState;}
+
+    /**
+     * A function to fire the property change.
+     * This function is called when the state has changed.
+     */
+    @Override
+    public void firePropertyChange() {
+        support.firePropertyChange("state", null, this.exportInventoryState);
+    }
+
+    /**
+     * A function to add a property change listener.
+     * @param listener    the listener to be added
+     */
+    @Override
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        support.addPropertyChangeListener(listener);
+    }
+}
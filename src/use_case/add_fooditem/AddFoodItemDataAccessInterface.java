@@ -9,8 +9,9 @@ public interface AddFoodItemDataAccessInterface {
 
     /**
      * Adds a food item to the database.
+     * @param userId    the id of the user the food item belongs to
      * @param foodItem    the food item to be added
      */
-    void addItem(FoodItem foodItem);
+    void addItem(int userId, FoodItem foodItem);
 
 }
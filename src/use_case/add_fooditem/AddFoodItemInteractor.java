@@ -3,6 +3,7 @@ package use_case.add_fooditem;
 import com.sun.jdi.IntegerValue;
 import entities.FoodItem;
 import entities.DateValidatorService;
+import entities.User;
 import entities.IngredientValidatorService;
 
 /**
@@ -12,16 +13,31 @@ import entities.IngredientValidatorService;
 public class AddFoodItemInteractor implements AddFoodItemInputBoundary {
     AddFoodItemOutputBoundary addFoodItemPresenter;
     AddFoodItemDataAccessInterface addFoodItemDataAccessObject;
+    final int userId;
+    private final DateValidatorService dateValidatorService = new DateValidatorService();
+    private final IngredientValidatorService ingredientValidatorService = new IngredientValidatorService();
 
     /**
-     * The constructor for the add food item interactor.
+     * The constructor for the add food item interactor of the default user.
      * @param addFoodItemPresenter    the presenter for the use case
      * @param addFoodItemDataAccessObject    the data access object for the use case
      */
     public AddFoodItemInteractor(AddFoodItemOutputBoundary addFoodItemPresenter,
                                  AddFoodItemDataAccessInterface addFoodItemDataAccessObject) {
+        this(addFoodItemPresenter, addFoodItemDataAccessObject, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * The constructor for the add food item interactor.
+     * @param addFoodItemPresenter    the presenter for the use case
+     * @param addFoodItemDataAccessObject    the data access object for the use case
+     * @param userId    the id of the user whose inventory is changed
+     */
+    public AddFoodItemInteractor(AddFoodItemOutputBoundary addFoodItemPresenter,
+                                 AddFoodItemDataAccessInterface addFoodItemDataAccessObject, int userId) {
         this.addFoodItemPresenter = addFoodItemPresenter;
         this.addFoodItemDataAccessObject = addFoodItemDataAccessObject;
+        this.userId = userId;
     }
 
     /**
@@ -40,8 +56,6 @@ public class AddFoodItemInteractor implements AddFoodItemInputBoundary {
         Integer day = addFoodItemInputData.getDay();
         Float amount = addFoodItemInputData.getAmount();
         FoodItem foodItem = new FoodItem(ingredient, year, month, day, amount);
-        DateValidatorService dateValidatorService = new DateValidatorService();
-        IngredientValidatorService ingredientValidatorService = new IngredientValidatorService();
 
         if (!ingredientValidatorService.ingredientIsValid(ingredient)) {
             addFoodItemPresenter.prepareFailView("Ingredient is invalid!");
@@ -51,7 +65,7 @@ public class AddFoodItemInteractor implements AddFoodItemInputBoundary {
             addFoodItemPresenter.prepareFailView("Amount is invalid!");
         }
         else {
-            addFoodItemDataAccessObject.addItem(foodItem);
+            addFoodItemDataAccessObject.addItem(userId, foodItem);
             addFoodItemPresenter.prepareSuccessView();
         }
     }
@@ -0,0 +1,19 @@
+package use_case.bulk_import;
+
+import entities.FoodItem;
+
+import java.util.List;
+
+/**
+ * The interface for the bulk import data access.
+ * This interface is used to add many food items to the database at once.
+ */
+public interface BulkImportDataAccessInterface {
+
+    /**
+     * Adds food items to the database in one operation, so they are written once instead of once per item.
+     * @param userId    the id of the user the food items belong to
+     * @param foodItems    the food items to be added
+     */
+    void addItems(int userId, List<FoodItem> foodItems);
+}
@@ -0,0 +1,14 @@
+package use_case.bulk_import;
+
+/**
+ * The input boundary for the bulk import use case.
+ * This interface is used to execute the use case.
+ */
+public interface BulkImportInputBoundary {
+
+    /**
+     * Executes the use case.
+     * @param bulkImportInputData    the input data for the use case
+     */
+    void execute(BulkImportInputData bulkImportInputData);
+}
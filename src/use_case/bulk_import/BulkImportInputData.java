@@ -0,0 +1,63 @@
+package use_case.bulk_import;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The input data for the bulk import use case.
+ * The items are read from a file or a reader with one item per line, either as csv like
+ * Banana,2024,1,31,2.5 (ingredient, year, month, day, amount, a header line starting with "ingredient" is
+ * skipped) or as json lines like {"ingredient": "Banana", "year": 2024, "month": 1, "day": 31, "amount": 2.5}.
+ */
+public class BulkImportInputData {
+    /**
+     * The format of the lines
+     */
+    public enum Format { CSV, JSON }
+
+    final private String path;
+    final private Reader reader;
+    final private Format format;
+
+    /**
+     * Constructor for the bulk import input data of a file, json if the file name ends with .json or .jsonl
+     * and csv otherwise
+     * @param path    the path of the file
+     */
+    public BulkImportInputData(String path) {
+        this.path = path;
+        this.reader = null;
+        this.format = path.endsWith(".json") || path.endsWith(".jsonl") ? Format.JSON : Format.CSV;
+    }
+
+    /**
+     * Constructor for the bulk import input data of a reader
+     * @param reader    the reader the lines are read from
+     * @param format    the format of the lines
+     */
+    public BulkImportInputData(Reader reader, Format format) {
+        this.path = null;
+        this.reader = reader;
+        this.format = format;
+    }
+
+    /**
+     * Open the lines to be imported
+     * @return a reader of the lines
+     * @throws IOException  if the file cannot be opened
+     */
+    BufferedReader open() throws IOException {
+        if (reader != null) {
+            return new BufferedReader(reader);
+        }
+        return new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Getter for the format
+     * @return the format of the lines
+     */
+    Format getFormat() {
+        return format;
+    }
+}
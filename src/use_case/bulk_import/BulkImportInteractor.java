@@ -0,0 +1,257 @@
+package use_case.bulk_import;
+
+import entities.DateValidator;
+import entities.DateValidatorService;
+import entities.FoodItem;
+import entities.IngredientValidator;
+import entities.IngredientValidatorService;
+import entities.User;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The interactor for the bulk import use case.
+ * The lines are read in chunks of CHUNK_LINES, which are validated in parallel while the next ones are read,
+ * with the same rules as the add food item use case. Once every line is validated, all valid items are added
+ * with a single call to the data access object, so the inventory is written once.
+ */
+public class BulkImportInteractor implements BulkImportInputBoundary {
+    public static final int CHUNK_LINES = 1024;
+
+    private static final String[] FIELDS = {"ingredient", "year", "month", "day", "amount"};
+
+    // the validators keep no state, so every thread can share them
+    private static final DateValidator DATE_VALIDATOR = new DateValidatorService();
+    private static final IngredientValidator INGREDIENT_VALIDATOR = new IngredientValidatorService();
+
+    private static final ExecutorService DEFAULT_EXECUTOR =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "bulk-import-validate");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    final BulkImportOutputBoundary bulkImportPresenter;
+    final BulkImportDataAccessInterface bulkImportDataAccessObject;
+    final int userId;
+    private final ExecutorService executor;
+    private final int maxPendingChunks;
+
+    /**
+     * The constructor for the bulk import interactor of the default user.
+     * @param bulkImportPresenter    the presenter for the use case
+     * @param bulkImportDataAccessObject    the data access object for the use case
+     */
+    public BulkImportInteractor(BulkImportOutputBoundary bulkImportPresenter,
+                                BulkImportDataAccessInterface bulkImportDataAccessObject) {
+        this(bulkImportPresenter, bulkImportDataAccessObject, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * The constructor for the bulk import interactor.
+     * @param bulkImportPresenter    the presenter for the use case
+     * @param bulkImportDataAccessObject    the data access object for the use case
+     * @param userId    the id of the user whose inventory is changed
+     */
+    public BulkImportInteractor(BulkImportOutputBoundary bulkImportPresenter,
+                                BulkImportDataAccessInterface bulkImportDataAccessObject, int userId) {
+        this(bulkImportPresenter, bulkImportDataAccessObject, userId, DEFAULT_EXECUTOR,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The constructor for the bulk import interactor with its own executor.
+     * @param bulkImportPresenter    the presenter for the use case
+     * @param bulkImportDataAccessObject    the data access object for the use case
+     * @param userId    the id of the user whose inventory is changed
+     * @param executor    the executor the chunks are validated on
+     * @param threads    the number of threads of the executor, twice as many chunks are read ahead
+     */
+    public BulkImportInteractor(BulkImportOutputBoundary bulkImportPresenter,
+                                BulkImportDataAccessInterface bulkImportDataAccessObject, int userId,
+                                ExecutorService executor, int threads) {
+        this.bulkImportPresenter = bulkImportPresenter;
+        this.bulkImportDataAccessObject = bulkImportDataAccessObject;
+        this.userId = userId;
+        this.executor = executor;
+        this.maxPendingChunks = 2 * Math.max(1, threads);
+    }
+
+    /**
+     * The items and errors of a chunk of lines
+     */
+    private static class ChunkResult {
+        final List<FoodItem> items = new ArrayList<>();
+        final SortedMap<Integer, String> errors = new TreeMap<>();
+    }
+
+    /**
+     * Executes the use case.
+     * The method reads and validates every line. If the lines cannot be read, then the method calls the presenter
+     * to prepare the fail view and nothing is added. Otherwise the valid items are added to the inventory and the
+     * presenter prepares the success view with the errors of the invalid lines.
+     * @param bulkImportInputData    the input data for the use case
+     */
+    @Override
+    public void execute(BulkImportInputData bulkImportInputData) {
+        BulkImportInputData.Format format = bulkImportInputData.getFormat();
+        Deque<Future<ChunkResult>> pending = new ArrayDeque<>();
+        List<FoodItem> items = new ArrayList<>();
+        SortedMap<Integer, String> errors = new TreeMap<>();
+        try (BufferedReader reader = bulkImportInputData.open()) {
+            int lineNumber = 0;
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            int firstLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    submit(pending, chunk, firstLine, format);
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                    firstLine = lineNumber + 1;
+                    // bound the lines held in memory by waiting for the oldest chunk
+                    if (pending.size() >= maxPendingChunks) {
+                        collect(pending.removeFirst(), items, errors);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(pending, chunk, firstLine, format);
+            }
+            while (!pending.isEmpty()) {
+                collect(pending.removeFirst(), items, errors);
+            }
+        } catch (IOException e) {
+            cancel(pending);
+            bulkImportPresenter.prepareFailView("Could not read file!");
+            return;
+        } catch (InterruptedException e) {
+            cancel(pending);
+            Thread.currentThread().interrupt();
+            bulkImportPresenter.prepareFailView("Import was interrupted!");
+            return;
+        }
+
+        if (!items.isEmpty()) {
+            bulkImportDataAccessObject.addItems(userId, items);
+        }
+        bulkImportPresenter.prepareSuccessView(new BulkImportOutputData(items.size(), errors));
+    }
+
+    private void submit(Deque<Future<ChunkResult>> pending, List<String> chunk, int firstLine,
+                        BulkImportInputData.Format format) {
+        pending.addLast(executor.submit(() -> validateChunk(chunk, firstLine, format)));
+    }
+
+    private static void collect(Future<ChunkResult> future, List<FoodItem> items, SortedMap<Integer, String> errors)
+            throws InterruptedException {
+        try {
+            ChunkResult result = future.get();
+            items.addAll(result.items);
+            errors.putAll(result.errors);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static void cancel(Deque<Future<ChunkResult>> pending) {
+        for (Future<ChunkResult> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    private static ChunkResult validateChunk(List<String> lines, int firstLine, BulkImportInputData.Format format) {
+        ChunkResult result = new ChunkResult();
+        for (int i = 0; i < lines.size(); i++) {
+            int lineNumber = firstLine + i;
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (lineNumber == 1 && format == BulkImportInputData.Format.CSV &&
+                    line.toLowerCase().startsWith(FIELDS[0])) {
+                // header
+                continue;
+            }
+            String[] fields = format == BulkImportInputData.Format.CSV ? splitCsv(line) : splitJson(line);
+            if (fields == null) {
+                result.errors.put(lineNumber, format == BulkImportInputData.Format.CSV ?
+                        "Expected ingredient,year,month,day,amount!" : "Malformed json!");
+                continue;
+            }
+            String error = validate(fields, result.items);
+            if (error != null) {
+                result.errors.put(lineNumber, error);
+            }
+        }
+        return result;
+    }
+
+    private static String[] splitCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != FIELDS.length) {
+            return null;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+
+    private static String[] splitJson(String line) {
+        JSONObject json;
+        try {
+            json = new JSONObject(line);
+        } catch (JSONException e) {
+            return null;
+        }
+        String[] fields = new String[FIELDS.length];
+        for (int i = 0; i < fields.length; i++) {
+            Object value = json.opt(FIELDS[i]);
+            fields[i] = value == null ? "" : value.toString().trim();
+        }
+        return fields;
+    }
+
+    /**
+     * Validate the fields of a line like the add food item use case does and add the item if they are valid
+     * @return the error, or null if the item is valid
+     */
+    private static String validate(String[] fields, List<FoodItem> items) {
+        String ingredient = fields[0];
+        if (!INGREDIENT_VALIDATOR.ingredientIsValid(ingredient)) {
+            return "Ingredient is invalid!";
+        }
+        int year;
+        int month;
+        int day;
+        try {
+            year = Integer.parseInt(fields[1]);
+            month = Integer.parseInt(fields[2]);
+            day = Integer.parseInt(fields[3]);
+        } catch (NumberFormatException e) {
+            return "Invalid Date!";
+        }
+        // the date validator relies on the month and day being in range
+        if (month < 1 || month > 12 || day < 1 || day > 31 || !DATE_VALIDATOR.dateIsValid(year, month, day)) {
+            return "Invalid Date!";
+        }
+        float amount;
+        try {
+            amount = Float.parseFloat(fields[4]);
+        } catch (NumberFormatException e) {
+            return "Amount is invalid!";
+        }
+        if (!(amount > 0.0f) || Float.isInfinite(amount)) {
+            return "Amount is invalid!";
+        }
+        items.add(new FoodItem(ingredient, year, month, day, amount));
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package use_case.bulk_import;
+
+/**
+ * The output boundary for the bulk import use case.
+ * This interface is used to prepare the view for the use case.
+ */
+public interface BulkImportOutputBoundary {
+
+    /**
+     * Prepares the view once the file was read, whether or not some of its lines were invalid.
+     * @param bulkImportOutputData    the number of items imported and the errors of the invalid lines
+     */
+    void prepareSuccessView(BulkImportOutputData bulkImportOutputData);
+
+    /**
+     * Prepares the view if the file could not be read, nothing is imported then.
+     * @param error    the error that occurred represented as a string
+     */
+    void prepareFailView(String error);
+}
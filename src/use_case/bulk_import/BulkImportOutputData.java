@@ -0,0 +1,39 @@
+package use_case.bulk_import;
+
+import java.util.Collections;
+import java.util.SortedMap;
+
+/**
+ * The output data for the bulk import use case.
+ * This class holds the number of items that were imported and the error of every line that was not.
+ */
+public class BulkImportOutputData {
+    private final int importedCount;
+    private final SortedMap<Integer, String> errors;
+
+    /**
+     * Constructor for the bulk import output data
+     * @param importedCount    the number of items that were imported
+     * @param errors    the error of each invalid line by line number, starting at 1
+     */
+    public BulkImportOutputData(int importedCount, SortedMap<Integer, String> errors) {
+        this.importedCount = importedCount;
+        this.errors = Collections.unmodifiableSortedMap(errors);
+    }
+
+    /**
+     * Getter for the number of items imported
+     * @return the number of items that were imported
+     */
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * Getter for the errors
+     * @return the error of each invalid line by line number
+     */
+    public SortedMap<Integer, String> getErrors() {
+        return errors;
+    }
+}
@@ -1,6 +1,7 @@
 package use_case.delete_fooditem;
 
 import entities.FoodItem;
+import entities.InventorySnapshot;
 
 import java.util.PriorityQueue;
 
@@ -8,19 +9,28 @@ public interface DeleteFoodItemDataAccessInterface {
 
     /**
      * Removes a specific item from the queue.
+     * @param userId the id of the user whose inventory is changed.
      * @param item the item to be removed.
      * @return true if the item was removed, false otherwise.
      */
-    boolean removeSpecificItem(FoodItem item);
+    boolean removeSpecificItem(int userId, FoodItem item);
 
     /**
+     * @param userId the id of the user whose inventory is returned.
      * @return the queue of food items in the inventory.
      */
-    PriorityQueue<FoodItem> getQueue();
+    PriorityQueue<FoodItem> getQueue(int userId);
+
+    /**
+     * @param userId the id of the user whose inventory is returned.
+     * @return the current version of the inventory, which does not change while it is read.
+     */
+    InventorySnapshot getSnapshot(int userId);
 
     /**
      * Adds a food item to the inventory.
+     * @param userId the id of the user whose inventory is changed.
      * @param item the food item to be added to the inventory.
      */
-    void addItem(FoodItem item);
+    void addItem(int userId, FoodItem item);
 }
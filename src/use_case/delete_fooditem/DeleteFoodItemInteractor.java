@@ -1,21 +1,36 @@
 package use_case.delete_fooditem;
 
 import entities.FoodItem;
+import entities.IngredientDictionary;
+import entities.User;
 
-import java.util.ArrayList;
+import java.util.List;
 
 public class DeleteFoodItemInteractor implements DeleteFoodItemInputBoundary {
     DeleteFoodItemOutputBoundary deleteFoodItemPresenter;
     DeleteFoodItemDataAccessInterface deleteFoodItemDataAccessObject;
+    final int userId;
 
     /**
+     * Interactor for the default user.
      * @param deleteFoodItemDataAccessObject The data access object that stores the user's inventory.
      * @param deleteFoodItemPresenter The presenter that displays the result of the use case.
      */
     public DeleteFoodItemInteractor(DeleteFoodItemDataAccessInterface deleteFoodItemDataAccessObject,
                                     DeleteFoodItemOutputBoundary deleteFoodItemPresenter) {
+        this(deleteFoodItemDataAccessObject, deleteFoodItemPresenter, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * @param deleteFoodItemDataAccessObject The data access object that stores the user's inventory.
+     * @param deleteFoodItemPresenter The presenter that displays the result of the use case.
+     * @param userId The id of the user whose inventory is changed.
+     */
+    public DeleteFoodItemInteractor(DeleteFoodItemDataAccessInterface deleteFoodItemDataAccessObject,
+                                    DeleteFoodItemOutputBoundary deleteFoodItemPresenter, int userId) {
         this.deleteFoodItemDataAccessObject = deleteFoodItemDataAccessObject;
         this.deleteFoodItemPresenter = deleteFoodItemPresenter;
+        this.userId = userId;
     }
 
     /**
@@ -32,18 +47,20 @@ public class DeleteFoodItemInteractor implements DeleteFoodItemInputBoundary {
         try {
             floatAmount = Float.parseFloat(amount);
 
-            // storing food items in user inventory in array list to search for food item with its name
-            ArrayList<FoodItem> inventory = new ArrayList<>(deleteFoodItemDataAccessObject.getQueue());
+            // the food items in the user inventory sorted by expiration date, to search for food item with its name
+            List<FoodItem> inventory = deleteFoodItemDataAccessObject.getSnapshot(userId).toList();
 
+            // names are compared by their ids, a name that is not in the dictionary is in no inventory
+            int foodItemId = IngredientDictionary.find(foodItem);
             FoodItem foundFoodItem = null;
             boolean found = false;
             int i = 0;
 
             // if there are multiple food items with same name, then the one that expires soon
             // is removed from the inventory
-            while (i < inventory.size() && !found) {
+            while (foodItemId != IngredientDictionary.UNKNOWN && i < inventory.size() && !found) {
                 FoodItem item = inventory.get(i);
-                if (item.getName().equals(foodItem)) {
+                if (item.getNameId() == foodItemId) {
                     foundFoodItem = item;
                     found = true;
                 }
@@ -70,13 +87,14 @@ public class DeleteFoodItemInteractor implements DeleteFoodItemInputBoundary {
 
                     if (floatAmount < foundAmount) {
                         // when certain amount of food is removed and there's some leftover in the inventory
-                        boolean deleted = deleteFoodItemDataAccessObject.removeSpecificItem(foundFoodItem);
-                        foundFoodItem.setAmount(foundAmount - floatAmount);
-                        deleteFoodItemDataAccessObject.addItem(foundFoodItem);
+                        // the item is shared with snapshots of the inventory, so the leftover is a copy
+                        boolean deleted = deleteFoodItemDataAccessObject.removeSpecificItem(userId, foundFoodItem);
+                        FoodItem leftover = foundFoodItem.withAmount(foundAmount - floatAmount);
+                        deleteFoodItemDataAccessObject.addItem(userId, leftover);
 
                     } else {
                         // when amount == foundAmount
-                        boolean deleted = deleteFoodItemDataAccessObject.removeSpecificItem(foundFoodItem);
+                        boolean deleted = deleteFoodItemDataAccessObject.removeSpecificItem(userId, foundFoodItem);
 
                     }
 
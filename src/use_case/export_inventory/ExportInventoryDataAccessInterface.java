@@ -0,0 +1,32 @@
+package use_case.export_inventory;
+
+import entities.FoodItem;
+
+import java.io.IOException;
+
+/**
+ * The interface for the export inventory data access.
+ * This interface is used to go through every item of every user without copying them into a collection.
+ */
+public interface ExportInventoryDataAccessInterface {
+
+    /**
+     * Receives the items one at a time
+     */
+    interface ItemVisitor {
+        /**
+         * Called for each item
+         * @param userId    the id of the user the item belongs to
+         * @param foodItem    the item, only valid until the method returns
+         * @throws IOException  if the item cannot be written
+         */
+        void visit(int userId, FoodItem foodItem) throws IOException;
+    }
+
+    /**
+     * Passes every item of every user to the visitor, the items of a user one after the other.
+     * @param visitor    the visitor the items are passed to
+     * @throws IOException  if the visitor cannot write an item
+     */
+    void forEachItem(ItemVisitor visitor) throws IOException;
+}
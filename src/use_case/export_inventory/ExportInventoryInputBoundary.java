@@ -0,0 +1,14 @@
+package use_case.export_inventory;
+
+/**
+ * The input boundary for the export inventory use case.
+ * This interface is used to execute the use case.
+ */
+public interface ExportInventoryInputBoundary {
+
+    /**
+     * Executes the use case.
+     * @param exportInventoryInputData    the input data for the use case
+     */
+    void execute(ExportInventoryInputData exportInventoryInputData);
+}
@@ -0,0 +1,70 @@
+package use_case.export_inventory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The input data for the export inventory use case.
+ * The items are written to a file or an output stream with one item per line, either as csv like
+ * 0,Banana,2024,1,31,2.5 (user id, ingredient, year, month, day, amount) after a header line, or as json lines
+ * like {"userId": 0, "ingredient": "Banana", "year": 2024, "month": 1, "day": 31, "amount": 2.5}, which the bulk
+ * import use case reads back.
+ */
+public class ExportInventoryInputData {
+    /**
+     * The format of the lines
+     */
+    public enum Format { CSV, JSON }
+
+    final private String path;
+    final private OutputStream out;
+    final private Format format;
+
+    /**
+     * Constructor for the export inventory input data of a file, json lines if the file name ends with .json or
+     * .jsonl and csv otherwise
+     * @param path    the path of the file, replaced if it exists
+     */
+    public ExportInventoryInputData(String path) {
+        this.path = path;
+        this.out = null;
+        this.format = path.endsWith(".json") || path.endsWith(".jsonl") ? Format.JSON : Format.CSV;
+    }
+
+    /**
+     * Constructor for the export inventory input data of an output stream, which is flushed but not closed
+     * @param out    the stream the lines are written to
+     * @param format    the format of the lines
+     */
+    public ExportInventoryInputData(OutputStream out, Format format) {
+        this.path = null;
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Open the stream the lines are written to
+     * @return the stream
+     * @throws IOException  if the file cannot be created
+     */
+    OutputStream open() throws IOException {
+        return out != null ? out : new FileOutputStream(path);
+    }
+
+    /**
+     * Check whether the stream was opened by the use case and has to be closed by it
+     * @return true if the lines are written to a file
+     */
+    boolean ownsStream() {
+        return out == null;
+    }
+
+    /**
+     * Getter for the format
+     * @return the format of the lines
+     */
+    Format getFormat() {
+        return format;
+    }
+}
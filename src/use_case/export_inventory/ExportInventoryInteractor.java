@@ -0,0 +1,105 @@
+package use_case.export_inventory;
+
+import entities.FoodItem;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+
+/**
+ * The interactor for the export inventory use case.
+ * Each item is written as soon as the data access object passes it on, so memory use does not grow with the
+ * number of items.
+ */
+public class ExportInventoryInteractor implements ExportInventoryInputBoundary {
+    public static final String CSV_HEADER = "userId,ingredient,year,month,day,amount";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    final ExportInventoryOutputBoundary exportInventoryPresenter;
+    final ExportInventoryDataAccessInterface exportInventoryDataAccessObject;
+
+    /**
+     * The constructor for the export inventory interactor.
+     * @param exportInventoryPresenter    the presenter for the use case
+     * @param exportInventoryDataAccessObject    the data access object for the use case
+     */
+    public ExportInventoryInteractor(ExportInventoryOutputBoundary exportInventoryPresenter,
+                                     ExportInventoryDataAccessInterface exportInventoryDataAccessObject) {
+        this.exportInventoryPresenter = exportInventoryPresenter;
+        this.exportInventoryDataAccessObject = exportInventoryDataAccessObject;
+    }
+
+    /**
+     * Executes the use case.
+     * The method writes every item of every user in the format of the input data. If the items cannot be
+     * written, then the method calls the presenter to prepare the fail view.
+     * @param exportInventoryInputData    the input data for the use case
+     */
+    @Override
+    public void execute(ExportInventoryInputData exportInventoryInputData) {
+        boolean json = exportInventoryInputData.getFormat() == ExportInventoryInputData.Format.JSON;
+        long[] count = {0};
+        OutputStream out = null;
+        try {
+            out = exportInventoryInputData.open();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            StringBuilder line = new StringBuilder();
+            if (!json) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            exportInventoryDataAccessObject.forEachItem((userId, item) -> {
+                line.setLength(0);
+                if (json) {
+                    appendJson(line, userId, item);
+                } else {
+                    appendCsv(line, userId, item);
+                }
+                line.append('\n');
+                writer.append(line);
+                count[0]++;
+            });
+            writer.flush();
+        } catch (IOException e) {
+            exportInventoryPresenter.prepareFailView("Could not write file!");
+            return;
+        } finally {
+            if (out != null && exportInventoryInputData.ownsStream()) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // nothing more can be written anyway
+                }
+            }
+        }
+        exportInventoryPresenter.prepareSuccessView(new ExportInventoryOutputData(count[0]));
+    }
+
+    private static void appendCsv(StringBuilder line, int userId, FoodItem item) {
+        Calendar date = item.getCalendarObject();
+        String name = item.getName() == null ? "" : item.getName();
+        line.append(userId).append(',');
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0) {
+            line.append('"').append(name.replace("\"", "\"\"")).append('"');
+        } else {
+            line.append(name);
+        }
+        line.append(',').append(date.get(Calendar.YEAR))
+                .append(',').append(date.get(Calendar.MONTH) + 1)
+                .append(',').append(date.get(Calendar.DAY_OF_MONTH))
+                .append(',').append(item.getAmount());
+    }
+
+    private static void appendJson(StringBuilder line, int userId, FoodItem item) {
+        Calendar date = item.getCalendarObject();
+        line.append("{\"userId\": ").append(userId)
+                .append(", \"ingredient\": ").append(JSONObject.quote(item.getName()))
+                .append(", \"year\": ").append(date.get(Calendar.YEAR))
+                .append(", \"month\": ").append(date.get(Calendar.MONTH) + 1)
+                .append(", \"day\": ").append(date.get(Calendar.DAY_OF_MONTH))
+                .append(", \"amount\": ").append(item.getAmount())
+                .append('}');
+    }
+}
@@ -0,0 +1,20 @@
+package use_case.export_inventory;
+
+/**
+ * The output boundary for the export inventory use case.
+ * This interface is used to prepare the view for the use case.
+ */
+public interface ExportInventoryOutputBoundary {
+
+    /**
+     * Prepares the view once every item was written.
+     * @param exportInventoryOutputData    the number of items that were written
+     */
+    void prepareSuccessView(ExportInventoryOutputData exportInventoryOutputData);
+
+    /**
+     * Prepares the view if the items could not be written, some of them may have been written already.
+     * @param error    the error that occurred represented as a string
+     */
+    void prepareFailView(String error);
+}
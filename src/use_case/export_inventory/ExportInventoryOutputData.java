@@ -0,0 +1,25 @@
+package use_case.export_inventory;
+
+/**
+ * The output data for the export inventory use case.
+ * This class holds the number of items that were written.
+ */
+public class ExportInventoryOutputData {
+    private final long itemCount;
+
+    /**
+     * Constructor for the export inventory output data
+     * @param itemCount    the number of items that were written
+     */
+    public ExportInventoryOutputData(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Getter for the number of items written
+     * @return the number of items that were written
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+}
@@ -8,6 +8,6 @@ import java.util.List;
  * This interface represents the data access interface for getting a recipe.
  */
 public interface GetRecipeDataAccessInterface {
-    DietaryPreferences retrievePreferences();
-    List<Recipe> retrieveRecipes(DietaryPreferences preferences);
+    DietaryPreferences retrievePreferences(int userId);
+    List<Recipe> retrieveRecipes(int userId, DietaryPreferences preferences);
 }
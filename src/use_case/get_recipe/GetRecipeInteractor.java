@@ -2,6 +2,7 @@ package use_case.get_recipe;
 
 import entities.DietaryPreferences;
 import entities.Recipe;
+import entities.User;
 
 import java.util.List;
 
@@ -12,25 +13,39 @@ public class GetRecipeInteractor implements GetRecipeInputBoundary {
 
     private GetRecipeOutputBoundary getRecipePresenter;
     private GetRecipeDataAccessInterface getRecipeDataAccessObject;
+    private final int userId;
 
     /**
-     * Constructor for GetRecipeInteractor
+     * Constructor for GetRecipeInteractor of the default user
      * @param getRecipeDataAccessObject the data access object for getting a recipe
      * @param getRecipePresenter the presenter for getting a recipe
      *
      */
     public GetRecipeInteractor(GetRecipeDataAccessInterface getRecipeDataAccessObject,
                                GetRecipeOutputBoundary getRecipePresenter) {
+        this(getRecipeDataAccessObject, getRecipePresenter, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * Constructor for GetRecipeInteractor
+     * @param getRecipeDataAccessObject the data access object for getting a recipe
+     * @param getRecipePresenter the presenter for getting a recipe
+     * @param userId the id of the user recipes are retrieved for
+     *
+     */
+    public GetRecipeInteractor(GetRecipeDataAccessInterface getRecipeDataAccessObject,
+                               GetRecipeOutputBoundary getRecipePresenter, int userId) {
         this.getRecipeDataAccessObject = getRecipeDataAccessObject;
         this.getRecipePresenter = getRecipePresenter;
+        this.userId = userId;
     }
 
     /**
      * Execute the interactor for getting a recipe
      */
     public void execute() {
-        DietaryPreferences dietaryPreferences = getRecipeDataAccessObject.retrievePreferences();
-        List<Recipe> recipes = getRecipeDataAccessObject.retrieveRecipes(dietaryPreferences);
+        DietaryPreferences dietaryPreferences = getRecipeDataAccessObject.retrievePreferences(userId);
+        List<Recipe> recipes = getRecipeDataAccessObject.retrieveRecipes(userId, dietaryPreferences);
 
         if (recipes.isEmpty()) {
             // when there is no existing recipe in the database that meets the user preferences
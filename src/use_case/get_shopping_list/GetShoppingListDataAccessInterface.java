@@ -9,9 +9,10 @@ import java.util.List;
 public interface GetShoppingListDataAccessInterface {
     /**
      * Gets the inventory of the user
+     * @param userId id of the user
      * @return List of FoodItems from the user's inventory
      */
-    List<FoodItem> getInventory();
+    List<FoodItem> getInventory(int userId);
     /**
      * Standardizes the names of the given food item names
      * @return List of standardized food item names
@@ -1,8 +1,7 @@
 package use_case.get_shopping_list;
 
-import data_access.FileUserDataAccessObject;
 import entities.FoodItem;
-import entities.Recipe;
+import entities.User;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,15 +13,27 @@ public class GetShoppingListInteractor implements GetShoppingListInputBoundary {
 
     private GetShoppingListOutputBoundary getShoppingListPresenter;
     private GetShoppingListDataAccessInterface dataAccessInterface;
+    private final int userId;
 
     /**
-     * Constructor for GetShoppingListInteractor
+     * Constructor for GetShoppingListInteractor of the default user
      * @param getRecipePresenter Presenter for GetShoppingList
      * @param dataAccessInterface DAO for GetShoppingList
      */
     public GetShoppingListInteractor(GetShoppingListOutputBoundary getRecipePresenter, GetShoppingListDataAccessInterface dataAccessInterface) {
+        this(getRecipePresenter, dataAccessInterface, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * Constructor for GetShoppingListInteractor
+     * @param getRecipePresenter Presenter for GetShoppingList
+     * @param dataAccessInterface DAO for GetShoppingList
+     * @param userId id of the user whose inventory is compared against
+     */
+    public GetShoppingListInteractor(GetShoppingListOutputBoundary getRecipePresenter, GetShoppingListDataAccessInterface dataAccessInterface, int userId) {
         this.getShoppingListPresenter = getRecipePresenter;
         this.dataAccessInterface = dataAccessInterface;
+        this.userId = userId;
     }
 
     /**
@@ -32,9 +43,14 @@ public class GetShoppingListInteractor implements GetShoppingListInputBoundary {
     public void execute(GetShoppingListInputData inputData) {
         List<FoodItem> recipeIngredients = inputDataToFoodItems(inputData);
         if(!recipeIngredients.isEmpty()) {
-            List<FoodItem> userInventory = dataAccessInterface.getInventory();
-            standardizeFoodItems(userInventory);
-            GetShoppingListOutputData outputData = new GetShoppingListOutputData(recipeIngredients, userInventory , false);
+            // both lists are standardized with one call
+            List<FoodItem> foodItems = new ArrayList<>(recipeIngredients);
+            foodItems.addAll(dataAccessInterface.getInventory(userId));
+            foodItems = standardizeFoodItems(foodItems);
+            List<FoodItem> standardIngredients = new ArrayList<>(foodItems.subList(0, recipeIngredients.size()));
+            List<FoodItem> userInventory = new ArrayList<>(foodItems.subList(recipeIngredients.size(),
+                    foodItems.size()));
+            GetShoppingListOutputData outputData = new GetShoppingListOutputData(standardIngredients, userInventory , false);
             getShoppingListPresenter.prepareSuccessView(outputData);
         }
         else
@@ -52,20 +68,24 @@ public class GetShoppingListInteractor implements GetShoppingListInputBoundary {
             recipeFoodItems.add(foodItem);
         }
 
-        standardizeFoodItems(recipeFoodItems);
-
         return recipeFoodItems;
     }
 
-    private void standardizeFoodItems(List<FoodItem> foodItems) {
+    /**
+     * Standardize the names of food items
+     * @param foodItems the food items, they are not changed since the inventory shares them with other readers
+     * @return copies of the food items with the standardized names, in the same order
+     */
+    private List<FoodItem> standardizeFoodItems(List<FoodItem> foodItems) {
         List<String> names = new ArrayList<>();
         for (FoodItem foodItem : foodItems) {
             names.add(foodItem.getName());
         }
         names = dataAccessInterface.standardizeNames(names);
+        List<FoodItem> res = new ArrayList<>();
         for (int i = 0; i < names.size(); i++) {
-            FoodItem foodItem = foodItems.get(i);
-            foodItem.setName(names.get(i));
+            res.add(foodItems.get(i).withName(names.get(i)));
         }
+        return res;
     }
 }
@@ -27,7 +27,7 @@ public class GetShoppingListOutputData {
             double amount_difference = foodItem.getAmount();
 
             for (FoodItem userItem : userInventory) {
-                if (userItem.getName().equals(foodItem.getName())) {
+                if (userItem.sameName(foodItem)) {
                     amount_difference = foodItem.getAmount() - userItem.getAmount();
                     break;
                 }
@@ -15,8 +15,10 @@ public class MainMenuInteractor implements MainMenuInputBoundary {
 
     final UserFactory userFactory;
 
+    final int userId;
+
     /**
-     * This constructor instantiates a new MainMenuInteractor object.
+     * This constructor instantiates a new MainMenuInteractor object for the default user.
      * @param mainMenuPresenter The presenter for the main menu.
      * @param userDataAccessObject The data access object for the main menu.
      * @param userFactory The factory for the user.
@@ -24,10 +26,23 @@ public class MainMenuInteractor implements MainMenuInputBoundary {
     public MainMenuInteractor(MainMenuOutputBoundary mainMenuPresenter,
                               MainMenuDataAccessInterface userDataAccessObject,
                               UserFactory userFactory) {
+        this(mainMenuPresenter, userDataAccessObject, userFactory, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * This constructor instantiates a new MainMenuInteractor object.
+     * @param mainMenuPresenter The presenter for the main menu.
+     * @param userDataAccessObject The data access object for the main menu.
+     * @param userFactory The factory for the user.
+     * @param userId The id of the user using the main menu.
+     */
+    public MainMenuInteractor(MainMenuOutputBoundary mainMenuPresenter,
+                              MainMenuDataAccessInterface userDataAccessObject,
+                              UserFactory userFactory, int userId) {
         this.mainMenuPresenter = mainMenuPresenter;
         this.userDataAccessObject = userDataAccessObject;
         this.userFactory = userFactory;
-
+        this.userId = userId;
     }
 
     /**
@@ -36,7 +51,7 @@ public class MainMenuInteractor implements MainMenuInputBoundary {
      */
     @Override
     public void execute(String view_name) {
-        if (userDataAccessObject.getAllUsers().isEmpty()) {
+        if (!userDataAccessObject.existsByUserId(userId)) {
             User user = userFactory.create(new HashMap<>());
             user.addRestriction("minCarbs", 10F);
             user.addRestriction("maxCarbs", 100F);
@@ -47,7 +62,7 @@ public class MainMenuInteractor implements MainMenuInputBoundary {
             user.addRestriction("minSaturatedFat", 0F);
             user.addRestriction("maxSaturatedFat", 100F);
 
-            userDataAccessObject.save(user);
+            userDataAccessObject.save(userId, user);
         }
 
         mainMenuPresenter.prepareSwitchView(view_name);
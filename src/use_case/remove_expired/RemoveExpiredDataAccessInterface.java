@@ -1,18 +1,27 @@
 package use_case.remove_expired;
 
 import entities.FoodItem;
+import entities.InventorySnapshot;
 
 import java.util.PriorityQueue;
 
 public interface RemoveExpiredDataAccessInterface {
 
     /**
+     * @param userId the id of the user whose inventory is returned.
      * @return the queue of food items in the user's inventory as a priority queue of food items.
      */
-    PriorityQueue<FoodItem> getQueue();
+    PriorityQueue<FoodItem> getQueue(int userId);
+
+    /**
+     * @param userId the id of the user whose inventory is returned.
+     * @return the current version of the user's inventory, which does not change while it is read.
+     */
+    InventorySnapshot getSnapshot(int userId);
 
     /**
      * Remove the food item at the top of the priority queue of food items in the user's inventory.
+     * @param userId the id of the user whose inventory is changed.
      */
-    void removeItem();
+    void removeItem(int userId);
 }
@@ -1,25 +1,40 @@
 package use_case.remove_expired;
 
 import entities.FoodItem;
+import entities.InventorySnapshot;
+import entities.User;
 
 import java.util.ArrayList;
-import java.util.PriorityQueue;
 import java.util.Calendar;
 
 public class RemoveExpiredInteractor implements RemoveExpiredInputBoundary {
     RemoveExpiredOutputBoundary removeExpiredPresenter;
     RemoveExpiredDataAccessInterface removeExpiredDataAccessObject;
+    final int userId;
 
     /**
-     * This is the for remove expired food items interactor.
+     * This is the for remove expired food items interactor of the default user.
      * @param removeExpiredDataAccessObject the data access object that implements RemoveExpiredDataAccessInterface.
      * @param removeExpiredPresenter the presenter that implements RemoveExpiredOutputBoundary.
      */
     public RemoveExpiredInteractor(
             RemoveExpiredDataAccessInterface removeExpiredDataAccessObject,
             RemoveExpiredOutputBoundary removeExpiredPresenter) {
+        this(removeExpiredDataAccessObject, removeExpiredPresenter, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * This is the for remove expired food items interactor.
+     * @param removeExpiredDataAccessObject the data access object that implements RemoveExpiredDataAccessInterface.
+     * @param removeExpiredPresenter the presenter that implements RemoveExpiredOutputBoundary.
+     * @param userId the id of the user whose inventory is checked.
+     */
+    public RemoveExpiredInteractor(
+            RemoveExpiredDataAccessInterface removeExpiredDataAccessObject,
+            RemoveExpiredOutputBoundary removeExpiredPresenter, int userId) {
         this.removeExpiredDataAccessObject = removeExpiredDataAccessObject;
         this.removeExpiredPresenter = removeExpiredPresenter;
+        this.userId = userId;
     }
 
     /**
@@ -30,7 +45,8 @@ public class RemoveExpiredInteractor implements RemoveExpiredInputBoundary {
     public void execute(RemoveExpiredInputData removeExpiredInputData) {
         Calendar date = removeExpiredInputData.getDate();
 
-        PriorityQueue<FoodItem> inventory = removeExpiredDataAccessObject.getQueue();
+        // a snapshot of the inventory, read again after each removal
+        InventorySnapshot inventory = removeExpiredDataAccessObject.getSnapshot(userId);
 
         // storing expired food items in an arraylist of food items
         ArrayList<FoodItem> expiredFoodItems = new ArrayList<>();
@@ -43,9 +59,10 @@ public class RemoveExpiredInteractor implements RemoveExpiredInputBoundary {
                 oldestFoodItem.getCalendarObject().compareTo(date) < 0) {
             // repeats while the oldest food item in the queue is expired and the queue is not empty
 
-            removeExpiredDataAccessObject.removeItem();
+            removeExpiredDataAccessObject.removeItem(userId);
             expiredFoodItems.add(oldestFoodItem);
             expiredExist = true;
+            inventory = removeExpiredDataAccessObject.getSnapshot(userId);
             oldestFoodItem = inventory.peek();
         }
 
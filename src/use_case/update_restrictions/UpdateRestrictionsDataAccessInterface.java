@@ -8,7 +8,7 @@ import entities.User;
  * dietary preferences and save the user's dietary preferences.
  */
 public interface UpdateRestrictionsDataAccessInterface {
-    DietaryPreferences retrievePreferences();
-    User get(int usernum);
-    void save(User user);
+    DietaryPreferences retrievePreferences(int userId);
+    User get(int userId);
+    void save(int userId, User user);
 }
@@ -15,9 +15,10 @@ public class UpdateRestrictionsInteractor implements UpdateRestrictionsInputBoun
     public final UpdateRestrictionsDataAccessInterface urDataAccessInterface;
     public final UpdateRestrictionsOutputBoundary urOutputBoundary;
     public final UserDietaryPreferences usermap;
+    public final int userId;
 
     /**
-     * Constructor for UpdateRestrictionsInteractor.
+     * Constructor for UpdateRestrictionsInteractor of the default user.
      * @param urDataAccessInterface The UpdateRestrictionsDataAccessInterface instance.
      * @param urOutputBoundary The UpdateRestrictionsOutputBoundary instance.
      * @param usermap The UserDietaryPreferences instance.
@@ -25,9 +26,23 @@ public class UpdateRestrictionsInteractor implements UpdateRestrictionsInputBoun
     public UpdateRestrictionsInteractor(UpdateRestrictionsDataAccessInterface urDataAccessInterface,
                                         UpdateRestrictionsOutputBoundary urOutputBoundary,
                                         UserDietaryPreferences usermap) {
+        this(urDataAccessInterface, urOutputBoundary, usermap, User.DEFAULT_USER_ID);
+    }
+
+    /**
+     * Constructor for UpdateRestrictionsInteractor.
+     * @param urDataAccessInterface The UpdateRestrictionsDataAccessInterface instance.
+     * @param urOutputBoundary The UpdateRestrictionsOutputBoundary instance.
+     * @param usermap The UserDietaryPreferences instance.
+     * @param userId The id of the user whose restrictions are updated.
+     */
+    public UpdateRestrictionsInteractor(UpdateRestrictionsDataAccessInterface urDataAccessInterface,
+                                        UpdateRestrictionsOutputBoundary urOutputBoundary,
+                                        UserDietaryPreferences usermap, int userId) {
         this.urDataAccessInterface = urDataAccessInterface;
         this.urOutputBoundary = urOutputBoundary;
         this.usermap = usermap;
+        this.userId = userId;
     }
 
     /**
@@ -42,8 +57,8 @@ public class UpdateRestrictionsInteractor implements UpdateRestrictionsInputBoun
         Set<String> restrictedRestrictions = new HashSet<>(Arrays.asList(
                 "ketogenic", "vegan", "vegetarian", "maxprotein", "minprotein",
                 "maxcarbs", "mincarbs", "maxfat", "minfat", "maxcals", "mincals"));
-        User user =  urDataAccessInterface.get(0);
-        DietaryPreferences dietaryPreferences = urDataAccessInterface.retrievePreferences();
+        User user =  urDataAccessInterface.get(userId);
+        DietaryPreferences dietaryPreferences = urDataAccessInterface.retrievePreferences(userId);
         Set<String> dietTypes = new HashSet<>(Arrays.asList("ketogenic", "vegan", "vegetarian"));
 
         if (restrictedRestrictions.contains(restriction.toLowerCase())) {
@@ -55,7 +70,7 @@ public class UpdateRestrictionsInteractor implements UpdateRestrictionsInputBoun
                 dietaryPreferences.addRestriction(restriction, value);
                 urOutputBoundary.prepareCheckedView("Successfully Updated restriction: " + restriction);
                 System.out.println("Second if statement passed: " + dietaryPreferences.getAllKeys());
-                urDataAccessInterface.save(user);
+                urDataAccessInterface.save(userId, user);
             }
         } else {
             if (!restriction.chars().allMatch(Character::isLetter)) {
@@ -65,7 +80,7 @@ public class UpdateRestrictionsInteractor implements UpdateRestrictionsInputBoun
                 // Add the new restriction
                 dietaryPreferences.addRestriction(restriction, value);
                 urOutputBoundary.prepareUpdatedView("Successfully Updated restriction: " + restriction);
-                urDataAccessInterface.save(user);
+                urDataAccessInterface.save(userId, user);
 
             }
         }
@@ -0,0 +1,101 @@
+package data_access;
+
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiClientTest {
+    private HttpServer server;
+
+    private ApiClient client;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @TempDir
+    File cacheDirectory;
+
+    private void respond(String path, String body) {
+        respond(path, () -> 200, body);
+    }
+
+    private void respond(String path, IntSupplier status, String body) {
+        server.createContext(path, exchange -> {
+            requests.incrementAndGet();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.getAsInt(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    @BeforeEach
+    void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        respond("/recipes/1/ingredientWidget.json",
+                "{\"ingredients\":[{\"name\":\"apple\",\"amount\":{\"metric\":{\"value\":2.0}}}]}");
+        respond("/recipes/parseIngredients", "[{\"name\":\"egg\"},{\"name\":\"milk\"}]");
+        server.start();
+        client = new ApiClient("http://localhost:" + server.getAddress().getPort(), 2, 60000, 1000, 1000, 2000,
+                false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testConnectionIsReused() {
+        RecipeGetter getter = new RecipeGetter(client);
+        for (int i = 0; i < 5; i++) {
+            JSONObject ingredients = getter.getIngredients(1, "key");
+            assertEquals("apple", ingredients.getJSONArray("ingredients").getJSONObject(0).getString("name"));
+        }
+        assertEquals(5, requests.get());
+        assertEquals(1, client.getConnectionCount());
+    }
+
+    @Test
+    void testErrorStatus() {
+        respond("/recipes/2/ingredientWidget.json", () -> 402, "{\"status\":\"failure\",\"code\":402}");
+        assertThrows(IOException.class, () -> client.get(client.getBaseUrl() + "/recipes/2/ingredientWidget.json"));
+        assertThrows(RuntimeException.class, () -> new RecipeGetter(client).getIngredients(2, "key"));
+    }
+
+    @Test
+    void testErrorIsNotCached() {
+        AtomicInteger status = new AtomicInteger(401);
+        respond("/recipes/2/ingredientWidget.json", status::get, "{\"ingredients\":[]}");
+        CachingRecipeGetter getter = new CachingRecipeGetter(client, new RecipeCache(cacheDirectory.getPath(), 10));
+        assertThrows(RuntimeException.class, () -> getter.getIngredients(2, "key"));
+
+        status.set(200);
+        assertTrue(getter.getIngredients(2, "key").has("ingredients"));
+        getter.getIngredients(2, "key");
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testPost() {
+        List<String> names = FoodNameParser.parseFoodItemNames(client, "key", Arrays.asList("2 eggs", "1 cup milk"));
+        assertEquals(Arrays.asList("egg", "milk"), names);
+    }
+}
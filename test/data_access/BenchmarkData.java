@@ -0,0 +1,87 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores and helpers shared by the benchmarks, so they all measure the same data
+ */
+final class BenchmarkData {
+    public static final int ITEMS_PER_USER = 100;
+
+    private static final String[] NAMES = {"apple", "banana", "milk", "bread", "egg", "rice", "potato", "cheese"};
+
+    /** Prevent instantiation. */
+    private BenchmarkData() {}
+
+    /**
+     * @param i index of the item
+     * @return the i-th item of a store
+     */
+    static FoodItem item(int i) {
+        return new FoodItem(NAMES[i % NAMES.length], 2024 + i % 3, 1 + i % 12, 1 + i % 28, 1 + i % 10);
+    }
+
+    /**
+     * Create the users of a store
+     * @param items number of items in the store, ITEMS_PER_USER per user
+     * @param userFactory   User factory to create the users
+     * @return the users by their id
+     */
+    static Map<Integer, User> createUsers(int items, UserFactory userFactory) {
+        Map<Integer, User> users = new HashMap<>();
+        for (int i = 0; i < items; i++) {
+            users.computeIfAbsent(i / ITEMS_PER_USER, k -> userFactory.create(new HashMap<>())).addItem(item(i));
+        }
+        return users;
+    }
+
+    /**
+     * Write a store in a format
+     * @param file  file the users are written to
+     * @param format    format of the file
+     * @param items number of items in the store, ITEMS_PER_USER per user
+     * @param userFactory   User factory to create the users
+     * @throws IOException  if the file cannot be written
+     */
+    static void writeStore(File file, UserFileFormat format, int items, UserFactory userFactory)
+            throws IOException {
+        Map<Integer, User> users = createUsers(items, userFactory);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            format.write(users, out);
+        }
+    }
+
+    /**
+     * @param args  arguments of a benchmark, each a number
+     * @param defaults  numbers used if there are no arguments
+     * @return the numbers in the arguments
+     */
+    static int[] parseCounts(String[] args, int[] defaults) {
+        if (args.length == 0) {
+            return defaults;
+        }
+        int[] res = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            res[i] = Integer.parseInt(args[i]);
+        }
+        return res;
+    }
+
+    /**
+     * Delete a temporary directory and the files in it
+     * @param directory the directory
+     */
+    static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            file.delete();
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,79 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryUserFileFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    UserFactory userFactory = new UserFactory();
+
+    private List<String> items(User user) {
+        List<String> res = new ArrayList<>();
+        for (FoodItem item : user.getQueue()) {
+            res.add(item.getName() + ":" + item.getExpirationDate() + ":" + item.getAmount());
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    @Test
+    void testConvertFromCsv() throws IOException {
+        File csv = tempDir.resolve("users.csv").toFile();
+        File bin = tempDir.resolve("users.bin").toFile();
+        User user = userFactory.create(new HashMap<>());
+        user.addItem(new FoodItem("apple", 2023, 10, 10, 1.0f));
+        user.addItem(new FoodItem("potato", 2024, 2, 29, 5.5f));
+        user.addItem(new FoodItem("apple", 2023, 12, 31, 0.25f));
+        user.addRestriction("maxCarbs", 100F);
+        user.addRestriction("Vegan", 1F);
+        new FileUserDataAccessObject(csv.getPath(), userFactory).save(0, user);
+
+        UserFileConverter.convert(csv, new CsvUserFileFormat(), bin, new BinaryUserFileFormat());
+
+        Map<Integer, User> converted = new BinaryUserFileFormat().read(bin, userFactory);
+        assertEquals(1, converted.size());
+        assertEquals(items(user), items(converted.get(0)));
+        assertEquals(100F, converted.get(0).getRestriction("maxCarbs"));
+        assertEquals(1F, converted.get(0).getRestriction("Vegan"));
+        assertTrue(bin.length() < csv.length());
+    }
+
+    @Test
+    void testDataAccessObjectUsesBinaryFile() throws IOException {
+        String bin = tempDir.resolve("users.bin").toString();
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(bin, userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 11, 1, 2.0f));
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(bin, userFactory);
+        assertEquals(Collections.singletonList("milk:2023/11/1:2.0"), items(reloaded.get(0)));
+    }
+
+    @Test
+    void testRejectTruncatedFile() throws IOException {
+        File bin = tempDir.resolve("users.bin").toFile();
+        Map<Integer, User> accounts = new HashMap<>();
+        accounts.put(0, userFactory.create(new HashMap<>()));
+        accounts.get(0).addItem(new FoodItem("milk", 2023, 11, 1, 2.0f));
+        try (FileOutputStream out = new FileOutputStream(bin)) {
+            new BinaryUserFileFormat().write(accounts, out);
+        }
+
+        byte[] bytes = Files.readAllBytes(bin.toPath());
+        Files.write(bin.toPath(), Arrays.copyOf(bytes, bytes.length - 6));
+        assertThrows(IOException.class, () -> new BinaryUserFileFormat().read(bin, userFactory));
+    }
+}
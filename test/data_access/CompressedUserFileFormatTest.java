@@ -0,0 +1,148 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedUserFileFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    UserFactory userFactory = new UserFactory();
+
+    private Map<Integer, User> createAccounts(int numUsers) {
+        Map<Integer, User> accounts = new HashMap<>();
+        for (int i = 0; i < numUsers; i++) {
+            User user = userFactory.create(new HashMap<>());
+            user.addItem(new FoodItem("milk", 2023, 11, 1 + i % 28, 2.0f));
+            user.addItem(new FoodItem("eggs", 2023, 12, 1, 12.0f));
+            user.addRestriction("maxCarbs", 100F);
+            accounts.put(i, user);
+        }
+        return accounts;
+    }
+
+    private File write(Map<Integer, User> accounts, UserFileFormat format, String name) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            format.write(accounts, out);
+        }
+        return file;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Map<Integer, User> accounts = createAccounts(500);
+        for (UserFileFormat inner : Arrays.asList(new CsvUserFileFormat(), new BinaryUserFileFormat())) {
+            CompressedUserFileFormat format = new CompressedUserFileFormat(inner, new DeflateBlockCodec(), 1024);
+            File file = write(accounts, format, "users.z");
+
+            Map<Integer, User> read = format.read(file, userFactory);
+            assertEquals(accounts.keySet(), read.keySet());
+            assertEquals(2, read.get(7).getQueue().size());
+            assertEquals(100F, read.get(7).getRestriction("maxCarbs"));
+            assertEquals(0, format.getCorruptedBlocks());
+            assertTrue(file.length() < write(accounts, inner, "users").length());
+        }
+    }
+
+    @Test
+    void testSkipCorruptedBlock() throws IOException {
+        Map<Integer, User> accounts = createAccounts(500);
+        CompressedUserFileFormat format = new CompressedUserFileFormat(new CsvUserFileFormat(),
+                new DeflateBlockCodec(), 1024);
+        File file = write(accounts, format, "users.z");
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file.toPath(), bytes);
+
+        Map<Integer, User> read = format.read(file, userFactory);
+        assertEquals(1, format.getCorruptedBlocks());
+        assertTrue(read.size() < accounts.size());
+        assertTrue(read.size() > accounts.size() / 2);
+        for (Map.Entry<Integer, User> entry : read.entrySet()) {
+            assertEquals(2, entry.getValue().getQueue().size());
+        }
+    }
+
+    @Test
+    void testSkipTruncatedBlock() throws IOException {
+        CompressedUserFileFormat format = new CompressedUserFileFormat(new CsvUserFileFormat(),
+                new DeflateBlockCodec(), 1024);
+        File file = write(createAccounts(500), format, "users.z");
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 6));
+
+        assertFalse(format.read(file, userFactory).isEmpty());
+        assertEquals(1, format.getCorruptedBlocks());
+    }
+
+    @Test
+    void testRejectFileWithoutReadableBlock() throws IOException {
+        CompressedUserFileFormat format = new CompressedUserFileFormat(new CsvUserFileFormat());
+        File file = write(createAccounts(5), format, "users.z");
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(file.toPath(), bytes);
+
+        assertThrows(IOException.class, () -> format.read(file, userFactory));
+        assertEquals(1, format.getCorruptedBlocks());
+        // a file without users is not damaged
+        assertTrue(format.read(write(new HashMap<>(), format, "empty.z"), userFactory).isEmpty());
+    }
+
+    @Test
+    void testRejectOtherCodec() throws IOException {
+        File file = write(createAccounts(1), new CompressedUserFileFormat(new CsvUserFileFormat()), "users.z");
+        BlockCodec other = new DeflateBlockCodec() {
+            @Override
+            public byte getId() {
+                return 2;
+            }
+        };
+        assertThrows(IOException.class, () -> new CompressedUserFileFormat(new CsvUserFileFormat(), other, 1024)
+                .read(file, userFactory));
+    }
+
+    @Test
+    void testDataAccessObjectUsesCompressedFile() throws IOException {
+        String path = tempDir.resolve("users.csv.z").toString();
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(path, userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 11, 1, 2.0f));
+
+        Map<Integer, User> read = new CompressedUserFileFormat(new CsvUserFileFormat()).read(new File(path),
+                userFactory);
+        assertEquals("milk", read.get(0).getQueue().peek().getName());
+        assertEquals(1, new FileUserDataAccessObject(path, userFactory).getInventory(0).size());
+    }
+
+    @Test
+    void testDataAccessObjectFallsBackToPreviousFile() throws IOException {
+        String path = tempDir.resolve("users.csv.z").toString();
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(path, userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 11, 1, 2.0f));
+
+        byte[] bytes = Files.readAllBytes(Path.of(path));
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(Path.of(path), bytes);
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(path, userFactory);
+        assertTrue(reloaded.getInventory(0).isEmpty());
+        assertEquals(1, reloaded.getCorruptedBlocks());
+    }
+}
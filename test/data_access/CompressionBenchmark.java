@@ -0,0 +1,84 @@
+package data_access;
+
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Measures the size of the data file and the time to save and load it in the csv and binary format, with and
+ * without CompressedUserFileFormat.
+ */
+public class CompressionBenchmark {
+    public static final int[] DEFAULT_SIZES = {100_000, 1_000_000};
+
+    public static final int REPEATS = 5;
+
+    /**
+     * Write users to a file
+     * @return the time it took in nanoseconds
+     */
+    private static long save(Map<Integer, User> users, UserFileFormat format, File file) throws IOException {
+        long start = System.nanoTime();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            format.write(users, out);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Read users from a file
+     * @return the time it took in nanoseconds
+     */
+    private static long load(UserFileFormat format, File file, UserFactory userFactory) throws IOException {
+        long start = System.nanoTime();
+        format.read(file, userFactory);
+        return System.nanoTime() - start;
+    }
+
+    private static void run(File directory, int items, boolean print) throws IOException {
+        UserFactory userFactory = new UserFactory();
+        Map<Integer, User> users = BenchmarkData.createUsers(items, userFactory);
+        for (String name : new String[] {"users.csv", "users.csv.z", "users.bin", "users.bin.z"}) {
+            UserFileFormat format = FileUserDataAccessObject.formatFor(name);
+            File file = new File(directory, name);
+            long bestSave = Long.MAX_VALUE;
+            long bestLoad = Long.MAX_VALUE;
+            for (int i = 0; i < REPEATS; i++) {
+                System.gc();
+                bestSave = Math.min(bestSave, save(users, format, file));
+                System.gc();
+                bestLoad = Math.min(bestLoad, load(format, file, userFactory));
+            }
+            if (print) {
+                System.out.printf("%10d %-12s %10.2f %10.1f %10.1f%n", items, name, file.length() / 1e6,
+                        bestSave / 1e6, bestLoad / 1e6);
+            }
+            file.delete();
+        }
+    }
+
+    /**
+     * Run the benchmark in a temporary directory
+     * @param args  sizes of the stores in items, 100000 1000000 if there are none
+     * @throws IOException  if the files cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = BenchmarkData.parseCounts(args, DEFAULT_SIZES);
+
+        File directory = Files.createTempDirectory("compression-benchmark").toFile();
+        try {
+            // run every format once, so class loading and compilation are not counted in the first size
+            run(directory, 10_000, false);
+            System.out.printf("best of %d, %d items per user%n", REPEATS, BenchmarkData.ITEMS_PER_USER);
+            System.out.printf("%10s %-12s %10s %10s %10s%n", "items", "file", "MB", "save ms", "load ms");
+            for (int size : sizes) {
+                run(directory, size, true);
+            }
+        } finally {
+            BenchmarkData.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.UserFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Measures how many operations per second FileUserDataAccessObject handles by the number of threads calling it.
+ * Nine of every ten operations read the snapshot of a random user and the tenth adds an item to a random user
+ * and removes it again. Write-behind is enabled, so the writes measure the locking and not the disk.
+ */
+public class ConcurrencyBenchmark {
+    public static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16};
+
+    public static final int ITEMS = 100_000;
+
+    public static final long DURATION_MILLIS = 2000;
+
+    private static long operations(FileUserDataAccessObject dataAccessObject, int users, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long res = 0;
+        while (System.currentTimeMillis() < end) {
+            int userId = random.nextInt(users);
+            if (res % 10 == 9) {
+                FoodItem item = BenchmarkData.item((int) res);
+                dataAccessObject.addItem(userId, item);
+                dataAccessObject.removeSpecificItem(userId, item);
+            } else {
+                dataAccessObject.getSnapshot(userId).peek();
+            }
+            res++;
+        }
+        return res;
+    }
+
+    private static void run(FileUserDataAccessObject dataAccessObject, int threads, long durationMillis,
+                            boolean print) throws InterruptedException, ExecutionException {
+        int users = ITEMS / BenchmarkData.ITEMS_PER_USER;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long end = System.currentTimeMillis() + durationMillis;
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> operations(dataAccessObject, users, end)));
+            }
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            if (print) {
+                System.out.printf("%10d %14.0f%n", threads, total * 1000.0 / durationMillis);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Run the benchmark on a store in a temporary directory
+     * @param args  numbers of threads, 1 2 4 8 16 if there are none
+     * @throws Exception    if the store cannot be written or a thread fails
+     */
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = BenchmarkData.parseCounts(args, DEFAULT_THREADS);
+
+        File directory = Files.createTempDirectory("concurrency-benchmark").toFile();
+        try {
+            UserFactory userFactory = new UserFactory();
+            File file = new File(directory, "users.csv");
+            BenchmarkData.writeStore(file, new CsvUserFileFormat(), ITEMS, userFactory);
+            FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(file.getPath(), userFactory);
+            dataAccessObject.enableWriteBehind(1000);
+
+            // every thread count once, so compilation is not counted in the first one
+            for (int threads : threadCounts) {
+                run(dataAccessObject, threads, 200, false);
+            }
+            System.out.printf("%d items in %d users, %d available processors%n", ITEMS,
+                    ITEMS / BenchmarkData.ITEMS_PER_USER, Runtime.getRuntime().availableProcessors());
+            System.out.printf("%10s %14s%n", "threads", "operations/s");
+            for (int threads : threadCounts) {
+                run(dataAccessObject, threads, DURATION_MILLIS, true);
+            }
+            dataAccessObject.close();
+        } finally {
+            BenchmarkData.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package data_access;
+
+import entities.FoodItem;
+import entities.User;
+import entities.UserFactory;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Measures the time and the memory allocated to parse a csv user file with CsvUserParser, compared to splitting
+ * every row with String.split the way the csv file was read before.
+ */
+public class CsvParserBenchmark {
+    public static final int[] DEFAULT_SIZES = {1_000_000};
+
+    public static final int REPEATS = 5;
+
+    /**
+     * Parses every row of a csv user file
+     */
+    interface Parser {
+        int parse(File file, UserFactory userFactory) throws IOException;
+    }
+
+    private static int parseWithSplit(File file, UserFactory userFactory) throws IOException {
+        int users = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String row;
+            while ((row = reader.readLine()) != null) {
+                String[] col = row.split(",");
+                User user = userFactory.create(new HashMap<>());
+                // items are added at once like CsvUserParser does, so only the parsing differs
+                List<FoodItem> items = new ArrayList<>();
+                for (String item : col.length > 0 ? col[0].split("/") : new String[0]) {
+                    if (item.isEmpty()) {
+                        break;
+                    }
+                    String[] details = item.split(":");
+                    items.add(new FoodItem(details[0], Integer.parseInt(details[1]), Integer.parseInt(details[2]),
+                            Integer.parseInt(details[3]), Float.parseFloat(details[4])));
+                }
+                user.addItems(items);
+                for (String restriction : col.length > 1 ? col[1].split("/") : new String[0]) {
+                    if (restriction.isEmpty()) {
+                        break;
+                    }
+                    String[] details = restriction.split(":");
+                    user.addRestriction(details[0], Float.valueOf(details[1]));
+                }
+                users++;
+            }
+        }
+        return users;
+    }
+
+    private static int parseWithParser(File file, UserFactory userFactory) throws IOException {
+        int users = 0;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            CsvUserParser parser = new CsvUserParser(reader);
+            parser.readHeader();
+            while (parser.nextUser(userFactory.create(new HashMap<>()))) {
+                users++;
+            }
+        }
+        return users;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void run(File directory, int items, boolean print) throws IOException {
+        UserFactory userFactory = new UserFactory();
+        File file = new File(directory, "users.csv");
+        BenchmarkData.writeStore(file, new CsvUserFileFormat(), items, userFactory);
+
+        String[] names = {"String.split", "CsvUserParser"};
+        Parser[] parsers = {CsvParserBenchmark::parseWithSplit, CsvParserBenchmark::parseWithParser};
+        for (int p = 0; p < parsers.length; p++) {
+            long bestNanos = Long.MAX_VALUE;
+            long bestBytes = Long.MAX_VALUE;
+            for (int i = 0; i < REPEATS; i++) {
+                System.gc();
+                long bytes = allocatedBytes();
+                long start = System.nanoTime();
+                parsers[p].parse(file, userFactory);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                bestBytes = Math.min(bestBytes, allocatedBytes() - bytes);
+            }
+            if (print) {
+                System.out.printf("%10d %-14s %10.1f %14.1f%n", items, names[p], bestNanos / 1e6, bestBytes / 1e6);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Run the benchmark in a temporary directory
+     * @param args  sizes of the files in items, 1000000 if there are none
+     * @throws IOException  if the files cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = BenchmarkData.parseCounts(args, DEFAULT_SIZES);
+
+        File directory = Files.createTempDirectory("csv-parser-benchmark").toFile();
+        try {
+            // run both parsers once, so class loading and compilation are not counted in the first size
+            run(directory, 10_000, false);
+            System.out.printf("best of %d, %d items per user%n", REPEATS, BenchmarkData.ITEMS_PER_USER);
+            System.out.printf("%10s %-14s %10s %14s%n", "items", "parser", "ms", "allocated MB");
+            for (int size : sizes) {
+                run(directory, size, true);
+            }
+        } finally {
+            BenchmarkData.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvUserParserTest {
+
+    UserFactory userFactory = new UserFactory();
+
+    private List<User> parse(String csv) throws IOException {
+        CsvUserParser parser = new CsvUserParser(new StringReader(csv));
+        assertEquals("inventory,dietaryRestrictions", parser.readHeader());
+        List<User> users = new ArrayList<>();
+        User user = userFactory.create(new HashMap<>());
+        while (parser.nextUser(user)) {
+            users.add(user);
+            user = userFactory.create(new HashMap<>());
+        }
+        return users;
+    }
+
+    private List<String> items(User user) {
+        List<String> res = new ArrayList<>();
+        for (FoodItem item : user.getQueue()) {
+            res.add(item.getName() + ":" + item.getExpirationDate() + ":" + item.getAmount());
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    @Test
+    void testParseRows() throws IOException {
+        List<User> users = parse("inventory,dietaryRestrictions\r\n" +
+                "apple:2023:10:10:1.0/potato:2023:10:11:5.5,maxCarbs:100.0/Vegan:1.0\r\n" +
+                ",minCarbs:10.0\n" +
+                "milk:2024:2:29:0.25,\n");
+
+        assertEquals(3, users.size());
+        assertEquals(Arrays.asList("apple:2023/10/10:1.0", "potato:2023/10/11:5.5"), items(users.get(0)));
+        assertEquals(100F, users.get(0).getRestriction("maxCarbs"));
+        assertEquals(1F, users.get(0).getRestriction("Vegan"));
+        assertTrue(items(users.get(1)).isEmpty());
+        assertEquals(10F, users.get(1).getRestriction("minCarbs"));
+        assertEquals(Collections.singletonList("milk:2024/2/29:0.25"), items(users.get(2)));
+        assertTrue(users.get(2).getAllKeys().isEmpty());
+    }
+
+    @Test
+    void testFloatsMatchParseFloat() throws IOException {
+        Random random = new Random(207);
+        StringBuilder csv = new StringBuilder("inventory,dietaryRestrictions\n");
+        List<Float> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            float value;
+            if (i % 3 == 0) {
+                value = random.nextInt(100000) / 100f;
+            } else if (i % 3 == 1) {
+                value = Float.intBitsToFloat(random.nextInt());
+            } else {
+                value = random.nextFloat() * 1000;
+            }
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            expected.add(value);
+            csv.append(",key:").append(value).append("\n");
+        }
+
+        List<User> users = parse(csv.toString());
+        assertEquals(expected.size(), users.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(expected.get(i), users.get(i).getRestriction("key"));
+        }
+    }
+
+    @Test
+    void testMalformedRow() {
+        assertThrows(IOException.class, () -> parse("inventory,dietaryRestrictions\napple:2023:ten:10:1.0,\n"));
+        assertThrows(IOException.class, () -> parse("inventory,dietaryRestrictions\napple:2023:10,\n"));
+    }
+}
@@ -3,11 +3,16 @@ package data_access;
 import entities.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.imageio.IIOException;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +22,9 @@ class FileUserDataAccessObjectTest {
     User testUser;
     UserFactory userFactory = new UserFactory();
 
+    @TempDir
+    Path tempDir;
+
     private boolean usersEqual(User user1, User user2) {
         if (inventoriesEqual(new ArrayList<>(user1.getInventory().getQueue()), new ArrayList<>(user2.getInventory().getQueue()) )) {
             return dietraryRestrictionsEqual(user1.getDietaryRestrictions(), user2.getDietaryRestrictions());
@@ -75,7 +83,7 @@ class FileUserDataAccessObjectTest {
 
     @Test
     void testSave() throws IOException {
-        dataAccessObject.save(testUser);
+        dataAccessObject.save(0, testUser);
         // Create secondary dataAccessObject to read from file
         FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject("./test/data_access/test.csv", userFactory);
         User user = dataAccessObject.get(0);
@@ -84,11 +92,240 @@ class FileUserDataAccessObjectTest {
 
     @Test
     void testGetters() {
-        dataAccessObject.save(testUser);
-        DietaryPreferences preferences = dataAccessObject.retrievePreferences();
-        List<FoodItem> inventory = dataAccessObject.getInventory();
+        dataAccessObject.save(0, testUser);
+        DietaryPreferences preferences = dataAccessObject.retrievePreferences(0);
+        List<FoodItem> inventory = dataAccessObject.getInventory(0);
         assertTrue(inventoriesEqual(inventory, new ArrayList<>(testUser.getInventory().getQueue())));
         assertTrue(dietraryRestrictionsEqual(preferences, testUser.getDietaryRestrictions()));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testRecoverFromCompletedTempSnapshot() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        new FileUserDataAccessObject(csv.toString(), userFactory).save(0, testUser);
+        // crash after the new snapshot was written but before it was renamed into place
+        Files.move(csv, tempDir.resolve("users.csv.tmp"));
+
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        assertTrue(usersEqual(testUser, dataAccessObject.get(0)));
+        assertTrue(Files.exists(csv));
+    }
+
+    @Test
+    void testIgnorePartialTempSnapshot() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        new FileUserDataAccessObject(csv.toString(), userFactory).save(0, testUser);
+        Files.write(tempDir.resolve("users.csv.tmp"), "inventory,dietaryRestrictions\napple:20".getBytes());
+
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        assertTrue(usersEqual(testUser, dataAccessObject.get(0)));
+        assertFalse(Files.exists(tempDir.resolve("users.csv.tmp")));
+    }
+
+    @Test
+    void testDiscardPartialFirstSnapshot() throws IOException {
+        Path bin = tempDir.resolve("users.bin");
+        new FileUserDataAccessObject(bin.toString(), userFactory).save(0, testUser);
+        // crash during the very first write, before there was a target or a previous snapshot
+        byte[] written = Files.readAllBytes(bin);
+        Files.delete(bin);
+        Files.deleteIfExists(tempDir.resolve("users.bin.prev"));
+        Files.write(tempDir.resolve("users.bin.tmp"), Arrays.copyOf(written, written.length / 2));
+
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(bin.toString(), userFactory);
+        assertFalse(dataAccessObject.existsByUserId(0));
+        assertFalse(Files.exists(tempDir.resolve("users.bin.tmp")));
+
+        dataAccessObject.save(0, testUser);
+        assertTrue(usersEqual(testUser, new FileUserDataAccessObject(bin.toString(), userFactory).get(0)));
+    }
+
+    @Test
+    void testRecoverFromPreviousSnapshot() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory,
+                SnapshotWriter.SyncPolicy.ON_SHUTDOWN, 0);
+        dataAccessObject.save(0, testUser);
+        dataAccessObject.save(0, testUser);
+        Files.write(csv, "apple:2023:10".getBytes());
+
+        FileUserDataAccessObject recovered = new FileUserDataAccessObject(csv.toString(), userFactory);
+        assertTrue(usersEqual(testUser, recovered.get(0)));
+    }
+
+    @Test
+    void testWriteBehind() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        dataAccessObject.enableWriteBehind(60 * 60 * 1000);
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 10, 12, 2.0f));
+        dataAccessObject.addItem(0, new FoodItem("eggs", 2023, 10, 14, 12.0f));
+
+        assertTrue(new FileUserDataAccessObject(csv.toString(), userFactory).getInventory(0).isEmpty());
+
+        dataAccessObject.flush();
+        assertEquals(2, new FileUserDataAccessObject(csv.toString(), userFactory).getInventory(0).size());
+        dataAccessObject.close();
+    }
+
+    @Test
+    void testCloseStopsWriteBehind() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        long flushThreads = flushThreadCount();
+        dataAccessObject.enableWriteBehind(60 * 60 * 1000);
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 10, 12, 2.0f));
+        assertEquals(flushThreads + 1, flushThreadCount());
+
+        dataAccessObject.close();
+        assertEquals(flushThreads, flushThreadCount());
+        assertEquals(1, new FileUserDataAccessObject(csv.toString(), userFactory).getInventory(0).size());
+
+        dataAccessObject.close();
+        dataAccessObject.addItem(0, new FoodItem("eggs", 2023, 10, 14, 12.0f));
+        assertEquals(2, new FileUserDataAccessObject(csv.toString(), userFactory).getInventory(0).size());
+    }
+
+    private long flushThreadCount() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().equals("user-data-flush"))
+                .count();
+    }
+
+    @Test
+    void testSnapshotChecksumIsComputedWhileLoading() throws IOException {
+        for (String name : new String[] {"users.csv", "users.bin"}) {
+            Path file = tempDir.resolve(name);
+            FileUserDataAccessObject written = new FileUserDataAccessObject(file.toString(), userFactory);
+            written.save(0, userFactory.create(new HashMap<>()));
+            written.addItem(0, new FoodItem("milk", 2023, 10, 12, 2.0f));
+            assertEquals(InventoryJournal.checksum(file.toFile()), written.getSnapshotChecksum());
+
+            FileUserDataAccessObject loaded = new FileUserDataAccessObject(file.toString(), userFactory,
+                    FileUserDataAccessObject.formatFor(file.toString()), SnapshotWriter.SyncPolicy.EVERY_WRITE, 0,
+                    true);
+            assertEquals(InventoryJournal.checksum(file.toFile()), loaded.getSnapshotChecksum());
+            assertEquals(1, loaded.getInventory(0).size());
+        }
+    }
+
+    @Test
+    void testAddItems() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        dataAccessObject.addItems(0, Arrays.asList(new FoodItem("milk", 2023, 10, 12, 2.0f),
+                new FoodItem("eggs", 2023, 10, 14, 12.0f)));
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(csv.toString(), userFactory);
+        assertEquals(2, reloaded.getInventory(0).size());
+        assertEquals("milk", reloaded.getQueue(0).peek().getName());
+    }
+
+    @Test
+    void testForEachItem() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        dataAccessObject.save(0, testUser);
+        dataAccessObject.save(5, userFactory.create(new HashMap<>()));
+        dataAccessObject.addItem(5, new FoodItem("milk", 2023, 10, 12, 2.0f));
+
+        List<String> visited = new ArrayList<>();
+        dataAccessObject.forEachItem((userId, item) -> visited.add(userId + ":" + item.getName()));
+        Collections.sort(visited);
+        assertEquals(Arrays.asList("0:apple", "0:cucumber", "0:potato", "5:milk"), visited);
+    }
+
+    @Test
+    void testMultipleUsers() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        dataAccessObject.save(7, userFactory.create(new HashMap<>()));
+        dataAccessObject.save(100000, testUser);
+        dataAccessObject.addItem(7, new FoodItem("milk", 2023, 10, 12, 2.0f));
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(csv.toString(), userFactory);
+        assertFalse(reloaded.existsByUserId(0));
+        assertEquals(1, reloaded.getInventory(7).size());
+        assertEquals("milk", reloaded.getInventory(7).get(0).getName());
+        assertTrue(usersEqual(testUser, reloaded.get(100000)));
+        assertThrows(IllegalArgumentException.class, () -> reloaded.getInventory(0));
+    }
+
+    @Test
+    void testLegacyFileWithoutUserIds() throws IOException {
+        Path csv = tempDir.resolve("users.csv");
+        Files.write(csv, ("inventory,dietaryRestrictions\n" +
+                "apple:2023:10:10:1.0,minCarbs:10.0\n" +
+                ",maxCarbs:100.0\n").getBytes());
+
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        assertEquals("apple", dataAccessObject.getInventory(0).get(0).getName());
+        assertEquals(100F, dataAccessObject.retrievePreferences(1).getRestriction("maxCarbs"));
+    }
+
+    /**
+     * Every thread adds two items per user and removes one of them again, while another thread reads
+     */
+    private void runConcurrentChanges(FileUserDataAccessObject dataAccessObject, int threads, int users)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean done = new AtomicBoolean(false);
+        List<Future<?>> results = new ArrayList<>();
+        results.add(executor.submit(() -> {
+            while (!done.get()) {
+                for (int userId = 0; userId < users; userId++) {
+                    dataAccessObject.getInventory(userId);
+                }
+            }
+        }));
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int userId = 0; userId < users; userId++) {
+                    FoodItem kept = new FoodItem("kept" + thread, 2023, 10, 10, 1.0f);
+                    FoodItem removed = new FoodItem("removed" + thread, 2023, 10, 11, 1.0f);
+                    dataAccessObject.addItem(userId, kept);
+                    dataAccessObject.addItem(userId, removed);
+                    assertTrue(dataAccessObject.removeSpecificItem(userId, removed));
+                }
+            }));
+        }
+        try {
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            fail(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentChanges() throws IOException, InterruptedException {
+        Path csv = tempDir.resolve("users.csv");
+        FileUserDataAccessObject dataAccessObject = new FileUserDataAccessObject(csv.toString(), userFactory);
+        for (int userId = 0; userId < 16; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+        dataAccessObject.enableWriteBehind(5);
+
+        runConcurrentChanges(dataAccessObject, 8, 16);
+        dataAccessObject.close();
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(csv.toString(), userFactory);
+        for (int userId = 0; userId < 16; userId++) {
+            assertEquals(8, dataAccessObject.getInventory(userId).size());
+            assertEquals(8, reloaded.getInventory(userId).size());
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodNameCacheTest {
+    @TempDir
+    File directory;
+
+    @Test
+    void testNamesAreKept() {
+        String path = new File(directory, "food-names.txt").getPath();
+        Map<String, String> names = new HashMap<>();
+        names.put("2 large eggs", "eggs");
+        names.put("1 cup\tmilk", "milk");
+        new FoodNameCache(path).putAll(names);
+
+        FoodNameCache cache = new FoodNameCache(path);
+        assertEquals("eggs", cache.get("2 large eggs"));
+        // names with a tab are not written to the file
+        assertNull(cache.get("1 cup\tmilk"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testCutOffLineIsSkipped() throws IOException {
+        File file = new File(directory, "food-names.txt");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("2 large eggs\teggs\t\n1 cup mi");
+        }
+
+        FoodNameCache cache = new FoodNameCache(file.getPath());
+        assertEquals("eggs", cache.get("2 large eggs"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testLineCutAfterTabIsSkipped() throws IOException {
+        File file = new File(directory, "food-names.txt");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("1 cup milk\tmilk\t\n2 large eggs\te");
+        }
+
+        FoodNameCache cache = new FoodNameCache(file.getPath());
+        assertEquals("milk", cache.get("1 cup milk"));
+        assertNull(cache.get("2 large eggs"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,98 @@
+package data_access;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures the p50 and p99 latency of fetching the ingredients of a recipe from a stub server on this machine,
+ * with a new OkHttpClient for every call the way RecipeGetter used to make them, and with the shared ApiClient.
+ */
+public class HttpClientBenchmark {
+    public static final int DEFAULT_CALLS = 2000;
+
+    private static final String RESPONSE =
+            "{\"ingredients\":[{\"name\":\"apple\",\"amount\":{\"metric\":{\"value\":2.0,\"unit\":\"g\"}}}]}";
+
+    /**
+     * Fetches the ingredients of a recipe
+     */
+    interface Fetch {
+        JSONObject run() throws IOException;
+    }
+
+    private static long[] measure(Fetch fetch, int calls) throws IOException {
+        long[] res = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            fetch.run();
+            res[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(res);
+        return res;
+    }
+
+    private static void print(String name, long[] nanos) {
+        System.out.printf("%-16s %10.3f %10.3f%n", name, nanos[nanos.length / 2] / 1e6,
+                nanos[(int) (nanos.length * 0.99)] / 1e6);
+    }
+
+    /**
+     * Run the benchmark against a stub server
+     * @param args  number of calls, 2000 if there is none
+     * @throws IOException  if the server cannot be started or a call fails
+     */
+    public static void main(String[] args) throws IOException {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CALLS;
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(4);
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        String url = baseUrl + "/recipes/1/ingredientWidget.json?apiKey=key";
+
+        ApiClient client = new ApiClient(baseUrl, ApiClient.DEFAULT_MAX_IDLE_CONNECTIONS,
+                ApiClient.DEFAULT_KEEP_ALIVE_MILLIS, ApiClient.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                ApiClient.DEFAULT_READ_TIMEOUT_MILLIS, ApiClient.DEFAULT_CALL_TIMEOUT_MILLIS, true);
+        RecipeGetter getter = new RecipeGetter(client);
+        Fetch perCall = () -> {
+            OkHttpClient perCallClient = new OkHttpClient().newBuilder().build();
+            try (Response response = perCallClient.newCall(new Request.Builder().url(url).build()).execute()) {
+                return new JSONObject(response.body().string());
+            }
+        };
+        Fetch shared = () -> getter.getIngredients(1, "key");
+        try {
+            // both once, so class loading and compilation are not counted
+            measure(perCall, calls / 10 + 1);
+            measure(shared, calls / 10 + 1);
+            System.out.printf("latency in ms of %d calls%n", calls);
+            System.out.printf("%-16s %10s %10s%n", "client", "p50", "p99");
+            print("per call", measure(perCall, calls));
+            print("shared", measure(shared, calls));
+        } finally {
+            client.close();
+            server.stop(0);
+            serverThreads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import use_case.delete_fooditem.*;
+import use_case.remove_expired.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    UserFactory userFactory = new UserFactory();
+
+    private InventoryHistory open() throws IOException {
+        return new InventoryHistory(tempDir.resolve("history").toString());
+    }
+
+    @Test
+    void testTotalsByMonth() throws IOException {
+        InventoryHistory history = open();
+        FoodItem milk = new FoodItem("milk", 2023, 10, 10, 2.0f);
+        FoodItem eggs = new FoodItem("eggs", 2023, 10, 10, 12.0f);
+        history.record(InventoryHistory.EventType.EXPIRE, 0, milk, 2.0f, LocalDate.of(2023, 10, 11));
+        history.record(InventoryHistory.EventType.EXPIRE, 1, milk, 0.5f, LocalDate.of(2023, 10, 30));
+        history.record(InventoryHistory.EventType.EXPIRE, 0, eggs, 6.0f, LocalDate.of(2023, 11, 2));
+        history.record(InventoryHistory.EventType.CONSUME, 0, eggs, 6.0f, LocalDate.of(2023, 11, 2));
+        history.record(InventoryHistory.EventType.EXPIRE, 0, eggs, 1.0f, LocalDate.of(2023, 12, 2));
+
+        SortedMap<YearMonth, Map<String, Double>> wasted = history.totalsByMonth(InventoryHistory.EventType.EXPIRE,
+                YearMonth.of(2023, 10), YearMonth.of(2023, 11));
+        assertEquals(Arrays.asList(YearMonth.of(2023, 10), YearMonth.of(2023, 11)),
+                new ArrayList<>(wasted.keySet()));
+        assertEquals(Collections.singletonMap("milk", 2.5), wasted.get(YearMonth.of(2023, 10)));
+        assertEquals(Collections.singletonMap("eggs", 6.0), wasted.get(YearMonth.of(2023, 11)));
+        history.close();
+    }
+
+    @Test
+    void testReopen() throws IOException {
+        InventoryHistory history = open();
+        for (int i = 0; i < InventoryHistory.BUFFER_ROWS + 10; i++) {
+            history.record(InventoryHistory.EventType.ADD, 0, new FoodItem("item" + i % 3, 2023, 10, 10, 1.0f),
+                    1.0f, LocalDate.of(2023, 10, 1 + i % 28));
+        }
+        history.close();
+
+        InventoryHistory reopened = open();
+        assertEquals(InventoryHistory.BUFFER_ROWS + 10, reopened.size());
+        Map<String, Double> added = reopened.totalsByMonth(InventoryHistory.EventType.ADD, YearMonth.of(2023, 10),
+                YearMonth.of(2023, 10)).get(YearMonth.of(2023, 10));
+        assertEquals(InventoryHistory.BUFFER_ROWS + 10, added.values().stream().mapToDouble(d -> d).sum());
+        assertEquals(3, added.size());
+    }
+
+    @Test
+    void testCutOffRowsAreDropped() throws IOException {
+        InventoryHistory history = open();
+        FoodItem milk = new FoodItem("milk", 2023, 10, 10, 2.0f);
+        history.record(InventoryHistory.EventType.ADD, 0, milk, 2.0f, LocalDate.of(2023, 10, 1));
+        history.record(InventoryHistory.EventType.ADD, 0, milk, 3.0f, LocalDate.of(2023, 10, 2));
+        history.close();
+        File amounts = tempDir.resolve("history").resolve("2023-10.amount").toFile();
+        try (RandomAccessFile file = new RandomAccessFile(amounts, "rw")) {
+            file.setLength(6);
+        }
+
+        InventoryHistory reopened = open();
+        assertEquals(1, reopened.size());
+        assertEquals(Collections.singletonMap("milk", 2.0), reopened.inventoryAt(0, LocalDate.of(2023, 10, 31)));
+    }
+
+    @Test
+    void testInventoryAt() throws IOException {
+        InventoryHistory history = open();
+        FoodItem milk = new FoodItem("milk", 2023, 10, 10, 2.0f);
+        history.record(InventoryHistory.EventType.ADD, 0, milk, 2.0f, LocalDate.of(2023, 9, 28));
+        history.record(InventoryHistory.EventType.ADD, 1, milk, 5.0f, LocalDate.of(2023, 9, 28));
+        history.record(InventoryHistory.EventType.CONSUME, 0, milk, 0.5f, LocalDate.of(2023, 10, 1));
+        history.record(InventoryHistory.EventType.EXPIRE, 0, milk, 1.5f, LocalDate.of(2023, 10, 11));
+
+        assertEquals(Collections.singletonMap("milk", 2.0), history.inventoryAt(0, LocalDate.of(2023, 9, 30)));
+        assertEquals(Collections.singletonMap("milk", 1.5), history.inventoryAt(0, LocalDate.of(2023, 10, 1)));
+        assertTrue(history.inventoryAt(0, LocalDate.of(2023, 10, 11)).isEmpty());
+        history.close();
+    }
+
+    @Test
+    void testDataAccessObjectRecordsUseCases() throws IOException {
+        FileUserDataAccessObject users = new FileUserDataAccessObject(tempDir.resolve("users.csv").toString(),
+                userFactory);
+        users.save(0, userFactory.create(new HashMap<>()));
+        InventoryHistory history = open();
+        HistoryUserDataAccessObject dataAccessObject = new HistoryUserDataAccessObject(users, history);
+
+        dataAccessObject.addItem(0, new FoodItem("milk", 2000, 1, 1, 2.0f));
+        dataAccessObject.addItem(0, new FoodItem("eggs", 2100, 1, 1, 12.0f));
+        new DeleteFoodItemInteractor(dataAccessObject, new DeleteFoodItemOutputBoundary() {
+            @Override
+            public void prepareSuccessView(DeleteFoodItemOutputData outputData) {
+            }
+
+            @Override
+            public void prepareFailView(String error) {
+                fail(error);
+            }
+        }, 0).execute(new DeleteFoodItemInputData("eggs", "5"));
+        new RemoveExpiredInteractor(dataAccessObject, new RemoveExpiredOutputBoundary() {
+            @Override
+            public void prepareSuccessView(RemoveExpiredOutputData outputData) {
+            }
+
+            @Override
+            public void prepareFailView() {
+                fail();
+            }
+        }, 0).execute(new RemoveExpiredInputData(Calendar.getInstance()));
+        dataAccessObject.flush();
+
+        YearMonth month = YearMonth.now();
+        assertEquals(Map.of("milk", 2.0, "eggs", 12.0),
+                history.totalsByMonth(InventoryHistory.EventType.ADD, month, month).get(month));
+        assertEquals(Collections.singletonMap("eggs", 5.0),
+                history.totalsByMonth(InventoryHistory.EventType.CONSUME, month, month).get(month));
+        assertEquals(Collections.singletonMap("milk", 2.0),
+                history.totalsByMonth(InventoryHistory.EventType.EXPIRE, month, month).get(month));
+        assertEquals(Collections.singletonMap("eggs", 7.0), history.inventoryAt(0, LocalDate.now()));
+        history.close();
+    }
+
+    @Test
+    void testItemExpiringTodayIsRecordedAsExpired() throws IOException {
+        FileUserDataAccessObject users = new FileUserDataAccessObject(tempDir.resolve("users.csv").toString(),
+                userFactory);
+        users.save(0, userFactory.create(new HashMap<>()));
+        InventoryHistory history = open();
+        HistoryUserDataAccessObject dataAccessObject = new HistoryUserDataAccessObject(users, history);
+        LocalDate today = LocalDate.now();
+        dataAccessObject.addItem(0, new FoodItem("milk", today.getYear(), today.getMonthValue(),
+                today.getDayOfMonth(), 2.0f));
+
+        Calendar date = Calendar.getInstance();
+        date.add(Calendar.SECOND, 1);
+        new RemoveExpiredInteractor(dataAccessObject, new RemoveExpiredOutputBoundary() {
+            @Override
+            public void prepareSuccessView(RemoveExpiredOutputData outputData) {
+            }
+
+            @Override
+            public void prepareFailView() {
+                fail();
+            }
+        }, 0).execute(new RemoveExpiredInputData(date));
+        dataAccessObject.flush();
+
+        YearMonth month = YearMonth.now();
+        assertEquals(Collections.singletonMap("milk", 2.0),
+                history.totalsByMonth(InventoryHistory.EventType.EXPIRE, month, month).get(month));
+        assertTrue(dataAccessObject.getInventory(0).isEmpty());
+        history.close();
+    }
+}
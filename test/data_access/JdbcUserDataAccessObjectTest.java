@@ -0,0 +1,144 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs against an H2 database in a temporary directory, and is skipped when the H2 driver is not on the classpath.
+ */
+class JdbcUserDataAccessObjectTest {
+
+    @TempDir
+    Path tempDir;
+
+    String url;
+    UserFactory userFactory = new UserFactory();
+    JdbcUserDataAccessObject dataAccessObject;
+
+    @BeforeEach
+    void init() throws SQLException {
+        try {
+            DriverManager.getDriver("jdbc:h2:mem:");
+        } catch (SQLException e) {
+            assumeTrue(false, "H2 driver is not on the classpath");
+        }
+        url = "jdbc:h2:" + tempDir.resolve("users").toAbsolutePath();
+        dataAccessObject = new JdbcUserDataAccessObject(url, userFactory);
+        User user = userFactory.create(new HashMap<>());
+        user.addRestriction("minCarbs", 10F);
+        user.addItem(new FoodItem("apple", 2023, 10, 10, 1.0f));
+        dataAccessObject.save(0, user);
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        if (dataAccessObject != null) {
+            dataAccessObject.close();
+        }
+    }
+
+    private List<String> names(List<FoodItem> items) {
+        List<String> res = new ArrayList<>();
+        for (FoodItem item : items) {
+            res.add(item.getName() + ":" + item.getExpirationDate() + ":" + item.getAmount());
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    private JdbcUserDataAccessObject reopen() throws SQLException {
+        dataAccessObject.close();
+        dataAccessObject = new JdbcUserDataAccessObject(url, userFactory);
+        return dataAccessObject;
+    }
+
+    @Test
+    void testSaveAndGet() throws SQLException {
+        JdbcUserDataAccessObject reopened = reopen();
+        assertTrue(reopened.existsByUserId(0));
+        assertFalse(reopened.existsByUserId(1));
+        assertEquals(10F, reopened.retrievePreferences(0).getRestriction("minCarbs"));
+        assertEquals(Arrays.asList("apple:2023/10/10:1.0"), names(reopened.getInventory(0)));
+    }
+
+    @Test
+    void testChanges() throws SQLException {
+        FoodItem milk = new FoodItem("milk", 2023, 10, 5, 2.0f);
+        dataAccessObject.addItem(0, milk);
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 10, 5, 2.0f));
+        assertTrue(dataAccessObject.removeSpecificItem(0, milk));
+        assertEquals("milk", dataAccessObject.getQueue(0).peek().getName());
+        dataAccessObject.removeItem(0);
+
+        JdbcUserDataAccessObject reopened = reopen();
+        assertEquals(Arrays.asList("apple:2023/10/10:1.0"), names(reopened.getInventory(0)));
+    }
+
+    @Test
+    void testAddItems() throws SQLException {
+        dataAccessObject.addItems(0, Arrays.asList(new FoodItem("milk", 2023, 10, 5, 2.0f),
+                new FoodItem("pear", 2023, 11, 1, 3.0f)));
+        assertEquals(3, dataAccessObject.getInventory(0).size());
+
+        JdbcUserDataAccessObject reopened = reopen();
+        assertEquals(Arrays.asList("apple:2023/10/10:1.0", "milk:2023/10/5:2.0", "pear:2023/11/1:3.0"),
+                names(reopened.getInventory(0)));
+    }
+
+    @Test
+    void testForEachItem() throws SQLException, IOException {
+        User user = userFactory.create(new HashMap<>());
+        user.addItem(new FoodItem("pear", 2023, 11, 1, 3.0f));
+        dataAccessObject.save(4, user);
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 9, 5, 2.0f));
+
+        List<String> visited = new ArrayList<>();
+        reopen().forEachItem((userId, item) -> visited.add(userId + ":" + item.getName() + ":" +
+                item.getExpirationDate()));
+        assertEquals(Arrays.asList("0:milk:2023/9/5", "0:apple:2023/10/10", "4:pear:2023/11/1"), visited);
+    }
+
+    @Test
+    void testSaveReplacesUser() throws SQLException {
+        User user = dataAccessObject.get(0);
+        user.addRestriction("maxCarbs", 100F);
+        user.addItem(new FoodItem("pear", 2023, 11, 1, 3.0f));
+        dataAccessObject.save(0, user);
+
+        JdbcUserDataAccessObject reopened = reopen();
+        assertEquals(100F, reopened.retrievePreferences(0).getRestriction("maxCarbs"));
+        assertEquals(2, reopened.getInventory(0).size());
+    }
+
+    @Test
+    void testMigration() throws IOException, SQLException {
+        File csv = tempDir.resolve("users.csv").toFile();
+        Files.write(csv.toPath(), ("inventory,dietaryRestrictions,userId\n" +
+                "milk:2023:10:12:2.0/bread:2023:10:15:1.0,maxCarbs:100.0,3\n" +
+                ",,4\n").getBytes());
+        dataAccessObject.close();
+
+        JdbcUserMigration.migrate(csv, url);
+
+        dataAccessObject = new JdbcUserDataAccessObject(url, userFactory);
+        assertTrue(dataAccessObject.existsByUserId(0));
+        assertEquals(2, dataAccessObject.getInventory(3).size());
+        assertEquals(100F, dataAccessObject.retrievePreferences(3).getRestriction("maxCarbs"));
+        assertTrue(dataAccessObject.getInventory(4).isEmpty());
+    }
+
+}
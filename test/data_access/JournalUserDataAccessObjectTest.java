@@ -0,0 +1,246 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalUserDataAccessObjectTest {
+
+    @TempDir
+    Path tempDir;
+
+    String csvPath;
+    UserFactory userFactory = new UserFactory();
+
+    @BeforeEach
+    void init() throws IOException {
+        csvPath = tempDir.resolve("users.csv").toString();
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        User user = userFactory.create(new HashMap<>());
+        user.addRestriction("minCarbs", 10F);
+        dataAccessObject.save(0, user);
+    }
+
+    private List<String> names(List<FoodItem> items) {
+        List<String> res = new ArrayList<>();
+        for (FoodItem item : items) {
+            res.add(item.getName() + ":" + item.getAmount());
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    private int journalEntries(String name) throws IOException {
+        // the first line holds the checksum of the snapshot
+        return Files.readAllLines(tempDir.resolve(name)).size() - 1;
+    }
+
+    @Test
+    void testReplay() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        FoodItem apple = new FoodItem("apple", 2023, 10, 10, 1.0f);
+        dataAccessObject.addItem(0, apple);
+        dataAccessObject.addItem(0, new FoodItem("potato", 2023, 10, 11, 5.0f));
+        dataAccessObject.addItem(0, new FoodItem("cucumber", 2023, 10, 12, 10.0f));
+        dataAccessObject.removeSpecificItem(0, apple);
+        apple.setAmount(0.5f);
+        dataAccessObject.addItem(0, apple);
+        dataAccessObject.removeItem(0);
+
+        // the snapshot still only has the user that was saved
+        assertEquals(1, Files.readAllLines(new File(csvPath).toPath()).size() - 1);
+        assertTrue(Files.readAllLines(new File(csvPath).toPath()).get(1).startsWith(","));
+
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertEquals(names(dataAccessObject.getInventory(0)), names(reloaded.getInventory(0)));
+        assertEquals(Arrays.asList("cucumber:10.0", "potato:5.0"), names(reloaded.getInventory(0)));
+        assertEquals(10F, reloaded.retrievePreferences(0).getRestriction("minCarbs"));
+    }
+
+    @Test
+    void testAddItems() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        dataAccessObject.addItems(0, Arrays.asList(new FoodItem("apple", 2023, 10, 10, 1.0f),
+                new FoodItem("potato", 2023, 10, 11, 5.0f)));
+
+        assertEquals(2, journalEntries("users.csv.journal"));
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertEquals(Arrays.asList("apple:1.0", "potato:5.0"), names(reloaded.getInventory(0)));
+    }
+
+    @Test
+    void testWriteBehind() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        dataAccessObject.enableWriteBehind(60 * 60 * 1000);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        dataAccessObject.save(1, userFactory.create(new HashMap<>()));
+
+        // the new user is only in memory until the next flush
+        assertFalse(new JournalUserDataAccessObject(csvPath, userFactory).existsByUserId(1));
+        assertEquals(1, journalEntries("users.csv.journal"));
+
+        dataAccessObject.flush();
+        assertEquals(0, journalEntries("users.csv.journal"));
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertTrue(reloaded.existsByUserId(1));
+        assertEquals(Arrays.asList("apple:1.0"), names(reloaded.getInventory(0)));
+        dataAccessObject.close();
+    }
+
+    @Test
+    void testSnapshot() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory, 2);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        dataAccessObject.addItem(0, new FoodItem("potato", 2023, 10, 11, 5.0f));
+        dataAccessObject.addItem(0, new FoodItem("cucumber", 2023, 10, 12, 10.0f));
+
+        assertEquals(1, journalEntries("users.csv.journal"));
+
+        FileUserDataAccessObject snapshot = new FileUserDataAccessObject(csvPath, userFactory);
+        assertEquals(Arrays.asList("apple:1.0", "potato:5.0"), names(snapshot.getInventory(0)));
+
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory, 2);
+        assertEquals(Arrays.asList("apple:1.0", "cucumber:10.0", "potato:5.0"), names(reloaded.getInventory(0)));
+    }
+
+    @Test
+    void testReplayRemovesOneOfEqualItems() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        FoodItem first = new FoodItem("apple", 2023, 10, 10, 1.0f);
+        dataAccessObject.addItem(0, first);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 10, 5, 2.0f));
+        dataAccessObject.removeSpecificItem(0, first);
+        dataAccessObject.removeItem(0);
+
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertEquals(Arrays.asList("apple:1.0"), names(reloaded.getInventory(0)));
+    }
+
+    @Test
+    void testCutOffRecordIsRemoved() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        Files.write(tempDir.resolve("users.csv.journal"), "A,0,potato:20".getBytes(),
+                java.nio.file.StandardOpenOption.APPEND);
+
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        reloaded.addItem(0, new FoodItem("milk", 2023, 10, 5, 2.0f));
+        assertEquals(2, journalEntries("users.csv.journal"));
+
+        // the change made after the crash is not lost behind the cut off record
+        JournalUserDataAccessObject restarted = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertEquals(Arrays.asList("apple:1.0", "milk:2.0"), names(restarted.getInventory(0)));
+    }
+
+    @Test
+    void testCrashBeforeJournalIsCleared() throws IOException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        Path journal = tempDir.resolve("users.csv.journal");
+        byte[] oldJournal = Files.readAllBytes(journal);
+        byte[] oldSnapshot = Files.readAllBytes(Path.of(csvPath));
+        dataAccessObject.snapshot();
+
+        // the snapshot was renamed into place, but the journal was not cleared yet
+        Files.write(journal, oldJournal);
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertEquals(Arrays.asList("apple:1.0"), names(reloaded.getInventory(0)));
+        assertEquals(0, journalEntries("users.csv.journal"));
+
+        // the snapshot was not renamed into place either
+        Files.write(journal, oldJournal);
+        Files.write(Path.of(csvPath), oldSnapshot);
+        reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        assertEquals(Arrays.asList("apple:1.0"), names(reloaded.getInventory(0)));
+    }
+
+    @Test
+    void testBinarySnapshot() throws IOException {
+        String binPath = tempDir.resolve("users.bin").toString();
+        UserFileConverter.convert(new File(csvPath), new CsvUserFileFormat(), new File(binPath),
+                new BinaryUserFileFormat());
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(binPath, userFactory, 3);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        dataAccessObject.addItem(0, new FoodItem("potato", 2023, 10, 11, 5.0f));
+        dataAccessObject.addItem(0, new FoodItem("cucumber", 2023, 10, 12, 10.0f));
+        dataAccessObject.addItem(0, new FoodItem("milk", 2023, 10, 5, 2.0f));
+
+        assertEquals(1, journalEntries("users.bin.journal"));
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(binPath, userFactory, 3);
+        assertEquals(Arrays.asList("apple:1.0", "cucumber:10.0", "milk:2.0", "potato:5.0"),
+                names(reloaded.getInventory(0)));
+        assertEquals(10F, reloaded.retrievePreferences(0).getRestriction("minCarbs"));
+    }
+
+    /**
+     * Every thread adds two items per user and removes one of them again, while another thread reads
+     */
+    private void runConcurrentChanges(FileUserDataAccessObject dataAccessObject, int threads, int users)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean done = new AtomicBoolean(false);
+        List<Future<?>> results = new ArrayList<>();
+        results.add(executor.submit(() -> {
+            while (!done.get()) {
+                for (int userId = 0; userId < users; userId++) {
+                    dataAccessObject.getInventory(userId);
+                }
+            }
+        }));
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int userId = 0; userId < users; userId++) {
+                    FoodItem kept = new FoodItem("kept" + thread, 2023, 10, 10, 1.0f);
+                    FoodItem removed = new FoodItem("removed" + thread, 2023, 10, 11, 1.0f);
+                    dataAccessObject.addItem(userId, kept);
+                    dataAccessObject.addItem(userId, removed);
+                    assertTrue(dataAccessObject.removeSpecificItem(userId, removed));
+                }
+            }));
+        }
+        try {
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            fail(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentChanges() throws IOException, InterruptedException {
+        JournalUserDataAccessObject dataAccessObject = new JournalUserDataAccessObject(csvPath, userFactory, 50);
+        for (int userId = 0; userId < 16; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        runConcurrentChanges(dataAccessObject, 8, 16);
+
+        JournalUserDataAccessObject reloaded = new JournalUserDataAccessObject(csvPath, userFactory);
+        for (int userId = 0; userId < 16; userId++) {
+            assertEquals(8, dataAccessObject.getInventory(userId).size());
+            assertEquals(8, reloaded.getInventory(userId).size());
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Map<Long, String> contents(LogStructuredStore store) throws IOException {
+        Map<Long, String> res = new LinkedHashMap<>();
+        store.forEach(res::put);
+        return res;
+    }
+
+    private void waitForCompaction(LogStructuredStore store) throws InterruptedException {
+        for (int i = 0; i < 500 && store.isCompacting(); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(store.isCompacting());
+        // segments flushed while the last compaction ran stay until there are enough for the next one
+        store.compact();
+    }
+
+    @Test
+    void testKeys() {
+        long key = LogStructuredStore.key(-3, 7);
+        assertEquals(-3, LogStructuredStore.userId(key));
+        assertEquals(7, LogStructuredStore.id(key));
+        assertTrue(LogStructuredStore.key(1, 0) < LogStructuredStore.key(1, 1));
+        assertTrue(LogStructuredStore.key(1, Integer.MAX_VALUE) < LogStructuredStore.key(2, 0));
+    }
+
+    @Test
+    void testPutDeleteReopen() throws IOException {
+        LogStructuredStore store = new LogStructuredStore(tempDir.toString(), 3, 10);
+        store.put(5, "a");
+        store.put(2, "b");
+        store.put(9, "c");
+        store.put(5, "d");
+        store.delete(9);
+        assertEquals(Map.of(2L, "b", 5L, "d"), contents(store));
+        assertEquals(1, store.segmentCount());
+        store.close();
+
+        LogStructuredStore reopened = new LogStructuredStore(tempDir.toString(), 3, 10);
+        assertEquals(Arrays.asList(2L, 5L), new ArrayList<>(contents(reopened).keySet()));
+        assertEquals("d", contents(reopened).get(5L));
+        reopened.close();
+    }
+
+    @Test
+    void testCompaction() throws IOException, InterruptedException {
+        LogStructuredStore store = new LogStructuredStore(tempDir.toString(), 10, 3);
+        for (int i = 0; i < 100; i++) {
+            store.put(i % 25, "value" + i);
+            if (i % 2 == 0) {
+                store.delete(i % 25 + 100);
+            }
+        }
+        store.delete(3);
+        store.flush();
+        waitForCompaction(store);
+        assertEquals(1, store.segmentCount());
+
+        Map<Long, String> expected = new TreeMap<>();
+        for (int i = 75; i < 100; i++) {
+            expected.put((long) (i % 25), "value" + i);
+        }
+        expected.remove(3L);
+        assertEquals(expected, contents(store));
+        store.close();
+
+        assertEquals(1, tempDir.toFile().list((dir, name) -> name.endsWith(".seg")).length);
+        assertEquals(expected, contents(new LogStructuredStore(tempDir.toString(), 10, 3)));
+    }
+
+    @Test
+    void testMergedSegmentsAreIgnored() throws IOException, InterruptedException {
+        LogStructuredStore store = new LogStructuredStore(tempDir.toString(), 1, 100);
+        store.put(1, "a");
+        store.delete(1);
+        Path oldSegment = tempDir.resolve("segment-1.seg");
+        byte[] oldContents = Files.readAllBytes(oldSegment);
+        store.compact();
+        store.close();
+
+        // as if the program stopped before the merged segment was deleted
+        Files.write(oldSegment, oldContents);
+        LogStructuredStore reopened = new LogStructuredStore(tempDir.toString(), 1, 100);
+        assertTrue(contents(reopened).isEmpty());
+        assertFalse(oldSegment.toFile().exists());
+        reopened.close();
+    }
+
+    @Test
+    void testCompactionWritesNewSegment() throws IOException {
+        LogStructuredStore store = new LogStructuredStore(tempDir.toString(), 1, 100);
+        store.put(1, "a");
+        store.put(2, "b");
+        store.delete(1);
+        store.compact();
+
+        // the inputs are replaced, not overwritten
+        String[] segments = tempDir.toFile().list((dir, name) -> name.endsWith(".seg"));
+        assertArrayEquals(new String[] {"segment-4.seg"}, segments);
+        assertEquals(Map.of(2L, "b"), contents(store));
+        store.close();
+    }
+
+    @Test
+    void testPartialBatchIsIgnored() throws IOException {
+        LogStructuredStore store = new LogStructuredStore(tempDir.toString(), 100, 10);
+        store.put(1, "a");
+        Map<Long, String> changes = new LinkedHashMap<>();
+        changes.put(1L, null);
+        changes.put(2L, "b");
+        store.writeAll(changes);
+        assertEquals(Map.of(2L, "b"), contents(store));
+        store.close();
+
+        LogStructuredStore reopened = new LogStructuredStore(tempDir.toString(), 100, 10);
+        assertEquals(Map.of(2L, "b"), contents(reopened));
+        reopened.close();
+
+        // a batch that was cut off is not applied at all
+        store = new LogStructuredStore(tempDir.toString(), 100, 10);
+        store.put(3, "c");
+        changes.clear();
+        changes.put(2L, null);
+        changes.put(4L, "d");
+        store.writeAll(changes);
+        store.close();
+        File log = tempDir.resolve("log").toFile();
+        byte[] bytes = Files.readAllBytes(log.toPath());
+        Files.write(log.toPath(), Arrays.copyOf(bytes, bytes.length - 2));
+        reopened = new LogStructuredStore(tempDir.toString(), 100, 10);
+        assertEquals(Map.of(2L, "b", 3L, "c"), contents(reopened));
+        reopened.close();
+    }
+
+    @Test
+    void testPartialLogRecord() throws IOException {
+        LogStructuredStore store = new LogStructuredStore(tempDir.toString(), 100, 10);
+        store.put(1, "a");
+        store.put(2, "b");
+        store.close();
+
+        File log = tempDir.resolve("log").toFile();
+        try (FileOutputStream out = new FileOutputStream(log, true)) {
+            out.write(new byte[] {1, 0, 0});
+        }
+        LogStructuredStore reopened = new LogStructuredStore(tempDir.toString(), 100, 10);
+        assertEquals(Map.of(1L, "a", 2L, "b"), contents(reopened));
+        reopened.close();
+    }
+
+}
@@ -0,0 +1,79 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LsmUserDataAccessObjectTest {
+
+    @TempDir
+    Path tempDir;
+
+    UserFactory userFactory = new UserFactory();
+
+    private LsmUserDataAccessObject open() throws IOException {
+        return new LsmUserDataAccessObject(tempDir.toString(), userFactory, 5, 2);
+    }
+
+    private List<String> names(List<FoodItem> items) {
+        List<String> res = new ArrayList<>();
+        for (FoodItem item : items) {
+            res.add(item.getName() + ":" + item.getAmount());
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    @Test
+    void testChangesAreKept() throws IOException {
+        LsmUserDataAccessObject dataAccessObject = open();
+        User user = userFactory.create(new HashMap<>());
+        user.addRestriction("minCarbs", 10F);
+        dataAccessObject.save(4, user);
+        dataAccessObject.save(9, userFactory.create(new HashMap<>()));
+
+        FoodItem milk = new FoodItem("milk", 2023, 10, 5, 2.0f);
+        for (int i = 0; i < 10; i++) {
+            dataAccessObject.addItem(4, new FoodItem("apple", 2023, 10, 10 + i, i));
+        }
+        dataAccessObject.addItem(4, milk);
+        dataAccessObject.addItem(9, new FoodItem("pear", 2023, 10, 10, 1.0f));
+        assertTrue(dataAccessObject.removeSpecificItem(4, milk));
+        dataAccessObject.removeItem(4);
+        dataAccessObject.close();
+
+        LsmUserDataAccessObject reopened = open();
+        assertEquals(names(dataAccessObject.getInventory(4)), names(reopened.getInventory(4)));
+        assertEquals(9, reopened.getInventory(4).size());
+        assertEquals(Arrays.asList("pear:1.0"), names(reopened.getInventory(9)));
+        assertEquals(10F, reopened.retrievePreferences(4).getRestriction("minCarbs"));
+        reopened.close();
+    }
+
+    @Test
+    void testSaveReplacesUser() throws IOException {
+        LsmUserDataAccessObject dataAccessObject = open();
+        dataAccessObject.save(1, userFactory.create(new HashMap<>()));
+        dataAccessObject.addItem(1, new FoodItem("apple", 2023, 10, 10, 1.0f));
+
+        User user = userFactory.create(new HashMap<>());
+        user.addRestriction("maxCarbs", 50F);
+        user.addItem(new FoodItem("bread", 2023, 10, 12, 1.0f));
+        dataAccessObject.save(1, user);
+        dataAccessObject.removeItem(1);
+        dataAccessObject.addItem(1, new FoodItem("rice", 2023, 10, 12, 3.0f));
+        dataAccessObject.close();
+
+        LsmUserDataAccessObject reopened = open();
+        assertEquals(Arrays.asList("rice:3.0"), names(reopened.getInventory(1)));
+        assertEquals(50F, reopened.retrievePreferences(1).getRestriction("maxCarbs"));
+        reopened.close();
+    }
+
+}
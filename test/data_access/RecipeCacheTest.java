@@ -0,0 +1,111 @@
+package data_access;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeCacheTest {
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @TempDir
+    File directory;
+
+    private RecipeCache newCache(int maxEntries) {
+        return new RecipeCache(directory.getPath(), maxEntries);
+    }
+
+    private static JSONObject response(int id) {
+        return new JSONObject().put("id", id).put("title", "Recipe\n" + id);
+    }
+
+    @Test
+    void testMemoryHit() {
+        RecipeCache cache = newCache(10);
+        assertNull(cache.get("a", HOUR));
+        cache.put("a", response(1));
+
+        assertEquals(1, cache.get("a", HOUR).getInt("id"));
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(0, cache.getDiskHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void testDiskHitAfterRestart() {
+        newCache(10).put("a\nb", response(1));
+
+        RecipeCache cache = newCache(10);
+        assertEquals("Recipe\n1", cache.get("a\nb", HOUR).getString("title"));
+        assertEquals(1, cache.getDiskHits());
+        // it is kept in memory afterwards
+        cache.get("a\nb", HOUR);
+        assertEquals(1, cache.getMemoryHits());
+    }
+
+    @Test
+    void testExpired() throws InterruptedException {
+        RecipeCache cache = newCache(10);
+        cache.put("a", response(1));
+        Thread.sleep(20);
+
+        assertNull(cache.get("a", 10));
+        assertNotNull(cache.get("a", HOUR));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testOldFilesArePruned() {
+        RecipeCache cache = new RecipeCache(directory.getPath(), 10, HOUR);
+        cache.put("a", response(1));
+        cache.put("b", response(2));
+        File[] files = directory.listFiles();
+        assertEquals(2, files.length);
+        files[0].setLastModified(System.currentTimeMillis() - 2 * HOUR);
+
+        // a new cache deletes them
+        RecipeCache restarted = new RecipeCache(directory.getPath(), 10, HOUR);
+        assertEquals(1, directory.listFiles().length);
+
+        directory.listFiles()[0].setLastModified(System.currentTimeMillis() - 2 * HOUR);
+        assertEquals(1, restarted.prune());
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    void testLeastRecentlyUsedLeavesMemory() {
+        RecipeCache cache = newCache(2);
+        cache.put("a", response(1));
+        cache.put("b", response(2));
+        cache.get("a", HOUR);
+        cache.put("c", response(3));
+
+        assertNotNull(cache.get("a", HOUR));
+        assertNotNull(cache.get("c", HOUR));
+        assertEquals(3, cache.getMemoryHits());
+        // b is still on disk
+        assertEquals(2, cache.get("b", HOUR).getInt("id"));
+        assertEquals(1, cache.getDiskHits());
+    }
+
+    @Test
+    void testSearchKeyIgnoresOrder() {
+        Map<String, Float> macros = new HashMap<>();
+        macros.put("minCarbs", 1f);
+        macros.put("maxCarbs", 2f);
+        Map<String, Float> sameMacros = new LinkedHashMap<>();
+        sameMacros.put("maxCarbs", 2f);
+        sameMacros.put("minCarbs", 1f);
+
+        String key = CachingRecipeGetter.searchKey(Arrays.asList("apple,egg,", "nuts,", "Vegan|Ketogenic|", macros));
+        assertEquals(key, CachingRecipeGetter.searchKey(
+                Arrays.asList("egg,apple,", "nuts,", "Ketogenic|Vegan|", sameMacros)));
+        assertNotEquals(key, CachingRecipeGetter.searchKey(
+                Arrays.asList("egg,", "apple,nuts,", "Ketogenic|Vegan|", sameMacros)));
+    }
+}
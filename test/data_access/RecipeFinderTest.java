@@ -0,0 +1,182 @@
+package data_access;
+
+import com.sun.net.httpserver.HttpServer;
+import entities.DietaryPreferences;
+import entities.Recipe;
+import entities.UserDietaryPreferences;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeFinderTest {
+    private static final long DELAY_MILLIS = 300;
+
+    private HttpServer server;
+
+    private ApiClient client;
+
+    private ExecutorService executor;
+
+    private volatile long slowDelayMillis = DELAY_MILLIS;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private void respond(String path, String body, boolean slow) {
+        server.createContext(path, exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(slow ? slowDelayMillis : DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    @BeforeEach
+    void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        // the details are only used by the SINGLE_REQUEST retrieval
+        respond("/recipes/complexSearch", "{\"results\":[{\"id\":1,\"title\":\"Apple pie\"}," +
+                "{\"id\":2,\"title\":\"Apple sauce\",\"servings\":2," +
+                "\"analyzedInstructions\":[{\"name\":\"\",\"steps\":[{\"number\":1,\"step\":\"Step 2\"}]}]," +
+                "\"nutrition\":{\"nutrients\":[{\"name\":\"Calories\",\"amount\":200}]," +
+                "\"ingredients\":[{\"name\":\"apple\",\"amount\":1.5,\"unit\":\"g\"}]}}]}", false);
+        for (int id = 1; id <= 2; id++) {
+            respond("/recipes/" + id + "/ingredientWidget.json",
+                    "{\"ingredients\":[{\"name\":\"apple\",\"amount\":{\"metric\":{\"value\":" + id + "}}}]}", false);
+            respond("/recipes/" + id + "/nutritionWidget.json",
+                    "{\"nutrients\":[{\"name\":\"Calories\",\"amount\":" + 100 * id + "}]}", id == 2);
+            respond("/recipes/" + id + "/analyzedInstructions",
+                    "[{\"steps\":[{\"step\":\"Step " + id + "\"}]}]", false);
+        }
+        // standardizes "2 eggs" to "eggs"
+        server.createContext("/recipes/parseIngredients", exchange -> {
+            requests.incrementAndGet();
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String list = URLDecoder.decode(form.substring(form.indexOf('=') + 1), StandardCharsets.UTF_8);
+            StringBuilder body = new StringBuilder("[");
+            for (String line : list.split("\n")) {
+                body.append(body.length() > 1 ? "," : "").append("{\"name\":\"")
+                        .append(line.substring(line.indexOf(' ') + 1)).append("\"}");
+            }
+            byte[] bytes = body.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        client = new ApiClient("http://localhost:" + server.getAddress().getPort(), 8, 60000, 1000, 2000, 2000,
+                false);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        client.close();
+        server.stop(0);
+    }
+
+    private List<Recipe> findRecipes(RecipeFinder.Retrieval retrieval) {
+        DietaryPreferences preferences = new UserDietaryPreferences(new HashMap<>());
+        return new RecipeFinder(client, executor, retrieval).findRecipes(new ArrayList<>(), preferences);
+    }
+
+    private List<Recipe> findRecipes() {
+        return findRecipes(RecipeFinder.Retrieval.DETAIL_CALLS);
+    }
+
+    @Test
+    void testDetailsAreFetchedAtOnce() {
+        long start = System.currentTimeMillis();
+        List<Recipe> recipes = findRecipes();
+        long millis = System.currentTimeMillis() - start;
+
+        assertEquals(2, recipes.size());
+        assertEquals("Apple pie", recipes.get(0).getName());
+        assertEquals("Apple sauce", recipes.get(1).getName());
+        assertEquals(2.0f, recipes.get(1).getIngredients().get(0).getAmount());
+        assertEquals(200.0f, recipes.get(1).getMacros().get("Calories"));
+        assertEquals("Step 2", recipes.get(1).getInstructions().get(0));
+        // one after the other the search and the six detail calls would take 7 delays
+        assertTrue(millis < 5 * DELAY_MILLIS, "took " + millis + " ms");
+    }
+
+    @Test
+    void testSingleRequest() {
+        List<Recipe> recipes = findRecipes(RecipeFinder.Retrieval.SINGLE_REQUEST);
+
+        assertEquals(1, requests.get());
+        assertEquals(2, recipes.size());
+        assertEquals("Apple pie", recipes.get(0).getName());
+        assertTrue(recipes.get(0).getInstructions().isEmpty());
+        assertEquals("Apple sauce", recipes.get(1).getName());
+        assertEquals(3.0f, recipes.get(1).getIngredients().get(0).getAmount());
+        assertEquals(200.0f, recipes.get(1).getMacros().get("Calories"));
+        assertEquals("Step 2", recipes.get(1).getInstructions().get(0));
+    }
+
+    @Test
+    void testCachedDetails(@TempDir File directory) {
+        RecipeCache cache = new RecipeCache(directory.getPath(), 100);
+        RecipeFinder finder = new RecipeFinder(client, new CachingRecipeGetter(client, cache), executor,
+                RecipeFinder.Retrieval.DETAIL_CALLS);
+        DietaryPreferences preferences = new UserDietaryPreferences(new HashMap<>());
+        finder.findRecipes(new ArrayList<>(), preferences);
+        assertEquals(7, requests.get());
+
+        List<Recipe> recipes = finder.findRecipes(new ArrayList<>(), preferences);
+        assertEquals(7, requests.get());
+        assertEquals(2, recipes.size());
+        assertEquals("Step 2", recipes.get(1).getInstructions().get(0));
+        assertEquals(7, cache.getMemoryHits());
+    }
+
+    @Test
+    void testOnlyUnseenNamesAreStandardized(@TempDir File directory) {
+        String path = new File(directory, "food-names.txt").getPath();
+        RecipeFinder finder = new RecipeFinder(client, new RecipeGetter(client), new FoodNameCache(path), executor,
+                RecipeFinder.Retrieval.SINGLE_REQUEST);
+        assertEquals(Arrays.asList("eggs", "milk", "eggs"),
+                finder.standardizeNames(Arrays.asList("2 eggs", "1 milk", "2 eggs")));
+        assertEquals(Arrays.asList("flour", "eggs"), finder.standardizeNames(Arrays.asList("3 flour", "2 eggs")));
+        assertEquals(2, requests.get());
+
+        // a new finder reads the names from the file
+        finder = new RecipeFinder(client, new RecipeGetter(client), new FoodNameCache(path), executor,
+                RecipeFinder.Retrieval.SINGLE_REQUEST);
+        assertEquals(Arrays.asList("milk", "flour"), finder.standardizeNames(Arrays.asList("1 milk", "3 flour")));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testCallTimeout() {
+        slowDelayMillis = 5000;
+        assertThrows(RuntimeException.class, this::findRecipes);
+    }
+}
@@ -1,6 +1,7 @@
 package data_access;
 
 import entities.FoodItem;
+import entities.Recipe;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
@@ -265,4 +266,73 @@ class RecipeParserTest {
 
         assertTrue(listOfFoodItemsEqual(expectedIngredients, new RecipeParser().parseIngredients(testCallResult)));
     }
-}
\ No newline at end of file
+
+    // Sample result of a search with addRecipeInformation, addRecipeNutrition and instructionsRequired
+    // (shortened for convenience)
+    // {
+    //  "results": [
+    //    {
+    //      "id": 716429,
+    //      "title": "Pasta with Garlic, Scallions, Cauliflower & Breadcrumbs",
+    //      "servings": 2,
+    //      "extendedIngredients": [
+    //        {"name": "butter", "measures": {"metric": {"amount": 14.0, "unitShort": "g"}, ...}, ...},
+    //        ...
+    //      ],
+    //      "nutrition": {"nutrients": [{"name": "Calories", "amount": 584.46, "unit": "kcal"}, ...], ...},
+    //      "analyzedInstructions": [{"name": "", "steps": [{"number": 1, "step": "Cook the pasta."}, ...]}]
+    //    }
+    //  ]
+    // }
+    @Test
+    void parseRecipes() {
+        JSONObject recipe = new JSONObject().put("id", 716429)
+                .put("title", "Pasta with Garlic, Scallions, Cauliflower & Breadcrumbs")
+                .put("servings", 2);
+        JSONArray extendedIngredients = new JSONArray();
+        extendedIngredients.put(new JSONObject().put("name", "butter")
+                .put("measures", new JSONObject().put("metric", new JSONObject().put("amount", 14.0)
+                        .put("unitShort", "g"))));
+        extendedIngredients.put(new JSONObject().put("name", "cauliflower florets")
+                .put("measures", new JSONObject().put("metric", new JSONObject().put("amount", 473.0)
+                        .put("unitShort", "ml"))));
+        recipe.put("extendedIngredients", extendedIngredients);
+        recipe.put("nutrition", new JSONObject().put("nutrients", new JSONArray()
+                .put(new JSONObject().put("name", "Calories").put("amount", 584.46).put("unit", "kcal"))
+                .put(new JSONObject().put("name", "Fat").put("amount", 19.83).put("unit", "g"))));
+        recipe.put("analyzedInstructions", new JSONArray().put(new JSONObject().put("name", "")
+                .put("steps", new JSONArray().put(new JSONObject().put("number", 1).put("step", "Cook the pasta.")))));
+        JSONObject callResult = new JSONObject().put("results", new JSONArray().put(recipe));
+
+        List<Recipe> recipes = new RecipeParser().parseRecipes(callResult);
+
+        assertEquals(1, recipes.size());
+        assertEquals("Pasta with Garlic, Scallions, Cauliflower & Breadcrumbs", recipes.get(0).getName());
+        List<FoodItem> expectedIngredients = new ArrayList<>();
+        expectedIngredients.add(new FoodItem("butter", 14.0f));
+        expectedIngredients.add(new FoodItem("cauliflower florets", 473.0f));
+        assertEquals(2, recipes.get(0).getIngredients().size());
+        assertTrue(listOfFoodItemsEqual(expectedIngredients, recipes.get(0).getIngredients()));
+        assertEquals(Map.of("Calories", 584.46f), recipes.get(0).getMacros());
+        assertEquals(List.of("Cook the pasta."), recipes.get(0).getInstructions());
+    }
+
+    @Test
+    void parseRecipesWithoutExtendedIngredients() {
+        JSONObject recipe = new JSONObject().put("id", 1).put("title", "Pancakes").put("servings", 2);
+        recipe.put("nutrition", new JSONObject().put("nutrients", new JSONArray())
+                .put("ingredients", new JSONArray()
+                        .put(new JSONObject().put("name", "flour").put("amount", 60.0).put("unit", "g"))
+                        .put(new JSONObject().put("name", "milk").put("amount", 0.1).put("unit", "l"))
+                        .put(new JSONObject().put("name", "eggs").put("amount", 1.0).put("unit", ""))
+                        .put(new JSONObject().put("name", "sugar").put("amount", 1.0).put("unit", "tbsp"))));
+        JSONObject callResult = new JSONObject().put("results", new JSONArray().put(recipe));
+
+        List<FoodItem> expectedIngredients = new ArrayList<>();
+        expectedIngredients.add(new FoodItem("flour", 120.0f));
+        expectedIngredients.add(new FoodItem("milk", 200.0f));
+        List<FoodItem> ingredients = new RecipeParser().parseRecipes(callResult).get(0).getIngredients();
+        assertEquals(2, ingredients.size());
+        assertTrue(listOfFoodItemsEqual(expectedIngredients, ingredients));
+    }
+}
@@ -0,0 +1,243 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+
+    @TempDir
+    Path tempDir;
+
+    UserFactory userFactory = new UserFactory();
+
+    List<AutoCloseable> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable closeable : opened) {
+            closeable.close();
+        }
+    }
+
+    private LeaderUserDataAccessObject createLeader(int logCapacity) throws IOException {
+        LeaderUserDataAccessObject leader = new LeaderUserDataAccessObject(tempDir.resolve("users.csv").toString(),
+                userFactory, 0, logCapacity);
+        opened.add(leader);
+        return leader;
+    }
+
+    private FollowerUserDataAccessObject createFollower(int port) {
+        FollowerUserDataAccessObject follower = new FollowerUserDataAccessObject("localhost", port, userFactory);
+        opened.add(follower);
+        return follower;
+    }
+
+    private List<String> items(List<FoodItem> inventory) {
+        List<String> res = new ArrayList<>();
+        for (FoodItem item : inventory) {
+            res.add(item.getName() + ":" + item.getExpirationDate() + ":" + item.getAmount());
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    @Test
+    void testFollowerAppliesChanges() throws Exception {
+        LeaderUserDataAccessObject leader = createLeader(ReplicationLog.DEFAULT_CAPACITY);
+        User user = userFactory.create(new HashMap<>());
+        user.addRestriction("maxCarbs", 50F);
+        leader.save(0, user);
+        leader.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+
+        FollowerUserDataAccessObject follower = createFollower(leader.getPort());
+        assertTrue(follower.awaitSequence(leader.getSequence(), 5000));
+        assertEquals(50F, follower.retrievePreferences(0).getRestriction("maxCarbs"));
+
+        FoodItem milk = new FoodItem("milk", 2023, 10, 5, 2.0f);
+        leader.addItem(0, milk);
+        leader.addItem(0, new FoodItem("pear", 2023, 10, 7, 3.0f));
+        leader.removeSpecificItem(0, milk);
+        leader.removeItem(0);
+        leader.save(1, userFactory.create(new HashMap<>()));
+        assertTrue(follower.awaitSequence(leader.getSequence(), 5000));
+
+        assertEquals(items(leader.getInventory(0)), items(follower.getInventory(0)));
+        assertTrue(follower.existsByUserId(1));
+        assertEquals(0, follower.getLagEntries());
+        assertEquals(1, leader.getFollowerCount());
+    }
+
+    @Test
+    void testFollowerBehindLogGetsSnapshot() throws Exception {
+        LeaderUserDataAccessObject leader = createLeader(4);
+        leader.save(0, userFactory.create(new HashMap<>()));
+        FollowerUserDataAccessObject follower = createFollower(leader.getPort());
+        assertTrue(follower.awaitSequence(leader.getSequence(), 5000));
+        follower.close();
+
+        for (int i = 0; i < 10; i++) {
+            leader.addItem(0, new FoodItem("apple", 2023, 10, 1 + i, 1.0f));
+        }
+        FollowerUserDataAccessObject other = createFollower(leader.getPort());
+        assertTrue(other.awaitSequence(leader.getSequence(), 5000));
+        assertEquals(10, other.getInventory(0).size());
+    }
+
+    @Test
+    void testFollowerIsReadOnly() {
+        FollowerUserDataAccessObject follower = createFollower(1);
+        assertThrows(UnsupportedOperationException.class,
+                () -> follower.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> follower.save(0, userFactory.create(new HashMap<>())));
+    }
+
+    @Test
+    void testResyncAfterChangeThatCannotBeApplied() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(5000);
+            FollowerUserDataAccessObject follower = createFollower(server.getLocalPort());
+
+            // a leader that sends a change the follower cannot parse
+            try (Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                in.readLong();
+                in.readLong();
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeByte(ReplicationLog.ADD);
+                out.writeLong(0);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(0);
+                byte[] payload = "not an item".getBytes(StandardCharsets.UTF_8);
+                out.writeInt(payload.length);
+                out.write(payload);
+                out.flush();
+
+                // the follower asks for a snapshot on the next connection
+                try (Socket retry = server.accept()) {
+                    DataInputStream retryIn = new DataInputStream(retry.getInputStream());
+                    assertEquals(0, retryIn.readLong());
+                    retryIn.readLong();
+                    Map<Integer, User> users = new HashMap<>();
+                    users.put(0, userFactory.create(new HashMap<>()));
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    new BinaryUserFileFormat().write(users, bytes);
+                    DataOutputStream retryOut = new DataOutputStream(retry.getOutputStream());
+                    retryOut.writeByte(ReplicationLog.SNAPSHOT);
+                    retryOut.writeLong(42);
+                    retryOut.writeLong(5);
+                    retryOut.writeLong(System.currentTimeMillis());
+                    retryOut.writeInt(bytes.size());
+                    retryOut.write(bytes.toByteArray());
+                    retryOut.flush();
+
+                    assertTrue(follower.awaitSequence(5, 5000));
+                    assertTrue(follower.existsByUserId(0));
+                    assertEquals(1, follower.getResyncs());
+                    assertNotNull(follower.getLastError());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testUnreachableLeaderIsCounted() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+        FollowerUserDataAccessObject follower = createFollower(port);
+        for (int i = 0; i < 250 && follower.getConnectionFailures() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(follower.getConnectionFailures() > 0);
+        assertTrue(follower.getLastError() instanceof IOException);
+        assertEquals(-1, follower.getAppliedSequence());
+    }
+
+    /**
+     * Leader in another jvm, reading commands like "add userId name amount" from stdin and printing the sequence
+     * of the change, or the port once it started
+     */
+    static class LeaderProcess {
+        public static void main(String[] args) throws IOException {
+            UserFactory userFactory = new UserFactory();
+            LeaderUserDataAccessObject leader = new LeaderUserDataAccessObject(args[0], userFactory, 0,
+                    ReplicationLog.DEFAULT_CAPACITY);
+            System.out.println(leader.getPort());
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] command = line.split(" ");
+                if (command[0].equals("save")) {
+                    leader.save(Integer.parseInt(command[1]), userFactory.create(new HashMap<>()));
+                } else if (command[0].equals("add")) {
+                    leader.addItem(Integer.parseInt(command[1]),
+                            new FoodItem(command[2], 2023, 10, 10, Float.parseFloat(command[3])));
+                } else if (command[0].equals("remove")) {
+                    leader.removeItem(Integer.parseInt(command[1]));
+                }
+                System.out.println(leader.getSequence());
+            }
+            leader.close();
+        }
+    }
+
+    private static String classPath() {
+        Set<String> entries = new LinkedHashSet<>(Arrays.asList(
+                System.getProperty("java.class.path").split(File.pathSeparator)));
+        for (ClassLoader loader = ReplicationTest.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    entries.add(new File(url.getPath()).getPath());
+                }
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    @Test
+    void testFollowerInOtherProcess() throws Exception {
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath(), LeaderProcess.class.getName(), tempDir.resolve("users.csv").toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            BufferedReader fromLeader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            PrintWriter toLeader = new PrintWriter(process.getOutputStream(), true);
+            FollowerUserDataAccessObject follower = createFollower(Integer.parseInt(fromLeader.readLine()));
+
+            toLeader.println("save 0");
+            fromLeader.readLine();
+            toLeader.println("add 0 milk 2.0");
+            fromLeader.readLine();
+            toLeader.println("add 0 eggs 12.0");
+            fromLeader.readLine();
+            toLeader.println("remove 0");
+            long sequence = Long.parseLong(fromLeader.readLine());
+
+            assertTrue(follower.awaitSequence(sequence, 10000));
+            assertEquals(1, follower.getInventory(0).size());
+            assertEquals(0, follower.getLagEntries());
+            assertTrue(follower.getApplyDelayMillis() >= 0);
+            assertTrue(follower.getMillisSinceLeaderContact() < 10000);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package data_access;
+
+import entities.UserFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * Measures the time from creating a data access object until it answers its first request, i.e. how long the
+ * app is unavailable after a restart. Stores of every size are written in the csv and binary format, with and
+ * without a journal of the changes made after the snapshot, like after a crash.
+ */
+public class RestartBenchmark {
+    public static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+
+    public static final int REPEATS = 3;
+
+    // the most changes a journal holds before JournalUserDataAccessObject takes a snapshot
+    public static final int TAIL_CHANGES = JournalUserDataAccessObject.DEFAULT_SNAPSHOT_INTERVAL - 1;
+
+    /**
+     * Opens a store the way the app does on startup
+     */
+    interface Store {
+        UserDataAccessInterface open() throws IOException;
+    }
+
+    /**
+     * Write a journal of changes made after the snapshot, every fourth change removes the item added before it
+     * @param snapshot  the snapshot, the journal is written next to it
+     * @param changes   number of changes
+     * @param users number of users in the snapshot
+     * @throws IOException  if the journal cannot be written
+     */
+    static void writeTail(File snapshot, int changes, int users) throws IOException {
+        InventoryJournal journal = new InventoryJournal(snapshot.getPath() + ".journal");
+        journal.clear(InventoryJournal.checksum(snapshot));
+        for (int i = 0; i < changes; i++) {
+            if (i % 4 == 3) {
+                journal.append(InventoryJournal.REMOVE, (i - 1) % users, BenchmarkData.item(i - 1));
+            } else {
+                journal.append(InventoryJournal.ADD, i % users, BenchmarkData.item(i));
+            }
+        }
+    }
+
+    /**
+     * Open a store and answer one request, REPEATS times
+     * @param store the store
+     * @return the shortest time it took in milliseconds
+     * @throws IOException  if the store cannot be opened
+     */
+    static double timeToFirstRequest(Store store) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < REPEATS; i++) {
+            System.gc();
+            long start = System.nanoTime();
+            store.open().getInventory(0);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    private static void run(File directory, int items, boolean print) throws IOException {
+        UserFactory userFactory = new UserFactory();
+        int users = Math.max(1, items / BenchmarkData.ITEMS_PER_USER);
+
+        File csv = new File(directory, items + ".csv");
+        File bin = new File(directory, items + ".bin");
+        File journalCsv = new File(directory, items + "-journal.csv");
+        File journalBin = new File(directory, items + "-journal.bin");
+        BenchmarkData.writeStore(csv, new CsvUserFileFormat(), items, userFactory);
+        BenchmarkData.writeStore(bin, new BinaryUserFileFormat(), items, userFactory);
+        Files.copy(csv.toPath(), journalCsv.toPath());
+        Files.copy(bin.toPath(), journalBin.toPath());
+        writeTail(journalCsv, TAIL_CHANGES, users);
+        writeTail(journalBin, TAIL_CHANGES, users);
+
+        double csvMillis = timeToFirstRequest(() -> new FileUserDataAccessObject(csv.getPath(), userFactory));
+        double binMillis = timeToFirstRequest(() -> new FileUserDataAccessObject(bin.getPath(), userFactory));
+        double journalMillis = timeToFirstRequest(() ->
+                new JournalUserDataAccessObject(journalCsv.getPath(), userFactory));
+        double fastMillis = timeToFirstRequest(() ->
+                new JournalUserDataAccessObject(journalBin.getPath(), userFactory));
+
+        if (print) {
+            System.out.printf("%10d %12.1f %12.1f %16.1f %16.1f%n", items, csvMillis, binMillis, journalMillis,
+                    fastMillis);
+        }
+    }
+
+    /**
+     * Run the benchmark in a temporary directory
+     * @param args  sizes of the stores in items, 10000 100000 1000000 if there are none
+     * @throws IOException  if the stores cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = BenchmarkData.parseCounts(args, DEFAULT_SIZES);
+
+        File directory = Files.createTempDirectory("restart-benchmark").toFile();
+        try {
+            // load every kind of store once, so class loading is not counted in the first size
+            run(directory, 1000, false);
+            System.out.printf("time to first request in ms, best of %d, journals hold %d changes%n", REPEATS,
+                    TAIL_CHANGES);
+            System.out.printf("%10s %12s %12s %16s %16s%n", "items", "csv", "binary", "csv + journal",
+                    "binary + journal");
+            for (int size : sizes) {
+                run(directory, size, true);
+            }
+        } finally {
+            BenchmarkData.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedUserDataAccessObjectTest {
+
+    UserFactory userFactory = new UserFactory();
+
+    @TempDir
+    Path tempDir;
+
+    private ShardedUserDataAccessObject create(int shardCount, AtomicInteger writes) throws IOException {
+        return new ShardedUserDataAccessObject(tempDir.toString(), userFactory, shardCount, () -> new CsvUserFileFormat() {
+            @Override
+            public void write(Map<Integer, User> users, OutputStream out) throws IOException {
+                writes.incrementAndGet();
+                super.write(users, out);
+            }
+        }, SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    @Test
+    void testReload() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(4, new AtomicInteger());
+        for (int userId = 0; userId < 20; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+            dataAccessObject.addItem(userId, new FoodItem("item" + userId, 2023, 10, 10, userId));
+        }
+
+        ShardedUserDataAccessObject reloaded = create(4, new AtomicInteger());
+        assertEquals(20, reloaded.getAllUsers().size());
+        for (int userId = 0; userId < 20; userId++) {
+            assertEquals("item" + userId, reloaded.getInventory(userId).get(0).getName());
+        }
+    }
+
+    @Test
+    void testOnlyDirtyShardIsWritten() throws IOException {
+        AtomicInteger writes = new AtomicInteger();
+        ShardedUserDataAccessObject dataAccessObject = create(8, writes);
+        for (int userId = 0; userId < 8; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        writes.set(0);
+        dataAccessObject.addItem(3, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void testUsersAreSpreadOverShards() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        int[] counts = new int[8];
+        for (int userId = 0; userId < 800; userId++) {
+            counts[dataAccessObject.shardOf(userId)]++;
+        }
+        for (int count : counts) {
+            assertEquals(100, count);
+        }
+    }
+
+    @Test
+    void testChangeShardCount() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(2, new AtomicInteger());
+        for (int userId = 0; userId < 10; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        ShardedUserDataAccessObject resharded = create(5, new AtomicInteger());
+        assertEquals(10, resharded.getAllUsers().size());
+
+        // the old shards no longer hold users that moved
+        for (int shard = 0; shard < 5; shard++) {
+            File file = new File(tempDir.toFile(), "shard-" + shard);
+            for (int userId : new CsvUserFileFormat().read(file, userFactory).keySet()) {
+                assertEquals(shard, resharded.shardOf(userId));
+            }
+        }
+    }
+
+    @Test
+    void testImportFile() throws IOException {
+        File csv = tempDir.resolve("users.csv").toFile();
+        FileUserDataAccessObject single = new FileUserDataAccessObject(csv.getPath(), userFactory);
+        for (int userId = 0; userId < 20; userId++) {
+            single.save(userId, userFactory.create(new HashMap<>()));
+            single.addItem(userId, new FoodItem("item" + userId, 2023, 10, 10, userId));
+        }
+
+        String directory = tempDir.resolve("users").toString();
+        ShardedUserDataAccessObject.importFile(csv, directory);
+        AtomicInteger writes = new AtomicInteger();
+        ShardedUserDataAccessObject dataAccessObject = new ShardedUserDataAccessObject(directory, userFactory, 4,
+                () -> new CsvUserFileFormat() {
+                    @Override
+                    public void write(Map<Integer, User> users, OutputStream out) throws IOException {
+                        writes.incrementAndGet();
+                        super.write(users, out);
+                    }
+                }, SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+        assertEquals(4, writes.get());
+        for (int userId = 0; userId < 20; userId++) {
+            assertEquals("item" + userId, dataAccessObject.getInventory(userId).get(0).getName());
+        }
+        assertEquals(20, new ShardedUserDataAccessObject(directory, userFactory, 4, CsvUserFileFormat::new,
+                SnapshotWriter.SyncPolicy.EVERY_WRITE, 0).getAllUsers().size());
+        assertThrows(IOException.class, () -> ShardedUserDataAccessObject.importFile(csv, directory));
+    }
+
+    @Test
+    void testWriteBehind() throws IOException {
+        AtomicInteger writes = new AtomicInteger();
+        ShardedUserDataAccessObject dataAccessObject = create(4, writes);
+        dataAccessObject.save(1, userFactory.create(new HashMap<>()));
+        dataAccessObject.enableWriteBehind(60000);
+
+        writes.set(0);
+        dataAccessObject.addItem(1, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        dataAccessObject.addItem(1, new FoodItem("pear", 2023, 10, 10, 1.0f));
+        assertEquals(0, writes.get());
+
+        dataAccessObject.flush();
+        assertEquals(1, writes.get());
+        assertEquals(2, create(4, new AtomicInteger()).getInventory(1).size());
+        dataAccessObject.close();
+    }
+
+    private ShardedUserDataAccessObject createLazy(int maxLoadedShards) throws IOException {
+        return new ShardedUserDataAccessObject(tempDir.toString(), userFactory, 8, maxLoadedShards,
+                CsvUserFileFormat::new, SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    private int userInShard(ShardedUserDataAccessObject dataAccessObject, int shard) {
+        int userId = 0;
+        while (dataAccessObject.shardOf(userId) != shard) {
+            userId++;
+        }
+        return userId;
+    }
+
+    @Test
+    void testLazyLoading() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        for (int userId = 0; userId < 40; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        ShardedUserDataAccessObject lazy = createLazy(2);
+        for (int shard = 0; shard < 8; shard++) {
+            assertFalse(lazy.isLoaded(shard));
+        }
+
+        assertTrue(lazy.existsByUserId(userInShard(lazy, 3)));
+        assertTrue(lazy.isLoaded(3));
+        lazy.get(userInShard(lazy, 5));
+        lazy.get(userInShard(lazy, 3));
+        lazy.get(userInShard(lazy, 6));
+        assertTrue(lazy.isLoaded(3));
+        assertFalse(lazy.isLoaded(5));
+        assertTrue(lazy.isLoaded(6));
+
+        assertEquals(40, lazy.getAllUsers().size());
+    }
+
+    @Test
+    void testForEachItemWithLazyLoading() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        for (int userId = 0; userId < 40; userId++) {
+            User user = userFactory.create(new HashMap<>());
+            user.addItem(new FoodItem("apple", 2023, 10, 10, userId));
+            user.addItem(new FoodItem("pear", 2023, 10, 11, userId));
+            dataAccessObject.save(userId, user);
+        }
+
+        ShardedUserDataAccessObject lazy = createLazy(2);
+        Map<Integer, Integer> items = new HashMap<>();
+        lazy.forEachItem((userId, item) -> {
+            assertEquals((float) userId, item.getAmount());
+            items.merge(userId, 1, Integer::sum);
+        });
+        assertEquals(40, items.size());
+        assertTrue(items.values().stream().allMatch(count -> count == 2));
+    }
+
+    @Test
+    void testLazyEvictionWritesDirtyShard() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        for (int userId = 0; userId < 40; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        ShardedUserDataAccessObject lazy = createLazy(1);
+        lazy.enableWriteBehind(60000);
+        int first = userInShard(lazy, 0);
+        lazy.addItem(first, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        lazy.get(userInShard(lazy, 1));
+        assertFalse(lazy.isLoaded(0));
+
+        assertEquals("apple", createLazy(8).getInventory(first).get(0).getName());
+        assertEquals("apple", lazy.getInventory(first).get(0).getName());
+        lazy.close();
+    }
+
+    @Test
+    void testShardIsNotEvictedDuringChange() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        for (int userId = 0; userId < 40; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        // another thread reads a user of another shard after the change is made, before it is written
+        ShardedUserDataAccessObject lazy = new ShardedUserDataAccessObject(tempDir.toString(), userFactory, 8, 1,
+                CsvUserFileFormat::new, SnapshotWriter.SyncPolicy.EVERY_WRITE, 0) {
+            @Override
+            protected void persist(int userId) {
+                get(userInShard(this, 1));
+                super.persist(userId);
+            }
+        };
+        int first = userInShard(lazy, 0);
+        lazy.addItem(first, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        assertFalse(lazy.isLoaded(0));
+
+        assertEquals("apple", createLazy(8).getInventory(first).get(0).getName());
+        assertEquals("apple", lazy.getInventory(first).get(0).getName());
+    }
+
+    @Test
+    void testWriteDoesNotBlockOtherShards() throws Exception {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        for (int userId = 0; userId < 40; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        // writes of the first shard wait until they are released
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger formats = new AtomicInteger();
+        ShardedUserDataAccessObject lazy = new ShardedUserDataAccessObject(tempDir.toString(), userFactory, 8, 7,
+                () -> {
+                    boolean blocks = formats.getAndIncrement() == 0;
+                    return new CsvUserFileFormat() {
+                        @Override
+                        public void write(Map<Integer, User> users, OutputStream out) throws IOException {
+                            if (blocks) {
+                                writing.countDown();
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    throw new IOException(e);
+                                }
+                            }
+                            super.write(users, out);
+                        }
+                    };
+                }, SnapshotWriter.SyncPolicy.EVERY_WRITE, 0);
+        int first = userInShard(lazy, 0);
+        Thread writer = new Thread(() -> lazy.addItem(first, new FoodItem("apple", 2023, 10, 10, 1.0f)));
+        writer.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<Integer> other = executor.submit(() -> {
+                lazy.addItem(userInShard(lazy, 1), new FoodItem("banana", 2023, 10, 10, 1.0f));
+                return lazy.getInventory(userInShard(lazy, 2)).size();
+            });
+            assertEquals(0, other.get(5, TimeUnit.SECONDS));
+            assertTrue(lazy.isLoaded(2));
+        } finally {
+            release.countDown();
+            writer.join();
+            executor.shutdown();
+        }
+        assertEquals("apple", createLazy(8).getInventory(first).get(0).getName());
+        assertEquals("banana", createLazy(8).getInventory(userInShard(lazy, 1)).get(0).getName());
+    }
+
+    @Test
+    void testLazySaveKeepsOtherUsersInShard() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = create(8, new AtomicInteger());
+        for (int userId = 0; userId < 40; userId++) {
+            dataAccessObject.save(userId, userFactory.create(new HashMap<>()));
+        }
+
+        ShardedUserDataAccessObject lazy = createLazy(1);
+        int newUser = 1000;
+        lazy.save(newUser, userFactory.create(new HashMap<>()));
+
+        ShardedUserDataAccessObject reloaded = createLazy(8);
+        assertEquals(41, reloaded.getAllUsers().size());
+        assertTrue(reloaded.existsByUserId(newUser));
+    }
+
+    @Test
+    void testShardsShareSyncThread() throws IOException {
+        ShardedUserDataAccessObject dataAccessObject = new ShardedUserDataAccessObject(tempDir.toString(),
+                userFactory, 16, CsvUserFileFormat::new, SnapshotWriter.SyncPolicy.INTERVAL, 10);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+
+        long syncThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("snapshot-sync")).count();
+        assertEquals(1, syncThreads);
+        dataAccessObject.close();
+        assertEquals(1, new ShardedUserDataAccessObject(tempDir.toString(), userFactory).getAllUsers().size());
+    }
+
+}
@@ -0,0 +1,105 @@
+package data_access;
+
+import entities.UserFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures how many changes per second SharedFileUserDataAccessObject makes when several processes change the
+ * same user file at once. Every process is a separate jvm started with ProcessBuilder that adds items to random
+ * users, and they all start changing at the same time once every one of them has loaded the file.
+ *
+ * Every change rewrites the whole file under the file lock, so the changes of all processes together are
+ * limited by one rewrite at a time, and more processes only add retries.
+ */
+public class SharedFileBenchmark {
+    public static final int[] DEFAULT_PROCESSES = {1, 2, 4, 8};
+
+    public static final int ITEMS = 10_000;
+
+    public static final int CHANGES_PER_PROCESS = 200;
+
+    /**
+     * Process that opens the file, prints "ready", waits for a line on stdin and then makes its changes, printing
+     * the number of retries when it is done
+     */
+    static class Worker {
+        public static void main(String[] args) throws IOException {
+            SharedFileUserDataAccessObject dataAccessObject = new SharedFileUserDataAccessObject(args[0],
+                    new UserFactory());
+            int users = ITEMS / BenchmarkData.ITEMS_PER_USER;
+            System.out.println("ready");
+            new BufferedReader(new InputStreamReader(System.in)).readLine();
+            for (int i = 0; i < CHANGES_PER_PROCESS; i++) {
+                dataAccessObject.addItem(ThreadLocalRandom.current().nextInt(users), BenchmarkData.item(i));
+            }
+            System.out.println(dataAccessObject.getRetries());
+        }
+    }
+
+    private static void run(File directory, int processes) throws IOException, InterruptedException {
+        File file = new File(directory, "users.csv");
+        BenchmarkData.writeStore(file, new CsvUserFileFormat(), ITEMS, new UserFactory());
+
+        List<Process> started = new ArrayList<>();
+        List<BufferedReader> outputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < processes; i++) {
+                Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java")
+                        .toString(), "-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                        file.getPath())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                started.add(process);
+                BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                output.readLine();
+                outputs.add(output);
+            }
+
+            long start = System.nanoTime();
+            for (Process process : started) {
+                PrintWriter input = new PrintWriter(process.getOutputStream(), true);
+                input.println("go");
+            }
+            int retries = 0;
+            for (BufferedReader output : outputs) {
+                retries += Integer.parseInt(output.readLine());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int changes = processes * CHANGES_PER_PROCESS;
+            System.out.printf("%10d %10d %12.0f %10d%n", processes, changes, changes / seconds, retries);
+        } finally {
+            for (Process process : started) {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+    }
+
+    /**
+     * Run the benchmark in a temporary directory
+     * @param args  numbers of processes, 1 2 4 8 if there are none
+     * @throws IOException  if the files cannot be written or a process cannot be started
+     * @throws InterruptedException if interrupted while waiting for a process
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] processCounts = BenchmarkData.parseCounts(args, DEFAULT_PROCESSES);
+
+        File directory = Files.createTempDirectory("shared-file-benchmark").toFile();
+        try {
+            System.out.printf("%d items in %d users, %d additions per process%n", ITEMS,
+                    ITEMS / BenchmarkData.ITEMS_PER_USER, CHANGES_PER_PROCESS);
+            System.out.printf("%10s %10s %12s %10s%n", "processes", "changes", "changes/s", "retries");
+            for (int processes : processCounts) {
+                run(directory, processes);
+            }
+        } finally {
+            BenchmarkData.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package data_access;
+
+import entities.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each data access object stands in for a separate process sharing the same file.
+ */
+class SharedFileUserDataAccessObjectTest {
+
+    @TempDir
+    Path tempDir;
+
+    String path;
+    UserFactory userFactory = new UserFactory();
+
+    @BeforeEach
+    void init() throws IOException {
+        path = tempDir.resolve("users.csv").toString();
+        SharedFileUserDataAccessObject dataAccessObject = new SharedFileUserDataAccessObject(path, userFactory);
+        dataAccessObject.save(0, userFactory.create(new HashMap<>()));
+        dataAccessObject.save(1, userFactory.create(new HashMap<>()));
+    }
+
+    @Test
+    void testChangesToDifferentUsersAreMerged() throws IOException {
+        SharedFileUserDataAccessObject first = new SharedFileUserDataAccessObject(path, userFactory);
+        SharedFileUserDataAccessObject second = new SharedFileUserDataAccessObject(path, userFactory);
+
+        first.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        second.addItem(1, new FoodItem("pear", 2023, 10, 10, 1.0f));
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(path, userFactory);
+        assertEquals(1, reloaded.getInventory(0).size());
+        assertEquals(1, reloaded.getInventory(1).size());
+    }
+
+    @Test
+    void testRemovingUnknownItemDoesNotAddItsName() throws IOException {
+        SharedFileUserDataAccessObject dataAccessObject = new SharedFileUserDataAccessObject(path, userFactory);
+        dataAccessObject.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        FoodItem ingredient = new FoodItem("apple", 2023, 10, 10, 1.0f)
+                .withName("SharedFileUserDataAccessObjectTest:green apple");
+
+        int size = IngredientDictionary.size();
+        assertFalse(dataAccessObject.removeSpecificItem(0, ingredient));
+        assertEquals(size, IngredientDictionary.size());
+        assertEquals(1, dataAccessObject.getInventory(0).size());
+    }
+
+    @Test
+    void testConflictingChangeIsAppliedAgain() throws IOException {
+        SharedFileUserDataAccessObject first = new SharedFileUserDataAccessObject(path, userFactory);
+        SharedFileUserDataAccessObject second = new SharedFileUserDataAccessObject(path, userFactory);
+        InventorySnapshot before = second.getSnapshot(0);
+
+        first.addItem(0, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        first.addItem(0, new FoodItem("milk", 2023, 10, 5, 1.0f));
+        second.removeItem(0);
+
+        // a snapshot handed out before does not change
+        assertTrue(before.isEmpty());
+        InventorySnapshot after = second.getSnapshot(0);
+        assertEquals(1, after.size());
+        assertEquals("apple", after.peek().getName());
+        first.refresh();
+        assertEquals(1, first.getInventory(0).size());
+        assertEquals("apple", first.getInventory(0).get(0).getName());
+    }
+
+    @Test
+    void testRemoveItemChangedByOtherProcess() throws IOException {
+        SharedFileUserDataAccessObject first = new SharedFileUserDataAccessObject(path, userFactory);
+        SharedFileUserDataAccessObject second = new SharedFileUserDataAccessObject(path, userFactory);
+        FoodItem apple = new FoodItem("apple", 2023, 10, 10, 1.0f);
+        first.addItem(0, apple);
+        second.refresh();
+        FoodItem seen = second.getQueue(0).peek();
+
+        first.addItem(0, new FoodItem("milk", 2023, 10, 5, 1.0f));
+        assertTrue(second.removeSpecificItem(0, seen));
+
+        first.refresh();
+        assertEquals(1, first.getInventory(0).size());
+        assertEquals("milk", first.getInventory(0).get(0).getName());
+    }
+
+    @Test
+    void testSaveReplacesUser() throws IOException {
+        SharedFileUserDataAccessObject first = new SharedFileUserDataAccessObject(path, userFactory);
+        SharedFileUserDataAccessObject second = new SharedFileUserDataAccessObject(path, userFactory);
+
+        first.addItem(1, new FoodItem("apple", 2023, 10, 10, 1.0f));
+        User user = userFactory.create(new HashMap<>());
+        user.addRestriction("maxCarbs", 50F);
+        second.save(1, user);
+
+        first.refresh();
+        assertEquals(50F, first.retrievePreferences(1).getRestriction("maxCarbs"));
+        assertTrue(first.getInventory(1).isEmpty());
+    }
+
+    @Test
+    void testConcurrentWriters() throws Exception {
+        int writers = 4;
+        int changes = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            SharedFileUserDataAccessObject dataAccessObject = new SharedFileUserDataAccessObject(path, userFactory);
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < changes; i++) {
+                    dataAccessObject.addItem(i % 2, new FoodItem("apple", 2023, 10, 10, 1.0f));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        FileUserDataAccessObject reloaded = new FileUserDataAccessObject(path, userFactory);
+        assertEquals(writers * changes, reloaded.getInventory(0).size() + reloaded.getInventory(1).size());
+    }
+
+}
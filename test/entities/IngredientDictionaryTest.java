@@ -0,0 +1,81 @@
+package entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientDictionaryTest {
+
+    @Test
+    void testSameNameSameId() {
+        int id = IngredientDictionary.id("IngredientDictionaryTest:milk");
+        assertEquals(id, IngredientDictionary.id(new String("IngredientDictionaryTest:milk")));
+        assertNotEquals(id, IngredientDictionary.id("IngredientDictionaryTest:eggs"));
+        assertEquals("IngredientDictionaryTest:milk", IngredientDictionary.name(id));
+    }
+
+    @Test
+    void testFindDoesNotAdd() {
+        int size = IngredientDictionary.size();
+        assertEquals(IngredientDictionary.UNKNOWN, IngredientDictionary.find("IngredientDictionaryTest:unknown"));
+        assertEquals(size, IngredientDictionary.size());
+    }
+
+    @Test
+    void testFoodItemsShareIds() {
+        FoodItem first = new FoodItem("IngredientDictionaryTest:spinach", 2024, 1, 1, 1.0f);
+        FoodItem second = new FoodItem("IngredientDictionaryTest:spinach", 2.0f);
+        assertEquals(first.getNameId(), second.getNameId());
+        second.setName("IngredientDictionaryTest:kale");
+        assertNotEquals(first.getNameId(), second.getNameId());
+        assertEquals("IngredientDictionaryTest:kale", second.getName());
+    }
+
+    @Test
+    void testOnlyInventoryNamesAreAdded() {
+        int size = IngredientDictionary.size();
+        FoodItem ingredient = new FoodItem("IngredientDictionaryTest:saffron", 1.0f);
+        FoodItem standardized = new FoodItem("IngredientDictionaryTest:onion", 2024, 1, 1, 1.0f)
+                .withName("IngredientDictionaryTest:red onion");
+        assertEquals(size + 1, IngredientDictionary.size());
+        assertEquals("IngredientDictionaryTest:saffron", ingredient.getName());
+        assertEquals("IngredientDictionaryTest:red onion", standardized.getName());
+
+        assertTrue(ingredient.sameName(new FoodItem("IngredientDictionaryTest:saffron", 2.0f)));
+        assertFalse(ingredient.sameName(standardized));
+        assertTrue(new FoodItem("IngredientDictionaryTest:onion", 1.0f).sameName(
+                new FoodItem("IngredientDictionaryTest:onion", 2024, 1, 1, 1.0f)));
+        assertEquals(size + 1, IngredientDictionary.size());
+
+        // an item that is stored after all gets an id
+        assertNotEquals(IngredientDictionary.UNKNOWN, ingredient.getNameId());
+        assertEquals("IngredientDictionaryTest:saffron", ingredient.getName());
+    }
+
+    @Test
+    void testConcurrentAdds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(executor.submit(() -> {
+                int[] ids = new int[500];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = IngredientDictionary.id("IngredientDictionaryTest:" + i);
+                }
+                return ids;
+            }));
+        }
+        int[] expected = results.get(0).get();
+        for (Future<int[]> result : results) {
+            assertArrayEquals(expected, result.get());
+        }
+        executor.shutdown();
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("IngredientDictionaryTest:" + i, IngredientDictionary.name(expected[i]));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package entities;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class InventorySnapshotTest {
+    @Test
+    void testItemsAreSortedByExpiration() {
+        UserInventory userInventory = new UserInventory();
+        FoodItem milk = new FoodItem("milk", 2024, 3, 1, 1.0f);
+        FoodItem apple = new FoodItem("apple", 2024, 1, 1, 1.0f);
+        FoodItem bread = new FoodItem("bread", 2024, 2, 1, 1.0f);
+        userInventory.addItem(milk);
+        userInventory.addItems(Arrays.asList(apple, bread));
+
+        InventorySnapshot snapshot = userInventory.getSnapshot();
+        assertEquals(Arrays.asList(apple, bread, milk), snapshot.toList());
+        assertEquals(apple, snapshot.peek());
+    }
+
+    @Test
+    void testSameDateKeepsInsertionOrder() {
+        UserInventory userInventory = new UserInventory();
+        FoodItem item1 = new FoodItem("apple", 2024, 1, 1, 1.0f);
+        FoodItem item2 = new FoodItem("banana", 2024, 1, 1, 1.0f);
+        FoodItem item3 = new FoodItem("cherry", 2024, 1, 1, 1.0f);
+        userInventory.addItem(item1);
+        userInventory.addItem(item2);
+        userInventory.addItem(item3);
+
+        assertEquals(Arrays.asList(item1, item2, item3), userInventory.getSnapshot().toList());
+        assertEquals(item1, userInventory.removeItem());
+        assertEquals(item2, userInventory.getSnapshot().peek());
+    }
+
+    @Test
+    void testOldSnapshotDoesNotChange() {
+        UserInventory userInventory = new UserInventory();
+        FoodItem apple = new FoodItem("apple", 2024, 1, 1, 1.0f);
+        userInventory.addItem(apple);
+        InventorySnapshot before = userInventory.getSnapshot();
+
+        userInventory.addItem(new FoodItem("milk", 2024, 3, 1, 1.0f));
+        assertTrue(userInventory.removeSpecificItem(apple));
+
+        assertEquals(1, before.size());
+        assertEquals(apple, before.peek());
+        assertEquals(before.getVersion() + 2, userInventory.getSnapshot().getVersion());
+        assertEquals("milk", userInventory.getSnapshot().peek().getName());
+    }
+
+    @Test
+    void testRemovingMissingItemKeepsVersion() {
+        UserInventory userInventory = new UserInventory();
+        userInventory.addItem(new FoodItem("apple", 2024, 1, 1, 1.0f));
+        InventorySnapshot before = userInventory.getSnapshot();
+
+        assertFalse(userInventory.removeSpecificItem(new FoodItem("apple", 2024, 1, 1, 1.0f)));
+        assertSame(before, userInventory.getSnapshot());
+    }
+
+    @Test
+    void testToListIsUnmodifiable() {
+        UserInventory userInventory = new UserInventory();
+        userInventory.addItem(new FoodItem("apple", 2024, 1, 1, 1.0f));
+        List<FoodItem> items = userInventory.getSnapshot().toList();
+        assertThrows(UnsupportedOperationException.class, () -> items.remove(0));
+    }
+
+    @Test
+    void testReadersSeeWholeVersions() throws InterruptedException {
+        UserInventory userInventory = new UserInventory();
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicBoolean torn = new AtomicBoolean(false);
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                InventorySnapshot snapshot = userInventory.getSnapshot();
+                // every change adds one item, so a whole version has as many items as changes
+                int count = 0;
+                for (FoodItem item : snapshot) {
+                    count++;
+                }
+                if (count != snapshot.getVersion()) {
+                    torn.set(true);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            userInventory.addItem(new FoodItem("apple", 2024, 1 + i % 12, 1 + i % 28, 1.0f));
+        }
+        done.set(true);
+        reader.join();
+
+        assertFalse(torn.get());
+        assertEquals(2000, userInventory.getSnapshot().size());
+    }
+}
@@ -0,0 +1,41 @@
+package interface_adapter.bulk_import;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.bulk_import.BulkImportOutputData;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImportPresenterTest {
+    private BulkImportViewModel bulkImportViewModel;
+    private BulkImportPresenter bulkImportPresenter;
+
+    @BeforeEach
+    void setUp() {
+        bulkImportViewModel = new BulkImportViewModel();
+        bulkImportPresenter = new BulkImportPresenter(bulkImportViewModel);
+    }
+
+    @Test
+    public void TestSuccessView() {
+        TreeMap<Integer, String> errors = new TreeMap<>();
+        errors.put(7, "Invalid Date!");
+        errors.put(3, "Ingredient is invalid!");
+        bulkImportPresenter.prepareSuccessView(new BulkImportOutputData(10, errors));
+        assertEquals(10, bulkImportViewModel.getState().getImportedCount());
+        assertEquals(Arrays.asList("Line 3: Ingredient is invalid!", "Line 7: Invalid Date!"),
+                bulkImportViewModel.getState().getLineErrors());
+        assertNull(bulkImportViewModel.getState().getFileError());
+    }
+
+    @Test
+    public void TestFailView() {
+        bulkImportPresenter.prepareFailView("Could not read file!");
+        assertEquals("Could not read file!", bulkImportViewModel.getState().getFileError());
+        assertEquals(0, bulkImportViewModel.getState().getImportedCount());
+        assertTrue(bulkImportViewModel.getState().getLineErrors().isEmpty());
+    }
+}
@@ -21,7 +21,7 @@ public class AddFoodItemInteractorInvalidAmountTest {
             return user.getInventory();
         }
         @Override
-        public void addItem(FoodItem foodItem) {
+        public void addItem(int userId, FoodItem foodItem) {
         }
     }
     private AddFoodItemDataAccessInterface addFoodItemDataAccessInterface;
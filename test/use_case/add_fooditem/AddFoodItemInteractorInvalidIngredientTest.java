@@ -22,7 +22,7 @@ public class AddFoodItemInteractorInvalidIngredientTest {
             return user.getInventory();
         }
         @Override
-        public void addItem(FoodItem foodItem) {
+        public void addItem(int userId, FoodItem foodItem) {
         }
     }
     private AddFoodItemDataAccessInterface addFoodItemDataAccessInterface;
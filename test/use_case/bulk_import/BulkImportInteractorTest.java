@@ -0,0 +1,126 @@
+package use_case.bulk_import;
+
+import entities.FoodItem;
+import entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImportInteractorTest {
+
+    /**
+     * This class is a simulation of the bulk import data access interface that records every call.
+     */
+    private static class TestDAO implements BulkImportDataAccessInterface {
+        final List<List<FoodItem>> calls = new ArrayList<>();
+
+        @Override
+        public void addItems(int userId, List<FoodItem> foodItems) {
+            calls.add(new ArrayList<>(foodItems));
+        }
+    }
+
+    private TestDAO dataAccessObject;
+    private BulkImportOutputData outputData;
+    private String failError;
+    private BulkImportOutputBoundary presenter;
+
+    @BeforeEach
+    public void setUp() {
+        dataAccessObject = new TestDAO();
+        outputData = null;
+        failError = null;
+        presenter = new BulkImportOutputBoundary() {
+            @Override
+            public void prepareSuccessView(BulkImportOutputData bulkImportOutputData) {
+                outputData = bulkImportOutputData;
+            }
+
+            @Override
+            public void prepareFailView(String error) {
+                failError = error;
+            }
+        };
+    }
+
+    @Test
+    public void execute_shouldImportValidLinesAndReportInvalidOnes_whenCsv() {
+        String csv = "ingredient,year,month,day,amount\n" +
+                "banana,2099,1,31,2.5\n" +
+                "banana1,2099,1,31,2.5\n" +
+                "\n" +
+                "milk,2099,2,30,1\n" +
+                "milk,2099,2,28,0\n" +
+                "eggs,2099,12\n" +
+                " eggs , 2099 , 12 , 1 , 12 \n";
+        new BulkImportInteractor(presenter, dataAccessObject).execute(
+                new BulkImportInputData(new StringReader(csv), BulkImportInputData.Format.CSV));
+
+        assertNull(failError);
+        assertEquals(2, outputData.getImportedCount());
+        assertEquals(1, dataAccessObject.calls.size());
+        assertEquals("banana", dataAccessObject.calls.get(0).get(0).getName());
+        assertEquals(12.0f, dataAccessObject.calls.get(0).get(1).getAmount());
+        assertEquals("Ingredient is invalid!", outputData.getErrors().get(3));
+        assertEquals("Invalid Date!", outputData.getErrors().get(5));
+        assertEquals("Amount is invalid!", outputData.getErrors().get(6));
+        assertEquals("Expected ingredient,year,month,day,amount!", outputData.getErrors().get(7));
+        assertEquals(4, outputData.getErrors().size());
+    }
+
+    @Test
+    public void execute_shouldImportJsonLines() {
+        String json = "{\"ingredient\": \"banana\", \"year\": 2099, \"month\": 1, \"day\": 31, \"amount\": 2.5}\n" +
+                "{\"ingredient\": \"banana\", \"year\": 2099, \"month\": 13, \"day\": 1, \"amount\": 2.5}\n" +
+                "{\"ingredient\": \"banana\"\n" +
+                "{\"ingredient\": \"banana\", \"year\": 2099, \"month\": 1, \"day\": 1}\n";
+        new BulkImportInteractor(presenter, dataAccessObject, User.DEFAULT_USER_ID).execute(
+                new BulkImportInputData(new StringReader(json), BulkImportInputData.Format.JSON));
+
+        assertEquals(1, outputData.getImportedCount());
+        assertEquals("Invalid Date!", outputData.getErrors().get(2));
+        assertEquals("Malformed json!", outputData.getErrors().get(3));
+        assertEquals("Amount is invalid!", outputData.getErrors().get(4));
+    }
+
+    @Test
+    public void execute_shouldKeepLineNumbersAndOrder_whenLinesSpanManyChunks() {
+        int lines = BulkImportInteractor.CHUNK_LINES * 5 + 7;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= lines; i++) {
+            csv.append(i % 100 == 0 ? "bad1" : "item").append(",2099,1,1,").append(i).append('\n');
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            new BulkImportInteractor(presenter, dataAccessObject, User.DEFAULT_USER_ID, executor, 3).execute(
+                    new BulkImportInputData(new StringReader(csv.toString()), BulkImportInputData.Format.CSV));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(lines - lines / 100, outputData.getImportedCount());
+        assertEquals(lines / 100, outputData.getErrors().size());
+        assertEquals(100, (int) outputData.getErrors().firstKey());
+        assertEquals(1, dataAccessObject.calls.size());
+        List<FoodItem> items = dataAccessObject.calls.get(0);
+        assertEquals(1.0f, items.get(0).getAmount());
+        assertEquals((float) lines, items.get(items.size() - 1).getAmount());
+    }
+
+    @Test
+    public void execute_shouldFailWithoutAddingAnything_whenFileCannotBeRead() {
+        new BulkImportInteractor(presenter, dataAccessObject).execute(
+                new BulkImportInputData("does/not/exist.csv"));
+
+        assertEquals("Could not read file!", failError);
+        assertNull(outputData);
+        assertTrue(dataAccessObject.calls.isEmpty());
+    }
+}
@@ -1,6 +1,7 @@
 package use_case.delete_fooditem;
 
 import entities.FoodItem;
+import entities.InventorySnapshot;
 import entities.UserFactory;
 import entities.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,17 +30,22 @@ public class DeleteFoodItemInteractorTest {
         }
 
         @Override
-        public boolean removeSpecificItem(FoodItem item) {
+        public boolean removeSpecificItem(int userId, FoodItem item) {
             return user.removeSpecificItem(item);
         }
 
         @Override
-        public PriorityQueue<FoodItem> getQueue() {
+        public PriorityQueue<FoodItem> getQueue(int userId) {
             return user.getQueue();
         }
 
         @Override
-        public void addItem(FoodItem item) {
+        public InventorySnapshot getSnapshot(int userId) {
+            return user.getSnapshot();
+        }
+
+        @Override
+        public void addItem(int userId, FoodItem item) {
             user.addItem(item);
         }
     }
@@ -53,8 +59,8 @@ public class DeleteFoodItemInteractorTest {
      * This method adds two food items to the test user's inventory for testing.
      */
     public void addTwoFoodItems() {
-        dataAccessInterface.addItem(new FoodItem("apple", 2024, 1, 1, 5));
-        dataAccessInterface.addItem(new FoodItem("pasta", 2024, 3, 1, 300));
+        dataAccessInterface.addItem(User.DEFAULT_USER_ID, new FoodItem("apple", 2024, 1, 1, 5));
+        dataAccessInterface.addItem(User.DEFAULT_USER_ID, new FoodItem("pasta", 2024, 3, 1, 300));
     }
 
     /**
@@ -93,8 +99,8 @@ public class DeleteFoodItemInteractorTest {
 
                 addTwoFoodItems();
                 DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("apple", "5");
-                PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
                 interactor.execute(inputData);
+                PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
                 assertEquals("pasta", queue.peek().getName());
             }
             @Override
@@ -105,8 +111,8 @@ public class DeleteFoodItemInteractorTest {
 
         addTwoFoodItems();
         DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("apple", "5");
-        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
         interactor.execute(inputData);
+        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
         assertEquals("pasta", queue.peek().getName());
     }
 
@@ -130,8 +136,8 @@ public class DeleteFoodItemInteractorTest {
 
         addTwoFoodItems();
         DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("apple", "1");
-        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
         interactor.execute(inputData);
+        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
         assertEquals("apple", queue.peek().getName());
         assertEquals(4.0f, queue.peek().getAmount());
     }
@@ -157,8 +163,8 @@ public class DeleteFoodItemInteractorTest {
 
         addTwoFoodItems();
         DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("apple", "abc");
-        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
         interactor.execute(inputData);
+        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
         assertEquals("apple", queue.peek().getName());
         assertEquals(5.0f, queue.peek().getAmount());
     }
@@ -184,8 +190,8 @@ public class DeleteFoodItemInteractorTest {
         addTwoFoodItems();
 
         DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("apple", "8");
-        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
         interactor.execute(inputData);
+        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
         assertEquals("apple", queue.peek().getName());
         assertEquals(5.0f, queue.peek().getAmount());
     }
@@ -211,8 +217,8 @@ public class DeleteFoodItemInteractorTest {
         addTwoFoodItems();
 
         DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("banana", "1");
-        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
         interactor.execute(inputData);
+        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
         assertEquals("apple", queue.peek().getName());
         assertEquals(5.0f, queue.peek().getAmount());
     }
@@ -237,8 +243,8 @@ public class DeleteFoodItemInteractorTest {
 
         addTwoFoodItems();
         DeleteFoodItemInputData inputData = new DeleteFoodItemInputData("apple", "-1");
-        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue();
         interactor.execute(inputData);
+        PriorityQueue<FoodItem> queue = dataAccessInterface.getQueue(User.DEFAULT_USER_ID);
         assertEquals("apple", queue.peek().getName());
         assertEquals(5.0f, queue.peek().getAmount());
 
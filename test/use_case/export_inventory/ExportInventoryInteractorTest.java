@@ -0,0 +1,117 @@
+package use_case.export_inventory;
+
+import entities.FoodItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import use_case.bulk_import.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportInventoryInteractorTest {
+
+    /**
+     * This class is a simulation of the export inventory data access interface with the items of two users.
+     */
+    private static class TestDAO implements ExportInventoryDataAccessInterface {
+        final Map<Integer, List<FoodItem>> items = new TreeMap<>();
+
+        @Override
+        public void forEachItem(ItemVisitor visitor) throws IOException {
+            for (Map.Entry<Integer, List<FoodItem>> user : items.entrySet()) {
+                for (FoodItem item : user.getValue()) {
+                    visitor.visit(user.getKey(), item);
+                }
+            }
+        }
+    }
+
+    private TestDAO dataAccessObject;
+    private ExportInventoryOutputData outputData;
+    private String failError;
+    private ExportInventoryOutputBoundary presenter;
+
+    @BeforeEach
+    public void setUp() {
+        dataAccessObject = new TestDAO();
+        dataAccessObject.items.put(0, Arrays.asList(new FoodItem("banana", 2099, 1, 31, 2.5f),
+                new FoodItem("milk", 2099, 2, 1, 1.0f)));
+        dataAccessObject.items.put(7, Collections.singletonList(new FoodItem("olive oil, extra", 2099, 12, 1, 3.0f)));
+        outputData = null;
+        failError = null;
+        presenter = new ExportInventoryOutputBoundary() {
+            @Override
+            public void prepareSuccessView(ExportInventoryOutputData exportInventoryOutputData) {
+                outputData = exportInventoryOutputData;
+            }
+
+            @Override
+            public void prepareFailView(String error) {
+                failError = error;
+            }
+        };
+    }
+
+    @Test
+    public void execute_shouldWriteCsv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExportInventoryInteractor(presenter, dataAccessObject).execute(
+                new ExportInventoryInputData(out, ExportInventoryInputData.Format.CSV));
+
+        assertEquals(3, outputData.getItemCount());
+        assertEquals(ExportInventoryInteractor.CSV_HEADER + "\n" +
+                "0,banana,2099,1,31,2.5\n" +
+                "0,milk,2099,2,1,1.0\n" +
+                "7,\"olive oil, extra\",2099,12,1,3.0\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void execute_shouldWriteJsonLinesTheBulkImportReads() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataAccessObject.items.remove(7);
+        new ExportInventoryInteractor(presenter, dataAccessObject).execute(
+                new ExportInventoryInputData(out, ExportInventoryInputData.Format.JSON));
+        assertEquals(2, outputData.getItemCount());
+
+        List<FoodItem> imported = new ArrayList<>();
+        BulkImportOutputBoundary importPresenter = new BulkImportOutputBoundary() {
+            @Override
+            public void prepareSuccessView(BulkImportOutputData bulkImportOutputData) {
+                assertTrue(bulkImportOutputData.getErrors().isEmpty());
+            }
+
+            @Override
+            public void prepareFailView(String error) {
+                fail(error);
+            }
+        };
+        new BulkImportInteractor(importPresenter, (userId, items) -> imported.addAll(items)).execute(
+                new BulkImportInputData(new StringReader(out.toString(StandardCharsets.UTF_8)),
+                        BulkImportInputData.Format.JSON));
+        assertEquals(2, imported.size());
+        assertEquals("banana", imported.get(0).getName());
+        assertEquals("2099/1/31", imported.get(0).getExpirationDate());
+        assertEquals(2.5f, imported.get(0).getAmount());
+    }
+
+    @Test
+    public void execute_shouldFail_whenStreamCannotBeWritten() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        new ExportInventoryInteractor(presenter, dataAccessObject).execute(
+                new ExportInventoryInputData(broken, ExportInventoryInputData.Format.JSON));
+
+        assertEquals("Could not write file!", failError);
+        assertNull(outputData);
+    }
+}
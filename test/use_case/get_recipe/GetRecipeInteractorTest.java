@@ -39,7 +39,7 @@ class GetRecipeInteractorTest {
          * @return the user's dietary preferences
          */
         @Override
-        public DietaryPreferences retrievePreferences() {
+        public DietaryPreferences retrievePreferences(int userId) {
             return user.getDietaryRestrictions();
         }
 
@@ -49,7 +49,7 @@ class GetRecipeInteractorTest {
          * @return
          */
         @Override
-        public List<Recipe> retrieveRecipes(DietaryPreferences preferences) {
+        public List<Recipe> retrieveRecipes(int userId, DietaryPreferences preferences) {
             InventoryChecker checker = new InventoryChecker();
             RecipeGetter getter = new RecipeGetter();
             RecipeParser parser = new RecipeParser();
@@ -24,13 +24,17 @@ public class GetShoppingListInteractorTest {
             this.inventory.add(foodItem);
         }
         @Override
-        public List<FoodItem> getInventory() {
+        public List<FoodItem> getInventory(int userId) {
             return inventory;
         }
 
         @Override
         public List<String> standardizeNames(List<String> names) {
-            return names;   // No need to standardize the names for testing
+            List<String> res = new ArrayList<>();
+            for (String name : names) {
+                res.add(name.toLowerCase());
+            }
+            return res;
         }
     }
 
@@ -99,6 +103,20 @@ public class GetShoppingListInteractorTest {
         assertEquals(expectedFoodItemData, getShoppingListPresenter.getFoodItemData());
     }
 
+    @Test
+    void testInventoryIsNotChanged() {
+        List<String> recipeIngredients = new ArrayList<>();
+        recipeIngredients.add("apple:2.0");
+        FoodItem apple = new FoodItem("Apple", 1.0f);
+        dataAccessInterface.addToInventory(apple);
+        getShoppingListInteractor.execute(new GetShoppingListInputData(recipeIngredients));
+        List<String> expectedFoodItemData = new ArrayList<>();
+        expectedFoodItemData.add("apple:1.0");
+        assertEquals(expectedFoodItemData, getShoppingListPresenter.getFoodItemData());
+        // the item is shared with the inventory, only a copy is standardized
+        assertEquals("Apple", apple.getName());
+    }
+
     @Test
     void testFailViewWithEmptyRecipeItems() {
         List<String> recipeIngredients = new ArrayList<>();
@@ -30,20 +30,22 @@ class MainMenuInteractorTest {
 
         /**
          * Saves the user.
+         * @param userId the id of the user
          * @param user the user
          */
         @Override
-        public void save(User user) {
+        public void save(int userId, User user) {
             userList.add(user);
         }
 
         /**
-         * Gets all the users.
-         * @return the list of users
+         * Checks whether a user was saved.
+         * @param userId the id of the user
+         * @return true if a user was saved
          */
         @Override
-        public List<User> getAllUsers() {
-            return userList;
+        public boolean existsByUserId(int userId) {
+            return !userList.isEmpty();
         }
     }
 
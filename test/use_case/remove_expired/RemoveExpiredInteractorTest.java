@@ -1,6 +1,7 @@
 package use_case.remove_expired;
 
 import entities.FoodItem;
+import entities.InventorySnapshot;
 import entities.User;
 import entities.UserFactory;
 import interface_adapter.remove_expired.RemoveExpiredViewModel;
@@ -31,12 +32,17 @@ public class RemoveExpiredInteractorTest {
         }
 
         @Override
-        public PriorityQueue<FoodItem> getQueue() {
+        public PriorityQueue<FoodItem> getQueue(int userId) {
             return user.getQueue();
         }
 
         @Override
-        public void removeItem() {
+        public InventorySnapshot getSnapshot(int userId) {
+            return user.getSnapshot();
+        }
+
+        @Override
+        public void removeItem(int userId) {
             user.removeItem();
         }
 
@@ -31,12 +31,12 @@ public class UpdateRestrictionsInteractorTest {
         }
 
         @Override
-        public DietaryPreferences retrievePreferences() {
+        public DietaryPreferences retrievePreferences(int userId) {
             return user.getDietaryRestrictions();
         }
 
         @Override
-        public void save(User user) {
+        public void save(int userId, User user) {
         }
     }
 
@@ -81,7 +81,7 @@ public class UpdateRestrictionsInteractorTest {
     @Test
     public void testExecuteValidRestriction() {
         UpdateRestrictionsInputData inputData = new UpdateRestrictionsInputData("MaxCalories", 750f);
-        DietaryPreferences dietaryPreferences = dataAccessInterface.retrievePreferences();
+        DietaryPreferences dietaryPreferences = dataAccessInterface.retrievePreferences(User.DEFAULT_USER_ID);
         interactor.execute(inputData);
         assertEquals(750f, dietaryPreferences.getRestriction("MaxCalories"));
 
@@ -95,7 +95,7 @@ public class UpdateRestrictionsInteractorTest {
     public void testExecuteInvalidRestriction() {
         UpdateRestrictionsInputData inputData = new UpdateRestrictionsInputData("123", 1.0f);
 
-        DietaryPreferences dietaryPreferences = dataAccessInterface.retrievePreferences();
+        DietaryPreferences dietaryPreferences = dataAccessInterface.retrievePreferences(User.DEFAULT_USER_ID);
         interactor.execute(inputData);
         assertNull(dietaryPreferences.getRestriction("123"));
     }
@@ -108,7 +108,7 @@ public class UpdateRestrictionsInteractorTest {
     public void testExecuteAddDietType() {
         UpdateRestrictionsInputData inputData = new UpdateRestrictionsInputData("ketogenic", 1.0f);
 
-        DietaryPreferences dietaryPreferences = dataAccessInterface.retrievePreferences();
+        DietaryPreferences dietaryPreferences = dataAccessInterface.retrievePreferences(User.DEFAULT_USER_ID);
         interactor.execute(inputData);
         assertEquals(1.0f, dietaryPreferences.getRestriction("ketogenic"));
     }
@@ -69,7 +69,7 @@ class GetRecipeViewTest {
          * Returns the user's dietary preferences
          */
         @Override
-        public DietaryPreferences retrievePreferences() {
+        public DietaryPreferences retrievePreferences(int userId) {
             return user.getDietaryRestrictions();
         }
 
@@ -77,7 +77,7 @@ class GetRecipeViewTest {
          * Returns a list of recipes that meet the user's dietary preferences
          */
         @Override
-        public List<Recipe> retrieveRecipes(DietaryPreferences preferences) {
+        public List<Recipe> retrieveRecipes(int userId, DietaryPreferences preferences) {
             InventoryChecker checker = new InventoryChecker();
             RecipeGetter getter = new RecipeGetter();
             RecipeParser parser = new RecipeParser();
@@ -116,8 +116,8 @@ class GetRecipeViewTest {
              */
             @Override
             public void execute() {
-                DietaryPreferences dietaryPreferences = getRecipeDataAccessInterface.retrievePreferences();
-                List<Recipe> recipes = getRecipeDataAccessInterface.retrieveRecipes(dietaryPreferences);
+                DietaryPreferences dietaryPreferences = getRecipeDataAccessInterface.retrievePreferences(User.DEFAULT_USER_ID);
+                List<Recipe> recipes = getRecipeDataAccessInterface.retrieveRecipes(User.DEFAULT_USER_ID, dietaryPreferences);
 
                 if (recipes.isEmpty()) {
                     // when there is no existing recipe in the database that meets the user preferences